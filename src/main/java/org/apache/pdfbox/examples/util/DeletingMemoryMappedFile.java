@@ -0,0 +1,173 @@
+package org.apache.pdfbox.examples.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadView;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A RandomAccessRead backed by a memory-mapped FileChannel that deletes the file when closed. The
+ * file is mapped in fixed-size segments so files larger than 2 GB can be read; reads are served
+ * from the OS page cache instead of a heap buffer.
+ */
+@Slf4j
+public class DeletingMemoryMappedFile implements RandomAccessRead {
+
+    /** Default segment size, kept well below the 2 GB limit of a single MappedByteBuffer. */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30; // 1 GB
+
+    private final Path filePath;
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long length;
+    // Only the owning instance deletes the file, views share the mapped segments
+    private final boolean owner;
+
+    private long position;
+    private boolean closed;
+
+    public DeletingMemoryMappedFile(File file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public DeletingMemoryMappedFile(File file, int segmentSize) throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.filePath = file.toPath();
+        this.segmentSize = segmentSize;
+        this.owner = true;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            this.length = channel.size();
+            int segmentCount = (int) ((length + segmentSize - 1) / segmentSize);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long offset = (long) i * segmentSize;
+                long size = Math.min(segmentSize, length - offset);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            }
+        }
+        // The mapping stays valid after the channel is closed
+    }
+
+    private DeletingMemoryMappedFile(DeletingMemoryMappedFile parent) {
+        this.filePath = parent.filePath;
+        this.segments = parent.segments;
+        this.segmentSize = parent.segmentSize;
+        this.length = parent.length;
+        this.owner = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (position >= length) {
+            return -1;
+        }
+        int value =
+                segments[(int) (position / segmentSize)].get((int) (position % segmentSize)) & 0xff;
+        position++;
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int remaining = (int) Math.min(len, length - position);
+        int total = 0;
+        while (remaining > 0) {
+            MappedByteBuffer segment = segments[(int) (position / segmentSize)];
+            int segmentOffset = (int) (position % segmentSize);
+            int chunk = Math.min(remaining, segment.limit() - segmentOffset);
+            segment.get(segmentOffset, b, off + total, chunk);
+            position += chunk;
+            total += chunk;
+            remaining -= chunk;
+        }
+        return total;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long newPosition) throws IOException {
+        checkClosed();
+        if (newPosition < 0) {
+            throw new IOException("Invalid position " + newPosition);
+        }
+        position = Math.min(newPosition, length);
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return position >= length;
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength)
+            throws IOException {
+        checkClosed();
+        return new RandomAccessReadView(
+                new DeletingMemoryMappedFile(this), startPosition, streamLength, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!owner) {
+            return;
+        }
+        // The mappings themselves are released once this instance is garbage collected
+        try {
+            boolean deleted = Files.deleteIfExists(filePath);
+            if (deleted) {
+                log.info("Successfully deleted temp file: {}", filePath);
+            } else {
+                log.warn("Failed to delete temp file (may not exist): {}", filePath);
+            }
+        } catch (IOException e) {
+            // Some platforms refuse to delete a file that is still mapped
+            log.warn("Could not delete mapped temp file {}, deleting on exit", filePath, e);
+            filePath.toFile().deleteOnExit();
+        }
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("RandomAccessRead already closed");
+        }
+    }
+}
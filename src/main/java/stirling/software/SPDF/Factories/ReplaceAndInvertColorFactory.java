@@ -3,15 +3,25 @@ package stirling.software.SPDF.Factories;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import lombok.RequiredArgsConstructor;
+
 import stirling.software.SPDF.model.api.misc.HighContrastColorCombination;
 import stirling.software.SPDF.model.api.misc.ReplaceAndInvert;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.misc.CustomColorReplaceStrategy;
 import stirling.software.SPDF.utils.misc.InvertFullColorStrategy;
 import stirling.software.SPDF.utils.misc.ReplaceAndInvertColorStrategy;
 
 @Component
+@RequiredArgsConstructor
 public class ReplaceAndInvertColorFactory {
 
+    private final TempFileManager tempFileManager;
+    private final PageRenderService pageRenderService;
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+
     public ReplaceAndInvertColorStrategy replaceAndInvert(
             MultipartFile file,
             ReplaceAndInvert replaceAndInvertOption,
@@ -27,11 +37,18 @@ public class ReplaceAndInvertColorFactory {
                     replaceAndInvertOption,
                     textColor,
                     backGroundColor,
-                    highContrastColorCombination);
+                    highContrastColorCombination,
+                    tempFileManager,
+                    pdfDocumentFactory);
 
         } else if (replaceAndInvertOption == ReplaceAndInvert.FULL_INVERSION) {
 
-            return new InvertFullColorStrategy(file, replaceAndInvertOption);
+            return new InvertFullColorStrategy(
+                    file,
+                    replaceAndInvertOption,
+                    tempFileManager,
+                    pageRenderService,
+                    pdfDocumentFactory);
         }
 
         return null;
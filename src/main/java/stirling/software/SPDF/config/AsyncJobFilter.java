@@ -0,0 +1,98 @@
+package stirling.software.SPDF.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import stirling.software.SPDF.model.AsyncJob;
+import stirling.software.SPDF.service.AsyncJobService;
+
+/**
+ * Answers API POSTs flagged with the {@value #ASYNC_HEADER} header or the {@code async=true} query
+ * parameter with 202 Accepted and a job ID instead of processing them on the request thread. Runs
+ * after the security filters, so only authenticated requests are queued. Only document operations
+ * can be queued, flagged requests to other endpoints are refused with 400 Bad Request.
+ */
+@Component
+@RequiredArgsConstructor
+public class AsyncJobFilter extends OncePerRequestFilter {
+
+    public static final String ASYNC_HEADER = "X-Async-Job";
+
+    private static final String API_PREFIX = "/api/v1/";
+    private static final String JOBS_PREFIX = "/api/v1/jobs";
+
+    private final AsyncJobService asyncJobService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!asyncJobService.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(API_PREFIX)
+                || path.startsWith(JOBS_PREFIX)
+                || !isAsyncRequested(request);
+    }
+
+    private static boolean isAsyncRequested(HttpServletRequest request) {
+        if (Boolean.parseBoolean(request.getHeader(ASYNC_HEADER))) {
+            return true;
+        }
+        // Only the query string, request parameters would consume an url-encoded body
+        String query = request.getQueryString();
+        if (query == null) {
+            return false;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.equalsIgnoreCase(AsyncJobService.ASYNC_PARAMETER + "=true")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String endpoint = request.getRequestURI().substring(request.getContextPath().length());
+        try {
+            AsyncJob job =
+                    asyncJobService.submit(
+                            request, endpoint, asyncJobService.ownerOf(request.getUserPrincipal()));
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(
+                    HttpHeaders.LOCATION,
+                    request.getContextPath() + JOBS_PREFIX + "/" + job.getId());
+            writeJson(response, asyncJobService.describe(job));
+        } catch (ResponseStatusException e) {
+            // Refused endpoints and a full queue, the latter with Retry-After
+            response.setStatus(e.getStatusCode().value());
+            e.getHeaders()
+                    .forEach((name, values) -> values.forEach(v -> response.addHeader(name, v)));
+            writeJson(response, Map.of("error", e.getReason()));
+        }
+    }
+
+    private void writeJson(HttpServletResponse response, Object body) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,57 @@
+package stirling.software.SPDF.config;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import stirling.software.SPDF.service.BulkheadService;
+
+/** Holds a bulkhead slot for API requests from the handler call until the response is done */
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String PERMITS_ATTRIBUTE =
+            BulkheadInterceptor.class.getName() + ".permits";
+
+    private final BulkheadService bulkheadService;
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches still hold the slot taken by the original request
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String endpoint = EndpointInterceptor.getEndpointName(request.getRequestURI());
+        if (endpoint != null) {
+            List<BulkheadService.Bulkhead> permits = bulkheadService.acquire(endpoint);
+            if (!permits.isEmpty()) {
+                request.setAttribute(PERMITS_ATTRIBUTE, permits);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex) {
+        List<BulkheadService.Bulkhead> permits =
+                (List<BulkheadService.Bulkhead>) request.getAttribute(PERMITS_ATTRIBUTE);
+        if (permits != null) {
+            request.removeAttribute(PERMITS_ATTRIBUTE);
+            bulkheadService.release(permits);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package stirling.software.SPDF.config;
+
+import java.io.IOException;
+
+import org.eclipse.jetty.ee10.servlet.ServletContextRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.utils.CancellationToken;
+
+/**
+ * Binds a {@link CancellationToken} to every API request and cancels it when Jetty reports that the
+ * connection failed, so page loops stop and external tools are killed instead of finishing work
+ * nobody will receive.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CancellationFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/v1/";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI()
+                .substring(request.getContextPath().length())
+                .startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CancellationToken token = new CancellationToken();
+        ServletContextRequest jettyRequest =
+                ServletContextRequest.getServletContextRequest(request);
+        if (jettyRequest != null) {
+            jettyRequest.addFailureListener(
+                    failure -> {
+                        log.debug("Connection of {} failed: {}", request.getRequestURI(), failure);
+                        token.cancel();
+                    });
+        }
+        CancellationToken previous = CancellationToken.bind(token);
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CancellingAsyncListener(token));
+            }
+        } finally {
+            CancellationToken.restore(previous);
+            if (token.isCancelled()) {
+                recordCancellation(request.getRequestURI(), token);
+            }
+        }
+    }
+
+    private void recordCancellation(String requestURI, CancellationToken token) {
+        String endpoint = EndpointInterceptor.getEndpointName(requestURI);
+        String tag = endpoint != null ? endpoint : "unknown";
+        log.info(
+                "Request to {} cancelled by the client, skipped {} pages and killed {} processes",
+                tag,
+                token.getSkippedPages(),
+                token.getKilledProcesses());
+        Counter.builder("stirling.cancellation.requests")
+                .description("Requests whose client disconnected before the response was ready")
+                .tag("endpoint", tag)
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("stirling.cancellation.skipped.pages")
+                .description("Pages not processed because the client had disconnected")
+                .tag("endpoint", tag)
+                .register(meterRegistry)
+                .increment(token.getSkippedPages());
+        Counter.builder("stirling.cancellation.killed.processes")
+                .description("External processes killed because the client had disconnected")
+                .tag("endpoint", tag)
+                .register(meterRegistry)
+                .increment(token.getKilledProcesses());
+    }
+
+    /** Streaming responses fail with an async error when the client stops reading */
+    private record CancellingAsyncListener(CancellationToken token) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {}
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            token.cancel();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            token.cancel();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
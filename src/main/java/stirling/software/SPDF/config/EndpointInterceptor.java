@@ -21,21 +21,10 @@ public class EndpointInterceptor implements HandlerInterceptor {
             HttpServletRequest request, HttpServletResponse response, Object handler)
             throws Exception {
         String requestURI = request.getRequestURI();
+        String requestEndpoint = getEndpointName(requestURI);
         boolean isEnabled;
 
-        // Extract the specific endpoint name (e.g: /api/v1/general/remove-pages -> remove-pages)
-        if (requestURI.contains("/api/v1") && requestURI.split("/").length > 4) {
-
-            String[] requestURIParts = requestURI.split("/");
-            String requestEndpoint;
-
-            // Endpoint: /api/v1/convert/pdf/img becomes pdf-to-img
-            if ("convert".equals(requestURIParts[3]) && requestURIParts.length > 5) {
-                requestEndpoint = requestURIParts[4] + "-to-" + requestURIParts[5];
-            } else {
-                requestEndpoint = requestURIParts[4];
-            }
-
+        if (requestEndpoint != null) {
             log.debug("Request endpoint: {}", requestEndpoint);
             isEnabled = endpointConfiguration.isEndpointEnabled(requestEndpoint);
             log.debug("Is endpoint enabled: {}", isEnabled);
@@ -49,4 +38,20 @@ public class EndpointInterceptor implements HandlerInterceptor {
         }
         return true;
     }
+
+    /**
+     * Extract the specific endpoint name (e.g: /api/v1/general/remove-pages -> remove-pages), or
+     * null for requests outside of the API
+     */
+    public static String getEndpointName(String requestURI) {
+        if (!requestURI.contains("/api/v1") || requestURI.split("/").length <= 4) {
+            return null;
+        }
+        String[] requestURIParts = requestURI.split("/");
+        // Endpoint: /api/v1/convert/pdf/img becomes pdf-to-img
+        if ("convert".equals(requestURIParts[3]) && requestURIParts.length > 5) {
+            return requestURIParts[4] + "-to-" + requestURIParts[5];
+        }
+        return requestURIParts[4];
+    }
 }
@@ -15,7 +15,7 @@ public class MetricsConfig {
         return new MeterFilter() {
             @Override
             public MeterFilterReply accept(Meter.Id id) {
-                if (id.getName().equals("http.requests")) {
+                if (id.getName().equals("http.requests") || id.getName().startsWith("stirling.")) {
                     return MeterFilterReply.NEUTRAL;
                 }
                 return MeterFilterReply.DENY;
@@ -0,0 +1,62 @@
+package stirling.software.SPDF.config;
+
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.jetty.ConfigurableJettyWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.utils.ProcessExecutor;
+import stirling.software.SPDF.utils.VirtualThreadUtils;
+
+/**
+ * Opt-in virtual thread mode (system.virtualThreads). On Java 21+ Jetty handles requests on virtual
+ * threads and the ProcessExecutor output readers become virtual threads, so requests blocked on
+ * external tools, temp files or uploads no longer hold a platform thread. CPU-bound work is
+ * offloaded by CpuBoundExecutor. On Java 17 the setting is ignored with a warning.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadsConfig {
+
+    private final boolean enabled;
+
+    public VirtualThreadsConfig(ApplicationProperties applicationProperties) {
+        boolean requested = applicationProperties.getSystem().getVirtualThreads().isEnabled();
+        enabled = requested && VirtualThreadUtils.isSupported();
+        if (requested && !enabled) {
+            log.warn(
+                    "Virtual threads require Java 21, running on Java {} with platform threads",
+                    Runtime.version().feature());
+        }
+        if (enabled) {
+            ProcessExecutor.setReaderThreadFactory(
+                    VirtualThreadUtils.newThreadFactory("process-reader-"));
+            log.info("Handling requests on virtual threads");
+        }
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableJettyWebServerFactory>
+            virtualThreadsJettyCustomizer(ServerProperties serverProperties) {
+        return factory -> {
+            if (!enabled) {
+                return;
+            }
+            ServerProperties.Jetty.Threads threads = serverProperties.getJetty().getThreads();
+            QueuedThreadPool threadPool =
+                    new QueuedThreadPool(
+                            threads.getMax(),
+                            threads.getMin(),
+                            (int) threads.getIdleTimeout().toMillis());
+            threadPool.setVirtualThreadsExecutor(
+                    VirtualThreads.getNamedVirtualThreadsExecutor("jetty-"));
+            factory.setThreadPool(threadPool);
+        };
+    }
+}
@@ -12,10 +12,12 @@ import lombok.RequiredArgsConstructor;
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final EndpointInterceptor endpointInterceptor;
+    private final BulkheadInterceptor bulkheadInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(endpointInterceptor);
+        registry.addInterceptor(bulkheadInterceptor);
     }
 
     @Override
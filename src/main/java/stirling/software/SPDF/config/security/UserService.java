@@ -130,6 +130,13 @@ public class UserService implements UserServiceInterface {
         return user.getApiKey();
     }
 
+    @Override
+    public Optional<String> findApiKeyForUser(String username) {
+        return findByUsernameIgnoreCase(username)
+                .map(User::getApiKey)
+                .filter(apiKey -> !apiKey.isEmpty());
+    }
+
     public boolean isValidApiKey(String apiKey) {
         return userRepository.findByApiKey(apiKey).isPresent();
     }
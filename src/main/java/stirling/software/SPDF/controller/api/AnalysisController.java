@@ -5,9 +5,7 @@ import java.util.*;
 
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.apache.pdfbox.pdmodel.encryption.PDEncryption;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
@@ -18,8 +16,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import lombok.RequiredArgsConstructor;
 
+import stirling.software.SPDF.model.DocumentSummary;
+import stirling.software.SPDF.model.PdfMetadata;
+import stirling.software.SPDF.model.PdfProbe;
 import stirling.software.SPDF.model.api.PDFFile;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.ParsedDocumentCache;
 
 @RestController
 @RequestMapping("/api/v1/analysis")
@@ -28,15 +30,14 @@ import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 public class AnalysisController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final ParsedDocumentCache parsedDocumentCache;
 
     @PostMapping(value = "/page-count", consumes = "multipart/form-data")
     @Operation(
             summary = "Get PDF page count",
             description = "Returns total number of pages in PDF. Input:PDF Output:JSON Type:SISO")
     public Map<String, Integer> getPageCount(@ModelAttribute PDFFile file) throws IOException {
-        try (PDDocument document = pdfDocumentFactory.load(file.getFileInput())) {
-            return Map.of("pageCount", document.getNumberOfPages());
-        }
+        return Map.of("pageCount", pdfDocumentFactory.probe(file.getFileInput()).pageCount());
     }
 
     @PostMapping(value = "/basic-info", consumes = "multipart/form-data")
@@ -44,13 +45,12 @@ public class AnalysisController {
             summary = "Get basic PDF information",
             description = "Returns page count, version, file size. Input:PDF Output:JSON Type:SISO")
     public Map<String, Object> getBasicInfo(@ModelAttribute PDFFile file) throws IOException {
-        try (PDDocument document = pdfDocumentFactory.load(file.getFileInput())) {
-            Map<String, Object> info = new HashMap<>();
-            info.put("pageCount", document.getNumberOfPages());
-            info.put("pdfVersion", document.getVersion());
-            info.put("fileSize", file.getFileInput().getSize());
-            return info;
-        }
+        PdfProbe probe = pdfDocumentFactory.probe(file.getFileInput());
+        Map<String, Object> info = new HashMap<>();
+        info.put("pageCount", probe.pageCount());
+        info.put("pdfVersion", probe.pdfVersion());
+        info.put("fileSize", probe.fileSize());
+        return info;
     }
 
     @PostMapping(value = "/document-properties", consumes = "multipart/form-data")
@@ -59,19 +59,22 @@ public class AnalysisController {
             description = "Returns title, author, subject, etc. Input:PDF Output:JSON Type:SISO")
     public Map<String, String> getDocumentProperties(@ModelAttribute PDFFile file)
             throws IOException {
-        try (PDDocument document = pdfDocumentFactory.load(file.getFileInput())) {
-            PDDocumentInformation info = document.getDocumentInformation();
-            Map<String, String> properties = new HashMap<>();
-            properties.put("title", info.getTitle());
-            properties.put("author", info.getAuthor());
-            properties.put("subject", info.getSubject());
-            properties.put("keywords", info.getKeywords());
-            properties.put("creator", info.getCreator());
-            properties.put("producer", info.getProducer());
-            properties.put("creationDate", info.getCreationDate().toString());
-            properties.put("modificationDate", info.getModificationDate().toString());
-            return properties;
-        }
+        PdfMetadata info = parsedDocumentCache.getSummary(file.getFileInput()).getMetadata();
+        Map<String, String> properties = new HashMap<>();
+        properties.put("title", info.getTitle());
+        properties.put("author", info.getAuthor());
+        properties.put("subject", info.getSubject());
+        properties.put("keywords", info.getKeywords());
+        properties.put("creator", info.getCreator());
+        properties.put("producer", info.getProducer());
+        // Reported as uploaded, documents without dates in their Info dictionary have none
+        properties.put("creationDate", toString(info.getCreationDate()));
+        properties.put("modificationDate", toString(info.getModificationDate()));
+        return properties;
+    }
+
+    private static String toString(Calendar date) {
+        return date != null ? date.toString() : null;
     }
 
     @PostMapping(value = "/page-dimensions", consumes = "multipart/form-data")
@@ -80,18 +83,15 @@ public class AnalysisController {
             description = "Returns width and height of each page. Input:PDF Output:JSON Type:SISO")
     public List<Map<String, Float>> getPageDimensions(@ModelAttribute PDFFile file)
             throws IOException {
-        try (PDDocument document = pdfDocumentFactory.load(file.getFileInput())) {
-            List<Map<String, Float>> dimensions = new ArrayList<>();
-            PDPageTree pages = document.getPages();
-
-            for (PDPage page : pages) {
-                Map<String, Float> pageDim = new HashMap<>();
-                pageDim.put("width", page.getBBox().getWidth());
-                pageDim.put("height", page.getBBox().getHeight());
-                dimensions.add(pageDim);
-            }
-            return dimensions;
+        List<Map<String, Float>> dimensions = new ArrayList<>();
+        for (DocumentSummary.PageSummary page :
+                parsedDocumentCache.getSummary(file.getFileInput()).getPages()) {
+            Map<String, Float> pageDim = new HashMap<>();
+            pageDim.put("width", page.getBBoxWidth());
+            pageDim.put("height", page.getBBoxHeight());
+            dimensions.add(pageDim);
         }
+        return dimensions;
     }
 
     @PostMapping(value = "/form-fields", consumes = "multipart/form-data")
@@ -0,0 +1,75 @@
+package stirling.software.SPDF.controller.api;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+
+import stirling.software.SPDF.model.AsyncJob;
+import stirling.software.SPDF.service.AsyncJobService;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@Tag(name = "Jobs", description = "Asynchronous job APIs")
+@RequiredArgsConstructor
+public class AsyncJobController {
+
+    private final AsyncJobService asyncJobService;
+
+    @GetMapping("/{jobId}")
+    @Operation(
+            summary = "Get the status of a job",
+            description =
+                    "Any API POST sent with the 'X-Async-Job: true' header or '?async=true' is"
+                            + " answered with a job ID. Returns the status, queue position and"
+                            + " timings of that job.")
+    public Map<String, Object> getStatus(@PathVariable String jobId, Principal principal) {
+        return asyncJobService.describe(
+                asyncJobService.getJob(jobId, asyncJobService.ownerOf(principal)));
+    }
+
+    @GetMapping("/{jobId}/result")
+    @Operation(
+            summary = "Download the result of a job",
+            description = "Returns the response of a completed job with its original file name")
+    public ResponseEntity<Resource> getResult(@PathVariable String jobId, Principal principal) {
+        AsyncJob job = asyncJobService.getJob(jobId, asyncJobService.ownerOf(principal));
+        Path result = asyncJobService.getResult(job);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getResultContentType()))
+                .contentLength(job.getResultSize())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment()
+                                .filename(job.getResultFileName(), StandardCharsets.UTF_8)
+                                .build()
+                                .toString())
+                .body(new FileSystemResource(result));
+    }
+
+    @DeleteMapping("/{jobId}")
+    @Operation(
+            summary = "Cancel or remove a job",
+            description = "Cancels a queued job or removes a finished job and its result")
+    public ResponseEntity<Void> delete(@PathVariable String jobId, Principal principal) {
+        asyncJobService.delete(asyncJobService.getJob(jobId, asyncJobService.ownerOf(principal)));
+        return ResponseEntity.noContent().build();
+    }
+}
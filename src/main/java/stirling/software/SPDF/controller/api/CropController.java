@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.apache.pdfbox.multipdf.LayerUtility;
@@ -10,6 +9,7 @@ import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -39,7 +39,7 @@ public class CropController {
             description =
                     "This operation takes an input PDF file and crops it according to the given"
                             + " coordinates. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> cropPdf(@ModelAttribute CropPdfForm form) throws IOException {
+    public ResponseEntity<Resource> cropPdf(@ModelAttribute CropPdfForm form) throws IOException {
         PDDocument sourceDocument = pdfDocumentFactory.load(form);
 
         PDDocument newDocument =
@@ -79,15 +79,12 @@ public class CropController {
                     new PDRectangle(form.getX(), form.getY(), form.getWidth(), form.getHeight()));
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        newDocument.save(baos);
-        newDocument.close();
         sourceDocument.close();
 
-        byte[] pdfContent = baos.toByteArray();
-        return WebResponseUtils.bytesToWebResponse(
-                pdfContent,
+        return WebResponseUtils.pdfDocToWebResponse(
+                newDocument,
                 form.getFileInput().getOriginalFilename().replaceFirst("[.][^.]+$", "")
-                        + "_cropped.pdf");
+                        + "_cropped.pdf",
+                pdfDocumentFactory);
     }
 }
@@ -33,6 +33,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.general.MergePdfsRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.GeneralUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -44,6 +46,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class MergeController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
     // Merges a list of PDDocument objects into a single PDDocument
     public PDDocument mergeDocuments(List<PDDocument> documents) throws IOException {
@@ -138,12 +142,12 @@ public class MergeController {
                 totalSize += multipartFile.getSize();
                 File tempFile =
                         GeneralUtils.convertMultipartFileToFile(
-                                multipartFile); // Convert MultipartFile to File
+                                multipartFile, uploadSpool); // Convert MultipartFile to File
                 filesToDelete.add(tempFile); // Add temp file to the list for later deletion
                 mergerUtility.addSource(tempFile); // Add source file to the merger utility
             }
 
-            mergedTempFile = Files.createTempFile("merged-", ".pdf").toFile();
+            mergedTempFile = tempFileManager.createTempFile("merged-", ".pdf").toFile();
             mergerUtility.setDestinationFileName(mergedTempFile.getAbsolutePath());
 
             mergerUtility.mergeDocuments(
@@ -172,7 +176,7 @@ public class MergeController {
 
             // Save the modified document to a new ByteArrayOutputStream
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            mergedDocument.save(baos);
+            pdfDocumentFactory.save(mergedDocument, baos);
 
             String mergedFileName =
                     files[0].getOriginalFilename().replaceFirst("[.][^.]+$", "")
@@ -1,9 +1,9 @@
 package stirling.software.SPDF.controller.api;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -52,26 +52,20 @@ public class PdfImageRemovalController {
             description =
                     "This endpoint remove images from file to reduce the file size.Input:PDF"
                             + " Output:PDF Type:MISO")
-    public ResponseEntity<byte[]> removeImages(@ModelAttribute PDFFile file) throws IOException {
+    public ResponseEntity<Resource> removeImages(@ModelAttribute PDFFile file) throws IOException {
         // Load the PDF document
         PDDocument document = pdfDocumentFactory.load(file);
 
         // Remove images from the PDF document using the service
         PDDocument modifiedDocument = pdfImageRemovalService.removeImagesFromPdf(document);
 
-        // Create a ByteArrayOutputStream to hold the modified PDF data
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        // Save the modified PDF document to the output stream
-        modifiedDocument.save(outputStream);
-        modifiedDocument.close();
-
         // Generate a new filename for the modified PDF
         String mergedFileName =
                 file.getFileInput().getOriginalFilename().replaceFirst("[.][^.]+$", "")
                         + "_removed_images.pdf";
 
-        // Convert the byte array to a web response and return it
-        return WebResponseUtils.bytesToWebResponse(outputStream.toByteArray(), mergedFileName);
+        // Save the modified document straight into the response
+        return WebResponseUtils.pdfDocToWebResponse(
+                modifiedDocument, mergedFileName, pdfDocumentFactory);
     }
 }
@@ -3,6 +3,7 @@ package stirling.software.SPDF.controller.api;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,6 +29,8 @@ import lombok.RequiredArgsConstructor;
 
 import stirling.software.SPDF.model.api.general.OverlayPdfsRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.GeneralUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -38,6 +41,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class PdfOverlayController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
     @PostMapping(value = "/overlay-pdfs", consumes = "multipart/form-data")
     @Operation(
@@ -56,7 +61,7 @@ public class PdfOverlayController {
 
         try {
             for (int i = 0; i < overlayFiles.length; i++) {
-                overlayPdfFiles[i] = GeneralUtils.multipartToFile(overlayFiles[i]);
+                overlayPdfFiles[i] = GeneralUtils.multipartToFile(overlayFiles[i], uploadSpool);
             }
 
             String mode = request.getOverlayMode(); // "SequentialOverlay", "InterleavedOverlay",
@@ -81,7 +86,7 @@ public class PdfOverlayController {
                 }
 
                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                overlay.overlay(overlayGuide).save(outputStream);
+                pdfDocumentFactory.save(overlay.overlay(overlayGuide), outputStream);
                 byte[] data = outputStream.toByteArray();
                 String outputFilename =
                         Filenames.toSimpleFileName(baseFile.getOriginalFilename())
@@ -145,8 +150,10 @@ public class PdfOverlayController {
             try (PDDocument overlayPdf = Loader.loadPDF(overlayFiles[overlayFileIndex])) {
                 PDDocument singlePageDocument = new PDDocument();
                 singlePageDocument.addPage(overlayPdf.getPage(pageCountInCurrentOverlay));
-                File tempFile = Files.createTempFile("overlay-page-", ".pdf").toFile();
-                singlePageDocument.save(tempFile);
+                File tempFile = tempFileManager.createTempFile("overlay-page-", ".pdf").toFile();
+                try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+                    pdfDocumentFactory.save(singlePageDocument, out);
+                }
                 singlePageDocument.close();
 
                 overlayGuide.put(basePageIndex, tempFile.getAbsolutePath());
@@ -7,6 +7,7 @@ import java.util.List;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -44,7 +45,7 @@ public class RearrangePagesPDFController {
                     "This endpoint removes specified pages from a given PDF file. Users can provide"
                             + " a comma-separated list of page numbers or ranges to delete. Input:PDF"
                             + " Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> deletePages(@ModelAttribute PDFWithPageNums request)
+    public ResponseEntity<Resource> deletePages(@ModelAttribute PDFWithPageNums request)
             throws IOException {
 
         MultipartFile pdfFile = request.getFileInput();
@@ -68,7 +69,8 @@ public class RearrangePagesPDFController {
                 document,
                 Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
                                 .replaceFirst("[.][^.]+$", "")
-                        + "_removed_pages.pdf");
+                        + "_removed_pages.pdf",
+                pdfDocumentFactory);
     }
 
     private List<Integer> removeFirst(int totalPages) {
@@ -244,7 +246,7 @@ public class RearrangePagesPDFController {
                             + " order or custom mode. Users can provide a page order as a"
                             + " comma-separated list of page numbers or page ranges, or a custom mode."
                             + " Input:PDF Output:PDF")
-    public ResponseEntity<byte[]> rearrangePages(@ModelAttribute RearrangePagesRequest request)
+    public ResponseEntity<Resource> rearrangePages(@ModelAttribute RearrangePagesRequest request)
             throws IOException {
         MultipartFile pdfFile = request.getFileInput();
         String pageOrder = request.getPageNumbers();
@@ -286,7 +288,8 @@ public class RearrangePagesPDFController {
                     document,
                     Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
                                     .replaceFirst("[.][^.]+$", "")
-                            + "_rearranged.pdf");
+                            + "_rearranged.pdf",
+                    pdfDocumentFactory);
         } catch (IOException e) {
             log.error("Failed rearranging documents", e);
             return null;
@@ -5,6 +5,7 @@ import java.io.IOException;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageTree;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +19,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import lombok.RequiredArgsConstructor;
 
+import stirling.software.SPDF.controller.api.pipeline.DocumentOperation;
 import stirling.software.SPDF.model.api.general.RotatePDFRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 import stirling.software.SPDF.utils.WebResponseUtils;
@@ -36,30 +38,40 @@ public class RotationController {
             description =
                     "This endpoint rotates a given PDF file by a specified angle. The angle must be"
                             + " a multiple of 90. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> rotatePDF(@ModelAttribute RotatePDFRequest request)
+    public ResponseEntity<Resource> rotatePDF(@ModelAttribute RotatePDFRequest request)
             throws IOException {
         MultipartFile pdfFile = request.getFileInput();
-        Integer angle = request.getAngle();
-
-        // Validate the angle is a multiple of 90
-        if (angle % 90 != 0) {
-            throw new IllegalArgumentException("Angle must be a multiple of 90");
-        }
+        checkAngle(request.getAngle());
 
         // Load the PDF document
         PDDocument document = pdfDocumentFactory.load(request);
 
+        return WebResponseUtils.pdfDocToWebResponse(
+                rotate(document, request),
+                Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
+                                .replaceFirst("[.][^.]+$", "")
+                        + "_rotated.pdf",
+                pdfDocumentFactory);
+    }
+
+    @DocumentOperation
+    public PDDocument rotate(PDDocument document, RotatePDFRequest request) {
+        Integer angle = request.getAngle();
+        checkAngle(angle);
+
         // Get the list of pages in the document
         PDPageTree pages = document.getPages();
 
         for (PDPage page : pages) {
             page.setRotation(page.getRotation() + angle);
         }
+        return document;
+    }
 
-        return WebResponseUtils.pdfDocToWebResponse(
-                document,
-                Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
-                                .replaceFirst("[.][^.]+$", "")
-                        + "_rotated.pdf");
+    private static void checkAngle(Integer angle) {
+        // Validate the angle is a multiple of 90
+        if (angle % 90 != 0) {
+            throw new IllegalArgumentException("Angle must be a multiple of 90");
+        }
     }
 }
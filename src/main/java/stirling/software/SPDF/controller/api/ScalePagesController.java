@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,6 +11,7 @@ import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.util.Matrix;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -43,7 +43,7 @@ public class ScalePagesController {
             description =
                     "This operation takes an input PDF file and the size to scale the pages to in"
                             + " the output PDF file. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> scalePages(@ModelAttribute ScalePagesRequest request)
+    public ResponseEntity<Resource> scalePages(@ModelAttribute ScalePagesRequest request)
             throws IOException {
         MultipartFile file = request.getFileInput();
         String targetPDRectangle = request.getPageSize();
@@ -90,15 +90,13 @@ public class ScalePagesController {
             contentStream.close();
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        outputDocument.save(baos);
-        outputDocument.close();
         sourceDocument.close();
 
-        return WebResponseUtils.bytesToWebResponse(
-                baos.toByteArray(),
+        return WebResponseUtils.pdfDocToWebResponse(
+                outputDocument,
                 Filenames.toSimpleFileName(file.getOriginalFilename()).replaceFirst("[.][^.]+$", "")
-                        + "_scaled.pdf");
+                        + "_scaled.pdf",
+                pdfDocumentFactory);
     }
 
     private PDRectangle getTargetSize(String targetPDRectangle, PDDocument sourceDocument) {
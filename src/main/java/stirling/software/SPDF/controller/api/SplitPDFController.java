@@ -29,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.PDFWithPageNums;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -39,6 +40,7 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class SplitPDFController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
 
     @PostMapping(consumes = "multipart/form-data", value = "/split-pages")
     @Operation(
@@ -92,7 +94,7 @@ public class SplitPDFController {
                     // PdfMetadataService.setMetadataToPdf(splitDocument, metadata);
 
                     ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    splitDocument.save(baos);
+                    pdfDocumentFactory.save(splitDocument, baos);
 
                     splitDocumentsBoas.add(baos);
                 } catch (Exception e) {
@@ -104,7 +106,7 @@ public class SplitPDFController {
             // closing the original document
             document.close();
 
-            zipFile = Files.createTempFile("split_documents", ".zip");
+            zipFile = tempFileManager.createTempFile("split_documents", ".zip");
 
             String filename =
                     Filenames.toSimpleFileName(file.getOriginalFilename())
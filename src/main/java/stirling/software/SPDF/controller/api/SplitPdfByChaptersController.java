@@ -35,6 +35,7 @@ import stirling.software.SPDF.model.PdfMetadata;
 import stirling.software.SPDF.model.api.SplitPdfByChaptersRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 import stirling.software.SPDF.service.PdfMetadataService;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -47,6 +48,7 @@ public class SplitPdfByChaptersController {
     private final PdfMetadataService pdfMetadataService;
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
 
     private static List<Bookmark> extractOutlineItems(
             PDDocument sourceDocument,
@@ -233,7 +235,7 @@ public class SplitPdfByChaptersController {
     private Path createZipFile(
             List<Bookmark> bookmarks, List<ByteArrayOutputStream> splitDocumentsBoas)
             throws Exception {
-        Path zipFile = Files.createTempFile("split_documents", ".zip");
+        Path zipFile = tempFileManager.createTempFile("split_documents", ".zip");
         String fileNumberFormatter = "%0" + (Integer.toString(bookmarks.size()).length()) + "d ";
         try (ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFile))) {
             for (int i = 0; i < splitDocumentsBoas.size(); i++) {
@@ -287,7 +289,7 @@ public class SplitPdfByChaptersController {
                     pdfMetadataService.setMetadataToPdf(splitDocument, metadata);
                 }
 
-                splitDocument.save(baos);
+                pdfDocumentFactory.save(splitDocument, baos);
 
                 splitDocumentsBoas.add(baos);
             } catch (Exception e) {
@@ -33,6 +33,8 @@ import lombok.RequiredArgsConstructor;
 
 import stirling.software.SPDF.model.api.SplitPdfBySectionsRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -42,6 +44,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class SplitPdfBySectionsController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
     @PostMapping(value = "/split-pdf-by-sections", consumes = "multipart/form-data")
     @Operation(
@@ -67,21 +71,22 @@ public class SplitPdfBySectionsController {
                 Filenames.toSimpleFileName(file.getOriginalFilename())
                         .replaceFirst("[.][^.]+$", "");
         if (merge) {
-            MergeController mergeController = new MergeController(pdfDocumentFactory);
+            MergeController mergeController =
+                    new MergeController(pdfDocumentFactory, tempFileManager, uploadSpool);
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            mergeController.mergeDocuments(splitDocuments).save(baos);
+            pdfDocumentFactory.save(mergeController.mergeDocuments(splitDocuments), baos);
             return WebResponseUtils.bytesToWebResponse(baos.toByteArray(), filename + "_split.pdf");
         }
         for (PDDocument doc : splitDocuments) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            doc.save(baos);
+            pdfDocumentFactory.save(doc, baos);
             doc.close();
             splitDocumentsBoas.add(baos);
         }
 
         sourceDocument.close();
 
-        Path zipFile = Files.createTempFile("split_documents", ".zip");
+        Path zipFile = tempFileManager.createTempFile("split_documents", ".zip");
         byte[] data;
 
         try (ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFile))) {
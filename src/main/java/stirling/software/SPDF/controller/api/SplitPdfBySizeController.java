@@ -26,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.general.SplitPdfBySizeOrCountRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.GeneralUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -37,6 +38,7 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class SplitPdfBySizeController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
 
     @PostMapping(value = "/split-by-size-or-count", consumes = "multipart/form-data")
     @Operation(
@@ -53,7 +55,7 @@ public class SplitPdfBySizeController {
         log.debug("Starting PDF split process with request: {}", request);
         MultipartFile file = request.getFileInput();
 
-        Path zipFile = Files.createTempFile("split_documents", ".zip");
+        Path zipFile = tempFileManager.createTempFile("split_documents", ".zip");
         log.debug("Created temporary zip file: {}", zipFile);
 
         String filename =
@@ -168,7 +170,7 @@ public class SplitPdfBySizeController {
             if (shouldCheckSize) {
                 log.debug("Performing size check after {} pages", pageAdded);
                 ByteArrayOutputStream checkSizeStream = new ByteArrayOutputStream();
-                currentDoc.save(checkSizeStream);
+                pdfDocumentFactory.save(currentDoc, checkSizeStream);
                 long actualSize = checkSizeStream.size();
                 log.debug("Current document size: {} bytes (max: {} bytes)", actualSize, maxBytes);
 
@@ -215,7 +217,7 @@ public class SplitPdfBySizeController {
 
                                 // Check if we're still under size
                                 ByteArrayOutputStream testStream = new ByteArrayOutputStream();
-                                testDoc.save(testStream);
+                                pdfDocumentFactory.save(testDoc, testStream);
                                 long testSize = testStream.size();
 
                                 if (testSize <= maxBytes) {
@@ -433,7 +435,7 @@ public class SplitPdfBySizeController {
 
         try {
             log.debug("Saving document part {} to byte array", index);
-            document.save(outStream);
+            pdfDocumentFactory.save(document, outStream);
             log.debug("Successfully saved document part {} ({} bytes)", index, outStream.size());
         } catch (Exception e) {
             log.error("Error saving document part {} to byte array", index, e);
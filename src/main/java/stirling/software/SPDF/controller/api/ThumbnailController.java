@@ -0,0 +1,86 @@
+package stirling.software.SPDF.controller.api;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.api.PDFFile;
+import stirling.software.SPDF.service.PageThumbnailCache;
+import stirling.software.SPDF.service.PageThumbnailCache.CachedDocument;
+
+@RestController
+@RequestMapping("/api/v1/thumbnails")
+@Tag(name = "Thumbnails", description = "Page thumbnail APIs")
+@RequiredArgsConstructor
+public class ThumbnailController {
+
+    private final PageThumbnailCache pageThumbnailCache;
+    private final ApplicationProperties applicationProperties;
+
+    @PostMapping(consumes = "multipart/form-data")
+    @Operation(
+            summary = "Cache a PDF for its page thumbnails",
+            description =
+                    "Returns the document ID and page count. Thumbnails are rendered when they are"
+                            + " requested. Documents larger than the cache are rejected with 413."
+                            + " Input:PDF Output:JSON Type:SISO")
+    public Map<String, Object> addDocument(@ModelAttribute PDFFile file) throws IOException {
+        CachedDocument document = pageThumbnailCache.add(file.getFileInput());
+        return Map.of("documentId", document.documentId(), "pageCount", document.pageCount());
+    }
+
+    @GetMapping("/{documentId}/{pageIndex}")
+    @Operation(
+            summary = "Get the thumbnail of a page",
+            description =
+                    "Returns a low resolution JPEG of the page, counted from 0. Browsers can keep"
+                            + " it, the ETag only changes with the content of the document.")
+    public ResponseEntity<byte[]> getThumbnail(
+            @PathVariable String documentId,
+            @PathVariable int pageIndex,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws IOException {
+        String eTag = pageThumbnailCache.getETag(documentId, pageIndex);
+        CacheControl cacheControl =
+                CacheControl.maxAge(
+                                Duration.ofSeconds(
+                                        applicationProperties
+                                                .getSystem()
+                                                .getThumbnails()
+                                                .getMaxAgeSeconds()))
+                        .cachePrivate()
+                        .immutable();
+        // The tag is derived from the content, so a match needs neither the cache nor a render
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        byte[] thumbnail = pageThumbnailCache.getThumbnail(documentId, pageIndex);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(thumbnail);
+    }
+}
@@ -17,6 +17,7 @@ import stirling.software.SPDF.config.RuntimePathConfig;
 import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.api.converters.HTMLToPdfRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.FileToPdf;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -32,6 +33,8 @@ public class ConvertHtmlToPDF {
 
     private final RuntimePathConfig runtimePathConfig;
 
+    private final TempFileManager tempFileManager;
+
     @PostMapping(consumes = "multipart/form-data", value = "/html/pdf")
     @Operation(
             summary = "Convert an HTML or ZIP (containing HTML and CSS) to PDF",
@@ -62,7 +65,8 @@ public class ConvertHtmlToPDF {
                         request,
                         fileInput.getBytes(),
                         originalFilename,
-                        disableSanitize);
+                        disableSanitize,
+                        tempFileManager);
 
         pdfBytes = pdfDocumentFactory.createNewBytesBasedOnOldDocument(pdfBytes);
 
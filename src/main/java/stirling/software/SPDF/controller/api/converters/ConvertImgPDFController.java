@@ -3,6 +3,7 @@ package stirling.software.SPDF.controller.api.converters;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,7 +33,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.converters.ConvertToImageRequest;
 import stirling.software.SPDF.model.api.converters.ConvertToPdfRequest;
+import stirling.software.SPDF.service.CpuBoundExecutor;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.*;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 
@@ -44,6 +49,10 @@ import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 public class ConvertImgPDFController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+    private final CpuBoundExecutor cpuBoundExecutor;
+    private final PageRenderService pageRenderService;
 
     @PostMapping(consumes = "multipart/form-data", value = "/pdf/img")
     @Operation(
@@ -52,7 +61,7 @@ public class ConvertImgPDFController {
                     "This endpoint converts a PDF file to image(s) with the specified image format,"
                             + " color type, and DPI. Users can choose to get a single image or multiple"
                             + " images.  Input:PDF Output:Image Type:SI-Conditional")
-    public ResponseEntity<byte[]> convertToImage(@ModelAttribute ConvertToImageRequest request)
+    public ResponseEntity<?> convertToImage(@ModelAttribute ConvertToImageRequest request)
             throws NumberFormatException, Exception {
         MultipartFile file = request.getFileInput();
         String imageFormat = request.getImageFormat();
@@ -85,17 +94,48 @@ public class ConvertImgPDFController {
                     Filenames.toSimpleFileName(file.getOriginalFilename())
                             .replaceFirst("[.][^.]+$", "");
 
+            String renderFormat =
+                    "webp".equalsIgnoreCase(imageFormat) ? "png" : imageFormat.toUpperCase();
+            ImageType renderColorType = colorTypeResult;
+            if (!singleImage && !"webp".equalsIgnoreCase(imageFormat)) {
+                // Stream the images into a ZIP on disk one page at a time, so the heap does not
+                // have to hold every page of a long document
+                Path zipFile = tempFileManager.createTempFile("images_", ".zip");
+                try (OutputStream output = Files.newOutputStream(zipFile)) {
+                    cpuBoundExecutor.call(
+                            () -> {
+                                PdfUtils.convertFromPdfToZip(
+                                        pdfDocumentFactory,
+                                        pageRenderService,
+                                        newPdfBytes,
+                                        renderFormat,
+                                        renderColorType,
+                                        Integer.valueOf(dpi),
+                                        filename,
+                                        output);
+                                return null;
+                            });
+                } catch (IOException | RuntimeException e) {
+                    tempFileManager.delete(zipFile);
+                    throw e;
+                }
+                return WebResponseUtils.fileToWebResponse(
+                        zipFile,
+                        filename + "_convertedToImages.zip",
+                        MediaType.APPLICATION_OCTET_STREAM);
+            }
             result =
-                    PdfUtils.convertFromPdf(
-                            pdfDocumentFactory,
-                            newPdfBytes,
-                            "webp".equalsIgnoreCase(imageFormat)
-                                    ? "png"
-                                    : imageFormat.toUpperCase(),
-                            colorTypeResult,
-                            singleImage,
-                            Integer.valueOf(dpi),
-                            filename);
+                    cpuBoundExecutor.call(
+                            () ->
+                                    PdfUtils.convertFromPdf(
+                                            pdfDocumentFactory,
+                                            pageRenderService,
+                                            newPdfBytes,
+                                            renderFormat,
+                                            renderColorType,
+                                            singleImage,
+                                            Integer.valueOf(dpi),
+                                            filename));
             if (result == null || result.length == 0) {
                 log.error("resultant bytes for {} is null, error converting ", filename);
             }
@@ -104,7 +144,7 @@ public class ConvertImgPDFController {
             } else if ("webp".equalsIgnoreCase(imageFormat)
                     && CheckProgramInstall.isPythonAvailable()) {
                 // Write the output stream to a temp file
-                tempFile = Files.createTempFile("temp_png", ".png");
+                tempFile = tempFileManager.createTempFile("temp_png", ".png");
                 try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
                     fos.write(result);
                     fos.flush();
@@ -117,7 +157,7 @@ public class ConvertImgPDFController {
                 command.add("./scripts/png_to_webp.py"); // Python script to handle the conversion
 
                 // Create a temporary directory for the output WebP files
-                tempOutputDir = Files.createTempDirectory("webp_output");
+                tempOutputDir = tempFileManager.createTempDirectory("webp_output");
                 if (singleImage) {
                     // Run the Python script to convert PNG to WebP
                     command.add(tempFile.toString());
@@ -125,8 +165,7 @@ public class ConvertImgPDFController {
                     command.add("--single");
                 } else {
                     // Save the uploaded PDF to a temporary file
-                    tempPdfPath = Files.createTempFile("temp_pdf", ".pdf");
-                    file.transferTo(tempPdfPath.toFile());
+                    tempPdfPath = uploadSpool.link(file, "temp_pdf", ".pdf");
                     // Run the Python script to convert PDF to WebP
                     command.add(tempPdfPath.toString());
                     command.add(tempOutputDir.toString());
@@ -268,7 +307,7 @@ public class ConvertImgPDFController {
         // Convert PDDocument to byte array
         byte[] newPdfBytes;
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            document.save(baos);
+            pdfDocumentFactory.save(document, baos);
             newPdfBytes = baos.toByteArray();
         } finally {
             document.close();
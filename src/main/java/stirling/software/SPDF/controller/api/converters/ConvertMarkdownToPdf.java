@@ -27,6 +27,7 @@ import stirling.software.SPDF.config.RuntimePathConfig;
 import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.api.GeneralFile;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.FileToPdf;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -41,6 +42,8 @@ public class ConvertMarkdownToPdf {
     private final ApplicationProperties applicationProperties;
     private final RuntimePathConfig runtimePathConfig;
 
+    private final TempFileManager tempFileManager;
+
     @PostMapping(consumes = "multipart/form-data", value = "/markdown/pdf")
     @Operation(
             summary = "Convert a Markdown file to PDF",
@@ -82,7 +85,8 @@ public class ConvertMarkdownToPdf {
                         null,
                         htmlContent.getBytes(),
                         "converted.html",
-                        disableSanitize);
+                        disableSanitize,
+                        tempFileManager);
         pdfBytes = pdfDocumentFactory.createNewBytesBasedOnOldDocument(pdfBytes);
         String outputFilename =
                 originalFilename.replaceFirst("[.][^.]+$", "")
@@ -10,6 +10,7 @@ import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -27,6 +28,8 @@ import stirling.software.SPDF.config.RuntimePathConfig;
 import stirling.software.SPDF.model.api.GeneralFile;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 import stirling.software.SPDF.utils.ProcessExecutor;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -38,6 +41,8 @@ public class ConvertOfficeController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
     private final RuntimePathConfig runtimePathConfig;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
     public File convertToPdf(MultipartFile inputFile) throws IOException, InterruptedException {
         // Check for valid file extension
@@ -49,11 +54,11 @@ public class ConvertOfficeController {
 
         // Save the uploaded file to a temporary location
         Path tempInputFile =
-                Files.createTempFile("input_", "." + FilenameUtils.getExtension(originalFilename));
-        inputFile.transferTo(tempInputFile);
+                uploadSpool.link(
+                        inputFile, "input_", "." + FilenameUtils.getExtension(originalFilename));
 
         // Prepare the output file path
-        Path tempOutputFile = Files.createTempFile("output_", ".pdf");
+        Path tempOutputFile = tempFileManager.createTempFile("output_", ".pdf");
 
         try {
             // Run the LibreOffice command
@@ -90,7 +95,7 @@ public class ConvertOfficeController {
             description =
                     "This endpoint converts a given file to a PDF using LibreOffice API  Input:ANY"
                             + " Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> processFileToPDF(@ModelAttribute GeneralFile request)
+    public ResponseEntity<Resource> processFileToPDF(@ModelAttribute GeneralFile request)
             throws Exception {
         MultipartFile inputFile = request.getFileInput();
         // unused but can start server instance if startup time is to long
@@ -104,7 +109,8 @@ public class ConvertOfficeController {
                     doc,
                     Filenames.toSimpleFileName(inputFile.getOriginalFilename())
                                     .replaceFirst("[.][^.]+$", "")
-                            + "_convertedToPDF.pdf");
+                            + "_convertedToPDF.pdf",
+                    pdfDocumentFactory);
         } finally {
             if (file != null) file.delete();
         }
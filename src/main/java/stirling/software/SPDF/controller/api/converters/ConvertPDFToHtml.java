@@ -10,14 +10,22 @@ import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import lombok.RequiredArgsConstructor;
+
 import stirling.software.SPDF.model.api.PDFFile;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.PDFToFile;
 
 @RestController
 @Tag(name = "Convert", description = "Convert APIs")
 @RequestMapping("/api/v1/convert")
+@RequiredArgsConstructor
 public class ConvertPDFToHtml {
 
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+
     @PostMapping(consumes = "multipart/form-data", value = "/pdf/html")
     @Operation(
             summary = "Convert PDF to HTML",
@@ -26,7 +34,7 @@ public class ConvertPDFToHtml {
     public ResponseEntity<byte[]> processPdfToHTML(@ModelAttribute PDFFile request)
             throws Exception {
         MultipartFile inputFile = request.getFileInput();
-        PDFToFile pdfToFile = new PDFToFile();
+        PDFToFile pdfToFile = new PDFToFile(tempFileManager, uploadSpool);
         return pdfToFile.processPdfToHtml(inputFile);
     }
 }
@@ -23,6 +23,8 @@ import stirling.software.SPDF.model.api.converters.PdfToPresentationRequest;
 import stirling.software.SPDF.model.api.converters.PdfToTextOrRTFRequest;
 import stirling.software.SPDF.model.api.converters.PdfToWordRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.PDFToFile;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -33,6 +35,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class ConvertPDFToOffice {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
     @PostMapping(consumes = "multipart/form-data", value = "/pdf/presentation")
     @Operation(
@@ -45,7 +49,7 @@ public class ConvertPDFToOffice {
             throws IOException, InterruptedException {
         MultipartFile inputFile = request.getFileInput();
         String outputFormat = request.getOutputFormat();
-        PDFToFile pdfToFile = new PDFToFile();
+        PDFToFile pdfToFile = new PDFToFile(tempFileManager, uploadSpool);
         return pdfToFile.processPdfToOfficeFormat(inputFile, outputFormat, "impress_pdf_import");
     }
 
@@ -72,7 +76,7 @@ public class ConvertPDFToOffice {
                         MediaType.TEXT_PLAIN);
             }
         } else {
-            PDFToFile pdfToFile = new PDFToFile();
+            PDFToFile pdfToFile = new PDFToFile(tempFileManager, uploadSpool);
             return pdfToFile.processPdfToOfficeFormat(inputFile, outputFormat, "writer_pdf_import");
         }
     }
@@ -87,7 +91,7 @@ public class ConvertPDFToOffice {
             throws IOException, InterruptedException {
         MultipartFile inputFile = request.getFileInput();
         String outputFormat = request.getOutputFormat();
-        PDFToFile pdfToFile = new PDFToFile();
+        PDFToFile pdfToFile = new PDFToFile(tempFileManager, uploadSpool);
         return pdfToFile.processPdfToOfficeFormat(inputFile, outputFormat, "writer_pdf_import");
     }
 
@@ -101,7 +105,7 @@ public class ConvertPDFToOffice {
             throws Exception {
         MultipartFile inputFile = request.getFileInput();
 
-        PDFToFile pdfToFile = new PDFToFile();
+        PDFToFile pdfToFile = new PDFToFile(tempFileManager, uploadSpool);
         return pdfToFile.processPdfToOfficeFormat(inputFile, "xml", "writer_pdf_import");
     }
 }
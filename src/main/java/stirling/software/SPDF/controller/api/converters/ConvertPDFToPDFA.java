@@ -20,9 +20,12 @@ import io.github.pixee.security.Filenames;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.converters.PdfToPdfARequest;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.ProcessExecutor;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 import stirling.software.SPDF.utils.WebResponseUtils;
@@ -31,8 +34,12 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 @RequestMapping("/api/v1/convert")
 @Slf4j
 @Tag(name = "Convert", description = "Convert APIs")
+@RequiredArgsConstructor
 public class ConvertPDFToPDFA {
 
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+
     @PostMapping(consumes = "multipart/form-data", value = "/pdf/pdfa")
     @Operation(
             summary = "Convert a PDF to a PDF/A",
@@ -65,11 +72,10 @@ public class ConvertPDFToPDFA {
 
         try {
             // Save uploaded file to temp location
-            tempInputFile = Files.createTempFile("input_", ".pdf");
-            inputFile.transferTo(tempInputFile);
+            tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
 
             // Create temp output directory
-            tempOutputDir = Files.createTempDirectory("output_");
+            tempOutputDir = tempFileManager.createTempDirectory("output_");
 
             // Determine PDF/A filter based on requested format
             String pdfFilter =
@@ -3,8 +3,8 @@ package stirling.software.SPDF.controller.api.filters;
 import java.io.IOException;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +18,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import lombok.RequiredArgsConstructor;
 
+import stirling.software.SPDF.model.DocumentSummary;
 import stirling.software.SPDF.model.api.PDFComparisonAndCount;
 import stirling.software.SPDF.model.api.PDFWithPageNums;
 import stirling.software.SPDF.model.api.filter.ContainsTextRequest;
@@ -25,6 +26,7 @@ import stirling.software.SPDF.model.api.filter.FileSizeRequest;
 import stirling.software.SPDF.model.api.filter.PageRotationRequest;
 import stirling.software.SPDF.model.api.filter.PageSizeRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.ParsedDocumentCache;
 import stirling.software.SPDF.utils.PdfUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -35,12 +37,13 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class FilterController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final ParsedDocumentCache parsedDocumentCache;
 
     @PostMapping(consumes = "multipart/form-data", value = "/filter-contains-text")
     @Operation(
             summary = "Checks if a PDF contains set text, returns true if does",
             description = "Input:PDF Output:Boolean Type:SISO")
-    public ResponseEntity<byte[]> containsText(@ModelAttribute ContainsTextRequest request)
+    public ResponseEntity<Resource> containsText(@ModelAttribute ContainsTextRequest request)
             throws IOException, InterruptedException {
         MultipartFile inputFile = request.getFileInput();
         String text = request.getText();
@@ -49,7 +52,9 @@ public class FilterController {
         PDDocument pdfDocument = pdfDocumentFactory.load(inputFile);
         if (PdfUtils.hasText(pdfDocument, pageNumber, text))
             return WebResponseUtils.pdfDocToWebResponse(
-                    pdfDocument, Filenames.toSimpleFileName(inputFile.getOriginalFilename()));
+                    pdfDocument,
+                    Filenames.toSimpleFileName(inputFile.getOriginalFilename()),
+                    pdfDocumentFactory);
         return null;
     }
 
@@ -58,7 +63,7 @@ public class FilterController {
     @Operation(
             summary = "Checks if a PDF contains an image",
             description = "Input:PDF Output:Boolean Type:SISO")
-    public ResponseEntity<byte[]> containsImage(@ModelAttribute PDFWithPageNums request)
+    public ResponseEntity<Resource> containsImage(@ModelAttribute PDFWithPageNums request)
             throws IOException, InterruptedException {
         MultipartFile inputFile = request.getFileInput();
         String pageNumber = request.getPageNumbers();
@@ -66,7 +71,9 @@ public class FilterController {
         PDDocument pdfDocument = pdfDocumentFactory.load(inputFile);
         if (PdfUtils.hasImages(pdfDocument, pageNumber))
             return WebResponseUtils.pdfDocToWebResponse(
-                    pdfDocument, Filenames.toSimpleFileName(inputFile.getOriginalFilename()));
+                    pdfDocument,
+                    Filenames.toSimpleFileName(inputFile.getOriginalFilename()),
+                    pdfDocumentFactory);
         return null;
     }
 
@@ -79,9 +86,7 @@ public class FilterController {
         MultipartFile inputFile = request.getFileInput();
         String pageCount = request.getPageCount();
         String comparator = request.getComparator();
-        // Load the PDF
-        PDDocument document = pdfDocumentFactory.load(inputFile);
-        int actualPageCount = document.getNumberOfPages();
+        int actualPageCount = pdfDocumentFactory.probe(inputFile).pageCount();
 
         boolean valid = false;
         // Perform the comparison
@@ -113,14 +118,11 @@ public class FilterController {
         String standardPageSize = request.getStandardPageSize();
         String comparator = request.getComparator();
 
-        // Load the PDF
-        PDDocument document = pdfDocumentFactory.load(inputFile);
-
-        PDPage firstPage = document.getPage(0);
-        PDRectangle actualPageSize = firstPage.getMediaBox();
+        DocumentSummary.PageSummary firstPage =
+                parsedDocumentCache.getSummary(inputFile).getPages().get(0);
 
         // Calculate the area of the actual page size
-        float actualArea = actualPageSize.getWidth() * actualPageSize.getHeight();
+        float actualArea = firstPage.getMediaBoxWidth() * firstPage.getMediaBoxHeight();
 
         // Get the standard size and calculate its area
         PDRectangle standardSize = PdfUtils.textToPageSize(standardPageSize);
@@ -189,12 +191,9 @@ public class FilterController {
         int rotation = request.getRotation();
         String comparator = request.getComparator();
 
-        // Load the PDF
-        PDDocument document = pdfDocumentFactory.load(inputFile);
-
         // Get the rotation of the first page
-        PDPage firstPage = document.getPage(0);
-        int actualRotation = firstPage.getRotation();
+        int actualRotation =
+                parsedDocumentCache.getSummary(inputFile).getPages().get(0).getRotation();
         boolean valid = false;
         // Perform the comparison
         switch (comparator) {
@@ -8,6 +8,7 @@ import java.util.List;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.text.TextPosition;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -44,7 +45,7 @@ public class AutoRenameController {
             description =
                     "This endpoint accepts a PDF file and attempts to extract its title or header"
                             + " based on heuristics. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> extractHeader(@ModelAttribute ExtractHeaderRequest request)
+    public ResponseEntity<Resource> extractHeader(@ModelAttribute ExtractHeaderRequest request)
             throws Exception {
         MultipartFile file = request.getFileInput();
         Boolean useFirstTextAsFallback = request.isUseFirstTextAsFallback();
@@ -135,11 +136,14 @@ public class AutoRenameController {
         // Sanitize the header string by removing characters not allowed in a filename.
         if (header != null && header.length() < 255) {
             header = header.replaceAll("[/\\\\?%*:|\"<>]", "").trim();
-            return WebResponseUtils.pdfDocToWebResponse(document, header + ".pdf");
+            return WebResponseUtils.pdfDocToWebResponse(
+                    document, header + ".pdf", pdfDocumentFactory);
         } else {
             log.info("File has no good title to be found");
             return WebResponseUtils.pdfDocToWebResponse(
-                    document, Filenames.toSimpleFileName(file.getOriginalFilename()));
+                    document,
+                    Filenames.toSimpleFileName(file.getOriginalFilename()),
+                    pdfDocumentFactory);
         }
     }
 }
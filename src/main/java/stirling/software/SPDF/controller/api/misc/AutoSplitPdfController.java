@@ -1,8 +1,6 @@
 package stirling.software.SPDF.controller.api.misc;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.awt.image.DataBufferInt;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -15,7 +13,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.ImageType;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -36,6 +34,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.misc.AutoSplitPdfRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.utils.PixelAnalysisUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -53,44 +55,12 @@ public class AutoSplitPdfController {
                             "https://stirlingpdf.com"));
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final PageRenderService pageRenderService;
 
     private static String decodeQRCode(BufferedImage bufferedImage) {
-        LuminanceSource source;
-
-        if (bufferedImage.getRaster().getDataBuffer() instanceof DataBufferByte dataBufferByte) {
-            byte[] pixels = dataBufferByte.getData();
-            source =
-                    new PlanarYUVLuminanceSource(
-                            pixels,
-                            bufferedImage.getWidth(),
-                            bufferedImage.getHeight(),
-                            0,
-                            0,
-                            bufferedImage.getWidth(),
-                            bufferedImage.getHeight(),
-                            false);
-        } else if (bufferedImage.getRaster().getDataBuffer()
-                instanceof DataBufferInt dataBufferInt) {
-            int[] pixels = dataBufferInt.getData();
-            byte[] newPixels = new byte[pixels.length];
-            for (int i = 0; i < pixels.length; i++) {
-                newPixels[i] = (byte) (pixels[i] & 0xff);
-            }
-            source =
-                    new PlanarYUVLuminanceSource(
-                            newPixels,
-                            bufferedImage.getWidth(),
-                            bufferedImage.getHeight(),
-                            0,
-                            0,
-                            bufferedImage.getWidth(),
-                            bufferedImage.getHeight(),
-                            false);
-        } else {
-            throw new IllegalArgumentException(
-                    "BufferedImage must have 8-bit gray scale, 24-bit RGB, 32-bit ARGB (packed"
-                            + " int), byte gray, or 3-byte/4-byte RGB image data");
-        }
+        // Gray renders are handed to ZXing without copying their pixels
+        LuminanceSource source = PixelAnalysisUtils.luminanceSource(bufferedImage);
 
         BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
 
@@ -122,37 +92,47 @@ public class AutoSplitPdfController {
 
         try {
             document = pdfDocumentFactory.load(file.getInputStream());
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            pdfRenderer.setSubsamplingAllowed(true);
-
-            for (int page = 0; page < document.getNumberOfPages(); ++page) {
-                BufferedImage bim = pdfRenderer.renderImageWithDPI(page, 150);
-                String result = decodeQRCode(bim);
-
-                boolean isValidQrCode = VALID_QR_CONTENTS.contains(result);
-                log.debug("detected qr code {}, code is vale={}", result, isValidQrCode);
-                if (isValidQrCode && page != 0) {
-                    splitDocuments.add(new PDDocument());
-                }
-
-                if (!splitDocuments.isEmpty() && !isValidQrCode) {
-                    splitDocuments.get(splitDocuments.size() - 1).addPage(document.getPage(page));
-                } else if (page == 0) {
-                    PDDocument firstDocument = new PDDocument();
-                    firstDocument.addPage(document.getPage(page));
-                    splitDocuments.add(firstDocument);
-                }
-
-                // If duplexMode is true and current page is a divider, then skip next page
-                if (duplexMode && isValidQrCode) {
-                    page++;
-                }
-            }
+            PDDocument sourceDocument = document;
+            boolean[] skipNextPage = {false};
+            // The render threads look for the QR codes, the pages are split in page order
+            pageRenderService.render(
+                    document,
+                    PageRenderService.allPages(document),
+                    RenderSettings.of(150, ImageType.GRAY).withSubsampling(),
+                    (page, bim) -> decodeQRCode(bim),
+                    (page, result) -> {
+                        // In duplex mode the back of a divider page is skipped
+                        if (skipNextPage[0]) {
+                            skipNextPage[0] = false;
+                            return;
+                        }
+
+                        boolean isValidQrCode = VALID_QR_CONTENTS.contains(result);
+                        log.debug("detected qr code {}, code is vale={}", result, isValidQrCode);
+                        if (isValidQrCode && page != 0) {
+                            splitDocuments.add(new PDDocument());
+                        }
+
+                        if (!splitDocuments.isEmpty() && !isValidQrCode) {
+                            splitDocuments
+                                    .get(splitDocuments.size() - 1)
+                                    .addPage(sourceDocument.getPage(page));
+                        } else if (page == 0) {
+                            PDDocument firstDocument = new PDDocument();
+                            firstDocument.addPage(sourceDocument.getPage(page));
+                            splitDocuments.add(firstDocument);
+                        }
+
+                        // If duplexMode is true and current page is a divider, then skip next page
+                        if (duplexMode && isValidQrCode) {
+                            skipNextPage[0] = true;
+                        }
+                    });
 
             // Remove split documents that have no pages
             splitDocuments.removeIf(pdDocument -> pdDocument.getNumberOfPages() == 0);
 
-            zipFile = Files.createTempFile("split_documents", ".zip");
+            zipFile = tempFileManager.createTempFile("split_documents", ".zip");
             String filename =
                     Filenames.toSimpleFileName(file.getOriginalFilename())
                             .replaceFirst("[.][^.]+$", "");
@@ -163,7 +143,7 @@ public class AutoSplitPdfController {
                     PDDocument splitDocument = splitDocuments.get(i);
 
                     ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    splitDocument.save(baos);
+                    pdfDocumentFactory.save(splitDocument, baos);
                     byte[] pdf = baos.toByteArray();
 
                     ZipEntry pdfEntry = new ZipEntry(fileName);
@@ -11,7 +11,7 @@ import java.util.zip.ZipOutputStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageTree;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -31,7 +31,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.misc.RemoveBlankPagesRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+import stirling.software.SPDF.utils.CancellationToken;
 import stirling.software.SPDF.utils.PdfUtils;
+import stirling.software.SPDF.utils.PixelAnalysisUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -42,6 +46,7 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class BlankPageController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final PageRenderService pageRenderService;
 
     public static boolean isBlankImage(
             BufferedImage image, int threshold, double whitePercent, int blurSize) {
@@ -50,23 +55,14 @@ public class BlankPageController {
             return false;
         }
 
-        // Convert to binary image based on the threshold
-        int whitePixels = 0;
-        int totalPixels = image.getWidth() * image.getHeight();
+        // Stops counting once enough pixels decided the outcome
+        boolean blank = PixelAnalysisUtils.isMostlyWhite(image, threshold, whitePercent);
+        log.info(
+                "Page is {}blank at a required white pixel percent of {}%",
+                blank ? "" : "not ",
+                whitePercent);
 
-        for (int i = 0; i < image.getHeight(); i++) {
-            for (int j = 0; j < image.getWidth(); j++) {
-                int color = image.getRGB(j, i) & 0xFF;
-                if (color >= 255 - threshold) {
-                    whitePixels++;
-                }
-            }
-        }
-
-        double whitePixelPercentage = (whitePixels / (double) totalPixels) * 100;
-        log.info(String.format("Page has white pixel percent of %.2f%%", whitePixelPercentage));
-
-        return whitePixelPercentage >= whitePercent;
+        return blank;
     }
 
     @PostMapping(consumes = "multipart/form-data", value = "/remove-blanks")
@@ -90,30 +86,43 @@ public class BlankPageController {
             List<PDPage> blankPages = new ArrayList<>();
             int pageIndex = 0;
 
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            pdfRenderer.setSubsamplingAllowed(true);
+            boolean[] blank = new boolean[pages.getCount()];
+            List<Integer> pagesToRender = new ArrayList<>();
+            CancellationToken cancellation = CancellationToken.current();
             for (PDPage page : pages) {
+                cancellation.throwIfCancelled(pages.getCount() - pageIndex);
                 log.info("checking page {}", pageIndex);
                 textStripper.setStartPage(pageIndex + 1);
                 textStripper.setEndPage(pageIndex + 1);
                 String pageText = textStripper.getText(document);
                 boolean hasText = !pageText.trim().isEmpty();
 
-                boolean blank = true;
+                blank[pageIndex] = true;
                 if (hasText) {
                     log.info("page {} has text, not blank", pageIndex);
-                    blank = false;
+                    blank[pageIndex] = false;
                 } else {
                     boolean hasImages = PdfUtils.hasImagesOnPage(page);
                     if (hasImages) {
                         log.info("page {} has image, running blank detection", pageIndex);
-                        // Render image and save as temp file
-                        BufferedImage image = pdfRenderer.renderImageWithDPI(pageIndex, 30);
-                        blank = isBlankImage(image, threshold, whitePercent, threshold);
+                        pagesToRender.add(pageIndex);
                     }
                 }
 
-                if (blank) {
+                pageIndex++;
+            }
+
+            // Render the pages with images and check them on the render threads
+            pageRenderService.render(
+                    document,
+                    pagesToRender,
+                    RenderSettings.of(30, ImageType.GRAY).withSubsampling(),
+                    (index, image) -> isBlankImage(image, threshold, whitePercent, threshold),
+                    (index, isBlank) -> blank[index] = isBlank);
+
+            pageIndex = 0;
+            for (PDPage page : pages) {
+                if (blank[pageIndex]) {
                     log.info("Skipping, Image was  blank for page #{}", pageIndex);
                     blankPages.add(page);
                 } else {
@@ -163,7 +172,7 @@ public class BlankPageController {
 
             ZipEntry zipEntry = new ZipEntry(entryName);
             zos.putNextEntry(zipEntry);
-            document.save(zos);
+            pdfDocumentFactory.save(document, zos);
             zos.closeEntry();
         }
     }
@@ -5,6 +5,7 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -32,6 +33,7 @@ import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -52,6 +54,9 @@ import lombok.extern.slf4j.Slf4j;
 import stirling.software.SPDF.config.EndpointConfiguration;
 import stirling.software.SPDF.model.api.misc.OptimizePdfRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
+import stirling.software.SPDF.utils.CancellationToken;
 import stirling.software.SPDF.utils.GeneralUtils;
 import stirling.software.SPDF.utils.ProcessExecutor;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
@@ -64,12 +69,18 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class CompressController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
     private final boolean qpdfEnabled;
 
     public CompressController(
             CustomPDFDocumentFactory pdfDocumentFactory,
+            TempFileManager tempFileManager,
+            UploadSpool uploadSpool,
             EndpointConfiguration endpointConfiguration) {
         this.pdfDocumentFactory = pdfDocumentFactory;
+        this.tempFileManager = tempFileManager;
+        this.uploadSpool = uploadSpool;
         this.qpdfEnabled = endpointConfiguration.isGroupEnabled("qpdf");
     }
 
@@ -104,7 +115,7 @@ public class CompressController {
     public Path compressImagesInPDF(
             Path pdfFile, double scaleFactor, float jpegQuality, boolean convertToGrayscale)
             throws Exception {
-        Path newCompressedPDF = Files.createTempFile("compressedPDF", ".pdf");
+        Path newCompressedPDF = tempFileManager.createTempFile("compressedPDF", ".pdf");
         long originalFileSize = Files.size(pdfFile);
         log.info(
                 "Starting image compression with scale factor: {}, JPEG quality: {}, grayscale: {} on file size: {}",
@@ -138,7 +149,9 @@ public class CompressController {
             uniqueImages.clear();
 
             log.info("Saving compressed PDF to {}", newCompressedPDF.toString());
-            doc.save(newCompressedPDF.toString());
+            try (OutputStream out = Files.newOutputStream(newCompressedPDF)) {
+                pdfDocumentFactory.save(doc, out);
+            }
 
             // Log overall file size reduction
             long compressedFileSize = Files.size(newCompressedPDF);
@@ -157,7 +170,9 @@ public class CompressController {
         Map<String, List<ImageReference>> uniqueImages = new HashMap<>();
 
         // Scan through all pages in the document
+        CancellationToken cancellation = CancellationToken.current();
         for (int pageNum = 0; pageNum < doc.getNumberOfPages(); pageNum++) {
+            cancellation.throwIfCancelled(doc.getNumberOfPages() - pageNum);
             PDPage page = doc.getPage(pageNum);
             PDResources res = page.getResources();
             if (res == null || res.getXObjectNames() == null) continue;
@@ -278,9 +293,11 @@ public class CompressController {
             throws IOException {
 
         Map<String, PDImageXObject> compressedVersions = new HashMap<>();
+        CancellationToken cancellation = CancellationToken.current();
 
         // Process each unique image exactly once
         for (Entry<String, List<ImageReference>> entry : uniqueImages.entrySet()) {
+            cancellation.throwIfCancelled();
             String imageHash = entry.getKey();
             List<ImageReference> references = entry.getValue();
 
@@ -653,7 +670,7 @@ public class CompressController {
             description =
                     "This endpoint accepts a PDF file and optimizes it based on the provided"
                             + " parameters. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> optimizePdf(@ModelAttribute OptimizePdfRequest request)
+    public ResponseEntity<Resource> optimizePdf(@ModelAttribute OptimizePdfRequest request)
             throws Exception {
         MultipartFile inputFile = request.getFileInput();
         Integer optimizeLevel = request.getOptimizeLevel();
@@ -671,11 +688,10 @@ public class CompressController {
         }
 
         // Create initial input file
-        Path originalFile = Files.createTempFile("original_", ".pdf");
-        inputFile.transferTo(originalFile.toFile());
+        Path originalFile = uploadSpool.link(inputFile, "original_", ".pdf");
         long inputFileSize = Files.size(originalFile);
 
-        Path currentFile = Files.createTempFile("working_", ".pdf");
+        Path currentFile = tempFileManager.createTempFile("working_", ".pdf");
         Files.copy(originalFile, currentFile, StandardCopyOption.REPLACE_EXISTING);
 
         // Keep track of all temporary files for cleanup
@@ -767,7 +783,9 @@ public class CompressController {
                             + "_Optimized.pdf";
 
             return WebResponseUtils.pdfDocToWebResponse(
-                    pdfDocumentFactory.load(currentFile.toFile()), outputFilename);
+                    pdfDocumentFactory.load(currentFile.toFile()),
+                    outputFilename,
+                    pdfDocumentFactory);
 
         } finally {
             // Clean up all temporary files
@@ -796,7 +814,7 @@ public class CompressController {
                         : 9; // Max compression for levels 4-9
 
         // Create output file for QPDF
-        Path qpdfOutputFile = Files.createTempFile("qpdf_output_", ".pdf");
+        Path qpdfOutputFile = tempFileManager.createTempFile("qpdf_output_", ".pdf");
         tempFiles.add(qpdfOutputFile);
 
         // Build QPDF command
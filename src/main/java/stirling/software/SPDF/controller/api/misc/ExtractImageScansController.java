@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api.misc;
 
-import java.awt.image.BufferedImage;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -15,7 +14,7 @@ import javax.imageio.ImageIO;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.ImageType;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -33,6 +32,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.misc.ExtractImageScansRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.CheckProgramInstall;
 import stirling.software.SPDF.utils.ProcessExecutor;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
@@ -48,6 +51,9 @@ public class ExtractImageScansController {
     private static final String REPLACEFIRST = "[.][^.]+$";
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+    private final PageRenderService pageRenderService;
 
     @PostMapping(consumes = "multipart/form-data", value = "/extract-image-scans")
     @Operation(
@@ -95,28 +101,28 @@ public class ExtractImageScansController {
             if ("pdf".equalsIgnoreCase(extension)) {
                 // Load PDF document
                 try (PDDocument document = pdfDocumentFactory.load(form.getFileInput())) {
-                    PDFRenderer pdfRenderer = new PDFRenderer(document);
-                    pdfRenderer.setSubsamplingAllowed(true);
-                    int pageCount = document.getNumberOfPages();
-                    images = new ArrayList<>();
-
-                    // Create images of all pages
-                    for (int i = 0; i < pageCount; i++) {
-                        // Create temp file to save the image
-                        Path tempFile = Files.createTempFile("image_", ".png");
-
-                        // Render image and save as temp file
-                        BufferedImage image = pdfRenderer.renderImageWithDPI(i, 300);
-                        ImageIO.write(image, "png", tempFile.toFile());
-
-                        // Add temp file path to images list
-                        images.add(tempFile.toString());
-                        tempImageFiles.add(tempFile);
-                    }
+                    List<String> pageImages = new ArrayList<>();
+                    images = pageImages;
+
+                    // Create images of all pages, the render threads write them to temp files
+                    pageRenderService.render(
+                            document,
+                            PageRenderService.allPages(document),
+                            RenderSettings.of(300, ImageType.RGB).withSubsampling(),
+                            (i, image) -> {
+                                // Create temp file to save the image
+                                Path tempFile = tempFileManager.createTempFile("image_", ".png");
+                                ImageIO.write(image, "png", tempFile.toFile());
+                                return tempFile;
+                            },
+                            (i, tempFile) -> {
+                                // Add temp file path to images list
+                                pageImages.add(tempFile.toString());
+                                tempImageFiles.add(tempFile);
+                            });
                 }
             } else {
-                tempInputFile = Files.createTempFile("input_", "." + extension);
-                form.getFileInput().transferTo(tempInputFile);
+                tempInputFile = uploadSpool.link(form.getFileInput(), "input_", "." + extension);
                 // Add input file path to images list
                 images.add(tempInputFile.toString());
             }
@@ -126,7 +132,7 @@ public class ExtractImageScansController {
             // Process each image
             for (int i = 0; i < images.size(); i++) {
 
-                Path tempDir = Files.createTempDirectory("openCV_output");
+                Path tempDir = tempFileManager.createTempDirectory("openCV_output");
                 tempDirs.add(tempDir);
                 List<String> command =
                         new ArrayList<>(
@@ -165,7 +171,7 @@ public class ExtractImageScansController {
             if (processedImageBytes.size() > 1) {
                 String outputZipFilename =
                         fileName.replaceFirst(REPLACEFIRST, "") + "_processed.zip";
-                tempZipFile = Files.createTempFile("output_", ".zip");
+                tempZipFile = tempFileManager.createTempFile("output_", ".zip");
 
                 try (ZipOutputStream zipOut =
                         new ZipOutputStream(new FileOutputStream(tempZipFile.toFile()))) {
@@ -8,8 +8,6 @@ import java.awt.image.*;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 import org.apache.pdfbox.Loader;
@@ -17,7 +15,6 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,15 +27,24 @@ import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import lombok.RequiredArgsConstructor;
+
 import stirling.software.SPDF.model.api.PDFFile;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
 import stirling.software.SPDF.utils.PdfUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
 @RequestMapping("/api/v1/misc")
 @Tag(name = "Misc", description = "Miscellaneous APIs")
+@RequiredArgsConstructor
 public class FakeScanControllerWIP {
 
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final PageRenderService pageRenderService;
+
     // TODO finish
     @PostMapping(consumes = "multipart/form-data", value = "/fake-scan")
     @Hidden
@@ -51,26 +57,24 @@ public class FakeScanControllerWIP {
 
         // Load the PDF document
         PDDocument document = Loader.loadPDF(inputFile.getBytes());
-        PDFRenderer renderer = new PDFRenderer(document);
-        List<BufferedImage> images = new ArrayList<>();
-        // Convert each page to an image
-        for (int i = 0; i < document.getNumberOfPages(); i++) {
-            BufferedImage image = renderer.renderImageWithDPI(i, 150, ImageType.GRAY);
-            images.add(processImage(image));
-        }
-        document.close();
-
         // Create a new PDF document with the processed images
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PDDocument newDocument = new PDDocument();
-        for (BufferedImage img : images) {
-            // PDPageContentStream contentStream = new PDPageContentStream(newDocument, new
-            // PDPage());
-            PDImageXObject pdImage = JPEGFactory.createFromImage(newDocument, img);
-            PdfUtils.addImageToDocument(newDocument, pdImage, "maintainAspectRatio", false);
-        }
+        // Convert each page to an image, the render threads apply the scan effects
+        pageRenderService.render(
+                document,
+                PageRenderService.allPages(document),
+                RenderSettings.of(150, ImageType.GRAY),
+                (i, image) -> processImage(image),
+                (i, img) -> {
+                    // PDPageContentStream contentStream = new PDPageContentStream(newDocument, new
+                    // PDPage());
+                    PDImageXObject pdImage = JPEGFactory.createFromImage(newDocument, img);
+                    PdfUtils.addImageToDocument(newDocument, pdImage, "maintainAspectRatio", false);
+                });
+        document.close();
 
-        newDocument.save(baos);
+        pdfDocumentFactory.save(newDocument, baos);
         newDocument.close();
 
         // Return the optimized PDF as a response
@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api.misc;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -10,7 +9,7 @@ import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -26,7 +25,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.misc.FlattenRequest;
+import stirling.software.SPDF.service.CpuBoundExecutor;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -37,6 +39,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class FlattenController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final CpuBoundExecutor cpuBoundExecutor;
+    private final PageRenderService pageRenderService;
 
     @PostMapping(consumes = "multipart/form-data", value = "/flatten")
     @Operation(
@@ -44,7 +48,8 @@ public class FlattenController {
             description =
                     "Flattening just PDF form fields or converting each page to images to make text"
                             + " unselectable. Input:PDF, Output:PDF. Type:SISO")
-    public ResponseEntity<byte[]> flatten(@ModelAttribute FlattenRequest request) throws Exception {
+    public ResponseEntity<Resource> flatten(@ModelAttribute FlattenRequest request)
+            throws Exception {
         MultipartFile file = request.getFileInput();
 
         PDDocument document = pdfDocumentFactory.load(file);
@@ -56,34 +61,47 @@ public class FlattenController {
                 acroForm.flatten();
             }
             return WebResponseUtils.pdfDocToWebResponse(
-                    document, Filenames.toSimpleFileName(file.getOriginalFilename()));
+                    document,
+                    Filenames.toSimpleFileName(file.getOriginalFilename()),
+                    pdfDocumentFactory);
         } else {
             // flatten whole page aka convert each page to image and readd it (making text
             // unselectable)
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
             PDDocument newDocument =
                     pdfDocumentFactory.createNewDocumentBasedOnOldDocument(document);
-            int numPages = document.getNumberOfPages();
-            for (int i = 0; i < numPages; i++) {
-                try {
-                    BufferedImage image = pdfRenderer.renderImageWithDPI(i, 300, ImageType.RGB);
-                    PDPage page = new PDPage();
-                    page.setMediaBox(document.getPage(i).getMediaBox());
-                    newDocument.addPage(page);
-                    try (PDPageContentStream contentStream =
-                            new PDPageContentStream(newDocument, page)) {
-                        PDImageXObject pdImage = JPEGFactory.createFromImage(newDocument, image);
-                        float pageWidth = page.getMediaBox().getWidth();
-                        float pageHeight = page.getMediaBox().getHeight();
+            try {
+                pageRenderService.render(
+                        document,
+                        RenderSettings.of(300, ImageType.RGB),
+                        (pageIndex, image) -> {
+                            try {
+                                PDPage page = new PDPage();
+                                page.setMediaBox(document.getPage(pageIndex).getMediaBox());
+                                newDocument.addPage(page);
+                                try (PDPageContentStream contentStream =
+                                        new PDPageContentStream(newDocument, page)) {
+                                    PDImageXObject pdImage =
+                                            cpuBoundExecutor.call(
+                                                    () ->
+                                                            JPEGFactory.createFromImage(
+                                                                    newDocument, image));
+                                    float pageWidth = page.getMediaBox().getWidth();
+                                    float pageHeight = page.getMediaBox().getHeight();
 
-                        contentStream.drawImage(pdImage, 0, 0, pageWidth, pageHeight);
-                    }
-                } catch (IOException e) {
-                    log.error("exception", e);
-                }
+                                    contentStream.drawImage(pdImage, 0, 0, pageWidth, pageHeight);
+                                }
+                            } catch (IOException e) {
+                                log.error("exception", e);
+                            }
+                        });
+            } catch (IOException | RuntimeException e) {
+                newDocument.close();
+                throw e;
             }
             return WebResponseUtils.pdfDocToWebResponse(
-                    newDocument, Filenames.toSimpleFileName(file.getOriginalFilename()));
+                    newDocument,
+                    Filenames.toSimpleFileName(file.getOriginalFilename()),
+                    pdfDocumentFactory);
         }
     }
 }
@@ -10,6 +10,7 @@ import java.util.Map.Entry;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
@@ -58,7 +59,7 @@ public class MetadataController {
                     "This endpoint allows you to update the metadata of a given PDF file. You can"
                             + " add, modify, or delete standard and custom metadata fields. Input:PDF"
                             + " Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> metadata(@ModelAttribute MetadataRequest request)
+    public ResponseEntity<Resource> metadata(@ModelAttribute MetadataRequest request)
             throws IOException {
 
         // Extract PDF file from the request object
@@ -180,6 +181,9 @@ public class MetadataController {
                 document,
                 Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
                                 .replaceFirst("[.][^.]+$", "")
-                        + "_metadata.pdf");
+                        + "_metadata.pdf",
+                pdfDocumentFactory,
+                // Deleted metadata must not stay readable in an earlier revision of the file
+                deleteAll ? pdfDocumentFactory::save : pdfDocumentFactory::saveIncrementally);
     }
 }
@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api.misc;
 
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -13,7 +12,7 @@ import javax.imageio.ImageIO;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +33,11 @@ import lombok.extern.slf4j.Slf4j;
 import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.api.misc.ProcessPdfWithOcrRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
+import stirling.software.SPDF.utils.CancellationToken;
 
 @RestController
 @RequestMapping("/api/v1/misc")
@@ -45,6 +49,9 @@ public class OCRController {
     private final ApplicationProperties applicationProperties;
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+    private final PageRenderService pageRenderService;
 
     /** Gets the list of available Tesseract languages from the tessdata directory */
     public List<String> getAvailableTesseractLanguages() {
@@ -73,23 +80,23 @@ public class OCRController {
         MultipartFile inputFile = request.getFileInput();
         List<String> languages = request.getLanguages();
         String ocrType = request.getOcrType();
-        Path tempDir = Files.createTempDirectory("ocr_process");
-        Path tempInputFile = tempDir.resolve("input.pdf");
+        Path tempDir = tempFileManager.createTempDirectory("ocr_process");
+        Path tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
         Path tempOutputDir = tempDir.resolve("output");
         Path tempImagesDir = tempDir.resolve("images");
         Path finalOutputFile = tempDir.resolve("final_output.pdf");
         Files.createDirectories(tempOutputDir);
         Files.createDirectories(tempImagesDir);
-        Process process = null;
         try {
-            // Save input file
-            inputFile.transferTo(tempInputFile.toFile());
             PDFMergerUtility merger = new PDFMergerUtility();
             merger.setDestinationFileName(finalOutputFile.toString());
             try (PDDocument document = pdfDocumentFactory.load(tempInputFile.toFile())) {
-                PDFRenderer pdfRenderer = new PDFRenderer(document);
                 int pageCount = document.getNumberOfPages();
+                CancellationToken cancellation = CancellationToken.current();
+                List<Integer> ocrPages = new ArrayList<>();
+                boolean[] ocrPage = new boolean[pageCount];
                 for (int pageNum = 0; pageNum < pageCount; pageNum++) {
+                    cancellation.throwIfCancelled(pageCount - pageNum);
                     PDPage page = document.getPage(pageNum);
                     boolean hasText = false;
                     // Check for existing text
@@ -104,49 +111,41 @@ public class OCRController {
                                 case "force-ocr" -> true;
                                 default -> true;
                             };
+                    if (shouldOcr) {
+                        ocrPages.add(pageNum);
+                        ocrPage[pageNum] = true;
+                    }
+                }
+                // Convert the pages to images in parallel, Tesseract takes them in page order
+                pageRenderService.render(
+                        document,
+                        ocrPages,
+                        RenderSettings.of(300, ImageType.RGB),
+                        (pageNum, image) -> {
+                            Path imagePath =
+                                    tempImagesDir.resolve(String.format("page_%d.png", pageNum));
+                            ImageIO.write(image, "png", imagePath.toFile());
+                            return imagePath;
+                        },
+                        (pageNum, imagePath) ->
+                                runTesseract(
+                                        imagePath,
+                                        tempOutputDir.resolve(String.format("page_%d", pageNum)),
+                                        languages,
+                                        pageCount - pageNum));
+                for (int pageNum = 0; pageNum < pageCount; pageNum++) {
                     Path pageOutputPath =
                             tempOutputDir.resolve(String.format("page_%d.pdf", pageNum));
-                    if (shouldOcr) {
-                        // Convert page to image
-                        BufferedImage image = pdfRenderer.renderImageWithDPI(pageNum, 300);
-                        Path imagePath =
-                                tempImagesDir.resolve(String.format("page_%d.png", pageNum));
-                        ImageIO.write(image, "png", imagePath.toFile());
-                        // Build OCR command
-                        List<String> command = new ArrayList<>();
-                        command.add("tesseract");
-                        command.add(imagePath.toString());
-                        command.add(
-                                tempOutputDir
-                                        .resolve(String.format("page_%d", pageNum))
-                                        .toString());
-                        command.add("-l");
-                        command.add(String.join("+", languages));
-                        // Always output PDF
-                        command.add("pdf");
-                        ProcessBuilder pb = new ProcessBuilder(command);
-                        process = pb.start();
-                        // Capture any error output
-                        try (BufferedReader reader =
-                                new BufferedReader(
-                                        new InputStreamReader(process.getErrorStream()))) {
-                            String line;
-                            while ((line = BoundedLineReader.readLine(reader, 5_000_000)) != null) {
-                                log.debug("Tesseract: {}", line);
-                            }
-                        }
-                        int exitCode = process.waitFor();
-                        if (exitCode != 0) {
-                            throw new RuntimeException(
-                                    "Tesseract failed with exit code: " + exitCode);
-                        }
+                    if (ocrPage[pageNum]) {
                         // Add OCR'd PDF to merger
                         merger.addSource(pageOutputPath.toFile());
                     } else {
                         // Save original page without OCR
                         try (PDDocument pageDoc = new PDDocument()) {
-                            pageDoc.addPage(page);
-                            pageDoc.save(pageOutputPath.toFile());
+                            pageDoc.addPage(document.getPage(pageNum));
+                            try (OutputStream out = Files.newOutputStream(pageOutputPath)) {
+                                pdfDocumentFactory.save(pageDoc, out);
+                            }
                             merger.addSource(pageOutputPath.toFile());
                         }
                     }
@@ -167,14 +166,60 @@ public class OCRController {
                     .contentType(MediaType.APPLICATION_PDF)
                     .body(pdfContent);
         } finally {
-            if (process != null) {
-                process.destroy();
-            }
             // Clean up temporary files
             deleteDirectory(tempDir);
         }
     }
 
+    private void runTesseract(
+            Path imagePath, Path outputBase, List<String> languages, int remainingPages)
+            throws IOException {
+        // Build OCR command
+        List<String> command = new ArrayList<>();
+        command.add("tesseract");
+        command.add(imagePath.toString());
+        command.add(outputBase.toString());
+        command.add("-l");
+        command.add(String.join("+", languages));
+        // Always output PDF
+        command.add("pdf");
+        ProcessBuilder pb = new ProcessBuilder(command);
+        Process process = pb.start();
+        CancellationToken cancellation = CancellationToken.current();
+        CancellationToken.Registration killOnCancel =
+                cancellation.onCancel(
+                        () -> {
+                            // Counted first, the caller may see the process die right away
+                            cancellation.recordKilledProcess();
+                            process.destroyForcibly();
+                        });
+        try {
+            int exitCode;
+            try {
+                // Capture any error output
+                try (BufferedReader reader =
+                        new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                    String line;
+                    while ((line = BoundedLineReader.readLine(reader, 5_000_000)) != null) {
+                        log.debug("Tesseract: {}", line);
+                    }
+                }
+                exitCode = process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for Tesseract");
+            } finally {
+                killOnCancel.close();
+            }
+            cancellation.throwIfCancelled(remainingPages);
+            if (exitCode != 0) {
+                throw new RuntimeException("Tesseract failed with exit code: " + exitCode);
+            }
+        } finally {
+            process.destroy();
+        }
+    }
+
     private void addFileToZip(File file, String filename, ZipOutputStream zipOut)
             throws IOException {
         if (!file.exists()) {
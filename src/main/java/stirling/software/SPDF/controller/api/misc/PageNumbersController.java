@@ -1,6 +1,5 @@
 package stirling.software.SPDF.controller.api.misc;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 
@@ -10,7 +9,7 @@ import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,6 +23,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import lombok.RequiredArgsConstructor;
 
+import stirling.software.SPDF.controller.api.pipeline.DocumentOperation;
 import stirling.software.SPDF.model.api.misc.AddPageNumbersRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 import stirling.software.SPDF.utils.GeneralUtils;
@@ -43,17 +43,30 @@ public class PageNumbersController {
             description =
                     "This operation takes an input PDF file and adds page numbers to it. Input:PDF"
                             + " Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> addPageNumbers(@ModelAttribute AddPageNumbersRequest request)
+    public ResponseEntity<Resource> addPageNumbers(@ModelAttribute AddPageNumbersRequest request)
             throws IOException {
 
         MultipartFile file = request.getFileInput();
+        PDDocument document = pdfDocumentFactory.load(file);
+
+        return WebResponseUtils.pdfDocToWebResponse(
+                numberPages(document, request),
+                Filenames.toSimpleFileName(file.getOriginalFilename()).replaceFirst("[.][^.]+$", "")
+                        + "_numbersAdded.pdf",
+                pdfDocumentFactory,
+                pdfDocumentFactory::saveIncrementally);
+    }
+
+    @DocumentOperation
+    public PDDocument numberPages(PDDocument document, AddPageNumbersRequest request)
+            throws IOException {
+        MultipartFile file = request.getFileInput();
         String customMargin = request.getCustomMargin();
         int position = request.getPosition();
         int startingNumber = request.getStartingNumber();
         String pagesToNumber = request.getPagesToNumber();
         String customText = request.getCustomText();
         int pageNumber = startingNumber;
-        PDDocument document = pdfDocumentFactory.load(file);
         float font_size = request.getFontSize();
         String font_type = request.getFontType();
         float marginFactor;
@@ -160,15 +173,6 @@ public class PageNumbersController {
 
             pageNumber++;
         }
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return WebResponseUtils.bytesToWebResponse(
-                baos.toByteArray(),
-                Filenames.toSimpleFileName(file.getOriginalFilename()).replaceFirst("[.][^.]+$", "")
-                        + "_numbersAdded.pdf",
-                MediaType.APPLICATION_PDF);
+        return document;
     }
 }
@@ -22,6 +22,7 @@ import lombok.RequiredArgsConstructor;
 import stirling.software.SPDF.model.api.PDFFile;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
 import stirling.software.SPDF.utils.ProcessExecutor;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -32,6 +33,7 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class RepairController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final UploadSpool uploadSpool;
 
     @PostMapping(consumes = "multipart/form-data", value = "/repair")
     @Operation(
@@ -44,9 +46,8 @@ public class RepairController {
             throws IOException, InterruptedException {
         MultipartFile inputFile = request.getFileInput();
         // Save the uploaded file to a temporary location
-        Path tempInputFile = Files.createTempFile("input_", ".pdf");
+        Path tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
         byte[] pdfBytes = null;
-        inputFile.transferTo(tempInputFile.toFile());
         try {
 
             List<String> command = new ArrayList<>();
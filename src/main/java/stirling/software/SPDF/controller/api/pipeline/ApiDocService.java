@@ -1,168 +1,154 @@
 package stirling.software.SPDF.controller.api.pipeline;
 
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import java.util.Set;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-import jakarta.servlet.ServletContext;
+import io.swagger.v3.oas.annotations.Operation;
 
 import lombok.extern.slf4j.Slf4j;
 
-import stirling.software.SPDF.SPDFApplication;
 import stirling.software.SPDF.model.ApiEndpoint;
-import stirling.software.SPDF.model.Role;
 
+/**
+ * Catalog of the operations a pipeline can run, built once from the handler mappings and the
+ * {@code @Operation} descriptions of the controllers. It does not depend on the OpenAPI docs being
+ * served.
+ */
 @Service
 @Slf4j
 public class ApiDocService {
 
-    private final Map<String, ApiEndpoint> apiDocumentation = new HashMap<>();
-
-    private final ServletContext servletContext;
-    private final UserServiceInterface userService;
-    Map<String, List<String>> outputToFileTypes = new HashMap<>();
-    JsonNode apiDocsJsonRootNode;
+    private static final Map<String, List<String>> FILE_TYPE_EXTENSIONS =
+            Map.ofEntries(
+                    Map.entry("PDF", List.of("pdf")),
+                    Map.entry(
+                            "IMAGE",
+                            List.of(
+                                    "png", "jpg", "jpeg", "gif", "webp", "bmp", "tif", "tiff",
+                                    "svg", "psd", "ai", "eps")),
+                    Map.entry(
+                            "ZIP",
+                            List.of(
+                                    "zip", "rar", "7z", "tar", "gz", "bz2", "xz", "lz", "lzma",
+                                    "z")),
+                    Map.entry("WORD", List.of("doc", "docx", "odt", "rtf")),
+                    Map.entry("CSV", List.of("csv")),
+                    Map.entry("JS", List.of("js", "jsx")),
+                    Map.entry("HTML", List.of("html", "htm", "xhtml")),
+                    Map.entry("JSON", List.of("json")),
+                    Map.entry("TXT", List.of("txt", "text", "md", "markdown")),
+                    Map.entry("PPT", List.of("ppt", "pptx", "odp")),
+                    Map.entry("XML", List.of("xml", "xsd", "xsl")),
+                    Map.entry("BOOK", List.of("epub", "mobi", "azw3", "fb2", "txt", "docx")));
+
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    private volatile Map<String, ApiEndpoint> apiDocumentation;
 
     public ApiDocService(
-            ServletContext servletContext,
-            @Autowired(required = false) UserServiceInterface userService) {
-        this.servletContext = servletContext;
-        this.userService = userService;
+            @Qualifier("requestMappingHandlerMapping")
+                    RequestMappingHandlerMapping handlerMapping) {
+        this.handlerMapping = handlerMapping;
     }
 
-    private String getApiDocsUrl() {
-        String contextPath = servletContext.getContextPath();
-        String port = SPDFApplication.getStaticPort();
-        return "http://localhost:" + port + contextPath + "/v1/api-docs";
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadApiDocumentation() {
+        getApiDocumentation();
     }
 
-    public List<String> getExtensionTypes(boolean output, String operationName) {
-        if (outputToFileTypes.size() == 0) {
-            outputToFileTypes.put("PDF", Arrays.asList("pdf"));
-            outputToFileTypes.put(
-                    "IMAGE",
-                    Arrays.asList(
-                            "png", "jpg", "jpeg", "gif", "webp", "bmp", "tif", "tiff", "svg", "psd",
-                            "ai", "eps"));
-            outputToFileTypes.put(
-                    "ZIP",
-                    Arrays.asList("zip", "rar", "7z", "tar", "gz", "bz2", "xz", "lz", "lzma", "z"));
-            outputToFileTypes.put("WORD", Arrays.asList("doc", "docx", "odt", "rtf"));
-            outputToFileTypes.put("CSV", Arrays.asList("csv"));
-            outputToFileTypes.put("JS", Arrays.asList("js", "jsx"));
-            outputToFileTypes.put("HTML", Arrays.asList("html", "htm", "xhtml"));
-            outputToFileTypes.put("JSON", Arrays.asList("json"));
-            outputToFileTypes.put("TXT", Arrays.asList("txt", "text", "md", "markdown"));
-            outputToFileTypes.put("PPT", Arrays.asList("ppt", "pptx", "odp"));
-            outputToFileTypes.put("XML", Arrays.asList("xml", "xsd", "xsl"));
-            outputToFileTypes.put(
-                    "BOOK", Arrays.asList("epub", "mobi", "azw3", "fb2", "txt", "docx"));
-            // type.
-        }
-        if (apiDocsJsonRootNode == null || apiDocumentation.size() == 0) {
-            loadApiDocumentation();
-        }
-        if (!apiDocumentation.containsKey(operationName)) {
-            return null;
-        }
-        ApiEndpoint endpoint = apiDocumentation.get(operationName);
-        String description = endpoint.getDescription();
-        Pattern pattern = null;
-        if (output) {
-            pattern = Pattern.compile("Output:(\\w+)");
-        } else {
-            pattern = Pattern.compile("Input:(\\w+)");
-        }
-        Matcher matcher = pattern.matcher(description);
-        while (matcher.find()) {
-            String type = matcher.group(1).toUpperCase();
-            if (outputToFileTypes.containsKey(type)) {
-                return outputToFileTypes.get(type);
+    private Map<String, ApiEndpoint> getApiDocumentation() {
+        Map<String, ApiEndpoint> documentation = apiDocumentation;
+        if (documentation == null) {
+            synchronized (this) {
+                documentation = apiDocumentation;
+                if (documentation == null) {
+                    documentation = buildApiDocumentation();
+                    apiDocumentation = documentation;
+                }
             }
         }
-        return null;
+        return documentation;
     }
 
-    private String getApiKeyForUser() {
-        if (userService == null) return "";
-        return userService.getApiKeyForUser(Role.INTERNAL_API_USER.getRoleId());
+    private Map<String, ApiEndpoint> buildApiDocumentation() {
+        Map<String, ApiEndpoint> documentation = new HashMap<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry :
+                handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            HandlerMethod handlerMethod = entry.getValue();
+            Operation operation = handlerMethod.getMethodAnnotation(Operation.class);
+            if (operation == null
+                    || !info.getMethodsCondition().getMethods().contains(RequestMethod.POST)) {
+                continue;
+            }
+            Set<String> requiredParameters = getRequiredParameters(handlerMethod);
+            for (String path : info.getPatternValues()) {
+                documentation.put(
+                        path,
+                        new ApiEndpoint(
+                                path,
+                                operation.description(),
+                                requiredParameters,
+                                FILE_TYPE_EXTENSIONS.keySet()));
+            }
+        }
+        log.info("Pipeline operation catalog built with {} operations", documentation.size());
+        return Map.copyOf(documentation);
     }
 
-    // @EventListener(ApplicationReadyEvent.class)
-    private synchronized void loadApiDocumentation() {
-        String apiDocsJson = "";
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            String apiKey = getApiKeyForUser();
-            if (!apiKey.isEmpty()) {
-                headers.set("X-API-KEY", apiKey);
+    /** Query parameters the request cannot do without, model attributes are validated on binding */
+    private static Set<String> getRequiredParameters(HandlerMethod handlerMethod) {
+        Set<String> requiredParameters = new HashSet<>();
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestParam == null
+                    || !requestParam.required()
+                    || !ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())
+                    || parameter.isOptional()) {
+                continue;
+            }
+            String name =
+                    !requestParam.name().isEmpty()
+                            ? requestParam.name()
+                            : parameter.getParameterName();
+            if (name != null) {
+                requiredParameters.add(name);
             }
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            RestTemplate restTemplate = new RestTemplate();
-            ResponseEntity<String> response =
-                    restTemplate.exchange(getApiDocsUrl(), HttpMethod.GET, entity, String.class);
-            apiDocsJson = response.getBody();
-            ObjectMapper mapper = new ObjectMapper();
-            apiDocsJsonRootNode = mapper.readTree(apiDocsJson);
-            JsonNode paths = apiDocsJsonRootNode.path("paths");
-            paths.fields()
-                    .forEachRemaining(
-                            entry -> {
-                                String path = entry.getKey();
-                                JsonNode pathNode = entry.getValue();
-                                if (pathNode.has("post")) {
-                                    JsonNode postNode = pathNode.get("post");
-                                    ApiEndpoint endpoint = new ApiEndpoint(path, postNode);
-                                    apiDocumentation.put(path, endpoint);
-                                }
-                            });
-        } catch (Exception e) {
-            // Handle exceptions
-            log.error("Error grabbing swagger doc, body result {}", apiDocsJson);
         }
+        return requiredParameters;
     }
 
-    public boolean isValidOperation(String operationName, Map<String, Object> parameters) {
-        if (apiDocumentation.size() == 0) {
-            loadApiDocumentation();
-        }
-        if (!apiDocumentation.containsKey(operationName)) {
-            return false;
+    public List<String> getExtensionTypes(boolean output, String operationName) {
+        ApiEndpoint endpoint = getApiDocumentation().get(operationName);
+        if (endpoint == null) {
+            return null;
         }
-        ApiEndpoint endpoint = apiDocumentation.get(operationName);
-        return endpoint.areParametersValid(parameters);
+        String fileType = output ? endpoint.getOutputType() : endpoint.getInputType();
+        return fileType != null ? FILE_TYPE_EXTENSIONS.get(fileType) : null;
+    }
+
+    public boolean isValidOperation(String operationName, Map<String, Object> parameters) {
+        ApiEndpoint endpoint = getApiDocumentation().get(operationName);
+        return endpoint != null && endpoint.areParametersValid(parameters);
     }
 
     public boolean isMultiInput(String operationName) {
-        if (apiDocsJsonRootNode == null || apiDocumentation.size() == 0) {
-            loadApiDocumentation();
-        }
-        if (!apiDocumentation.containsKey(operationName)) {
-            return false;
-        }
-        ApiEndpoint endpoint = apiDocumentation.get(operationName);
-        String description = endpoint.getDescription();
-        Pattern pattern = Pattern.compile("Type:(\\w+)");
-        Matcher matcher = pattern.matcher(description);
-        if (matcher.find()) {
-            String type = matcher.group(1);
-            return type.startsWith("MI");
-        }
-        return false;
+        ApiEndpoint endpoint = getApiDocumentation().get(operationName);
+        return endpoint != null && endpoint.isMultiInput();
     }
 }
-// Model class for API Endpoint
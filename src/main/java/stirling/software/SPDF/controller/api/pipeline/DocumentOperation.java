@@ -0,0 +1,23 @@
+package stirling.software.SPDF.controller.api.pipeline;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the document-level entry point of a PDF to PDF endpoint, a controller method of the form
+ * {@code PDDocument apply(PDDocument document, XRequest request)} where {@code XRequest} is the
+ * model attribute of the endpoint's handler method in the same controller. The method works on the
+ * loaded document and returns it, or a replacement after closing it; the request's fileInput only
+ * supplies the file name. A method that fails closes any replacement it created, its input is
+ * closed by the caller unless the method closed it already.
+ *
+ * <p>Pipelines run consecutive operations with such an entry point on one loaded document and save
+ * it once at the end, see PipelineOperationDispatcher#dispatchFused.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DocumentOperation {}
@@ -1,7 +1,8 @@
 package stirling.software.SPDF.controller.api.pipeline;
 
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,7 +48,7 @@ public class PipelineController {
     private final PostHogService postHogService;
 
     @PostMapping(value = "/handleData", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<byte[]> handleData(@ModelAttribute HandleDataRequest request)
+    public ResponseEntity<Resource> handleData(@ModelAttribute HandleDataRequest request)
             throws JsonMappingException, JsonProcessingException {
         MultipartFile[] files = request.getFileInput();
         String jsonString = request.getJson();
@@ -76,50 +77,45 @@ public class PipelineController {
             if (outputFiles != null && outputFiles.size() == 1) {
                 // If there is only one file, return it directly
                 Resource singleFile = outputFiles.get(0);
-                InputStream is = singleFile.getInputStream();
-                byte[] bytes = new byte[(int) singleFile.contentLength()];
-                is.read(bytes);
-                is.close();
                 log.info("Returning single file response...");
-                return WebResponseUtils.bytesToWebResponse(
-                        bytes, singleFile.getFilename(), MediaType.APPLICATION_OCTET_STREAM);
+                return WebResponseUtils.fileToWebResponse(
+                        singleFile.getFile().toPath(),
+                        singleFile.getFilename(),
+                        MediaType.APPLICATION_OCTET_STREAM);
             } else if (outputFiles == null) {
                 return null;
             }
-            // Create a ByteArrayOutputStream to hold the zip
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ZipOutputStream zipOut = new ZipOutputStream(baos);
-            // A map to keep track of filenames and their counts
-            Map<String, Integer> filenameCount = new HashMap<>();
-            // Loop through each file and add it to the zip
-            for (Resource file : outputFiles) {
-                String originalFilename = file.getFilename();
-                String filename = originalFilename;
-                // Check if the filename already exists, and modify it if necessary
-                if (filenameCount.containsKey(originalFilename)) {
-                    int count = filenameCount.get(originalFilename);
-                    String baseName = originalFilename.replaceAll("\\.[^.]*$", "");
-                    String extension = originalFilename.replaceAll("^.*\\.", "");
-                    filename = baseName + "(" + count + ")." + extension;
-                    filenameCount.put(originalFilename, count + 1);
-                } else {
-                    filenameCount.put(originalFilename, 1);
+            // The zip is written next to the files it holds and removed with them
+            Path zipFile = Files.createTempFile(result.getScratchDirectory(), "output-", ".zip");
+            try (ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+                // A map to keep track of filenames and their counts
+                Map<String, Integer> filenameCount = new HashMap<>();
+                // Loop through each file and add it to the zip
+                for (Resource file : outputFiles) {
+                    String originalFilename = file.getFilename();
+                    String filename = originalFilename;
+                    // Check if the filename already exists, and modify it if necessary
+                    if (filenameCount.containsKey(originalFilename)) {
+                        int count = filenameCount.get(originalFilename);
+                        String baseName = originalFilename.replaceAll("\\.[^.]*$", "");
+                        String extension = originalFilename.replaceAll("^.*\\.", "");
+                        filename = baseName + "(" + count + ")." + extension;
+                        filenameCount.put(originalFilename, count + 1);
+                    } else {
+                        filenameCount.put(originalFilename, 1);
+                    }
+                    ZipEntry zipEntry = new ZipEntry(filename);
+                    zipOut.putNextEntry(zipEntry);
+                    // Copy the file into the zip
+                    try (InputStream is = file.getInputStream()) {
+                        is.transferTo(zipOut);
+                    }
+                    zipOut.closeEntry();
                 }
-                ZipEntry zipEntry = new ZipEntry(filename);
-                zipOut.putNextEntry(zipEntry);
-                // Read the file into a byte array
-                InputStream is = file.getInputStream();
-                byte[] bytes = new byte[(int) file.contentLength()];
-                is.read(bytes);
-                // Write the bytes of the file to the zip
-                zipOut.write(bytes, 0, bytes.length);
-                zipOut.closeEntry();
-                is.close();
             }
-            zipOut.close();
             log.info("Returning zipped file response...");
-            return WebResponseUtils.boasToWebResponse(
-                    baos, "output.zip", MediaType.APPLICATION_OCTET_STREAM);
+            return WebResponseUtils.fileToWebResponse(
+                    zipFile, "output.zip", MediaType.APPLICATION_OCTET_STREAM);
         } catch (Exception e) {
             log.error("Error handling data: ", e);
             return null;
@@ -1,9 +1,8 @@
 package stirling.software.SPDF.controller.api.pipeline;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystemException;
 import java.nio.file.FileVisitResult;
@@ -16,27 +15,41 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.config.RuntimePathConfig;
+import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.PipelineConfig;
 import stirling.software.SPDF.model.PipelineOperation;
 import stirling.software.SPDF.model.PipelineResult;
 import stirling.software.SPDF.service.PostHogService;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.FileMonitor;
 
 @Service
@@ -48,8 +61,17 @@ public class PipelineDirectoryProcessor {
     private final PipelineProcessor processor;
     private final FileMonitor fileMonitor;
     private final PostHogService postHogService;
+    private final TempFileManager tempFileManager;
     private final String watchedFoldersDir;
     private final String finishedFoldersDir;
+    private final int maxBatchesPerFolder;
+    private final int batchSize;
+
+    // Claims the ready files of folders and runs their batches, shared by all watched folders
+    private final ThreadPoolExecutor folderExecutor;
+    // Folders with a claim queued, further triggers for them would find nothing new
+    private final Set<Path> pendingClaims = ConcurrentHashMap.newKeySet();
+    private final Map<Path, FolderQueue> folderQueues = new ConcurrentHashMap<>();
 
     public PipelineDirectoryProcessor(
             ObjectMapper objectMapper,
@@ -57,16 +79,101 @@ public class PipelineDirectoryProcessor {
             PipelineProcessor processor,
             FileMonitor fileMonitor,
             PostHogService postHogService,
-            RuntimePathConfig runtimePathConfig) {
+            TempFileManager tempFileManager,
+            RuntimePathConfig runtimePathConfig,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
         this.apiDocService = apiDocService;
         this.processor = processor;
         this.fileMonitor = fileMonitor;
         this.postHogService = postHogService;
+        this.tempFileManager = tempFileManager;
         this.watchedFoldersDir = runtimePathConfig.getPipelineWatchedFoldersPath();
         this.finishedFoldersDir = runtimePathConfig.getPipelineFinishedFoldersPath();
+
+        ApplicationProperties.AutoPipeline settings = applicationProperties.getAutoPipeline();
+        this.maxBatchesPerFolder = settings.getMaxBatchesPerFolder();
+        this.batchSize = settings.getFolderBatchSize();
+        AtomicInteger threadCount = new AtomicInteger();
+        int workers = settings.getFolderWorkers();
+        this.folderExecutor =
+                new ThreadPoolExecutor(
+                        workers,
+                        workers,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "pipeline-folder-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        Gauge.builder(
+                        "stirling.pipeline.folders.queued",
+                        this,
+                        PipelineDirectoryProcessor::getQueuedTasks)
+                .description("Watched folder claims and batches waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder(
+                        "stirling.pipeline.folders.running",
+                        folderExecutor,
+                        ThreadPoolExecutor::getActiveCount)
+                .description("Watched folder claims and batches being processed")
+                .register(meterRegistry);
+
+        fileMonitor.addReadyListener(this::onFilesReady);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        folderExecutor.shutdownNow();
+    }
+
+    private int getQueuedTasks() {
+        int queued = folderExecutor.getQueue().size();
+        for (FolderQueue folderQueue : folderQueues.values()) {
+            queued += folderQueue.getPendingCount();
+        }
+        return queued;
+    }
+
+    /** Files stopped changing, process the folders they were dropped into */
+    private void onFilesReady(Set<Path> readyFiles) {
+        Path watchedFolderPath = Paths.get(watchedFoldersDir).toAbsolutePath();
+        readyFiles.stream()
+                .map(path -> path.toAbsolutePath().getParent())
+                .filter(
+                        dir ->
+                                dir != null
+                                        && dir.startsWith(watchedFolderPath)
+                                        && !dir.equals(watchedFolderPath)
+                                        && !dir.endsWith("processing"))
+                .distinct()
+                .forEach(this::scheduleDirectory);
     }
 
+    /** Queue a claim of the ready files of the folder, unless one is queued already */
+    private void scheduleDirectory(Path dir) {
+        if (!pendingClaims.add(dir)) {
+            return;
+        }
+        folderExecutor.execute(
+                () -> {
+                    pendingClaims.remove(dir);
+                    try {
+                        handleDirectory(dir);
+                    } catch (Exception e) {
+                        log.error("Error handling directory: {}", dir, e);
+                    }
+                });
+    }
+
+    // Folders are picked up when FileMonitor reports their files as ready, the scan catches what
+    // it missed, e.g. files that were locked when it reported them
     @Scheduled(fixedRate = 60000)
     public void scanFolders() {
         Path watchedFolderPath = Paths.get(watchedFoldersDir).toAbsolutePath();
@@ -90,7 +197,7 @@ public class PipelineDirectoryProcessor {
                             try {
                                 // Skip root directory and "processing" subdirectories
                                 if (!dir.equals(watchedFolderPath) && !dir.endsWith("processing")) {
-                                    handleDirectory(dir);
+                                    scheduleDirectory(dir);
                                 }
                             } catch (Exception e) {
                                 log.error("Error handling directory: {}", dir, e);
@@ -111,6 +218,13 @@ public class PipelineDirectoryProcessor {
     }
 
     public void handleDirectory(Path dir) throws IOException {
+        // One claim per folder at a time, so no file ends up in two batches
+        synchronized (folderQueue(dir).claimLock) {
+            claimDirectory(dir);
+        }
+    }
+
+    private void claimDirectory(Path dir) throws IOException {
         log.info("Handling directory: {}", dir);
         Path processingDir = createProcessingDirectory(dir);
         Optional<Path> jsonFileOptional = findJsonFile(dir);
@@ -162,7 +276,65 @@ public class PipelineDirectoryProcessor {
             postHogService.captureEvent("pipeline_directory_event", properties);
 
             List<File> filesToProcess = prepareFilesForProcessing(files, processingDir);
-            runPipelineAgainstFiles(filesToProcess, config, dir, processingDir);
+            int size = batchSize > 0 ? batchSize : Math.max(filesToProcess.size(), 1);
+            for (int start = 0; start < filesToProcess.size(); start += size) {
+                List<File> batch =
+                        filesToProcess.subList(
+                                start, Math.min(start + size, filesToProcess.size()));
+                folderQueue(dir).submit(() -> runBatch(batch, config, dir, processingDir));
+            }
+        }
+    }
+
+    private FolderQueue folderQueue(Path dir) {
+        return folderQueues.computeIfAbsent(dir.toAbsolutePath(), key -> new FolderQueue());
+    }
+
+    private void runBatch(List<File> batch, PipelineConfig config, Path dir, Path processingDir) {
+        try {
+            runPipelineAgainstFiles(batch, config, dir, processingDir);
+        } catch (IOException e) {
+            log.error("Error processing batch of {} files in {}", batch.size(), dir, e);
+        }
+    }
+
+    /** Batches of one folder, at most maxBatchesPerFolder of them are given to workers at once */
+    private class FolderQueue {
+        private final Object claimLock = new Object();
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int running;
+
+        synchronized void submit(Runnable batch) {
+            if (running < maxBatchesPerFolder) {
+                running++;
+                execute(batch);
+            } else {
+                pending.add(batch);
+            }
+        }
+
+        private void execute(Runnable batch) {
+            folderExecutor.execute(
+                    () -> {
+                        try {
+                            batch.run();
+                        } finally {
+                            finished();
+                        }
+                    });
+        }
+
+        private synchronized void finished() {
+            Runnable next = pending.poll();
+            if (next != null) {
+                execute(next);
+            } else {
+                running--;
+            }
+        }
+
+        synchronized int getPendingCount() {
+            return pending.size();
         }
     }
 
@@ -310,12 +482,17 @@ public class PipelineDirectoryProcessor {
             }
             PipelineResult result = processor.runPipelineAgainstFiles(inputFiles, config);
 
-            if (result.isHasErrors()) {
-                log.error("Errors occurred during processing, retaining original files");
-                moveToErrorDirectory(filesToProcess, dir);
-            } else {
-                moveAndRenameFiles(result.getOutputFiles(), config, dir);
-                deleteOriginalFiles(filesToProcess, processingDir);
+            try {
+                if (result.isHasErrors()) {
+                    log.error("Errors occurred during processing, retaining original files");
+                    moveToErrorDirectory(filesToProcess, dir);
+                } else {
+                    moveAndRenameFiles(result.getOutputFiles(), config, dir);
+                    deleteOriginalFiles(filesToProcess, processingDir);
+                }
+            } finally {
+                // No request cleans up after the scheduler
+                tempFileManager.delete(result.getScratchDirectory());
             }
         } catch (Exception e) {
             log.error("Error during processing", e);
@@ -346,8 +523,8 @@ public class PipelineDirectoryProcessor {
                 log.info("Created directory: {}", outputPath);
             }
             Path outputFile = outputPath.resolve(outputFileName);
-            try (OutputStream os = new FileOutputStream(outputFile.toFile())) {
-                os.write(((ByteArrayResource) resource).getByteArray());
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, outputFile, StandardCopyOption.REPLACE_EXISTING);
             }
             log.info("File moved and renamed to {}", outputFile);
         }
@@ -0,0 +1,492 @@
+package stirling.software.SPDF.controller.api.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Conventions;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.validation.BindException;
+import org.springframework.validation.annotation.ValidationAnnotationUtils;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.support.WebBindingInitializer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.config.EndpointConfiguration;
+import stirling.software.SPDF.config.EndpointInterceptor;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PipelineOperation;
+import stirling.software.SPDF.service.BulkheadService;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.utils.CancellationToken;
+
+/**
+ * Runs pipeline operations by calling the controller method mapped to the operation path instead of
+ * posting a multipart request to localhost. Parameters are bound and validated the way Spring MVC
+ * binds a {@code @ModelAttribute}, including the controller's {@code @InitBinder} methods, and the
+ * endpoint has to be enabled and pass its bulkheads like an HTTP request. Input files are handed
+ * over as they are instead of being encoded, uploaded and spooled again for every step.
+ *
+ * <p>Only handlers with a single model attribute parameter can be called this way, {@link
+ * #canDispatch(String)} is false for all others and PipelineProcessor falls back to HTTP.
+ */
+@Service
+@Slf4j
+public class PipelineOperationDispatcher {
+
+    private static final String FILE_PARAMETER = "fileInput";
+
+    private final boolean enabled;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final WebBindingInitializer webBindingInitializer;
+    private final EndpointConfiguration endpointConfiguration;
+    private final BulkheadService bulkheadService;
+    private final ObjectMapper objectMapper;
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final Map<String, Optional<Target>> targets = new ConcurrentHashMap<>();
+
+    public PipelineOperationDispatcher(
+            ApplicationProperties applicationProperties,
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+            RequestMappingHandlerAdapter handlerAdapter,
+            EndpointConfiguration endpointConfiguration,
+            BulkheadService bulkheadService,
+            ObjectMapper objectMapper,
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            TempFileManager tempFileManager) {
+        this.enabled = applicationProperties.getAutoPipeline().isInProcessDispatch();
+        this.handlerMapping = handlerMapping;
+        this.webBindingInitializer = handlerAdapter.getWebBindingInitializer();
+        this.endpointConfiguration = endpointConfiguration;
+        this.bulkheadService = bulkheadService;
+        this.objectMapper = objectMapper;
+        this.pdfDocumentFactory = pdfDocumentFactory;
+        this.tempFileManager = tempFileManager;
+    }
+
+    /** Whether the operation can be run in-process, false means it has to go over HTTP */
+    public boolean canDispatch(String operation) {
+        return enabled && targets.computeIfAbsent(operation, this::resolve).isPresent();
+    }
+
+    /**
+     * Run the operation on the files with the given parameters.
+     *
+     * @param directory where the response body is written, e.g. the scratch directory of the
+     *     pipeline run
+     * @return the response as the HTTP call would have returned it with the body as a file in the
+     *     directory, a filter that rejected the file answers without a body
+     * @throws ResponseStatusException 403 if the endpoint is disabled, 503 if its bulkhead is full
+     * @throws BindException if the parameters do not bind or fail validation
+     */
+    public ResponseEntity<Resource> dispatch(
+            String operation, List<Resource> files, Map<String, Object> parameters, Path directory)
+            throws Exception {
+        Target target = target(operation);
+        String endpoint = checkEnabled(operation);
+        List<BulkheadService.Bulkhead> permits =
+                endpoint != null ? bulkheadService.acquire(endpoint) : List.of();
+        try {
+            log.debug("Running {} in-process on {} files", operation, files.size());
+            Object argument = bind(target, files, parameters);
+            return toFileResponse(invoke(target, argument), directory);
+        } finally {
+            bulkheadService.release(permits);
+        }
+    }
+
+    /** Whether the operation has a {@link DocumentOperation} entry point */
+    public boolean canFuse(String operation) {
+        return canDispatch(operation) && target(operation).documentMethod() != null;
+    }
+
+    /**
+     * Run PDF to PDF operations one after another on a single loaded document and save it once at
+     * the end, instead of parsing and saving the file for every operation. Every operation is
+     * bound, validated, checked and limited like in {@link #dispatch(String, List, Map, Path)}.
+     *
+     * @param directory where the resulting PDF is written, e.g. the scratch directory of the
+     *     pipeline run
+     * @return the resulting PDF under the name of the input file
+     */
+    public Resource dispatchFused(List<PipelineOperation> operations, Resource file, Path directory)
+            throws Exception {
+        List<Target> fused = new ArrayList<>(operations.size());
+        for (PipelineOperation operation : operations) {
+            if (!canFuse(operation.getOperation())) {
+                throw new IllegalArgumentException(
+                        "Operation " + operation.getOperation() + " cannot be fused");
+            }
+            checkEnabled(operation.getOperation());
+            fused.add(target(operation.getOperation()));
+        }
+        CancellationToken cancellation = CancellationToken.current();
+        // The document the dispatcher owns, only replaced once a step returns
+        PDDocument document = pdfDocumentFactory.load(new ResourceMultipartFile(file));
+        try {
+            for (int i = 0; i < fused.size(); i++) {
+                cancellation.throwIfCancelled();
+                String operation = operations.get(i).getOperation();
+                Object argument =
+                        bind(fused.get(i), List.of(file), operations.get(i).getParameters());
+                String endpoint = EndpointInterceptor.getEndpointName(operation);
+                List<BulkheadService.Bulkhead> permits =
+                        endpoint != null ? bulkheadService.acquire(endpoint) : List.of();
+                try {
+                    log.debug(
+                            "Running {} on the loaded document of {}",
+                            operation,
+                            file.getFilename());
+                    PDDocument input = document;
+                    document =
+                            (PDDocument)
+                                    invokeUnwrapped(
+                                            fused.get(i).documentMethod(),
+                                            fused.get(i).handlerMethod().getBean(),
+                                            input,
+                                            argument);
+                    if (document != input) {
+                        closeIfOpen(input);
+                    }
+                } finally {
+                    bulkheadService.release(permits);
+                }
+            }
+        } catch (Exception | Error e) {
+            // The failed step's input, unless the step already closed it; a replacement the step
+            // never returned is its own to close
+            closeIfOpen(document);
+            throw e;
+        }
+        // Saved straight to disk, the result is never held on the heap
+        PDDocument result = document;
+        Path output = null;
+        try (result) {
+            output = Files.createTempFile(directory, "stage-", null);
+            try (OutputStream out = Files.newOutputStream(output)) {
+                pdfDocumentFactory.save(result, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (output != null) {
+                Files.deleteIfExists(output);
+            }
+            throw e;
+        }
+        return new PipelineProcessor.PipelineFileResource(output, file.getFilename());
+    }
+
+    private static void closeIfOpen(PDDocument document) throws IOException {
+        if (document != null && !document.getDocument().isClosed()) {
+            document.close();
+        }
+    }
+
+    private Target target(String operation) {
+        return targets.computeIfAbsent(operation, this::resolve)
+                .orElseThrow(
+                        () ->
+                                new IllegalArgumentException(
+                                        "Operation " + operation + " cannot run in-process"));
+    }
+
+    /** Refuse disabled endpoints like EndpointInterceptor, returns the endpoint name */
+    private String checkEnabled(String operation) {
+        String endpoint = EndpointInterceptor.getEndpointName(operation);
+        if (!endpointConfiguration.isEndpointEnabled(endpoint != null ? endpoint : operation)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "This endpoint is disabled");
+        }
+        return endpoint;
+    }
+
+    private Optional<Target> resolve(String operation) {
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry :
+                handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            if (!info.getPatternValues().contains(operation)
+                    || !info.getMethodsCondition().getMethods().contains(RequestMethod.POST)) {
+                continue;
+            }
+            HandlerMethod handlerMethod = entry.getValue().createWithResolvedBean();
+            MethodParameter[] parameters = handlerMethod.getMethodParameters();
+            if (parameters.length != 1 || !isModelAttribute(parameters[0])) {
+                log.debug("{} takes more than a model attribute, calling it over HTTP", operation);
+                return Optional.empty();
+            }
+            return Optional.of(
+                    new Target(
+                            handlerMethod,
+                            parameters[0],
+                            findDocumentMethod(handlerMethod.getBean(), parameters[0])));
+        }
+        log.debug("No handler found for {}, calling it over HTTP", operation);
+        return Optional.empty();
+    }
+
+    private static Method findDocumentMethod(Object controller, MethodParameter parameter) {
+        for (Method method : ClassUtils.getUserClass(controller).getMethods()) {
+            if (method.isAnnotationPresent(DocumentOperation.class)
+                    && PDDocument.class.equals(method.getReturnType())
+                    && method.getParameterCount() == 2
+                    && PDDocument.class.equals(method.getParameterTypes()[0])
+                    && parameter.getParameterType().equals(method.getParameterTypes()[1])) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isModelAttribute(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        if (BeanUtils.isSimpleProperty(type) || MultipartFile.class.isAssignableFrom(type)) {
+            return false;
+        }
+        if (parameter.getParameterAnnotations().length > 0
+                && !parameter.hasParameterAnnotation(ModelAttribute.class)) {
+            return false;
+        }
+        return ClassUtils.hasConstructor(type);
+    }
+
+    private Object bind(Target target, List<Resource> files, Map<String, Object> parameters)
+            throws Exception {
+        MethodParameter parameter = target.parameter();
+        Object model = BeanUtils.instantiateClass(parameter.getParameterType());
+        WebDataBinder binder =
+                new WebDataBinder(model, Conventions.getVariableNameForParameter(parameter));
+        if (webBindingInitializer != null) {
+            webBindingInitializer.initBinder(binder);
+        }
+        invokeInitBinders(target.handlerMethod().getBean(), binder);
+
+        // The same values the multipart request carried: every parameter as text, lists as
+        // repeated parts, and the files under fileInput
+        MutablePropertyValues values = new MutablePropertyValues();
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            if (entry.getValue() instanceof List<?> list) {
+                values.add(
+                        entry.getKey(), list.stream().map(String::valueOf).toArray(String[]::new));
+            } else if (entry.getValue() != null) {
+                values.add(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        MultipartFile[] multipartFiles =
+                files.stream().map(ResourceMultipartFile::new).toArray(MultipartFile[]::new);
+        values.add(FILE_PARAMETER, multipartFiles.length == 1 ? multipartFiles[0] : multipartFiles);
+        binder.bind(values);
+
+        for (Annotation annotation : parameter.getParameterAnnotations()) {
+            Object[] hints = ValidationAnnotationUtils.determineValidationHints(annotation);
+            if (hints != null) {
+                binder.validate(hints);
+                break;
+            }
+        }
+        if (binder.getBindingResult().hasErrors()) {
+            throw new BindException(binder.getBindingResult());
+        }
+        return model;
+    }
+
+    private static void invokeInitBinders(Object controller, WebDataBinder binder)
+            throws Exception {
+        for (Method method : ClassUtils.getUserClass(controller).getMethods()) {
+            InitBinder initBinder =
+                    AnnotatedElementUtils.findMergedAnnotation(method, InitBinder.class);
+            if (initBinder == null
+                    || method.getParameterCount() != 1
+                    || !WebDataBinder.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+            if (initBinder.value().length > 0
+                    && !List.of(initBinder.value()).contains(binder.getObjectName())) {
+                continue;
+            }
+            invokeUnwrapped(method, controller, binder);
+        }
+    }
+
+    private static Object invoke(Target target, Object argument) throws Exception {
+        HandlerMethod handlerMethod = target.handlerMethod();
+        return invokeUnwrapped(handlerMethod.getMethod(), handlerMethod.getBean(), argument);
+    }
+
+    private static Object invokeUnwrapped(Method method, Object bean, Object... arguments)
+            throws Exception {
+        ReflectionUtils.makeAccessible(method);
+        try {
+            return method.invoke(bean, arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception exception) {
+                throw exception;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write whatever the handler returned to a file in the directory, the body the HTTP response
+     * would have carried. Temp files behind the response are moved instead of copied.
+     */
+    private ResponseEntity<Resource> toFileResponse(Object result, Path directory)
+            throws IOException {
+        if (result == null) {
+            return ResponseEntity.ok().build();
+        }
+        ResponseEntity<?> response =
+                result instanceof ResponseEntity<?> entity ? entity : ResponseEntity.ok(result);
+        Object body = response.getBody();
+        Path path = Files.createTempFile(directory, "stage-", null);
+        try {
+            if (body != null) {
+                writeBody(body, path);
+            }
+            if (Files.size(path) == 0) {
+                Files.delete(path);
+                return new ResponseEntity<>(response.getHeaders(), response.getStatusCode());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new ResponseEntity<>(
+                new FileSystemResource(path), response.getHeaders(), response.getStatusCode());
+    }
+
+    private void writeBody(Object body, Path path) throws IOException {
+        if (body instanceof FileSystemResource file
+                && file.getFile().toPath().startsWith(tempFileManager.getBaseDirectory())) {
+            // Outside of a request nothing else would remove it
+            Files.move(file.getFile().toPath(), path, StandardCopyOption.REPLACE_EXISTING);
+        } else if (body instanceof byte[] array) {
+            Files.write(path, array);
+        } else if (body instanceof Resource resource) {
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else if (body instanceof StreamingResponseBody streamingBody) {
+            try (OutputStream out = Files.newOutputStream(path)) {
+                streamingBody.writeTo(out);
+            }
+        } else if (body instanceof String text) {
+            Files.writeString(path, text, StandardCharsets.UTF_8);
+        } else {
+            objectMapper.writeValue(path.toFile(), body);
+        }
+    }
+
+    private record Target(
+            HandlerMethod handlerMethod, MethodParameter parameter, Method documentMethod) {}
+
+    /** A pipeline file handed to a controller as if it had been uploaded */
+    static class ResourceMultipartFile implements MultipartFile {
+
+        private final Resource resource;
+
+        ResourceMultipartFile(Resource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public String getName() {
+            return FILE_PARAMETER;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return resource.getFilename();
+        }
+
+        @Override
+        public String getContentType() {
+            return MediaTypeFactory.getMediaType(resource.getFilename())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return resource.contentLength();
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            if (resource instanceof ByteArrayResource byteArrayResource) {
+                return byteArrayResource.getByteArray();
+            }
+            try (InputStream in = resource.getInputStream()) {
+                return in.readAllBytes();
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return resource.getInputStream();
+        }
+
+        @Override
+        public Resource getResource() {
+            return resource;
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -6,36 +6,53 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.github.pixee.security.Filenames;
 import io.github.pixee.security.ZipSecurity;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.ServletContext;
 
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.SPDFApplication;
+import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.PipelineConfig;
 import stirling.software.SPDF.model.PipelineOperation;
 import stirling.software.SPDF.model.PipelineResult;
 import stirling.software.SPDF.model.Role;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.utils.CancellationToken;
 
 @Service
 @Slf4j
@@ -47,13 +64,39 @@ public class PipelineProcessor {
 
     private final ServletContext servletContext;
 
+    private final PipelineOperationDispatcher dispatcher;
+
+    private final TempFileManager tempFileManager;
+
+    private final int maxParallelFiles;
+
+    // Shared by all pipelines, each pipeline limits itself to its configured parallelism
+    private final ExecutorService fileExecutor;
+
     public PipelineProcessor(
             ApiDocService apiDocService,
             @Autowired(required = false) UserServiceInterface userService,
-            ServletContext servletContext) {
+            ServletContext servletContext,
+            PipelineOperationDispatcher dispatcher,
+            TempFileManager tempFileManager,
+            ApplicationProperties applicationProperties) {
         this.apiDocService = apiDocService;
         this.userService = userService;
         this.servletContext = servletContext;
+        this.dispatcher = dispatcher;
+        this.tempFileManager = tempFileManager;
+        this.maxParallelFiles = applicationProperties.getAutoPipeline().getMaxParallelFiles();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fileExecutor =
+                Executors.newFixedThreadPool(
+                        maxParallelFiles,
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable, "pipeline-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
     }
 
     public static String removeTrailingNaming(String filename) {
@@ -86,15 +129,72 @@ public class PipelineProcessor {
         return "http://localhost:" + port + contextPath + "/";
     }
 
+    /**
+     * Run the pipeline on the files. Every intermediate and output file is kept on disk in a
+     * scratch directory of this run, see {@link PipelineResult#getScratchDirectory()}; it is
+     * deleted here if the run fails and by the caller or the end of the request otherwise.
+     */
     PipelineResult runPipelineAgainstFiles(List<Resource> outputFiles, PipelineConfig config)
             throws Exception {
+        Path scratchDirectory = tempFileManager.createTempDirectory("pipeline-");
+        try {
+            return runPipelineAgainstFiles(outputFiles, config, scratchDirectory);
+        } catch (Exception | Error e) {
+            tempFileManager.delete(scratchDirectory);
+            throw e;
+        }
+    }
+
+    private PipelineResult runPipelineAgainstFiles(
+            List<Resource> outputFiles, PipelineConfig config, Path scratchDirectory)
+            throws Exception {
         PipelineResult result = new PipelineResult();
+        result.setScratchDirectory(scratchDirectory);
 
         ByteArrayOutputStream logStream = new ByteArrayOutputStream();
         PrintStream logPrintStream = new PrintStream(logStream);
         boolean hasErrors = false;
-        for (PipelineOperation pipelineOperation : config.getOperations()) {
+        int parallelism =
+                Math.min(
+                        config.getParallelism() != null ? Math.max(config.getParallelism(), 1) : 1,
+                        maxParallelFiles);
+        List<PipelineOperation> operations = config.getOperations();
+        for (int index = 0; index < operations.size(); index++) {
+            PipelineOperation pipelineOperation = operations.get(index);
             String operation = pipelineOperation.getOperation();
+            List<PipelineOperation> fusedOperations = fusableRun(operations, index);
+            if (fusedOperations.size() > 1) {
+                index += fusedOperations.size() - 1;
+                List<String> inputFileTypes = apiDocService.getExtensionTypes(false, operation);
+                List<Resource> inputFiles = new ArrayList<>();
+                for (Resource file : outputFiles) {
+                    if (inputFileTypes == null
+                            || inputFileTypes.stream()
+                                    .anyMatch(file.getFilename().toLowerCase()::endsWith)) {
+                        inputFiles.add(file);
+                    } else {
+                        logPrintStream.println(
+                                "No files with extension "
+                                        + String.join(", ", inputFileTypes)
+                                        + " found for operation "
+                                        + operation);
+                        hasErrors = true;
+                    }
+                }
+                log.info(
+                        "Running operations {} on one loaded document per file",
+                        fusedOperations.stream().map(PipelineOperation::getOperation).toList());
+                List<Resource> newOutputFiles =
+                        runPerFile(
+                                inputFiles,
+                                parallelism,
+                                file ->
+                                        dispatcher.dispatchFused(
+                                                fusedOperations, file, scratchDirectory));
+                deleteIntermediates(outputFiles, scratchDirectory);
+                outputFiles = newOutputFiles;
+                continue;
+            }
             boolean isMultiInputOperation = apiDocService.isMultiInput(operation);
             log.info(
                     "Running operation: {} isMultiInputOperation {}",
@@ -106,44 +206,17 @@ public class PipelineProcessor {
                 inputFileTypes = new ArrayList<String>(Arrays.asList("ALL"));
             }
             // List outputFileTypes = apiDocService.getExtensionTypes(true, operation);
-            String url = getBaseUrl() + operation;
             List<Resource> newOutputFiles = new ArrayList<>();
             if (!isMultiInputOperation) {
+                // One call per file and matching extension, in the order of the files
+                List<Resource> callInputs = new ArrayList<>();
                 for (Resource file : outputFiles) {
                     boolean hasInputFileType = false;
                     for (String extension : inputFileTypes) {
                         if ("ALL".equals(extension)
                                 || file.getFilename().toLowerCase().endsWith(extension)) {
                             hasInputFileType = true;
-                            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-                            body.add("fileInput", file);
-                            for (Entry<String, Object> entry : parameters.entrySet()) {
-                                if (entry.getValue() instanceof List<?> entryList) {
-                                    for (Object item : entryList) {
-                                        body.add(entry.getKey(), item);
-                                    }
-                                } else {
-                                    body.add(entry.getKey(), entry.getValue());
-                                }
-                            }
-                            ResponseEntity<byte[]> response = sendWebRequest(url, body);
-                            // If the operation is filter and the response body is null or empty,
-                            // skip
-                            // this
-                            // file
-                            if (operation.startsWith("filter-")
-                                    && (response.getBody() == null
-                                            || response.getBody().length == 0)) {
-                                result.setFiltersApplied(true);
-                                log.info("Skipping file due to filtering {}", operation);
-                                continue;
-                            }
-                            if (!HttpStatus.OK.equals(response.getStatusCode())) {
-                                logPrintStream.println("Error: " + response.getBody());
-                                hasErrors = true;
-                                continue;
-                            }
-                            processOutputFiles(operation, response, newOutputFiles);
+                            callInputs.add(file);
                         }
                     }
                     if (!hasInputFileType) {
@@ -155,6 +228,32 @@ public class PipelineProcessor {
                         hasErrors = true;
                     }
                 }
+                // Each response is written to the scratch directory as soon as it arrives, so
+                // only one body per running call is held in memory
+                List<FileOutcome> outcomes =
+                        runPerFile(
+                                callInputs,
+                                parallelism,
+                                file ->
+                                        storeResponse(
+                                                operation,
+                                                runOperation(
+                                                        operation,
+                                                        List.of(file),
+                                                        parameters,
+                                                        scratchDirectory),
+                                                scratchDirectory));
+                for (FileOutcome outcome : outcomes) {
+                    if (outcome.filtered()) {
+                        result.setFiltersApplied(true);
+                        log.info("Skipping file due to filtering {}", operation);
+                    } else if (outcome.error() != null) {
+                        logPrintStream.println("Error: " + outcome.error());
+                        hasErrors = true;
+                    } else {
+                        newOutputFiles.addAll(outcome.files());
+                    }
+                }
             } else {
                 // Filter and collect all files that match the inputFileExtension
                 List<Resource> matchingFiles;
@@ -174,29 +273,16 @@ public class PipelineProcessor {
                 }
                 // Check if there are matching files
                 if (!matchingFiles.isEmpty()) {
-                    // Create a new MultiValueMap for the request body
-                    MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-                    // Add all matching files to the body
-                    for (Resource file : matchingFiles) {
-                        body.add("fileInput", file);
-                    }
-                    for (Entry<String, Object> entry : parameters.entrySet()) {
-                        if (entry.getValue() instanceof List<?> entryList) {
-                            for (Object item : entryList) {
-                                body.add(entry.getKey(), item);
-                            }
-                        } else {
-                            body.add(entry.getKey(), entry.getValue());
-                        }
-                    }
-                    ResponseEntity<byte[]> response = sendWebRequest(url, body);
+                    ResponseEntity<Resource> response =
+                            runOperation(operation, matchingFiles, parameters, scratchDirectory);
                     // Handle the response
                     if (HttpStatus.OK.equals(response.getStatusCode())) {
-                        processOutputFiles(operation, response, newOutputFiles);
+                        processOutputFiles(operation, response, newOutputFiles, scratchDirectory);
                     } else {
                         // Log error if the response status is not OK
+                        deleteBody(response);
                         logPrintStream.println(
-                                "Error in multi-input operation: " + response.getBody());
+                                "Error in multi-input operation: " + response.getStatusCode());
                         hasErrors = true;
                     }
                 } else {
@@ -209,6 +295,7 @@ public class PipelineProcessor {
                 }
             }
             logPrintStream.close();
+            deleteIntermediates(outputFiles, scratchDirectory);
             outputFiles = newOutputFiles;
         }
         if (hasErrors) {
@@ -220,7 +307,209 @@ public class PipelineProcessor {
         return result;
     }
 
-    private ResponseEntity<byte[]> sendWebRequest(String url, MultiValueMap<String, Object> body) {
+    /** Work done for one file of a stage */
+    @FunctionalInterface
+    private interface FileCall<T> {
+        T run(Resource file) throws Exception;
+    }
+
+    /** What one call of a single-input operation left behind */
+    private record FileOutcome(List<Resource> files, boolean filtered, String error) {}
+
+    /** Turn the response of one call into the files it left in the scratch directory */
+    private FileOutcome storeResponse(
+            String operation, ResponseEntity<Resource> response, Path scratchDirectory)
+            throws IOException {
+        // If the operation is filter and the response body is empty, skip this file
+        if (operation.startsWith("filter-") && response.getBody() == null) {
+            return new FileOutcome(List.of(), true, null);
+        }
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
+            deleteBody(response);
+            return new FileOutcome(List.of(), false, String.valueOf(response.getStatusCode()));
+        }
+        return new FileOutcome(
+                processOutputFiles(operation, response, new ArrayList<>(), scratchDirectory),
+                false,
+                null);
+    }
+
+    /**
+     * Run a single-input operation on each of the files, up to {@code parallelism} at once on the
+     * shared pipeline threads. The results are returned in the order of the files. If a call fails
+     * the calls that have not finished yet are cancelled, and the first failure in file order is
+     * thrown once none of them is running any more.
+     */
+    private <T> List<T> runPerFile(List<Resource> files, int parallelism, FileCall<T> call)
+            throws Exception {
+        List<T> results = new ArrayList<>(files.size());
+        if (parallelism <= 1 || files.size() <= 1) {
+            for (Resource file : files) {
+                results.add(call.run(file));
+            }
+            return results;
+        }
+
+        // The pipeline threads act on behalf of this request: same scratch directory, same
+        // cancellation
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CancellationToken cancellationToken = CancellationToken.current();
+        Semaphore window = new Semaphore(parallelism);
+        List<FileTask<T>> tasks = new ArrayList<>(files.size());
+        try {
+            for (Resource file : files) {
+                window.acquire();
+                FileTask<T> task =
+                        new FileTask<>(
+                                () -> {
+                                    CancellationToken previous =
+                                            CancellationToken.bind(cancellationToken);
+                                    RequestContextHolder.setRequestAttributes(requestAttributes);
+                                    try {
+                                        return call.run(file);
+                                    } finally {
+                                        RequestContextHolder.resetRequestAttributes();
+                                        CancellationToken.restore(previous);
+                                        window.release();
+                                    }
+                                });
+                try {
+                    task.future = fileExecutor.submit(task);
+                } catch (RejectedExecutionException e) {
+                    window.release();
+                    throw e;
+                }
+                tasks.add(task);
+            }
+            for (FileTask<T> task : tasks) {
+                results.add(awaitResult(task.future));
+            }
+            return results;
+        } catch (Exception | Error e) {
+            // The failure is only thrown once no call touches the scratch directory any more
+            tasks.forEach(FileTask::cancel);
+            tasks.forEach(FileTask::awaitStopped);
+            throw e;
+        }
+    }
+
+    /**
+     * A call on the pipeline threads that can be waited for after cancelling it. The Future of a
+     * cancelled call returns at once, even while the call is still running.
+     */
+    private static class FileTask<T> implements Callable<T> {
+        private final Callable<T> call;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private Future<T> future;
+
+        FileTask(Callable<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                // Cancelled before it started
+                return null;
+            }
+            try {
+                return call.call();
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        void cancel() {
+            future.cancel(true);
+        }
+
+        /** Wait until the call has returned, unless it never started */
+        void awaitStopped() {
+            if (claimed.compareAndSet(false, true)) {
+                return;
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    stopped.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static <T> T awaitResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception exception) {
+                throw exception;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fileExecutor.shutdownNow();
+    }
+
+    /**
+     * The consecutive single-input operations starting at {@code start} that work on a loaded
+     * document, they run without saving and parsing the PDF in between. The run ends before the
+     * first operation that needs the file itself, e.g. because it hands it to an external tool.
+     */
+    private List<PipelineOperation> fusableRun(List<PipelineOperation> operations, int start) {
+        List<PipelineOperation> run = new ArrayList<>();
+        for (int i = start; i < operations.size(); i++) {
+            String operation = operations.get(i).getOperation();
+            if (apiDocService.isMultiInput(operation) || !dispatcher.canFuse(operation)) {
+                break;
+            }
+            run.add(operations.get(i));
+        }
+        return run;
+    }
+
+    /**
+     * Run the operation in-process when its handler allows it, over HTTP otherwise. The body of the
+     * response is a file in the scratch directory, or missing when the operation returned none.
+     */
+    private ResponseEntity<Resource> runOperation(
+            String operation,
+            List<Resource> files,
+            Map<String, Object> parameters,
+            Path scratchDirectory)
+            throws Exception {
+        if (dispatcher.canDispatch(operation)) {
+            return dispatcher.dispatch(operation, files, parameters, scratchDirectory);
+        }
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        for (Resource file : files) {
+            body.add("fileInput", file);
+        }
+        for (Entry<String, Object> entry : parameters.entrySet()) {
+            if (entry.getValue() instanceof List<?> entryList) {
+                for (Object item : entryList) {
+                    body.add(entry.getKey(), item);
+                }
+            } else {
+                body.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return sendWebRequest(getBaseUrl() + operation, body, scratchDirectory);
+    }
+
+    private ResponseEntity<Resource> sendWebRequest(
+            String url, MultiValueMap<String, Object> body, Path scratchDirectory) {
         RestTemplate restTemplate = new RestTemplate();
         // Set up headers, including API key
         HttpHeaders headers = new HttpHeaders();
@@ -229,12 +518,42 @@ public class PipelineProcessor {
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         // Create HttpEntity with the body and headers
         HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(body, headers);
-        // Make the request to the REST endpoint
-        return restTemplate.exchange(url, HttpMethod.POST, entity, byte[].class);
+        // Make the request to the REST endpoint, streaming the response body to disk
+        return restTemplate.execute(
+                url,
+                HttpMethod.POST,
+                restTemplate.httpEntityCallback(entity),
+                response -> {
+                    Path path = Files.createTempFile(scratchDirectory, "stage-", null);
+                    try (InputStream in = response.getBody()) {
+                        Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException | RuntimeException e) {
+                        Files.deleteIfExists(path);
+                        throw e;
+                    }
+                    if (Files.size(path) == 0) {
+                        Files.delete(path);
+                        return new ResponseEntity<Resource>(
+                                response.getHeaders(), response.getStatusCode());
+                    }
+                    return new ResponseEntity<Resource>(
+                            new FileSystemResource(path),
+                            response.getHeaders(),
+                            response.getStatusCode());
+                });
+    }
+
+    private void deleteBody(ResponseEntity<Resource> response) throws IOException {
+        if (response.getBody() != null) {
+            Files.deleteIfExists(response.getBody().getFile().toPath());
+        }
     }
 
     private List<Resource> processOutputFiles(
-            String operation, ResponseEntity<byte[]> response, List<Resource> newOutputFiles)
+            String operation,
+            ResponseEntity<Resource> response,
+            List<Resource> newOutputFiles,
+            Path scratchDirectory)
             throws IOException {
         // Define filename
         String newFilename;
@@ -247,25 +566,26 @@ public class PipelineProcessor {
             // Otherwise, keep the original filename.
             newFilename = removeTrailingNaming(extractFilename(response));
         }
+        if (response.getBody() == null) {
+            newOutputFiles.add(store(InputStream.nullInputStream(), newFilename, scratchDirectory));
+            return newOutputFiles;
+        }
+        // The body is already a file in the scratch directory, it only gets its name
+        Path path = response.getBody().getFile().toPath();
         // Check if the response body is a zip file
-        if (isZip(response.getBody())) {
+        if (isZip(path)) {
             // Unzip the file and add all the files to the new output files
-            newOutputFiles.addAll(unzip(response.getBody()));
+            try (InputStream in = Files.newInputStream(path)) {
+                newOutputFiles.addAll(unzip(in, scratchDirectory));
+            }
+            Files.delete(path);
         } else {
-            Resource outputResource =
-                    new ByteArrayResource(response.getBody()) {
-
-                        @Override
-                        public String getFilename() {
-                            return newFilename;
-                        }
-                    };
-            newOutputFiles.add(outputResource);
+            newOutputFiles.add(new PipelineFileResource(path, newFilename));
         }
         return newOutputFiles;
     }
 
-    public String extractFilename(ResponseEntity<byte[]> response) {
+    public String extractFilename(ResponseEntity<?> response) {
         // Default filename if not found
         String filename = "default-filename.ext";
         HttpHeaders headers = response.getHeaders();
@@ -295,15 +615,8 @@ public class PipelineProcessor {
             // debug statement
             log.info("Reading file: " + path);
             if (Files.exists(path)) {
-                Resource fileResource =
-                        new ByteArrayResource(Files.readAllBytes(path)) {
-
-                            @Override
-                            public String getFilename() {
-                                return file.getName();
-                            }
-                        };
-                outputFiles.add(fileResource);
+                // Read when an operation needs it, the file stays where it is during the run
+                outputFiles.add(new FileSystemResource(path));
             } else {
                 log.info("File not found: " + path);
             }
@@ -319,15 +632,13 @@ public class PipelineProcessor {
         }
         List<Resource> outputFiles = new ArrayList<>();
         for (MultipartFile file : files) {
-            Resource fileResource =
-                    new ByteArrayResource(file.getBytes()) {
-
-                        @Override
-                        public String getFilename() {
-                            return Filenames.toSimpleFileName(file.getOriginalFilename());
-                        }
-                    };
-            outputFiles.add(fileResource);
+            Path path = tempFileManager.createTempFile("pipeline-input-", null);
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            outputFiles.add(
+                    new PipelineFileResource(
+                            path, Filenames.toSimpleFileName(file.getOriginalFilename())));
         }
         log.info("Files successfully loaded. Starting processing...");
         return outputFiles;
@@ -341,38 +652,71 @@ public class PipelineProcessor {
         return data[0] == 0x50 && data[1] == 0x4B && data[2] == 0x03 && data[3] == 0x04;
     }
 
-    private List<Resource> unzip(byte[] data) throws IOException {
-        log.info("Unzipping data of length: {}", data.length);
+    private boolean isZip(Path path) throws IOException {
+        byte[] header = new byte[4];
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.readNBytes(header, 0, header.length) == header.length && isZip(header);
+        }
+    }
+
+    /** Expand the ZIP into the scratch directory entry by entry, nested ZIPs included */
+    private List<Resource> unzip(InputStream data, Path scratchDirectory) throws IOException {
         List<Resource> unzippedFiles = new ArrayList<>();
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-                ZipInputStream zis = ZipSecurity.createHardenedInputStream(bais)) {
+        try (ZipInputStream zis = ZipSecurity.createHardenedInputStream(data)) {
             ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buffer = new byte[1024];
-                int count;
-                while ((count = zis.read(buffer)) != -1) {
-                    baos.write(buffer, 0, count);
+                if (entry.isDirectory()) {
+                    continue;
                 }
-                final String filename = entry.getName();
-                Resource fileResource =
-                        new ByteArrayResource(baos.toByteArray()) {
-
-                            @Override
-                            public String getFilename() {
-                                return filename;
-                            }
-                        };
+                Path path = Files.createTempFile(scratchDirectory, "entry-", null);
+                Files.copy(zis, path, StandardCopyOption.REPLACE_EXISTING);
                 // If the unzipped file is a zip file, unzip it
-                if (isZip(baos.toByteArray())) {
-                    log.info("File {} is a zip file. Unzipping...", filename);
-                    unzippedFiles.addAll(unzip(baos.toByteArray()));
+                if (isZip(path)) {
+                    log.info("File {} is a zip file. Unzipping...", entry.getName());
+                    try (InputStream nested = Files.newInputStream(path)) {
+                        unzippedFiles.addAll(unzip(nested, scratchDirectory));
+                    }
+                    Files.delete(path);
                 } else {
-                    unzippedFiles.add(fileResource);
+                    unzippedFiles.add(new PipelineFileResource(path, entry.getName()));
                 }
             }
         }
         log.info("Unzipping completed. {} files were unzipped.", unzippedFiles.size());
         return unzippedFiles;
     }
+
+    /** Write an intermediate result to a new file in the scratch directory */
+    private static Resource store(InputStream data, String filename, Path scratchDirectory)
+            throws IOException {
+        Path path = Files.createTempFile(scratchDirectory, "stage-", null);
+        Files.copy(data, path, StandardCopyOption.REPLACE_EXISTING);
+        return new PipelineFileResource(path, filename);
+    }
+
+    /** Free the disk space of a stage's inputs once the next stage has its outputs */
+    private void deleteIntermediates(List<Resource> files, Path scratchDirectory) {
+        for (Resource file : files) {
+            if (file instanceof PipelineFileResource pipelineFile
+                    && pipelineFile.getFile().toPath().startsWith(scratchDirectory)) {
+                tempFileManager.delete(pipelineFile.getFile().toPath());
+            }
+        }
+    }
+
+    /** A file on disk that goes by the name the operation gave it */
+    static class PipelineFileResource extends FileSystemResource {
+
+        private final String filename;
+
+        PipelineFileResource(Path path, String filename) {
+            super(path);
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+    }
 }
@@ -1,8 +1,13 @@
 package stirling.software.SPDF.controller.api.pipeline;
 
+import java.util.Optional;
+
 public interface UserServiceInterface {
     String getApiKeyForUser(String username);
 
+    /** The user's existing API key, never creates one */
+    Optional<String> findApiKeyForUser(String username);
+
     String getCurrentUsername();
 
     long getTotalUsersCount();
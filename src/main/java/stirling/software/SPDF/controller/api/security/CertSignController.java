@@ -69,6 +69,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.security.SignPDFWithCertRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -83,6 +84,7 @@ public class CertSignController {
     }
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
 
     private static void sign(
             CustomPDFDocumentFactory pdfDocumentFactory,
@@ -171,7 +173,8 @@ public class CertSignController {
                 throw new IllegalArgumentException("Invalid cert type: " + certType);
         }
 
-        CreateSignature createSignature = new CreateSignature(ks, password.toCharArray());
+        CreateSignature createSignature =
+                new CreateSignature(ks, password.toCharArray(), tempFileManager);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         sign(
                 pdfDocumentFactory,
@@ -222,7 +225,7 @@ public class CertSignController {
     class CreateSignature extends CreateSignatureBase {
         File logoFile;
 
-        public CreateSignature(KeyStore keystore, char[] pin)
+        public CreateSignature(KeyStore keystore, char[] pin, TempFileManager tempFileManager)
                 throws KeyStoreException,
                         UnrecoverableKeyException,
                         NoSuchAlgorithmException,
@@ -231,7 +234,7 @@ public class CertSignController {
             super(keystore, pin);
             ClassPathResource resource = new ClassPathResource("static/images/signature.png");
             try (InputStream is = resource.getInputStream()) {
-                logoFile = Files.createTempFile("signature", ".png").toFile();
+                logoFile = tempFileManager.createTempFile("signature", ".png").toFile();
                 FileUtils.copyInputStreamToFile(is, logoFile);
             } catch (IOException e) {
                 log.error("Failed to load image signature file");
@@ -321,7 +324,7 @@ public class CertSignController {
                 }
 
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                doc.save(baos);
+                pdfDocumentFactory.save(doc, baos);
                 return new ByteArrayInputStream(baos.toByteArray());
             }
         }
@@ -6,6 +6,8 @@ import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
+import javax.xml.transform.TransformerException;
+
 import org.apache.pdfbox.cos.COSInputStream;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSString;
@@ -62,7 +64,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.PDFFile;
-import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.ParsedDocumentCache;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
 @RestController
@@ -74,7 +76,10 @@ public class GetInfoOnPDF {
 
     static ObjectMapper objectMapper = new ObjectMapper();
 
-    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    // Key of the full report in the parsed document cache
+    private static final String INFO_REPORT = "info-report";
+
+    private final ParsedDocumentCache parsedDocumentCache;
 
     private static void addOutlinesToArray(PDOutlineItem outline, ArrayNode arrayNode) {
         if (outline == null) return;
@@ -122,498 +127,499 @@ public class GetInfoOnPDF {
     @Operation(summary = "Summary here", description = "desc. Input:PDF Output:JSON Type:SISO")
     public ResponseEntity<byte[]> getPdfInfo(@ModelAttribute PDFFile request) throws IOException {
         MultipartFile inputFile = request.getFileInput();
-        boolean readonly = true;
-        try (PDDocument pdfBoxDoc = pdfDocumentFactory.load(inputFile, readonly); ) {
-            ObjectMapper objectMapper = new ObjectMapper();
-            ObjectNode jsonOutput = objectMapper.createObjectNode();
-
-            // Metadata using PDFBox
-            PDDocumentInformation info = pdfBoxDoc.getDocumentInformation();
-            ObjectNode metadata = objectMapper.createObjectNode();
-            ObjectNode basicInfo = objectMapper.createObjectNode();
-            ObjectNode docInfoNode = objectMapper.createObjectNode();
-            ObjectNode compliancy = objectMapper.createObjectNode();
-            ObjectNode encryption = objectMapper.createObjectNode();
-            ObjectNode other = objectMapper.createObjectNode();
-
-            metadata.put("Title", info.getTitle());
-            metadata.put("Author", info.getAuthor());
-            metadata.put("Subject", info.getSubject());
-            metadata.put("Keywords", info.getKeywords());
-            metadata.put("Producer", info.getProducer());
-            metadata.put("Creator", info.getCreator());
-            metadata.put("CreationDate", formatDate(info.getCreationDate()));
-            metadata.put("ModificationDate", formatDate(info.getModificationDate()));
-            jsonOutput.set("Metadata", metadata);
-
-            // Total file size of the PDF
-            long fileSizeInBytes = inputFile.getSize();
-            basicInfo.put("FileSizeInBytes", fileSizeInBytes);
-
-            // Number of words, paragraphs, and images in the entire document
-            String fullText = new PDFTextStripper().getText(pdfBoxDoc);
-            String[] words = fullText.split("\\s+");
-            int wordCount = words.length;
-            int paragraphCount = fullText.split("\r\n|\r|\n").length;
-            basicInfo.put("WordCount", wordCount);
-            basicInfo.put("ParagraphCount", paragraphCount);
-            // Number of characters in the entire document (including spaces and special characters)
-            int charCount = fullText.length();
-            basicInfo.put("CharacterCount", charCount);
-
-            // Initialize the flags and types
-            boolean hasCompression = false;
-            String compressionType = "None";
-
-            basicInfo.put("Compression", hasCompression);
-            if (hasCompression) basicInfo.put("CompressionType", compressionType);
-
-            String language = pdfBoxDoc.getDocumentCatalog().getLanguage();
-            basicInfo.put("Language", language);
-            basicInfo.put("Number of pages", pdfBoxDoc.getNumberOfPages());
-
-            PDDocumentCatalog catalog = pdfBoxDoc.getDocumentCatalog();
-            String pageMode = catalog.getPageMode().name();
-
-            // Document Information using PDFBox
-            docInfoNode.put("PDF version", pdfBoxDoc.getVersion());
-            docInfoNode.put("Trapped", info.getTrapped());
-            docInfoNode.put("Page Mode", getPageModeDescription(pageMode));
-            ;
-
-            PDAcroForm acroForm = pdfBoxDoc.getDocumentCatalog().getAcroForm();
-
-            ObjectNode formFieldsNode = objectMapper.createObjectNode();
-            if (acroForm != null) {
-                for (PDField field : acroForm.getFieldTree()) {
-                    formFieldsNode.put(field.getFullyQualifiedName(), field.getValueAsString());
-                }
+        try {
+            String jsonString =
+                    parsedDocumentCache.get(
+                            inputFile,
+                            INFO_REPORT,
+                            document -> buildInfoReport(document, inputFile.getSize()));
+
+            return WebResponseUtils.bytesToWebResponse(
+                    jsonString.getBytes(StandardCharsets.UTF_8),
+                    "response.json",
+                    MediaType.APPLICATION_JSON);
+
+        } catch (Exception e) {
+            log.error("exception", e);
+        }
+        return null;
+    }
+
+    private String buildInfoReport(PDDocument pdfBoxDoc, long fileSizeInBytes) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode jsonOutput = objectMapper.createObjectNode();
+
+        // Metadata using PDFBox
+        PDDocumentInformation info = pdfBoxDoc.getDocumentInformation();
+        ObjectNode metadata = objectMapper.createObjectNode();
+        ObjectNode basicInfo = objectMapper.createObjectNode();
+        ObjectNode docInfoNode = objectMapper.createObjectNode();
+        ObjectNode compliancy = objectMapper.createObjectNode();
+        ObjectNode encryption = objectMapper.createObjectNode();
+        ObjectNode other = objectMapper.createObjectNode();
+
+        metadata.put("Title", info.getTitle());
+        metadata.put("Author", info.getAuthor());
+        metadata.put("Subject", info.getSubject());
+        metadata.put("Keywords", info.getKeywords());
+        metadata.put("Producer", info.getProducer());
+        metadata.put("Creator", info.getCreator());
+        metadata.put("CreationDate", formatDate(info.getCreationDate()));
+        metadata.put("ModificationDate", formatDate(info.getModificationDate()));
+        jsonOutput.set("Metadata", metadata);
+
+        // Total file size of the PDF
+        basicInfo.put("FileSizeInBytes", fileSizeInBytes);
+
+        // Number of words, paragraphs, and images in the entire document
+        String fullText = new PDFTextStripper().getText(pdfBoxDoc);
+        String[] words = fullText.split("\\s+");
+        int wordCount = words.length;
+        int paragraphCount = fullText.split("\r\n|\r|\n").length;
+        basicInfo.put("WordCount", wordCount);
+        basicInfo.put("ParagraphCount", paragraphCount);
+        // Number of characters in the entire document (including spaces and special characters)
+        int charCount = fullText.length();
+        basicInfo.put("CharacterCount", charCount);
+
+        // Initialize the flags and types
+        boolean hasCompression = false;
+        String compressionType = "None";
+
+        basicInfo.put("Compression", hasCompression);
+        if (hasCompression) basicInfo.put("CompressionType", compressionType);
+
+        String language = pdfBoxDoc.getDocumentCatalog().getLanguage();
+        basicInfo.put("Language", language);
+        basicInfo.put("Number of pages", pdfBoxDoc.getNumberOfPages());
+
+        PDDocumentCatalog catalog = pdfBoxDoc.getDocumentCatalog();
+        String pageMode = catalog.getPageMode().name();
+
+        // Document Information using PDFBox
+        docInfoNode.put("PDF version", pdfBoxDoc.getVersion());
+        docInfoNode.put("Trapped", info.getTrapped());
+        docInfoNode.put("Page Mode", getPageModeDescription(pageMode));
+        ;
+
+        PDAcroForm acroForm = pdfBoxDoc.getDocumentCatalog().getAcroForm();
+
+        ObjectNode formFieldsNode = objectMapper.createObjectNode();
+        if (acroForm != null) {
+            for (PDField field : acroForm.getFieldTree()) {
+                formFieldsNode.put(field.getFullyQualifiedName(), field.getValueAsString());
             }
-            jsonOutput.set("FormFields", formFieldsNode);
-
-            // embeed files TODO size
-            if (catalog.getNames() != null) {
-                PDEmbeddedFilesNameTreeNode efTree = catalog.getNames().getEmbeddedFiles();
-
-                ArrayNode embeddedFilesArray = objectMapper.createArrayNode();
-                if (efTree != null) {
-                    Map<String, PDComplexFileSpecification> efMap = efTree.getNames();
-                    if (efMap != null) {
-                        for (Map.Entry<String, PDComplexFileSpecification> entry :
-                                efMap.entrySet()) {
-                            ObjectNode embeddedFileNode = objectMapper.createObjectNode();
-                            embeddedFileNode.put("Name", entry.getKey());
-                            PDEmbeddedFile embeddedFile = entry.getValue().getEmbeddedFile();
-                            if (embeddedFile != null) {
-                                embeddedFileNode.put(
-                                        "FileSize", embeddedFile.getLength()); // size in bytes
-                            }
-                            embeddedFilesArray.add(embeddedFileNode);
+        }
+        jsonOutput.set("FormFields", formFieldsNode);
+
+        // embeed files TODO size
+        if (catalog.getNames() != null) {
+            PDEmbeddedFilesNameTreeNode efTree = catalog.getNames().getEmbeddedFiles();
+
+            ArrayNode embeddedFilesArray = objectMapper.createArrayNode();
+            if (efTree != null) {
+                Map<String, PDComplexFileSpecification> efMap = efTree.getNames();
+                if (efMap != null) {
+                    for (Map.Entry<String, PDComplexFileSpecification> entry : efMap.entrySet()) {
+                        ObjectNode embeddedFileNode = objectMapper.createObjectNode();
+                        embeddedFileNode.put("Name", entry.getKey());
+                        PDEmbeddedFile embeddedFile = entry.getValue().getEmbeddedFile();
+                        if (embeddedFile != null) {
+                            embeddedFileNode.put(
+                                    "FileSize", embeddedFile.getLength()); // size in bytes
                         }
+                        embeddedFilesArray.add(embeddedFileNode);
                     }
                 }
-                other.set("EmbeddedFiles", embeddedFilesArray);
             }
+            other.set("EmbeddedFiles", embeddedFilesArray);
+        }
 
-            // attachments TODO size
-            ArrayNode attachmentsArray = objectMapper.createArrayNode();
-            for (PDPage page : pdfBoxDoc.getPages()) {
-                for (PDAnnotation annotation : page.getAnnotations()) {
-                    if (annotation instanceof PDAnnotationFileAttachment fileAttachmentAnnotation) {
-                        ObjectNode attachmentNode = objectMapper.createObjectNode();
-                        attachmentNode.put("Name", fileAttachmentAnnotation.getAttachmentName());
-                        attachmentNode.put("Description", fileAttachmentAnnotation.getContents());
+        // attachments TODO size
+        ArrayNode attachmentsArray = objectMapper.createArrayNode();
+        for (PDPage page : pdfBoxDoc.getPages()) {
+            for (PDAnnotation annotation : page.getAnnotations()) {
+                if (annotation instanceof PDAnnotationFileAttachment fileAttachmentAnnotation) {
+                    ObjectNode attachmentNode = objectMapper.createObjectNode();
+                    attachmentNode.put("Name", fileAttachmentAnnotation.getAttachmentName());
+                    attachmentNode.put("Description", fileAttachmentAnnotation.getContents());
 
-                        attachmentsArray.add(attachmentNode);
-                    }
+                    attachmentsArray.add(attachmentNode);
                 }
             }
-            other.set("Attachments", attachmentsArray);
-
-            // Javascript
-            PDDocumentNameDictionary namesDict = catalog.getNames();
-            ArrayNode javascriptArray = objectMapper.createArrayNode();
-
-            if (namesDict != null) {
-                PDJavascriptNameTreeNode javascriptDict = namesDict.getJavaScript();
-                if (javascriptDict != null) {
-                    try {
-                        Map<String, PDActionJavaScript> jsEntries = javascriptDict.getNames();
-
-                        for (Map.Entry<String, PDActionJavaScript> entry : jsEntries.entrySet()) {
-                            ObjectNode jsNode = objectMapper.createObjectNode();
-                            jsNode.put("JS Name", entry.getKey());
-
-                            PDActionJavaScript jsAction = entry.getValue();
-                            if (jsAction != null) {
-                                String jsCodeStr = jsAction.getAction();
-                                if (jsCodeStr != null) {
-                                    jsNode.put("JS Script Length", jsCodeStr.length());
-                                }
-                            }
+        }
+        other.set("Attachments", attachmentsArray);
+
+        // Javascript
+        PDDocumentNameDictionary namesDict = catalog.getNames();
+        ArrayNode javascriptArray = objectMapper.createArrayNode();
 
-                            javascriptArray.add(jsNode);
+        if (namesDict != null) {
+            PDJavascriptNameTreeNode javascriptDict = namesDict.getJavaScript();
+            if (javascriptDict != null) {
+                try {
+                    Map<String, PDActionJavaScript> jsEntries = javascriptDict.getNames();
+
+                    for (Map.Entry<String, PDActionJavaScript> entry : jsEntries.entrySet()) {
+                        ObjectNode jsNode = objectMapper.createObjectNode();
+                        jsNode.put("JS Name", entry.getKey());
+
+                        PDActionJavaScript jsAction = entry.getValue();
+                        if (jsAction != null) {
+                            String jsCodeStr = jsAction.getAction();
+                            if (jsCodeStr != null) {
+                                jsNode.put("JS Script Length", jsCodeStr.length());
+                            }
                         }
-                    } catch (IOException e) {
-                        log.error("exception", e);
+
+                        javascriptArray.add(jsNode);
                     }
+                } catch (IOException e) {
+                    log.error("exception", e);
                 }
             }
-            other.set("JavaScript", javascriptArray);
-
-            // TODO size
-            PDOptionalContentProperties ocProperties =
-                    pdfBoxDoc.getDocumentCatalog().getOCProperties();
-            ArrayNode layersArray = objectMapper.createArrayNode();
-
-            if (ocProperties != null) {
-                for (PDOptionalContentGroup ocg : ocProperties.getOptionalContentGroups()) {
-                    ObjectNode layerNode = objectMapper.createObjectNode();
-                    layerNode.put("Name", ocg.getName());
-                    layersArray.add(layerNode);
-                }
+        }
+        other.set("JavaScript", javascriptArray);
+
+        // TODO size
+        PDOptionalContentProperties ocProperties = pdfBoxDoc.getDocumentCatalog().getOCProperties();
+        ArrayNode layersArray = objectMapper.createArrayNode();
+
+        if (ocProperties != null) {
+            for (PDOptionalContentGroup ocg : ocProperties.getOptionalContentGroups()) {
+                ObjectNode layerNode = objectMapper.createObjectNode();
+                layerNode.put("Name", ocg.getName());
+                layersArray.add(layerNode);
             }
+        }
 
-            other.set("Layers", layersArray);
+        other.set("Layers", layersArray);
 
-            // TODO Security
+        // TODO Security
 
-            PDStructureTreeRoot structureTreeRoot =
-                    pdfBoxDoc.getDocumentCatalog().getStructureTreeRoot();
-            ArrayNode structureTreeArray;
-            try {
-                if (structureTreeRoot != null) {
-                    structureTreeArray = exploreStructureTree(structureTreeRoot.getKids());
-                    other.set("StructureTree", structureTreeArray);
-                }
-            } catch (Exception e) {
-                // TODO Auto-generated catch block
-                log.error("exception", e);
+        PDStructureTreeRoot structureTreeRoot =
+                pdfBoxDoc.getDocumentCatalog().getStructureTreeRoot();
+        ArrayNode structureTreeArray;
+        try {
+            if (structureTreeRoot != null) {
+                structureTreeArray = exploreStructureTree(structureTreeRoot.getKids());
+                other.set("StructureTree", structureTreeArray);
             }
+        } catch (Exception e) {
+            // TODO Auto-generated catch block
+            log.error("exception", e);
+        }
 
-            boolean isPdfACompliant = checkForStandard(pdfBoxDoc, "PDF/A");
-            boolean isPdfXCompliant = checkForStandard(pdfBoxDoc, "PDF/X");
-            boolean isPdfECompliant = checkForStandard(pdfBoxDoc, "PDF/E");
-            boolean isPdfVTCompliant = checkForStandard(pdfBoxDoc, "PDF/VT");
-            boolean isPdfUACompliant = checkForStandard(pdfBoxDoc, "PDF/UA");
-            boolean isPdfBCompliant =
-                    checkForStandard(
-                            pdfBoxDoc,
-                            "PDF/B"); // If you want to check for PDF/Broadcast, though this isn't
-            // an official ISO standard.
-            boolean isPdfSECCompliant =
-                    checkForStandard(
-                            pdfBoxDoc,
-                            "PDF/SEC"); // This might not be effective since PDF/SEC was under
-            // development in 2021.
-
-            compliancy.put("IsPDF/ACompliant", isPdfACompliant);
-            compliancy.put("IsPDF/XCompliant", isPdfXCompliant);
-            compliancy.put("IsPDF/ECompliant", isPdfECompliant);
-            compliancy.put("IsPDF/VTCompliant", isPdfVTCompliant);
-            compliancy.put("IsPDF/UACompliant", isPdfUACompliant);
-            compliancy.put("IsPDF/BCompliant", isPdfBCompliant);
-            compliancy.put("IsPDF/SECCompliant", isPdfSECCompliant);
-
-            PDOutlineNode root = pdfBoxDoc.getDocumentCatalog().getDocumentOutline();
-            ArrayNode bookmarksArray = objectMapper.createArrayNode();
-
-            if (root != null) {
-                for (PDOutlineItem child : root.children()) {
-                    addOutlinesToArray(child, bookmarksArray);
-                }
+        boolean isPdfACompliant = checkForStandard(pdfBoxDoc, "PDF/A");
+        boolean isPdfXCompliant = checkForStandard(pdfBoxDoc, "PDF/X");
+        boolean isPdfECompliant = checkForStandard(pdfBoxDoc, "PDF/E");
+        boolean isPdfVTCompliant = checkForStandard(pdfBoxDoc, "PDF/VT");
+        boolean isPdfUACompliant = checkForStandard(pdfBoxDoc, "PDF/UA");
+        boolean isPdfBCompliant =
+                checkForStandard(
+                        pdfBoxDoc,
+                        "PDF/B"); // If you want to check for PDF/Broadcast, though this isn't
+        // an official ISO standard.
+        boolean isPdfSECCompliant =
+                checkForStandard(
+                        pdfBoxDoc,
+                        "PDF/SEC"); // This might not be effective since PDF/SEC was under
+        // development in 2021.
+
+        compliancy.put("IsPDF/ACompliant", isPdfACompliant);
+        compliancy.put("IsPDF/XCompliant", isPdfXCompliant);
+        compliancy.put("IsPDF/ECompliant", isPdfECompliant);
+        compliancy.put("IsPDF/VTCompliant", isPdfVTCompliant);
+        compliancy.put("IsPDF/UACompliant", isPdfUACompliant);
+        compliancy.put("IsPDF/BCompliant", isPdfBCompliant);
+        compliancy.put("IsPDF/SECCompliant", isPdfSECCompliant);
+
+        PDOutlineNode root = pdfBoxDoc.getDocumentCatalog().getDocumentOutline();
+        ArrayNode bookmarksArray = objectMapper.createArrayNode();
+
+        if (root != null) {
+            for (PDOutlineItem child : root.children()) {
+                addOutlinesToArray(child, bookmarksArray);
             }
+        }
 
-            other.set("Bookmarks/Outline/TOC", bookmarksArray);
+        other.set("Bookmarks/Outline/TOC", bookmarksArray);
 
-            PDMetadata pdMetadata = pdfBoxDoc.getDocumentCatalog().getMetadata();
+        PDMetadata pdMetadata = pdfBoxDoc.getDocumentCatalog().getMetadata();
 
-            String xmpString = null;
+        String xmpString = null;
 
-            if (pdMetadata != null) {
-                try {
-                    COSInputStream is = pdMetadata.createInputStream();
-                    DomXmpParser domXmpParser = new DomXmpParser();
-                    XMPMetadata xmpMeta = domXmpParser.parse(is);
-
-                    ByteArrayOutputStream os = new ByteArrayOutputStream();
-                    new XmpSerializer().serialize(xmpMeta, os, true);
-                    xmpString = new String(os.toByteArray(), StandardCharsets.UTF_8);
-                } catch (XmpParsingException | IOException e) {
-                    log.error("exception", e);
-                }
+        if (pdMetadata != null) {
+            try {
+                COSInputStream is = pdMetadata.createInputStream();
+                DomXmpParser domXmpParser = new DomXmpParser();
+                XMPMetadata xmpMeta = domXmpParser.parse(is);
+
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                new XmpSerializer().serialize(xmpMeta, os, true);
+                xmpString = new String(os.toByteArray(), StandardCharsets.UTF_8);
+            } catch (XmpParsingException | IOException | TransformerException e) {
+                log.error("exception", e);
             }
+        }
 
-            other.put("XMPMetadata", xmpString);
+        other.put("XMPMetadata", xmpString);
 
-            if (pdfBoxDoc.isEncrypted()) {
-                encryption.put("IsEncrypted", true);
+        if (pdfBoxDoc.isEncrypted()) {
+            encryption.put("IsEncrypted", true);
 
-                // Retrieve encryption details using getEncryption()
-                PDEncryption pdfEncryption = pdfBoxDoc.getEncryption();
-                encryption.put("EncryptionAlgorithm", pdfEncryption.getFilter());
-                encryption.put("KeyLength", pdfEncryption.getLength());
-                // Add other encryption-related properties as needed
-            } else {
-                encryption.put("IsEncrypted", false);
-            }
+            // Retrieve encryption details using getEncryption()
+            PDEncryption pdfEncryption = pdfBoxDoc.getEncryption();
+            encryption.put("EncryptionAlgorithm", pdfEncryption.getFilter());
+            encryption.put("KeyLength", pdfEncryption.getLength());
+            // Add other encryption-related properties as needed
+        } else {
+            encryption.put("IsEncrypted", false);
+        }
 
-            ObjectNode permissionsNode = objectMapper.createObjectNode();
-            setNodePermissions(pdfBoxDoc, permissionsNode);
+        ObjectNode permissionsNode = objectMapper.createObjectNode();
+        setNodePermissions(pdfBoxDoc, permissionsNode);
 
-            ObjectNode pageInfoParent = objectMapper.createObjectNode();
-            for (int pageNum = 0; pageNum < pdfBoxDoc.getNumberOfPages(); pageNum++) {
-                ObjectNode pageInfo = objectMapper.createObjectNode();
+        ObjectNode pageInfoParent = objectMapper.createObjectNode();
+        for (int pageNum = 0; pageNum < pdfBoxDoc.getNumberOfPages(); pageNum++) {
+            ObjectNode pageInfo = objectMapper.createObjectNode();
 
-                // Retrieve the page
-                PDPage page = pdfBoxDoc.getPage(pageNum);
+            // Retrieve the page
+            PDPage page = pdfBoxDoc.getPage(pageNum);
 
-                // Page-level Information
-                PDRectangle mediaBox = page.getMediaBox();
+            // Page-level Information
+            PDRectangle mediaBox = page.getMediaBox();
 
-                float width = mediaBox.getWidth();
-                float height = mediaBox.getHeight();
+            float width = mediaBox.getWidth();
+            float height = mediaBox.getHeight();
 
-                ObjectNode sizeInfo = objectMapper.createObjectNode();
+            ObjectNode sizeInfo = objectMapper.createObjectNode();
 
-                getDimensionInfo(sizeInfo, width, height);
+            getDimensionInfo(sizeInfo, width, height);
 
-                sizeInfo.put("Standard Page", getPageSize(width, height));
-                pageInfo.set("Size", sizeInfo);
+            sizeInfo.put("Standard Page", getPageSize(width, height));
+            pageInfo.set("Size", sizeInfo);
 
-                pageInfo.put("Rotation", page.getRotation());
-                pageInfo.put("Page Orientation", getPageOrientation(width, height));
+            pageInfo.put("Rotation", page.getRotation());
+            pageInfo.put("Page Orientation", getPageOrientation(width, height));
 
-                // Boxes
-                pageInfo.put("MediaBox", mediaBox.toString());
+            // Boxes
+            pageInfo.put("MediaBox", mediaBox.toString());
 
-                // Assuming the following boxes are defined for your document; if not, you may get
-                // null values.
-                PDRectangle cropBox = page.getCropBox();
-                pageInfo.put("CropBox", cropBox == null ? "Undefined" : cropBox.toString());
+            // Assuming the following boxes are defined for your document; if not, you may get
+            // null values.
+            PDRectangle cropBox = page.getCropBox();
+            pageInfo.put("CropBox", cropBox == null ? "Undefined" : cropBox.toString());
 
-                PDRectangle bleedBox = page.getBleedBox();
-                pageInfo.put("BleedBox", bleedBox == null ? "Undefined" : bleedBox.toString());
+            PDRectangle bleedBox = page.getBleedBox();
+            pageInfo.put("BleedBox", bleedBox == null ? "Undefined" : bleedBox.toString());
 
-                PDRectangle trimBox = page.getTrimBox();
-                pageInfo.put("TrimBox", trimBox == null ? "Undefined" : trimBox.toString());
+            PDRectangle trimBox = page.getTrimBox();
+            pageInfo.put("TrimBox", trimBox == null ? "Undefined" : trimBox.toString());
 
-                PDRectangle artBox = page.getArtBox();
-                pageInfo.put("ArtBox", artBox == null ? "Undefined" : artBox.toString());
+            PDRectangle artBox = page.getArtBox();
+            pageInfo.put("ArtBox", artBox == null ? "Undefined" : artBox.toString());
 
-                // Content Extraction
-                PDFTextStripper textStripper = new PDFTextStripper();
-                textStripper.setStartPage(pageNum + 1);
-                textStripper.setEndPage(pageNum + 1);
-                String pageText = textStripper.getText(pdfBoxDoc);
+            // Content Extraction
+            PDFTextStripper textStripper = new PDFTextStripper();
+            textStripper.setStartPage(pageNum + 1);
+            textStripper.setEndPage(pageNum + 1);
+            String pageText = textStripper.getText(pdfBoxDoc);
 
-                pageInfo.put("Text Characters Count", pageText.length()); //
+            pageInfo.put("Text Characters Count", pageText.length()); //
 
-                // Annotations
+            // Annotations
 
-                List<PDAnnotation> annotations = page.getAnnotations();
+            List<PDAnnotation> annotations = page.getAnnotations();
 
-                int subtypeCount = 0;
-                int contentsCount = 0;
+            int subtypeCount = 0;
+            int contentsCount = 0;
 
-                for (PDAnnotation annotation : annotations) {
-                    if (annotation.getSubtype() != null) {
-                        subtypeCount++; // Increase subtype count
-                    }
-                    if (annotation.getContents() != null) {
-                        contentsCount++; // Increase contents count
-                    }
+            for (PDAnnotation annotation : annotations) {
+                if (annotation.getSubtype() != null) {
+                    subtypeCount++; // Increase subtype count
                 }
+                if (annotation.getContents() != null) {
+                    contentsCount++; // Increase contents count
+                }
+            }
 
-                ObjectNode annotationsObject = objectMapper.createObjectNode();
-                annotationsObject.put("AnnotationsCount", annotations.size());
-                annotationsObject.put("SubtypeCount", subtypeCount);
-                annotationsObject.put("ContentsCount", contentsCount);
-                pageInfo.set("Annotations", annotationsObject);
-
-                // Images (simplified)
-                // This part is non-trivial as images can be embedded in multiple ways in a PDF.
-                // Here is a basic structure to recognize image XObjects on a page.
-                ArrayNode imagesArray = objectMapper.createArrayNode();
-                PDResources resources = page.getResources();
-
-                for (COSName name : resources.getXObjectNames()) {
-                    PDXObject xObject = resources.getXObject(name);
-                    if (xObject instanceof PDImageXObject image) {
-                        ObjectNode imageNode = objectMapper.createObjectNode();
-                        imageNode.put("Width", image.getWidth());
-                        imageNode.put("Height", image.getHeight());
-                        if (image.getMetadata() != null
-                                && image.getMetadata().getFile() != null
-                                && image.getMetadata().getFile().getFile() != null) {
-                            imageNode.put("Name", image.getMetadata().getFile().getFile());
-                        }
-                        if (image.getColorSpace() != null) {
-                            imageNode.put("ColorSpace", image.getColorSpace().getName());
-                        }
-
-                        imagesArray.add(imageNode);
+            ObjectNode annotationsObject = objectMapper.createObjectNode();
+            annotationsObject.put("AnnotationsCount", annotations.size());
+            annotationsObject.put("SubtypeCount", subtypeCount);
+            annotationsObject.put("ContentsCount", contentsCount);
+            pageInfo.set("Annotations", annotationsObject);
+
+            // Images (simplified)
+            // This part is non-trivial as images can be embedded in multiple ways in a PDF.
+            // Here is a basic structure to recognize image XObjects on a page.
+            ArrayNode imagesArray = objectMapper.createArrayNode();
+            PDResources resources = page.getResources();
+
+            for (COSName name : resources.getXObjectNames()) {
+                PDXObject xObject = resources.getXObject(name);
+                if (xObject instanceof PDImageXObject image) {
+                    ObjectNode imageNode = objectMapper.createObjectNode();
+                    imageNode.put("Width", image.getWidth());
+                    imageNode.put("Height", image.getHeight());
+                    if (image.getMetadata() != null
+                            && image.getMetadata().getFile() != null
+                            && image.getMetadata().getFile().getFile() != null) {
+                        imageNode.put("Name", image.getMetadata().getFile().getFile());
                     }
+                    if (image.getColorSpace() != null) {
+                        imageNode.put("ColorSpace", image.getColorSpace().getName());
+                    }
+
+                    imagesArray.add(imageNode);
                 }
-                pageInfo.set("Images", imagesArray);
+            }
+            pageInfo.set("Images", imagesArray);
 
-                // Links
-                ArrayNode linksArray = objectMapper.createArrayNode();
-                Set<String> uniqueURIs = new HashSet<>(); // To store unique URIs
+            // Links
+            ArrayNode linksArray = objectMapper.createArrayNode();
+            Set<String> uniqueURIs = new HashSet<>(); // To store unique URIs
 
-                for (PDAnnotation annotation : annotations) {
-                    if (annotation instanceof PDAnnotationLink linkAnnotation) {
-                        if (linkAnnotation.getAction() instanceof PDActionURI uriAction) {
-                            String uri = uriAction.getURI();
-                            uniqueURIs.add(uri); // Add to set to ensure uniqueness
-                        }
+            for (PDAnnotation annotation : annotations) {
+                if (annotation instanceof PDAnnotationLink linkAnnotation) {
+                    if (linkAnnotation.getAction() instanceof PDActionURI uriAction) {
+                        String uri = uriAction.getURI();
+                        uniqueURIs.add(uri); // Add to set to ensure uniqueness
                     }
                 }
+            }
 
-                // Add unique URIs to linksArray
-                for (String uri : uniqueURIs) {
-                    ObjectNode linkNode = objectMapper.createObjectNode();
-                    linkNode.put("URI", uri);
-                    linksArray.add(linkNode);
-                }
-                pageInfo.set("Links", linksArray);
-
-                // Fonts
-                ArrayNode fontsArray = objectMapper.createArrayNode();
-                Map<String, ObjectNode> uniqueFontsMap = new HashMap<>();
+            // Add unique URIs to linksArray
+            for (String uri : uniqueURIs) {
+                ObjectNode linkNode = objectMapper.createObjectNode();
+                linkNode.put("URI", uri);
+                linksArray.add(linkNode);
+            }
+            pageInfo.set("Links", linksArray);
 
-                for (COSName fontName : resources.getFontNames()) {
-                    PDFont font = resources.getFont(fontName);
-                    ObjectNode fontNode = objectMapper.createObjectNode();
+            // Fonts
+            ArrayNode fontsArray = objectMapper.createArrayNode();
+            Map<String, ObjectNode> uniqueFontsMap = new HashMap<>();
 
-                    fontNode.put("IsEmbedded", font.isEmbedded());
+            for (COSName fontName : resources.getFontNames()) {
+                PDFont font = resources.getFont(fontName);
+                ObjectNode fontNode = objectMapper.createObjectNode();
 
-                    // PDFBox provides Font's BaseFont (i.e., the font name) directly
-                    fontNode.put("Name", font.getName());
+                fontNode.put("IsEmbedded", font.isEmbedded());
 
-                    fontNode.put("Subtype", font.getType());
+                // PDFBox provides Font's BaseFont (i.e., the font name) directly
+                fontNode.put("Name", font.getName());
 
-                    PDFontDescriptor fontDescriptor = font.getFontDescriptor();
+                fontNode.put("Subtype", font.getType());
 
-                    if (fontDescriptor != null) {
-                        fontNode.put("ItalicAngle", fontDescriptor.getItalicAngle());
-                        int flags = fontDescriptor.getFlags();
-                        fontNode.put("IsItalic", (flags & 1) != 0);
-                        fontNode.put("IsBold", (flags & 64) != 0);
-                        fontNode.put("IsFixedPitch", (flags & 2) != 0);
-                        fontNode.put("IsSerif", (flags & 4) != 0);
-                        fontNode.put("IsSymbolic", (flags & 8) != 0);
-                        fontNode.put("IsScript", (flags & 16) != 0);
-                        fontNode.put("IsNonsymbolic", (flags & 32) != 0);
+                PDFontDescriptor fontDescriptor = font.getFontDescriptor();
 
-                        fontNode.put("FontFamily", fontDescriptor.getFontFamily());
-                        // Font stretch and BBox are not directly available in PDFBox's API, so
-                        // these are omitted for simplicity
-                        fontNode.put("FontWeight", fontDescriptor.getFontWeight());
-                    }
+                if (fontDescriptor != null) {
+                    fontNode.put("ItalicAngle", fontDescriptor.getItalicAngle());
+                    int flags = fontDescriptor.getFlags();
+                    fontNode.put("IsItalic", (flags & 1) != 0);
+                    fontNode.put("IsBold", (flags & 64) != 0);
+                    fontNode.put("IsFixedPitch", (flags & 2) != 0);
+                    fontNode.put("IsSerif", (flags & 4) != 0);
+                    fontNode.put("IsSymbolic", (flags & 8) != 0);
+                    fontNode.put("IsScript", (flags & 16) != 0);
+                    fontNode.put("IsNonsymbolic", (flags & 32) != 0);
 
-                    // Create a unique key for this font node based on its attributes
-                    String uniqueKey = fontNode.toString();
-
-                    // Increment count if this font exists, or initialize it if new
-                    if (uniqueFontsMap.containsKey(uniqueKey)) {
-                        ObjectNode existingFontNode = uniqueFontsMap.get(uniqueKey);
-                        int count = existingFontNode.get("Count").asInt() + 1;
-                        existingFontNode.put("Count", count);
-                    } else {
-                        fontNode.put("Count", 1);
-                        uniqueFontsMap.put(uniqueKey, fontNode);
-                    }
+                    fontNode.put("FontFamily", fontDescriptor.getFontFamily());
+                    // Font stretch and BBox are not directly available in PDFBox's API, so
+                    // these are omitted for simplicity
+                    fontNode.put("FontWeight", fontDescriptor.getFontWeight());
                 }
 
-                // Add unique font entries to fontsArray
-                for (ObjectNode uniqueFontNode : uniqueFontsMap.values()) {
-                    fontsArray.add(uniqueFontNode);
+                // Create a unique key for this font node based on its attributes
+                String uniqueKey = fontNode.toString();
+
+                // Increment count if this font exists, or initialize it if new
+                if (uniqueFontsMap.containsKey(uniqueKey)) {
+                    ObjectNode existingFontNode = uniqueFontsMap.get(uniqueKey);
+                    int count = existingFontNode.get("Count").asInt() + 1;
+                    existingFontNode.put("Count", count);
+                } else {
+                    fontNode.put("Count", 1);
+                    uniqueFontsMap.put(uniqueKey, fontNode);
                 }
+            }
 
-                pageInfo.set("Fonts", fontsArray);
+            // Add unique font entries to fontsArray
+            for (ObjectNode uniqueFontNode : uniqueFontsMap.values()) {
+                fontsArray.add(uniqueFontNode);
+            }
 
-                // Access resources dictionary
-                ArrayNode colorSpacesArray = objectMapper.createArrayNode();
+            pageInfo.set("Fonts", fontsArray);
 
-                Iterable<COSName> colorSpaceNames = resources.getColorSpaceNames();
-                for (COSName name : colorSpaceNames) {
-                    PDColorSpace colorSpace = resources.getColorSpace(name);
-                    if (colorSpace instanceof PDICCBased iccBased) {
-                        PDStream iccData = iccBased.getPDStream();
-                        byte[] iccBytes = iccData.toByteArray();
+            // Access resources dictionary
+            ArrayNode colorSpacesArray = objectMapper.createArrayNode();
 
-                        // TODO: Further decode and analyze the ICC data if needed
-                        ObjectNode iccProfileNode = objectMapper.createObjectNode();
-                        iccProfileNode.put("ICC Profile Length", iccBytes.length);
-                        colorSpacesArray.add(iccProfileNode);
-                    }
-                }
-                pageInfo.set("Color Spaces & ICC Profiles", colorSpacesArray);
-
-                // Other XObjects
-                Map<String, Integer> xObjectCountMap =
-                        new HashMap<>(); // To store the count for each type
-                for (COSName name : resources.getXObjectNames()) {
-                    PDXObject xObject = resources.getXObject(name);
-                    String xObjectType;
-
-                    if (xObject instanceof PDImageXObject) {
-                        xObjectType = "Image";
-                    } else if (xObject instanceof PDFormXObject) {
-                        xObjectType = "Form";
-                    } else {
-                        xObjectType = "Other";
-                    }
+            Iterable<COSName> colorSpaceNames = resources.getColorSpaceNames();
+            for (COSName name : colorSpaceNames) {
+                PDColorSpace colorSpace = resources.getColorSpace(name);
+                if (colorSpace instanceof PDICCBased iccBased) {
+                    PDStream iccData = iccBased.getPDStream();
+                    byte[] iccBytes = iccData.toByteArray();
 
-                    // Increment the count for this type in the map
-                    xObjectCountMap.put(
-                            xObjectType, xObjectCountMap.getOrDefault(xObjectType, 0) + 1);
+                    // TODO: Further decode and analyze the ICC data if needed
+                    ObjectNode iccProfileNode = objectMapper.createObjectNode();
+                    iccProfileNode.put("ICC Profile Length", iccBytes.length);
+                    colorSpacesArray.add(iccProfileNode);
                 }
-
-                // Add the count map to pageInfo (or wherever you want to store it)
-                ObjectNode xObjectCountNode = objectMapper.createObjectNode();
-                for (Map.Entry<String, Integer> entry : xObjectCountMap.entrySet()) {
-                    xObjectCountNode.put(entry.getKey(), entry.getValue());
+            }
+            pageInfo.set("Color Spaces & ICC Profiles", colorSpacesArray);
+
+            // Other XObjects
+            Map<String, Integer> xObjectCountMap =
+                    new HashMap<>(); // To store the count for each type
+            for (COSName name : resources.getXObjectNames()) {
+                PDXObject xObject = resources.getXObject(name);
+                String xObjectType;
+
+                if (xObject instanceof PDImageXObject) {
+                    xObjectType = "Image";
+                } else if (xObject instanceof PDFormXObject) {
+                    xObjectType = "Form";
+                } else {
+                    xObjectType = "Other";
                 }
-                pageInfo.set("XObjectCounts", xObjectCountNode);
 
-                ArrayNode multimediaArray = objectMapper.createArrayNode();
+                // Increment the count for this type in the map
+                xObjectCountMap.put(xObjectType, xObjectCountMap.getOrDefault(xObjectType, 0) + 1);
+            }
 
-                for (PDAnnotation annotation : annotations) {
-                    if ("RichMedia".equals(annotation.getSubtype())) {
-                        ObjectNode multimediaNode = objectMapper.createObjectNode();
-                        // Extract details from the annotation as needed
-                        multimediaArray.add(multimediaNode);
-                    }
-                }
+            // Add the count map to pageInfo (or wherever you want to store it)
+            ObjectNode xObjectCountNode = objectMapper.createObjectNode();
+            for (Map.Entry<String, Integer> entry : xObjectCountMap.entrySet()) {
+                xObjectCountNode.put(entry.getKey(), entry.getValue());
+            }
+            pageInfo.set("XObjectCounts", xObjectCountNode);
 
-                pageInfo.set("Multimedia", multimediaArray);
+            ArrayNode multimediaArray = objectMapper.createArrayNode();
 
-                pageInfoParent.set("Page " + (pageNum + 1), pageInfo);
+            for (PDAnnotation annotation : annotations) {
+                if ("RichMedia".equals(annotation.getSubtype())) {
+                    ObjectNode multimediaNode = objectMapper.createObjectNode();
+                    // Extract details from the annotation as needed
+                    multimediaArray.add(multimediaNode);
+                }
             }
 
-            jsonOutput.set("BasicInfo", basicInfo);
-            jsonOutput.set("DocumentInfo", docInfoNode);
-            jsonOutput.set("Compliancy", compliancy);
-            jsonOutput.set("Encryption", encryption);
-            jsonOutput.set("Permissions", permissionsNode); // set the node under "Permissions"
-            jsonOutput.set("Other", other);
-            jsonOutput.set("PerPageInfo", pageInfoParent);
+            pageInfo.set("Multimedia", multimediaArray);
 
-            // Save JSON to file
-            String jsonString =
-                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonOutput);
+            pageInfoParent.set("Page " + (pageNum + 1), pageInfo);
+        }
 
-            return WebResponseUtils.bytesToWebResponse(
-                    jsonString.getBytes(StandardCharsets.UTF_8),
-                    "response.json",
-                    MediaType.APPLICATION_JSON);
+        jsonOutput.set("BasicInfo", basicInfo);
+        jsonOutput.set("DocumentInfo", docInfoNode);
+        jsonOutput.set("Compliancy", compliancy);
+        jsonOutput.set("Encryption", encryption);
+        jsonOutput.set("Permissions", permissionsNode); // set the node under "Permissions"
+        jsonOutput.set("Other", other);
+        jsonOutput.set("PerPageInfo", pageInfoParent);
 
-        } catch (Exception e) {
-            log.error("exception", e);
-        }
-        return null;
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonOutput);
     }
 
     private void setNodePermissions(PDDocument pdfBoxDoc, ObjectNode permissionsNode) {
@@ -5,6 +5,7 @@ import java.io.IOException;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -37,7 +38,7 @@ public class PasswordController {
             description =
                     "This endpoint removes the password from a protected PDF file. Users need to"
                             + " provide the existing password. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> removePassword(@ModelAttribute PDFPasswordRequest request)
+    public ResponseEntity<Resource> removePassword(@ModelAttribute PDFPasswordRequest request)
             throws IOException {
         MultipartFile fileInput = request.getFileInput();
         String password = request.getPassword();
@@ -47,7 +48,8 @@ public class PasswordController {
                 document,
                 Filenames.toSimpleFileName(fileInput.getOriginalFilename())
                                 .replaceFirst("[.][^.]+$", "")
-                        + "_password_removed.pdf");
+                        + "_password_removed.pdf",
+                pdfDocumentFactory);
     }
 
     @PostMapping(consumes = "multipart/form-data", value = "/add-password")
@@ -57,7 +59,7 @@ public class PasswordController {
                     "This endpoint adds password protection to a PDF file. Users can specify a set"
                             + " of permissions that should be applied to the file. Input:PDF"
                             + " Output:PDF")
-    public ResponseEntity<byte[]> addPassword(@ModelAttribute AddPasswordRequest request)
+    public ResponseEntity<Resource> addPassword(@ModelAttribute AddPasswordRequest request)
             throws IOException {
         MultipartFile fileInput = request.getFileInput();
         String ownerPassword = request.getOwnerPassword();
@@ -95,11 +97,13 @@ public class PasswordController {
                     document,
                     Filenames.toSimpleFileName(fileInput.getOriginalFilename())
                                     .replaceFirst("[.][^.]+$", "")
-                            + "_permissions.pdf");
+                            + "_permissions.pdf",
+                    pdfDocumentFactory);
         return WebResponseUtils.pdfDocToWebResponse(
                 document,
                 Filenames.toSimpleFileName(fileInput.getOriginalFilename())
                                 .replaceFirst("[.][^.]+$", "")
-                        + "_passworded.pdf");
+                        + "_passworded.pdf",
+                pdfDocumentFactory);
     }
 }
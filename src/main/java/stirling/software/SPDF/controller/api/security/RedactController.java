@@ -1,7 +1,6 @@
 package stirling.software.SPDF.controller.api.security;
 
 import java.awt.*;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -14,6 +13,7 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.InitBinder;
@@ -36,6 +36,7 @@ import stirling.software.SPDF.model.api.security.RedactPdfRequest;
 import stirling.software.SPDF.model.api.security.RedactionArea;
 import stirling.software.SPDF.pdf.TextFinder;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
 import stirling.software.SPDF.utils.GeneralUtils;
 import stirling.software.SPDF.utils.PdfUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
@@ -49,6 +50,7 @@ import stirling.software.SPDF.utils.propertyeditor.StringToArrayListPropertyEdit
 public class RedactController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final PageRenderService pageRenderService;
 
     @InitBinder
     public void initBinder(WebDataBinder binder) {
@@ -63,7 +65,7 @@ public class RedactController {
                     "This operation takes an input PDF file with a list of areas, page"
                             + " number(s)/range(s)/function(s) to redact. Input:PDF, Output:PDF,"
                             + " Type:SISO")
-    public ResponseEntity<byte[]> redactPDF(@ModelAttribute ManualRedactPdfRequest request)
+    public ResponseEntity<Resource> redactPDF(@ModelAttribute ManualRedactPdfRequest request)
             throws IOException {
         MultipartFile file = request.getFileInput();
         List<RedactionArea> redactionAreas = request.getRedactions();
@@ -76,20 +78,16 @@ public class RedactController {
         redactAreas(redactionAreas, document, allPages);
 
         if (request.isConvertPDFToImage()) {
-            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(document);
+            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(pageRenderService, document);
             document.close();
             document = convertedPdf;
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        byte[] pdfContent = baos.toByteArray();
-        return WebResponseUtils.bytesToWebResponse(
-                pdfContent,
+        return WebResponseUtils.pdfDocToWebResponse(
+                document,
                 Filenames.toSimpleFileName(file.getOriginalFilename()).replaceFirst("[.][^.]+$", "")
-                        + "_redacted.pdf");
+                        + "_redacted.pdf",
+                pdfDocumentFactory);
     }
 
     private void redactAreas(
@@ -196,7 +194,7 @@ public class RedactController {
             description =
                     "This operation takes an input PDF file and redacts the provided listOfText."
                             + " Input:PDF, Output:PDF, Type:SISO")
-    public ResponseEntity<byte[]> redactPdf(@ModelAttribute RedactPdfRequest request)
+    public ResponseEntity<Resource> redactPdf(@ModelAttribute RedactPdfRequest request)
             throws Exception {
         MultipartFile file = request.getFileInput();
         String listOfTextString = request.getListOfText();
@@ -228,20 +226,16 @@ public class RedactController {
         }
 
         if (convertPDFToImage) {
-            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(document);
+            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(pageRenderService, document);
             document.close();
             document = convertedPdf;
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        byte[] pdfContent = baos.toByteArray();
-        return WebResponseUtils.bytesToWebResponse(
-                pdfContent,
+        return WebResponseUtils.pdfDocToWebResponse(
+                document,
                 Filenames.toSimpleFileName(file.getOriginalFilename()).replaceFirst("[.][^.]+$", "")
-                        + "_redacted.pdf");
+                        + "_redacted.pdf",
+                pdfDocumentFactory);
     }
 
     private void redactFoundText(
@@ -23,6 +23,7 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.apache.pdfbox.util.Matrix;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -36,8 +37,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import lombok.RequiredArgsConstructor;
 
+import stirling.software.SPDF.controller.api.pipeline.DocumentOperation;
 import stirling.software.SPDF.model.api.security.AddWatermarkRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.PdfUtils;
 import stirling.software.SPDF.utils.WebResponseUtils;
 
@@ -48,6 +52,8 @@ import stirling.software.SPDF.utils.WebResponseUtils;
 public class WatermarkController {
 
     private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final PageRenderService pageRenderService;
 
     @PostMapping(consumes = "multipart/form-data", value = "/add-watermark")
     @Operation(
@@ -56,9 +62,25 @@ public class WatermarkController {
                     "This endpoint adds a watermark to a given PDF file. Users can specify the"
                             + " watermark type (text or image), rotation, opacity, width spacer, and"
                             + " height spacer. Input:PDF Output:PDF Type:SISO")
-    public ResponseEntity<byte[]> addWatermark(@ModelAttribute AddWatermarkRequest request)
+    public ResponseEntity<Resource> addWatermark(@ModelAttribute AddWatermarkRequest request)
             throws IOException, Exception {
         MultipartFile pdfFile = request.getFileInput();
+
+        // Load the input PDF
+        PDDocument document = pdfDocumentFactory.load(pdfFile);
+
+        return WebResponseUtils.pdfDocToWebResponse(
+                watermark(document, request),
+                Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
+                                .replaceFirst("[.][^.]+$", "")
+                        + "_watermarked.pdf",
+                pdfDocumentFactory,
+                pdfDocumentFactory::saveIncrementally);
+    }
+
+    @DocumentOperation
+    public PDDocument watermark(PDDocument document, AddWatermarkRequest request)
+            throws IOException {
         String watermarkType = request.getWatermarkType();
         String watermarkText = request.getWatermarkText();
         MultipartFile watermarkImage = request.getWatermarkImage();
@@ -71,9 +93,6 @@ public class WatermarkController {
         String customColor = request.getCustomColor();
         boolean convertPdfToImage = request.isConvertPDFToImage();
 
-        // Load the input PDF
-        PDDocument document = pdfDocumentFactory.load(pdfFile);
-
         // Create a page in the document
         for (PDPage page : document.getPages()) {
 
@@ -116,16 +135,16 @@ public class WatermarkController {
         }
 
         if (convertPdfToImage) {
-            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(document);
-            document.close();
+            PDDocument convertedPdf = PdfUtils.convertPdfToPdfImage(pageRenderService, document);
+            try {
+                document.close();
+            } catch (IOException e) {
+                convertedPdf.close();
+                throw e;
+            }
             document = convertedPdf;
         }
-
-        return WebResponseUtils.pdfDocToWebResponse(
-                document,
-                Filenames.toSimpleFileName(pdfFile.getOriginalFilename())
-                                .replaceFirst("[.][^.]+$", "")
-                        + "_watermarked.pdf");
+        return document;
     }
 
     private void addTextWatermark(
@@ -164,7 +183,7 @@ public class WatermarkController {
         if (!"".equals(resourceDir)) {
             ClassPathResource classPathResource = new ClassPathResource(resourceDir);
             String fileExtension = resourceDir.substring(resourceDir.lastIndexOf("."));
-            File tempFile = Files.createTempFile("NotoSansFont", fileExtension).toFile();
+            File tempFile = tempFileManager.createTempFile("NotoSansFont", fileExtension).toFile();
             try (InputStream is = classPathResource.getInputStream();
                     FileOutputStream os = new FileOutputStream(tempFile)) {
                 IOUtils.copy(is, os);
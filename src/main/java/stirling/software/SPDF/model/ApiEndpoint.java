@@ -1,29 +1,59 @@
 package stirling.software.SPDF.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
+/**
+ * A pipeline operation as described by the {@code Input:X Output:Y Type:Z} part of its
+ * {@code @Operation} description, parsed once when the catalog is built.
+ */
 public class ApiEndpoint {
+
+    private static final Pattern INPUT_PATTERN = Pattern.compile("Input:(\\w+)");
+    private static final Pattern OUTPUT_PATTERN = Pattern.compile("Output:(\\w+)");
+    private static final Pattern TYPE_PATTERN = Pattern.compile("Type:(\\w+)");
+
     private final String name;
-    private Map<String, JsonNode> parameters;
+    private final Set<String> requiredParameters;
     private final String description;
+    private final String inputType;
+    private final String outputType;
+    private final String type;
 
-    public ApiEndpoint(String name, JsonNode postNode) {
+    /**
+     * @param knownFileTypes file types a pipeline can route on, the first one mentioned as input or
+     *     output is used, e.g. PDF for {@code Input:PDF}
+     */
+    public ApiEndpoint(
+            String name,
+            String description,
+            Set<String> requiredParameters,
+            Set<String> knownFileTypes) {
         this.name = name;
-        this.parameters = new HashMap<>();
-        postNode.path("parameters")
-                .forEach(
-                        paramNode -> {
-                            String paramName = paramNode.path("name").asText();
-                            parameters.put(paramName, paramNode);
-                        });
-        this.description = postNode.path("description").asText();
+        this.description = description != null ? description : "";
+        this.requiredParameters = Set.copyOf(requiredParameters);
+        this.inputType = findFileType(INPUT_PATTERN, this.description, knownFileTypes);
+        this.outputType = findFileType(OUTPUT_PATTERN, this.description, knownFileTypes);
+        Matcher matcher = TYPE_PATTERN.matcher(this.description);
+        this.type = matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String findFileType(
+            Pattern pattern, String description, Set<String> knownFileTypes) {
+        Matcher matcher = pattern.matcher(description);
+        while (matcher.find()) {
+            String fileType = matcher.group(1).toUpperCase();
+            if (knownFileTypes.contains(fileType)) {
+                return fileType;
+            }
+        }
+        return null;
     }
 
     public boolean areParametersValid(Map<String, Object> providedParams) {
-        for (String requiredParam : parameters.keySet()) {
+        for (String requiredParam : requiredParameters) {
             if (!providedParams.containsKey(requiredParam)) {
                 return false;
             }
@@ -31,12 +61,45 @@ public class ApiEndpoint {
         return true;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public String getDescription() {
         return description;
     }
 
+    /** File type the operation takes, e.g. PDF, or null if it is not described */
+    public String getInputType() {
+        return inputType;
+    }
+
+    /** File type the operation returns, e.g. PDF, or null if it is not described */
+    public String getOutputType() {
+        return outputType;
+    }
+
+    /** SISO, SIMO, MISO or MIMO for single or multiple input and output, null if not described */
+    public String getType() {
+        return type;
+    }
+
+    public boolean isMultiInput() {
+        return type != null && type.startsWith("MI");
+    }
+
     @Override
     public String toString() {
-        return "ApiEndpoint [name=" + name + ", parameters=" + parameters + "]";
+        return "ApiEndpoint [name="
+                + name
+                + ", inputType="
+                + inputType
+                + ", outputType="
+                + outputType
+                + ", type="
+                + type
+                + ", requiredParameters="
+                + requiredParameters
+                + "]";
     }
 }
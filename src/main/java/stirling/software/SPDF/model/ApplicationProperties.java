@@ -13,7 +13,9 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -86,10 +88,35 @@ public class ApplicationProperties {
     private EnterpriseEdition enterpriseEdition = new EnterpriseEdition();
     private AutoPipeline autoPipeline = new AutoPipeline();
     private ProcessExecutor processExecutor = new ProcessExecutor();
+    private Bulkheads bulkheads = new Bulkheads();
+    private DocumentFactory documentFactory = new DocumentFactory();
 
     @Data
     public static class AutoPipeline {
         private String outputFolder;
+        // Call the controllers directly instead of posting every step to localhost
+        private boolean inProcessDispatch = true;
+        private int maxParallelFiles;
+        // Threads that claim and process watched folder batches
+        private int folderWorkers;
+        // Batches of the same watched folder that may run at once
+        private int maxBatchesPerFolder;
+        // Files per batch, 0 puts all ready files of a folder into one batch
+        private int folderBatchSize;
+
+        public int getMaxParallelFiles() {
+            return maxParallelFiles > 0
+                    ? maxParallelFiles
+                    : Runtime.getRuntime().availableProcessors();
+        }
+
+        public int getFolderWorkers() {
+            return folderWorkers > 0 ? folderWorkers : 2;
+        }
+
+        public int getMaxBatchesPerFolder() {
+            return maxBatchesPerFolder > 0 ? maxBatchesPerFolder : 1;
+        }
     }
 
     @Data
@@ -291,10 +318,127 @@ public class ApplicationProperties {
         private Boolean enableUrlToPDF;
         private CustomPaths customPaths = new CustomPaths();
         private String fileUploadLimit;
+        private TempFileManagement tempFileManagement = new TempFileManagement();
+        private AsyncJobs asyncJobs = new AsyncJobs();
+        private VirtualThreads virtualThreads = new VirtualThreads();
+        private PageRendering pageRendering = new PageRendering();
+        private Thumbnails thumbnails = new Thumbnails();
 
         public boolean isAnalyticsEnabled() {
             return this.getEnableAnalytics() != null && this.getEnableAnalytics();
         }
+
+        @Data
+        public static class TempFileManagement {
+            private String baseTmpDir;
+            private long maxTotalSizeMB;
+            private long quotaWaitSeconds;
+            private long orphanMaxAgeMinutes;
+
+            public String getBaseTmpDir() {
+                return baseTmpDir != null && !baseTmpDir.isEmpty()
+                        ? baseTmpDir
+                        : java.lang.System.getProperty("java.io.tmpdir") + "/stirling-pdf";
+            }
+
+            public long getQuotaWaitSeconds() {
+                return quotaWaitSeconds > 0 ? quotaWaitSeconds : 30;
+            }
+
+            public long getOrphanMaxAgeMinutes() {
+                return orphanMaxAgeMinutes > 0 ? orphanMaxAgeMinutes : 60;
+            }
+        }
+
+        @Data
+        public static class VirtualThreads {
+            private boolean enabled = false;
+            private int cpuBoundThreads;
+
+            public int getCpuBoundThreads() {
+                return cpuBoundThreads > 0
+                        ? cpuBoundThreads
+                        : Runtime.getRuntime().availableProcessors();
+            }
+        }
+
+        @Data
+        public static class PageRendering {
+            // Threads shared by all requests that render pages
+            private int threads;
+            // Rendered pages a single request may hold before they are consumed
+            private int maxPagesInFlight;
+
+            public int getThreads() {
+                return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            }
+
+            public int getMaxPagesInFlight() {
+                return maxPagesInFlight > 0 ? maxPagesInFlight : 2 * getThreads();
+            }
+        }
+
+        @Data
+        public static class Thumbnails {
+            private boolean enabled = true;
+            private String storageDir;
+            private float dpi;
+            private int pagesPerRender;
+            private long maxSizeMB;
+            private long maxAgeSeconds;
+
+            public String getStorageDir() {
+                return storageDir != null && !storageDir.isEmpty()
+                        ? storageDir
+                        : java.lang.System.getProperty("java.io.tmpdir")
+                                + "/stirling-pdf-thumbnails";
+            }
+
+            public float getDpi() {
+                return dpi > 0 ? dpi : 36;
+            }
+
+            public int getPagesPerRender() {
+                return pagesPerRender > 0 ? pagesPerRender : 12;
+            }
+
+            public long getMaxSizeMB() {
+                return maxSizeMB > 0 ? maxSizeMB : 512;
+            }
+
+            public long getMaxAgeSeconds() {
+                return maxAgeSeconds > 0 ? maxAgeSeconds : 86400;
+            }
+        }
+
+        @Data
+        public static class AsyncJobs {
+            private boolean enabled = true;
+            private String storageDir;
+            private int workers;
+            private int maxQueuedJobs;
+            private long resultTtlMinutes;
+
+            public String getStorageDir() {
+                return storageDir != null && !storageDir.isEmpty()
+                        ? storageDir
+                        : java.lang.System.getProperty("java.io.tmpdir") + "/stirling-pdf-jobs";
+            }
+
+            public int getWorkers() {
+                return workers > 0
+                        ? workers
+                        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            }
+
+            public int getMaxQueuedJobs() {
+                return maxQueuedJobs > 0 ? maxQueuedJobs : 100;
+            }
+
+            public long getResultTtlMinutes() {
+                return resultTtlMinutes > 0 ? resultTtlMinutes : 60;
+            }
+        }
     }
 
     @Data
@@ -485,6 +629,29 @@ public class ApplicationProperties {
         }
     }
 
+    @Data
+    public static class Bulkheads {
+        private boolean enabled = true;
+        // Keyed by group name from EndpointConfiguration or by endpoint name
+        private Map<String, Limit> groups = new HashMap<>();
+        private Map<String, Limit> endpoints = new HashMap<>();
+
+        @Data
+        public static class Limit {
+            private int maxConcurrent;
+            private int maxQueued = -1;
+            private long queueTimeoutSeconds;
+
+            public int getMaxQueued() {
+                return maxQueued >= 0 ? maxQueued : maxConcurrent * 4;
+            }
+
+            public long getQueueTimeoutSeconds() {
+                return queueTimeoutSeconds > 0 ? queueTimeoutSeconds : 30;
+            }
+        }
+    }
+
     @Data
     public static class ProcessExecutor {
         private SessionLimit sessionLimit = new SessionLimit();
@@ -578,4 +745,103 @@ public class ApplicationProperties {
             }
         }
     }
+
+    @Data
+    public static class DocumentFactory {
+        private MemoryBudget memoryBudget = new MemoryBudget();
+        private ParsedDocumentCache parsedDocumentCache = new ParsedDocumentCache();
+        private Output output = new Output();
+        private Loading loading = new Loading();
+
+        @Data
+        public static class MemoryBudget {
+            private boolean enabled = true;
+            private int maxHeapPercentage;
+            private long waitTimeoutSeconds;
+            private String onExhausted;
+
+            public int getMaxHeapPercentage() {
+                return maxHeapPercentage > 0 && maxHeapPercentage <= 100 ? maxHeapPercentage : 60;
+            }
+
+            public long getWaitTimeoutSeconds() {
+                return waitTimeoutSeconds > 0 ? waitTimeoutSeconds : 30;
+            }
+
+            public String getOnExhausted() {
+                return onExhausted == null || onExhausted.trim().isEmpty()
+                        ? "downgrade"
+                        : onExhausted;
+            }
+        }
+
+        @Data
+        public static class ParsedDocumentCache {
+            private boolean enabled = false;
+            private int maxEntries;
+            private long maxSizeMB;
+
+            public int getMaxEntries() {
+                return maxEntries > 0 ? maxEntries : 256;
+            }
+
+            public long getMaxSizeMB() {
+                return maxSizeMB > 0 ? maxSizeMB : 64;
+            }
+        }
+
+        @Data
+        public static class Output {
+            private String profile;
+            private int objectStreamSize;
+            private int compressionLevel = -1;
+
+            public String getProfile() {
+                return profile == null || profile.trim().isEmpty() ? "balanced" : profile;
+            }
+
+            public int getObjectStreamSize() {
+                return objectStreamSize > 0 ? objectStreamSize : 200;
+            }
+        }
+
+        @Data
+        public static class Loading {
+            private long smallFileThresholdMB;
+            private long largeFileThresholdMB;
+            private long mixedCacheMemoryMB;
+            private double minFreeMemoryPercentage;
+            private long minFreeMemoryMB;
+            private boolean adaptive = false;
+
+            // Unset sizes are derived from the max heap, capped at the values used so far
+
+            public long getSmallFileThresholdMB() {
+                return smallFileThresholdMB > 0 ? smallFileThresholdMB : heapFraction(32, 10);
+            }
+
+            public long getLargeFileThresholdMB() {
+                return largeFileThresholdMB > 0 ? largeFileThresholdMB : heapFraction(8, 50);
+            }
+
+            public long getMixedCacheMemoryMB() {
+                return mixedCacheMemoryMB > 0 ? mixedCacheMemoryMB : heapFraction(32, 10);
+            }
+
+            public double getMinFreeMemoryPercentage() {
+                return minFreeMemoryPercentage > 0 && minFreeMemoryPercentage < 100
+                        ? minFreeMemoryPercentage
+                        : 30;
+            }
+
+            public long getMinFreeMemoryMB() {
+                return minFreeMemoryMB > 0 ? minFreeMemoryMB : heapFraction(4, 4096);
+            }
+
+            private static long heapFraction(int divisor, long maxMB) {
+                long heapMB = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+                return Math.max(1, Math.min(maxMB, heapMB / divisor));
+            }
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package stirling.software.SPDF.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A request that is processed in the background, stored as job.json next to its files */
+@Data
+public class AsyncJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private String id;
+    // Request path below the context path, including the query string of multipart requests
+    private String endpoint;
+    private String owner;
+    private Status status;
+    private long createdAt;
+    private long startedAt;
+    private long finishedAt;
+    private List<Field> fields = new ArrayList<>();
+    private int httpStatus;
+    private String error;
+    private String resultFileName;
+    private String resultContentType;
+    private long resultSize;
+
+    /** A form field of the original request, file contents are kept in the job directory */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Field {
+        private String name;
+        private String value;
+        private String fileName;
+        private String storedFile;
+    }
+}
@@ -0,0 +1,27 @@
+package stirling.software.SPDF.model;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/** Lightweight parse results of a document that can be kept after the document is closed */
+@Data
+@Builder
+public class DocumentSummary {
+    private int pageCount;
+    private float pdfVersion;
+    private boolean encrypted;
+    private PdfMetadata metadata;
+    private List<PageSummary> pages;
+
+    @Data
+    @Builder
+    public static class PageSummary {
+        private float mediaBoxWidth;
+        private float mediaBoxHeight;
+        private float bBoxWidth;
+        private float bBoxHeight;
+        private int rotation;
+    }
+}
@@ -0,0 +1,25 @@
+package stirling.software.SPDF.model;
+
+import java.util.Map;
+
+/**
+ * Facts about a PDF that can be read from its header, trailer, page tree root and Info dictionary
+ * without loading any page
+ *
+ * @param pageCount value of /Count in the root of the page tree
+ * @param pdfVersion version from the header or the catalog, whichever is higher
+ * @param encrypted whether the trailer has an /Encrypt dictionary
+ * @param fileSize size of the file in bytes
+ * @param info text entries of the Info dictionary, e.g. Title and Producer
+ */
+public record PdfProbe(
+        int pageCount,
+        float pdfVersion,
+        boolean encrypted,
+        long fileSize,
+        Map<String, String> info) {
+
+    public PdfProbe {
+        info = Map.copyOf(info);
+    }
+}
@@ -17,4 +17,7 @@ public class PipelineConfig {
 
     @JsonProperty("outputFileName")
     private String outputPattern;
+
+    // Files processed at once by single-input operations, capped by autoPipeline.maxParallelFiles
+    private Integer parallelism;
 }
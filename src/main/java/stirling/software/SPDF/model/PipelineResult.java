@@ -1,5 +1,6 @@
 package stirling.software.SPDF.model;
 
+import java.nio.file.Path;
 import java.util.List;
 
 import org.springframework.core.io.Resource;
@@ -11,4 +12,6 @@ public class PipelineResult {
     private List<Resource> outputFiles;
     private boolean hasErrors;
     private boolean filtersApplied;
+    // Holds the output files, delete it once they have been handed on
+    private Path scratchDirectory;
 }
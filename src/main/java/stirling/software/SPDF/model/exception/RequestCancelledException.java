@@ -0,0 +1,17 @@
+package stirling.software.SPDF.model.exception;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when the client went away while its request was being processed. Nobody reads the response
+ * any more, 499 (client closed request) only shows up in logs and metrics.
+ */
+public class RequestCancelledException extends ResponseStatusException {
+
+    public static final int CLIENT_CLOSED_REQUEST = 499;
+
+    public RequestCancelledException() {
+        super(HttpStatusCode.valueOf(CLIENT_CLOSED_REQUEST), "Request cancelled by the client");
+    }
+}
@@ -0,0 +1,27 @@
+package stirling.software.SPDF.model.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Thrown when the server is too busy to accept more work, answered with 503 + Retry-After. */
+public class ServiceOverloadedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String reason, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,603 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.Part;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.SPDFApplication;
+import stirling.software.SPDF.controller.api.pipeline.UserServiceInterface;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.AsyncJob;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+/**
+ * Runs API requests in the background. A submitted request is written to its own directory below
+ * the job storage directory, queued for a bounded pool of workers and later replayed against the
+ * unchanged endpoint over the loopback interface, like the pipeline does. The response is stored
+ * next to the inputs until it has been downloaded or its time to live has passed. Queued jobs
+ * survive a restart, jobs that were running when the server stopped are queued again.
+ */
+@Service
+@Slf4j
+public class AsyncJobService {
+
+    public static final String ASYNC_PARAMETER = "async";
+
+    private static final String JOB_FILE = "job.json";
+    private static final String RESULT_FILE = "result";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Operations that take documents and answer with the processed result. Account, admin,
+    // settings and database endpoints are never queued.
+    private static final List<String> DOCUMENT_OPERATION_PREFIXES =
+            List.of(
+                    "/api/v1/general/",
+                    "/api/v1/misc/",
+                    "/api/v1/security/",
+                    "/api/v1/convert/",
+                    "/api/v1/filter/",
+                    "/api/v1/analysis/",
+                    "/api/v1/pipeline/");
+
+    private final boolean enabled;
+    private final Path storageDirectory;
+    private final Duration resultTtl;
+    private final ObjectMapper objectMapper;
+    private final ServletContext servletContext;
+    private final UserServiceInterface userService;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AsyncJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public AsyncJobService(
+            ApplicationProperties applicationProperties,
+            ObjectMapper objectMapper,
+            ServletContext servletContext,
+            @Autowired(required = false) UserServiceInterface userService,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        this(
+                applicationProperties,
+                objectMapper,
+                servletContext,
+                userService,
+                meterRegistry,
+                new RestTemplate());
+    }
+
+    AsyncJobService(
+            ApplicationProperties applicationProperties,
+            ObjectMapper objectMapper,
+            ServletContext servletContext,
+            UserServiceInterface userService,
+            MeterRegistry meterRegistry,
+            RestTemplate restTemplate)
+            throws IOException {
+        ApplicationProperties.System.AsyncJobs settings =
+                applicationProperties.getSystem().getAsyncJobs();
+        this.enabled = settings.isEnabled();
+        this.storageDirectory = Paths.get(settings.getStorageDir()).toAbsolutePath().normalize();
+        this.resultTtl = Duration.ofMinutes(settings.getResultTtlMinutes());
+        this.objectMapper = objectMapper;
+        this.servletContext = servletContext;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        this.restTemplate = restTemplate;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int workers = settings.getWorkers();
+        executor =
+                new ThreadPoolExecutor(
+                        workers,
+                        workers,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(settings.getMaxQueuedJobs()),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable, "async-job-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        Files.createDirectories(storageDirectory);
+        loadStoredJobs();
+
+        Gauge.builder("stirling.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("stirling.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Jobs being processed")
+                .register(meterRegistry);
+        log.info(
+                "Async jobs {} with {} workers, storing jobs in {}",
+                enabled ? "enabled" : "disabled",
+                workers,
+                storageDirectory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether the endpoint is a document operation, the only endpoints that can run as jobs */
+    public static boolean isDocumentOperation(String endpoint) {
+        try {
+            // No dot segments or matrix parameters that could lead out of the allowed paths
+            if (endpoint.contains(";")
+                    || !endpoint.equals(URI.create(endpoint).normalize().getPath())) {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return DOCUMENT_OPERATION_PREFIXES.stream().anyMatch(endpoint::startsWith);
+    }
+
+    /** Name of the authenticated user as jobs record their owner, null without a user */
+    public String ownerOf(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        String username = userService != null ? userService.getCurrentUsername() : null;
+        return username != null ? username : principal.getName();
+    }
+
+    /**
+     * Store the fields and files of the request and queue it for the given endpoint
+     *
+     * @param endpoint path below the context path, e.g. /api/v1/misc/compress-pdf
+     * @param owner name of the authenticated user, only they can see the job and it is replayed
+     *     with their permissions. May be null.
+     */
+    public AsyncJob submit(HttpServletRequest request, String endpoint, String owner)
+            throws IOException, ServletException {
+        if (!isDocumentOperation(endpoint)) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Only document operations can run as async jobs");
+        }
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new ServiceOverloadedException("Too many queued jobs", 30);
+        }
+
+        AsyncJob job = new AsyncJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setOwner(owner);
+        job.setStatus(AsyncJob.Status.QUEUED);
+        job.setCreatedAt(System.currentTimeMillis());
+        Path directory = storageDirectory.resolve(job.getId());
+        Files.createDirectories(directory);
+        try {
+            String contentType = request.getContentType();
+            if (contentType != null
+                    && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+                job.setEndpoint(endpoint + queryWithoutAsyncFlag(request.getQueryString()));
+                storeParts(request, job, directory);
+            } else {
+                // Query and url-encoded body parameters, both sent as form fields later
+                job.setEndpoint(endpoint);
+                request.getParameterMap()
+                        .forEach(
+                                (name, values) -> {
+                                    if (!ASYNC_PARAMETER.equals(name)) {
+                                        for (String value : values) {
+                                            job.getFields()
+                                                    .add(
+                                                            new AsyncJob.Field(
+                                                                    name, value, null, null));
+                                        }
+                                    }
+                                });
+            }
+            store(job);
+            jobs.put(job.getId(), job);
+            executor.execute(new JobTask(job.getId()));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            FileUtils.deleteQuietly(directory.toFile());
+            throw new ServiceOverloadedException("Too many queued jobs", 30);
+        } catch (IOException | ServletException | RuntimeException e) {
+            jobs.remove(job.getId());
+            FileUtils.deleteQuietly(directory.toFile());
+            throw e;
+        }
+        log.info("Queued job {} for {}", job.getId(), job.getEndpoint());
+        return job;
+    }
+
+    private static void storeParts(HttpServletRequest request, AsyncJob job, Path directory)
+            throws IOException, ServletException {
+        int fileCount = 0;
+        for (Part part : request.getParts()) {
+            try (InputStream input = part.getInputStream()) {
+                if (part.getSubmittedFileName() != null) {
+                    String storedFile = "input-" + fileCount++;
+                    Files.copy(input, directory.resolve(storedFile));
+                    job.getFields()
+                            .add(
+                                    new AsyncJob.Field(
+                                            part.getName(),
+                                            null,
+                                            part.getSubmittedFileName(),
+                                            storedFile));
+                } else {
+                    String value = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                    job.getFields().add(new AsyncJob.Field(part.getName(), value, null, null));
+                }
+            }
+        }
+    }
+
+    private static String queryWithoutAsyncFlag(String queryString) {
+        if (queryString == null || queryString.isEmpty()) {
+            return "";
+        }
+        String query =
+                Arrays.stream(queryString.split("&"))
+                        .filter(
+                                parameter ->
+                                        !parameter.equals(ASYNC_PARAMETER)
+                                                && !parameter.startsWith(ASYNC_PARAMETER + "="))
+                        .collect(Collectors.joining("&"));
+        return query.isEmpty() ? "" : "?" + query;
+    }
+
+    /** The job with the given ID, jobs of other users are reported as missing */
+    public AsyncJob getJob(String jobId, String owner) {
+        AsyncJob job = jobs.get(jobId);
+        if (job == null || (job.getOwner() != null && !job.getOwner().equals(owner))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found");
+        }
+        return job;
+    }
+
+    /** Status of a job as returned by the jobs API */
+    public Map<String, Object> describe(AsyncJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getId());
+        status.put("endpoint", job.getEndpoint());
+        status.put("status", job.getStatus());
+        status.put("createdAt", job.getCreatedAt());
+        if (job.getStatus() == AsyncJob.Status.QUEUED) {
+            status.put("queuePosition", queuePosition(job.getId()));
+        }
+        if (job.getStartedAt() > 0) {
+            status.put("startedAt", job.getStartedAt());
+            long end = job.getFinishedAt() > 0 ? job.getFinishedAt() : System.currentTimeMillis();
+            status.put("elapsedMillis", end - job.getStartedAt());
+        }
+        if (job.getFinishedAt() > 0) {
+            status.put("finishedAt", job.getFinishedAt());
+            status.put("expiresAt", job.getFinishedAt() + resultTtl.toMillis());
+        }
+        if (job.getHttpStatus() > 0) {
+            status.put("httpStatus", job.getHttpStatus());
+        }
+        if (job.getStatus() == AsyncJob.Status.COMPLETED) {
+            status.put("resultFileName", job.getResultFileName());
+            status.put("resultContentType", job.getResultContentType());
+            status.put("resultSize", job.getResultSize());
+        }
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return status;
+    }
+
+    private int queuePosition(String jobId) {
+        int position = 1;
+        for (Runnable task : executor.getQueue()) {
+            if (task instanceof JobTask jobTask && jobTask.jobId.equals(jobId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    /** File with the response of a completed job */
+    public Path getResult(AsyncJob job) {
+        if (job.getStatus() != AsyncJob.Status.COMPLETED) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Job is " + job.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        return storageDirectory.resolve(job.getId()).resolve(RESULT_FILE);
+    }
+
+    /** Cancel a queued job or remove a finished one together with its result */
+    public void delete(AsyncJob job) {
+        if (job.getStatus() == AsyncJob.Status.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job is running");
+        }
+        executor.getQueue()
+                .removeIf(
+                        task ->
+                                task instanceof JobTask jobTask
+                                        && jobTask.jobId.equals(job.getId()));
+        if (job.getStatus() == AsyncJob.Status.QUEUED) {
+            job.setStatus(AsyncJob.Status.CANCELLED);
+            countFinished(job);
+        }
+        jobs.remove(job.getId());
+        FileUtils.deleteQuietly(storageDirectory.resolve(job.getId()).toFile());
+        log.info("Removed job {}", job.getId());
+    }
+
+    private void run(String jobId) {
+        AsyncJob job = jobs.get(jobId);
+        if (job == null || job.getStatus() != AsyncJob.Status.QUEUED) {
+            return;
+        }
+        Path directory = storageDirectory.resolve(jobId);
+        job.setStatus(AsyncJob.Status.RUNNING);
+        job.setStartedAt(System.currentTimeMillis());
+        storeQuietly(job);
+
+        try {
+            HttpHeaders responseHeaders = replay(job, directory);
+            MediaType contentType = responseHeaders.getContentType();
+            String fileName = responseHeaders.getContentDisposition().getFilename();
+            job.setResultContentType(
+                    contentType != null
+                            ? contentType.toString()
+                            : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            job.setResultFileName(fileName != null ? fileName : RESULT_FILE);
+            job.setResultSize(Files.size(directory.resolve(RESULT_FILE)));
+            job.setStatus(AsyncJob.Status.COMPLETED);
+        } catch (RestClientResponseException e) {
+            job.setHttpStatus(e.getStatusCode().value());
+            job.setError(abbreviate(e.getResponseBodyAsString()));
+            job.setStatus(AsyncJob.Status.FAILED);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Job {} failed", jobId, e);
+            job.setError(abbreviate(e.getMessage()));
+            job.setStatus(AsyncJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(System.currentTimeMillis());
+            deleteInputs(job, directory);
+            storeQuietly(job);
+            countFinished(job);
+        }
+        log.info(
+                "Job {} {} after {} ms",
+                jobId,
+                job.getStatus().name().toLowerCase(Locale.ROOT),
+                job.getFinishedAt() - job.getStartedAt());
+    }
+
+    /** Send the stored request to its endpoint and stream the response into the job directory */
+    private HttpHeaders replay(AsyncJob job, Path directory) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        for (AsyncJob.Field field : job.getFields()) {
+            if (field.getStoredFile() != null) {
+                body.add(
+                        field.getName(),
+                        new FileSystemResource(directory.resolve(field.getStoredFile())) {
+                            @Override
+                            public String getFilename() {
+                                return field.getFileName();
+                            }
+                        });
+            } else {
+                body.add(field.getName(), field.getValue());
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (userService != null && job.getOwner() != null) {
+            // Replayed as the user who submitted the job, looked up now so that a disabled or
+            // deleted user's queued jobs fail instead of running. A job never mints a key for its
+            // owner, without one it fails.
+            String apiKey =
+                    userService
+                            .findApiKeyForUser(job.getOwner())
+                            .orElseThrow(
+                                    () ->
+                                            new IllegalStateException(
+                                                    "User "
+                                                            + job.getOwner()
+                                                            + " has no API key to run the job"));
+            headers.add("X-API-KEY", apiKey);
+        }
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        Path result = directory.resolve(RESULT_FILE);
+        return restTemplate.execute(
+                getBaseUrl() + job.getEndpoint(),
+                HttpMethod.POST,
+                restTemplate.httpEntityCallback(new HttpEntity<>(body, headers)),
+                response -> {
+                    job.setHttpStatus(response.getStatusCode().value());
+                    try (InputStream input = response.getBody()) {
+                        Files.copy(input, result, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return response.getHeaders();
+                });
+    }
+
+    private String getBaseUrl() {
+        return "http://localhost:"
+                + SPDFApplication.getStaticPort()
+                + servletContext.getContextPath();
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH
+                ? message.substring(0, MAX_ERROR_LENGTH) + "..."
+                : message;
+    }
+
+    private void countFinished(AsyncJob job) {
+        Counter.builder("stirling.jobs.finished")
+                .description("Jobs that completed, failed or were cancelled")
+                .tag("status", job.getStatus().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static void deleteInputs(AsyncJob job, Path directory) {
+        for (AsyncJob.Field field : job.getFields()) {
+            if (field.getStoredFile() != null) {
+                FileUtils.deleteQuietly(directory.resolve(field.getStoredFile()).toFile());
+            }
+        }
+    }
+
+    /** Remove finished jobs whose results have outlived the configured time to live */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000) // Every minute
+    public void removeExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - resultTtl.toMillis();
+        for (AsyncJob job : jobs.values()) {
+            if (job.getStatus().isFinished() && job.getFinishedAt() < cutoff) {
+                jobs.remove(job.getId());
+                FileUtils.deleteQuietly(storageDirectory.resolve(job.getId()).toFile());
+                log.debug("Removed expired job {}", job.getId());
+            }
+        }
+    }
+
+    /** Read the jobs stored by a previous run, dropping directories without a readable job */
+    private void loadStoredJobs() throws IOException {
+        try (Stream<Path> directories = Files.list(storageDirectory)) {
+            for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                try {
+                    AsyncJob job =
+                            objectMapper.readValue(
+                                    directory.resolve(JOB_FILE).toFile(), AsyncJob.class);
+                    if (job.getStatus() == AsyncJob.Status.RUNNING) {
+                        // Interrupted by the shutdown, its inputs are still there
+                        job.setStatus(AsyncJob.Status.QUEUED);
+                        job.setStartedAt(0);
+                        job.setHttpStatus(0);
+                    }
+                    jobs.put(job.getId(), job);
+                } catch (IOException e) {
+                    log.warn("Removing unreadable job directory {}", directory, e);
+                    FileUtils.deleteQuietly(directory.toFile());
+                }
+            }
+        }
+    }
+
+    /** Queue the jobs that were waiting when the server stopped, once it accepts requests again */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeStoredJobs() {
+        List<AsyncJob> queued =
+                jobs.values().stream()
+                        .filter(job -> job.getStatus() == AsyncJob.Status.QUEUED)
+                        .sorted(Comparator.comparingLong(AsyncJob::getCreatedAt))
+                        .toList();
+        for (AsyncJob job : queued) {
+            try {
+                executor.execute(new JobTask(job.getId()));
+            } catch (RejectedExecutionException e) {
+                job.setStatus(AsyncJob.Status.FAILED);
+                job.setError("Job queue was full after restart");
+                job.setFinishedAt(System.currentTimeMillis());
+                storeQuietly(job);
+            }
+        }
+        if (!queued.isEmpty()) {
+            log.info("Resumed {} queued jobs", queued.size());
+        }
+    }
+
+    private void store(AsyncJob job) throws IOException {
+        Path directory = storageDirectory.resolve(job.getId());
+        Path temp = directory.resolve(JOB_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), job);
+        Files.move(
+                temp,
+                directory.resolve(JOB_FILE),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void storeQuietly(AsyncJob job) {
+        try {
+            store(job);
+        } catch (IOException e) {
+            log.warn("Failed to store state of job {}", job.getId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs keep their state on disk and are queued again on the next start
+        executor.shutdownNow();
+    }
+
+    private final class JobTask implements Runnable {
+        private final String jobId;
+
+        private JobTask(String jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void run() {
+            AsyncJobService.this.run(jobId);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package stirling.software.SPDF.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.config.EndpointConfiguration;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+/**
+ * Concurrency limits per endpoint group and per endpoint. A request has to pass the bulkhead of its
+ * endpoint and of every group the endpoint belongs to; when all slots are taken it waits in a
+ * bounded queue, and is rejected with 503 when the queue is full or the wait times out. Unlike the
+ * ProcessExecutor semaphores this also covers endpoints that only run Java code.
+ */
+@Service
+@Slf4j
+public class BulkheadService {
+
+    private final boolean enabled;
+    private final Map<String, List<Bulkhead>> bulkheadsByEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> endpointBulkheads = new ConcurrentHashMap<>();
+    private final List<Bulkhead> groupBulkheads = new ArrayList<>();
+    private final EndpointConfiguration endpointConfiguration;
+
+    public BulkheadService(
+            ApplicationProperties applicationProperties,
+            EndpointConfiguration endpointConfiguration,
+            MeterRegistry meterRegistry) {
+        ApplicationProperties.Bulkheads settings = applicationProperties.getBulkheads();
+        this.enabled = settings.isEnabled();
+        this.endpointConfiguration = endpointConfiguration;
+        settings.getEndpoints()
+                .forEach(
+                        (endpoint, limit) -> {
+                            if (limit.getMaxConcurrent() > 0) {
+                                endpointBulkheads.put(
+                                        endpoint,
+                                        new Bulkhead("endpoint", endpoint, limit, meterRegistry));
+                            }
+                        });
+        settings.getGroups().entrySet().stream()
+                .filter(entry -> entry.getValue().getMaxConcurrent() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(
+                        entry ->
+                                groupBulkheads.add(
+                                        new Bulkhead(
+                                                "group",
+                                                entry.getKey(),
+                                                entry.getValue(),
+                                                meterRegistry)));
+        if (enabled && (!endpointBulkheads.isEmpty() || !groupBulkheads.isEmpty())) {
+            log.info(
+                    "Bulkheads for endpoints {} and groups {}",
+                    endpointBulkheads.keySet(),
+                    groupBulkheads.stream().map(Bulkhead::getName).toList());
+        }
+    }
+
+    /**
+     * Take a slot in every bulkhead of the endpoint, waiting for one if necessary. The returned
+     * permits have to be passed to {@link #release(List)} once the request is done.
+     *
+     * @throws ServiceOverloadedException if a queue is full or the wait timed out
+     */
+    public List<Bulkhead> acquire(String endpoint) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        List<Bulkhead> bulkheads = bulkheadsByEndpoint.computeIfAbsent(endpoint, this::lookup);
+        List<Bulkhead> acquired = new ArrayList<>(bulkheads.size());
+        try {
+            for (Bulkhead bulkhead : bulkheads) {
+                bulkhead.enter();
+                acquired.add(bulkhead);
+            }
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+        return acquired;
+    }
+
+    public void release(List<Bulkhead> acquired) {
+        for (Bulkhead bulkhead : acquired) {
+            bulkhead.leave();
+        }
+    }
+
+    /** The endpoint's own bulkhead first, then its groups in name order */
+    private List<Bulkhead> lookup(String endpoint) {
+        List<Bulkhead> bulkheads = new ArrayList<>();
+        Bulkhead endpointBulkhead = endpointBulkheads.get(endpoint);
+        if (endpointBulkhead != null) {
+            bulkheads.add(endpointBulkhead);
+        }
+        for (Bulkhead groupBulkhead : groupBulkheads) {
+            if (endpointConfiguration
+                    .getEndpointsForGroup(groupBulkhead.getName())
+                    .contains(endpoint)) {
+                bulkheads.add(groupBulkhead);
+            }
+        }
+        return List.copyOf(bulkheads);
+    }
+
+    public static final class Bulkhead {
+        private final String name;
+        private final Semaphore slots;
+        private final int maxQueued;
+        private final long queueTimeoutSeconds;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Timer waitTimer;
+        private final Counter rejectedCounter;
+
+        private Bulkhead(
+                String type,
+                String name,
+                ApplicationProperties.Bulkheads.Limit limit,
+                MeterRegistry meterRegistry) {
+            this.name = name;
+            this.slots = new Semaphore(limit.getMaxConcurrent(), true);
+            this.maxQueued = limit.getMaxQueued();
+            this.queueTimeoutSeconds = limit.getQueueTimeoutSeconds();
+            int maxConcurrent = limit.getMaxConcurrent();
+            Gauge.builder(
+                            "stirling.bulkhead.active",
+                            slots,
+                            s -> maxConcurrent - s.availablePermits())
+                    .description("Requests being processed inside the bulkhead")
+                    .tag(type, name)
+                    .register(meterRegistry);
+            Gauge.builder("stirling.bulkhead.queued", queued, AtomicInteger::get)
+                    .description("Requests waiting for a bulkhead slot")
+                    .tag(type, name)
+                    .register(meterRegistry);
+            waitTimer =
+                    Timer.builder("stirling.bulkhead.wait")
+                            .description("Time requests waited for a bulkhead slot")
+                            .tag(type, name)
+                            .register(meterRegistry);
+            rejectedCounter =
+                    Counter.builder("stirling.bulkhead.rejected")
+                            .description("Requests rejected because the bulkhead was saturated")
+                            .tag(type, name)
+                            .register(meterRegistry);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private void enter() {
+            if (slots.tryAcquire()) {
+                waitTimer.record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                reject("queue is full");
+            }
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = slots.tryAcquire(queueTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                reject("no slot became free within " + queueTimeoutSeconds + " seconds");
+            }
+        }
+
+        private void reject(String reason) {
+            rejectedCounter.increment();
+            log.debug("Rejecting request for bulkhead {}: {}", name, reason);
+            throw new ServiceOverloadedException(
+                    "Too many concurrent requests for " + name + ", " + reason,
+                    queueTimeoutSeconds);
+        }
+
+        private void leave() {
+            slots.release();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.utils.CancellationToken;
+import stirling.software.SPDF.utils.VirtualThreadUtils;
+
+/**
+ * Runs CPU-bound work such as page rendering and image encoding. With virtual threads enabled the
+ * number of request threads is no longer bounded, so this work is handed to a platform thread pool
+ * sized to the CPU cores and the virtual request thread just waits for it. Otherwise the work runs
+ * directly on the calling thread, as before.
+ */
+@Service
+@Slf4j
+public class CpuBoundExecutor {
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws IOException;
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final ThreadGroup poolThreads = new ThreadGroup("cpu-bound");
+
+    public CpuBoundExecutor(
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.System.VirtualThreads settings =
+                applicationProperties.getSystem().getVirtualThreads();
+        if (!settings.isEnabled() || !VirtualThreadUtils.isSupported()) {
+            pool = null;
+            return;
+        }
+        int threads = settings.getCpuBoundThreads();
+        AtomicInteger threadCount = new AtomicInteger();
+        pool =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            poolThreads,
+                                            runnable,
+                                            "cpu-bound-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        Gauge.builder("stirling.cpu.queued", pool, p -> p.getQueue().size())
+                .description("CPU-bound tasks waiting for a platform thread")
+                .register(meterRegistry);
+        Gauge.builder("stirling.cpu.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("CPU-bound tasks running")
+                .register(meterRegistry);
+        log.info("Offloading rendering and image encoding to {} platform threads", threads);
+    }
+
+    public boolean isOffloading() {
+        return pool != null;
+    }
+
+    /**
+     * Run the task on the CPU pool when offloading, on the calling thread otherwise. Tasks that
+     * already run on the pool run nested calls themselves rather than wait for a free thread.
+     */
+    public <T> T call(Task<T> task) throws IOException {
+        if (pool == null || Thread.currentThread().getThreadGroup() == poolThreads) {
+            return task.call();
+        }
+        // The pool thread checks the cancellation token of the request it works for
+        CancellationToken token = CancellationToken.current();
+        Future<T> future =
+                pool.submit(
+                        () -> {
+                            CancellationToken previous = CancellationToken.bind(token);
+                            try {
+                                token.throwIfCancelled();
+                                return task.call();
+                            } finally {
+                                CancellationToken.restore(previous);
+                            }
+                        });
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for CPU-bound task");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -4,24 +4,54 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.concurrent.atomic.AtomicLong;
-
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.examples.util.DeletingMemoryMappedFile;
 import org.apache.pdfbox.examples.util.DeletingRandomAccessFile;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
 import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import lombok.extern.slf4j.Slf4j;
 
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PdfProbe;
 import stirling.software.SPDF.model.api.PDFFile;
 
 /**
@@ -30,40 +60,140 @@ import stirling.software.SPDF.model.api.PDFFile;
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class CustomPDFDocumentFactory {
 
     private final PdfMetadataService pdfMetadataService;
+    private final MemoryBudgetService memoryBudgetService;
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
 
-    // Memory thresholds and limits
+    private final PdfOutputProfile outputProfile;
+    private final int objectStreamSize;
+    // Used for the streams compressed while saving, not set process-wide through PDFBox's
+    // Filter.SYSPROP_DEFLATELEVEL so other documents and libraries keep their own level
+    private final int deflateLevel;
+    private final Timer saveTimer;
+    private final DistributionSummary saveSize;
 
-    private static final long SMALL_FILE_THRESHOLD = 10 * 1024 * 1024; // 10 MB
+    // Memory thresholds and limits, see ApplicationProperties.DocumentFactory.Loading
+
+    private final long baseSmallFileThreshold;
     // Files smaller than this threshold are loaded entirely in memory for better performance.
     // These files use IOUtils.createMemoryOnlyStreamCache() which keeps all document data in RAM.
     // No temp files are created for document data, reducing I/O operations but consuming more
     // memory.
 
-    private static final long LARGE_FILE_THRESHOLD = 50 * 1024 * 1024; // 50 MB
+    private final long baseLargeFileThreshold;
     // Files between SMALL and LARGE thresholds use file-based caching with ScratchFile,
     // but are loaded directly from byte arrays if provided that way.
     // When loading from byte arrays, once size exceeds this threshold, bytes are first
     // written to temp files before loading to reduce memory pressure.
 
-    private static final long LARGE_FILE_USAGE = 10 * 1024 * 1024;
-
-    private static final long EXTREMELY_LARGE_THRESHOLD = 100 * 1024 * 1024; // 100 MB
-    // Files exceeding this threshold use specialized loading with RandomAccessReadBufferedFile
-    // which provides buffered access to the file without loading the entire content at once.
-    // These files are always processed using file-based caching with minimal memory footprint,
-    // trading some performance for significantly reduced memory usage.
-    // For extremely large PDFs, this prevents OutOfMemoryErrors at the cost of being more I/O
-    // bound.
-
-    private static final double MIN_FREE_MEMORY_PERCENTAGE = 30.0; // 30%
-    private static final long MIN_FREE_MEMORY_BYTES = 4L * 1024 * 1024 * 1024; // 4 GB
+    private final long baseLargeFileUsage;
+
+    private static final long TEMP_FILE_HEAP_USAGE = 4 * 1024 * 1024; // 4 MB
+    // Heap reserved from the memory budget for a temp-file cached load. Stream data stays on disk,
+    // only the object tree and read buffers are on the heap.
+
+    private static final long MEMORY_MAPPED_THRESHOLD = 200 * 1024 * 1024; // 200 MB
+    // Files exceeding this threshold are read through a segmented memory-mapped FileChannel
+    // (DeletingMemoryMappedFile) instead of RandomAccessReadBufferedFile. Random xref seeks and
+    // object stream decoding are then served from the OS page cache without heap copies, and
+    // files over 2 GB are supported by mapping them in segments. Falls back to buffered reads
+    // if the file cannot be mapped (e.g. exhausted address space on 32-bit JVMs).
+
+    private final double minFreeMemoryPercentage;
+    private final long minFreeMemoryBytes;
+
+    // Adaptive mode scales the three size thresholds down while the GC is busy
+    private static final double MIN_THRESHOLD_SCALE = 1.0 / 8;
+    private static final double HIGH_GC_TIME_FRACTION = 0.10;
+    private static final double LOW_GC_TIME_FRACTION = 0.02;
+
+    private final boolean adaptive;
+    private volatile double thresholdScale = 1.0;
+    private long lastGcTimeMs = -1;
+    private long lastGcCheckNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    public CustomPDFDocumentFactory(
+            PdfMetadataService pdfMetadataService,
+            MemoryBudgetService memoryBudgetService,
+            TempFileManager tempFileManager,
+            UploadSpool uploadSpool,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.pdfMetadataService = pdfMetadataService;
+        this.memoryBudgetService = memoryBudgetService;
+        this.tempFileManager = tempFileManager;
+        this.uploadSpool = uploadSpool;
+        this.meterRegistry = meterRegistry;
+
+        ApplicationProperties.DocumentFactory.Loading loading =
+                applicationProperties.getDocumentFactory().getLoading();
+        this.baseSmallFileThreshold = loading.getSmallFileThresholdMB() * 1024 * 1024;
+        this.baseLargeFileThreshold = loading.getLargeFileThresholdMB() * 1024 * 1024;
+        this.baseLargeFileUsage = loading.getMixedCacheMemoryMB() * 1024 * 1024;
+        this.minFreeMemoryPercentage = loading.getMinFreeMemoryPercentage();
+        this.minFreeMemoryBytes = loading.getMinFreeMemoryMB() * 1024 * 1024;
+        this.adaptive = loading.isAdaptive();
+        Gauge.builder("stirling.document.load.threshold", this, f -> f.getSmallFileThreshold())
+                .description("Largest document parsed entirely in memory")
+                .baseUnit("bytes")
+                .tag("threshold", "small")
+                .register(meterRegistry);
+        Gauge.builder("stirling.document.load.threshold", this, f -> f.getLargeFileThreshold())
+                .description("Largest document loaded with a mixed memory/temp-file cache")
+                .baseUnit("bytes")
+                .tag("threshold", "large")
+                .register(meterRegistry);
+        log.info(
+                "PDF load thresholds: memory-only below {}MB, mixed below {}MB, temp-file only when"
+                        + " less than {}% or {}MB of the heap is free{}",
+                baseSmallFileThreshold / (1024 * 1024),
+                baseLargeFileThreshold / (1024 * 1024),
+                minFreeMemoryPercentage,
+                minFreeMemoryBytes / (1024 * 1024),
+                adaptive ? ", adapting to GC pressure" : "");
+
+        ApplicationProperties.DocumentFactory.Output settings =
+                applicationProperties.getDocumentFactory().getOutput();
+        this.outputProfile = parseOutputProfile(settings.getProfile());
+        this.objectStreamSize = settings.getObjectStreamSize();
+        int compressionLevel = settings.getCompressionLevel();
+        if (compressionLevel >= 0 && compressionLevel <= 9) {
+            this.deflateLevel = compressionLevel;
+        } else if (outputProfile == PdfOutputProfile.SMALLEST) {
+            this.deflateLevel = Deflater.BEST_COMPRESSION;
+        } else {
+            this.deflateLevel = Deflater.DEFAULT_COMPRESSION;
+        }
 
-    // Counter for tracking temporary resources
-    private static final AtomicLong tempCounter = new AtomicLong(0);
+        String profileTag = outputProfile.name().toLowerCase(Locale.ROOT);
+        saveTimer =
+                Timer.builder("stirling.document.save")
+                        .description("Time spent writing complete PDFs")
+                        .tag("profile", profileTag)
+                        .register(meterRegistry);
+        saveSize =
+                DistributionSummary.builder("stirling.document.save.size")
+                        .description("Size of complete PDFs written")
+                        .baseUnit("bytes")
+                        .tag("profile", profileTag)
+                        .register(meterRegistry);
+
+        log.info("PDF output profile: {}", profileTag);
+    }
+
+    private static PdfOutputProfile parseOutputProfile(String profile) {
+        try {
+            return PdfOutputProfile.valueOf(profile.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown PDF output profile '{}', using balanced", profile);
+            return PdfOutputProfile.BALANCED;
+        }
+    }
 
     /**
      * Main entry point for loading a PDF document from a file. Automatically selects the most
@@ -85,7 +215,7 @@ public class CustomPDFDocumentFactory {
         long fileSize = file.length();
         log.debug("Loading PDF from file, size: {}MB", fileSize / (1024 * 1024));
 
-        PDDocument doc = loadAdaptively(file, fileSize);
+        PDDocument doc = loadAdaptively(file, fileSize, readOnly);
         if (!readOnly) {
             postProcessDocument(doc);
         }
@@ -112,13 +242,38 @@ public class CustomPDFDocumentFactory {
         long fileSize = Files.size(path);
         log.debug("Loading PDF from file, size: {}MB", fileSize / (1024 * 1024));
 
-        PDDocument doc = loadAdaptively(path.toFile(), fileSize);
+        PDDocument doc = loadAdaptively(path.toFile(), fileSize, readOnly);
         if (!readOnly) {
             postProcessDocument(doc);
         }
         return doc;
     }
 
+    /**
+     * Open a file read-only without taking it over, so several readers can share it, e.g. the
+     * snapshot the render threads work on. Parsed content is cached in temp files. Nothing is
+     * reserved from the memory budget, the caller holds one {@link #reserveShared} reservation for
+     * all readers of the file.
+     */
+    public PDDocument loadShared(Path path) throws IOException {
+        long fileSize = Files.size(path);
+        long start = System.nanoTime();
+        PDDocument document =
+                Loader.loadPDF(
+                        new RandomAccessReadBufferedFile(path.toFile()),
+                        "",
+                        null,
+                        null,
+                        getStreamCacheFunction(LoadStrategy.TEMP_FILE));
+        recordLoad(LoadStrategy.TEMP_FILE, fileSize, System.nanoTime() - start);
+        return document;
+    }
+
+    /** One reservation for all documents opened with {@link #loadShared} from the same file */
+    public MemoryBudgetService.Reservation reserveShared() throws IOException {
+        return memoryBudgetService.reserve(TEMP_FILE_HEAP_USAGE);
+    }
+
     /** Load a PDF from byte array with automatic optimization. */
     public PDDocument load(byte[] input) throws IOException {
         return load(input, false);
@@ -133,7 +288,7 @@ public class CustomPDFDocumentFactory {
         long dataSize = input.length;
         log.debug("Loading PDF from byte array, size: {}MB", dataSize / (1024 * 1024));
 
-        PDDocument doc = loadAdaptively(input, dataSize);
+        PDDocument doc = loadAdaptively(input, dataSize, readOnly);
         if (!readOnly) {
             postProcessDocument(doc);
         }
@@ -155,7 +310,7 @@ public class CustomPDFDocumentFactory {
         Path tempFile = createTempFile("pdf-stream-");
 
         Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
-        PDDocument doc = loadAdaptively(tempFile.toFile(), Files.size(tempFile));
+        PDDocument doc = loadAdaptively(tempFile.toFile(), Files.size(tempFile), readOnly);
         if (!readOnly) {
             postProcessDocument(doc);
         }
@@ -179,7 +334,8 @@ public class CustomPDFDocumentFactory {
 
         Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
         PDDocument doc =
-                loadAdaptivelyWithPassword(tempFile.toFile(), Files.size(tempFile), password);
+                loadAdaptivelyWithPassword(
+                        tempFile.toFile(), Files.size(tempFile), password, readOnly);
         if (!readOnly) {
             postProcessDocument(doc);
         }
@@ -211,9 +367,15 @@ public class CustomPDFDocumentFactory {
         return load(pdfFile, false);
     }
 
-    /** Load from a MultipartFile with read-only option */
+    /**
+     * Load from a MultipartFile with read-only option. Small uploads are parsed from memory, larger
+     * ones from a link to the request's single spool of the upload instead of another copy.
+     */
     public PDDocument load(MultipartFile pdfFile, boolean readOnly) throws IOException {
-        return load(pdfFile.getInputStream(), readOnly);
+        if (pdfFile.getSize() <= getSmallFileThreshold()) {
+            return load(pdfFile.getBytes(), readOnly);
+        }
+        return load(uploadSpool.link(pdfFile, "pdf-upload-", ".pdf").toFile(), readOnly);
     }
 
     /** Load with password from MultipartFile */
@@ -224,7 +386,77 @@ public class CustomPDFDocumentFactory {
     /** Load with password from MultipartFile with read-only option */
     public PDDocument load(MultipartFile fileInput, String password, boolean readOnly)
             throws IOException {
-        return load(fileInput.getInputStream(), password, readOnly);
+        File file = uploadSpool.link(fileInput, "pdf-upload-", ".pdf").toFile();
+        PDDocument doc = loadAdaptivelyWithPassword(file, file.length(), password, readOnly);
+        if (!readOnly) {
+            postProcessDocument(doc);
+        }
+        return doc;
+    }
+
+    /**
+     * Read the page count, version, encryption flag and Info dictionary of a PDF without loading
+     * the document. Only the trailer, the cross-reference table and the objects these facts live in
+     * are parsed, so the cost does not grow with the number or content of the pages. Unlike load,
+     * no default metadata is set and passwords are left in place.
+     */
+    public PdfProbe probe(MultipartFile pdfFile) throws IOException {
+        File file = uploadSpool.link(pdfFile, "pdf-probe-", ".pdf").toFile();
+        return probe(new DeletingRandomAccessFile(file), file.length());
+    }
+
+    /** Read the header facts of a PDF on disk, see {@link #probe(MultipartFile)} */
+    public PdfProbe probe(File file) throws IOException {
+        return probe(new RandomAccessReadBufferedFile(file), file.length());
+    }
+
+    private PdfProbe probe(RandomAccessRead source, long fileSize) throws IOException {
+        // Nothing is decoded besides xref streams, so the cache never sees more than a few KB
+        try (PDDocument document =
+                Loader.loadPDF(source, "", null, null, IOUtils.createMemoryOnlyStreamCache())) {
+            PDDocumentInformation information = document.getDocumentInformation();
+            Map<String, String> info = new HashMap<>();
+            for (String key : information.getMetadataKeys()) {
+                String value = information.getCustomMetadataValue(key);
+                if (value != null) {
+                    info.put(key, value);
+                }
+            }
+            return new PdfProbe(
+                    document.getNumberOfPages(),
+                    document.getVersion(),
+                    document.isEncrypted(),
+                    fileSize,
+                    info);
+        }
+    }
+
+    /** How the parsed content of a document is cached, tagged on the load metrics */
+    private enum LoadStrategy {
+        MEMORY_ONLY("memory-only"),
+        MIXED("mixed"),
+        TEMP_FILE("temp-file");
+
+        private final String tag;
+
+        LoadStrategy(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Documents below this size are parsed entirely in memory */
+    public long getSmallFileThreshold() {
+        return (long) (baseSmallFileThreshold * thresholdScale);
+    }
+
+    /** Documents below this size use a mixed memory/temp-file cache */
+    public long getLargeFileThreshold() {
+        return (long) (baseLargeFileThreshold * thresholdScale);
+    }
+
+    /** Heap a mixed memory/temp-file cache may use before spilling to disk */
+    private long getMixedCacheMemory() {
+        return (long) (baseLargeFileUsage * thresholdScale);
     }
 
     /**
@@ -232,6 +464,10 @@ public class CustomPDFDocumentFactory {
      * common method is used by both password and non-password loading paths.
      */
     public StreamCacheCreateFunction getStreamCacheFunction(long contentSize) {
+        return getStreamCacheFunction(selectStrategy(contentSize));
+    }
+
+    private LoadStrategy selectStrategy(long contentSize) {
         long maxMemory = Runtime.getRuntime().maxMemory();
         long freeMemory = Runtime.getRuntime().freeMemory();
         long totalMemory = Runtime.getRuntime().totalMemory();
@@ -250,83 +486,236 @@ public class CustomPDFDocumentFactory {
                 maxMemory / (1024 * 1024));
 
         // If free memory is critically low, always use file-based caching
-        if (freeMemoryPercent < MIN_FREE_MEMORY_PERCENTAGE
-                || actualFreeMemory < MIN_FREE_MEMORY_BYTES) {
+        if (freeMemoryPercent < minFreeMemoryPercentage || actualFreeMemory < minFreeMemoryBytes) {
             log.debug(
                     "Low memory detected ({}%), forcing file-based cache",
                     String.format("%.2f", freeMemoryPercent));
-            return createScratchFileCacheFunction(MemoryUsageSetting.setupTempFileOnly());
-        } else if (contentSize < SMALL_FILE_THRESHOLD) {
+            return LoadStrategy.TEMP_FILE;
+        } else if (contentSize < getSmallFileThreshold()) {
             log.debug("Using memory-only cache for small document ({}KB)", contentSize / 1024);
-            return IOUtils.createMemoryOnlyStreamCache();
-        } else if (contentSize < LARGE_FILE_THRESHOLD) {
-            // For medium files (10-50MB), use a mixed approach
+            return LoadStrategy.MEMORY_ONLY;
+        } else if (contentSize < getLargeFileThreshold()) {
+            // For medium files, use a mixed approach
             log.debug(
                     "Using mixed memory/file cache for medium document ({}MB)",
                     contentSize / (1024 * 1024));
-            return createScratchFileCacheFunction(MemoryUsageSetting.setupMixed(LARGE_FILE_USAGE));
+            return LoadStrategy.MIXED;
         } else {
             log.debug("Using file-based cache for large document");
-            return createScratchFileCacheFunction(MemoryUsageSetting.setupTempFileOnly());
+            return LoadStrategy.TEMP_FILE;
         }
     }
 
+    private StreamCacheCreateFunction getStreamCacheFunction(LoadStrategy strategy) {
+        return switch (strategy) {
+            case MEMORY_ONLY -> IOUtils.createMemoryOnlyStreamCache();
+            case MIXED ->
+                    createScratchFileCacheFunction(
+                            MemoryUsageSetting.setupMixed(getMixedCacheMemory()));
+            case TEMP_FILE ->
+                    createScratchFileCacheFunction(MemoryUsageSetting.setupTempFileOnly());
+        };
+    }
+
     /** Update the existing loadAdaptively method to use the common function */
-    private PDDocument loadAdaptively(Object source, long contentSize) throws IOException {
-        // Get the appropriate caching strategy
-        StreamCacheCreateFunction cacheFunction = getStreamCacheFunction(contentSize);
-
-        // If small handle as bytes and remove original file
-        if (contentSize <= SMALL_FILE_THRESHOLD && source instanceof File file) {
-            source = Files.readAllBytes(file.toPath());
-            file.delete();
-        }
-        PDDocument document;
-        if (source instanceof File file) {
-            document = loadFromFile(file, contentSize, cacheFunction);
-        } else if (source instanceof byte[] bytes) {
-            document = loadFromBytes(bytes, contentSize, cacheFunction);
-        } else {
-            throw new IllegalArgumentException("Unsupported source type: " + source.getClass());
+    private PDDocument loadAdaptively(Object source, long contentSize, boolean readOnly)
+            throws IOException {
+        // Get the appropriate caching strategy, then reserve only the heap it uses
+        LoadStrategy strategy = selectStrategy(contentSize);
+        MemoryBudgetService.Reservation reservation = reserve(strategy, contentSize, readOnly);
+        try {
+            if (reservation.isDowngraded()) {
+                strategy = LoadStrategy.TEMP_FILE;
+            }
+            StreamCacheCreateFunction cacheFunction =
+                    releaseOnClose(getStreamCacheFunction(strategy), reservation);
+
+            // If small handle as bytes and remove original file
+            if (strategy == LoadStrategy.MEMORY_ONLY && source instanceof File file) {
+                source = Files.readAllBytes(file.toPath());
+                file.delete();
+            }
+            PDDocument document;
+            long start = System.nanoTime();
+            if (source instanceof File file) {
+                document = loadFromFile(file, contentSize, cacheFunction);
+            } else if (source instanceof byte[] bytes) {
+                document = loadFromBytes(bytes, contentSize, cacheFunction);
+            } else {
+                throw new IllegalArgumentException("Unsupported source type: " + source.getClass());
+            }
+            recordLoad(strategy, contentSize, System.nanoTime() - start);
+            return document;
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
         }
-        return document;
     }
 
     /** Load a PDF with password protection using adaptive loading strategies */
-    private PDDocument loadAdaptivelyWithPassword(Object source, long contentSize, String password)
-            throws IOException {
-        // Get the appropriate caching strategy
-        StreamCacheCreateFunction cacheFunction = getStreamCacheFunction(contentSize);
-        // If small handle as bytes and remove original file
-        if (contentSize <= SMALL_FILE_THRESHOLD && source instanceof File file) {
-            source = Files.readAllBytes(file.toPath());
-            file.delete();
-        }
-        PDDocument document;
-        if (source instanceof File file) {
-            document = loadFromFileWithPassword(file, contentSize, cacheFunction, password);
-        } else if (source instanceof byte[] bytes) {
-            document = loadFromBytesWithPassword(bytes, contentSize, cacheFunction, password);
-        } else {
-            throw new IllegalArgumentException("Unsupported source type: " + source.getClass());
+    private PDDocument loadAdaptivelyWithPassword(
+            Object source, long contentSize, String password, boolean readOnly) throws IOException {
+        // Get the appropriate caching strategy, then reserve only the heap it uses
+        LoadStrategy strategy = selectStrategy(contentSize);
+        MemoryBudgetService.Reservation reservation = reserve(strategy, contentSize, readOnly);
+        try {
+            if (reservation.isDowngraded()) {
+                strategy = LoadStrategy.TEMP_FILE;
+            }
+            StreamCacheCreateFunction cacheFunction =
+                    releaseOnClose(getStreamCacheFunction(strategy), reservation);
+            // If small handle as bytes and remove original file
+            if (strategy == LoadStrategy.MEMORY_ONLY && source instanceof File file) {
+                source = Files.readAllBytes(file.toPath());
+                file.delete();
+            }
+            PDDocument document;
+            long start = System.nanoTime();
+            if (source instanceof File file) {
+                document = loadFromFileWithPassword(file, contentSize, cacheFunction, password);
+            } else if (source instanceof byte[] bytes) {
+                document = loadFromBytesWithPassword(bytes, contentSize, cacheFunction, password);
+            } else {
+                throw new IllegalArgumentException("Unsupported source type: " + source.getClass());
+            }
+            recordLoad(strategy, contentSize, System.nanoTime() - start);
+            return document;
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
         }
-        return document;
+    }
+
+    private void recordLoad(LoadStrategy strategy, long contentSize, long elapsedNanos) {
+        countStrategy(strategy.tag);
+        Timer.builder("stirling.document.load")
+                .description("Time spent parsing documents")
+                .tag("strategy", strategy.tag)
+                .tag("size", sizeBucket(contentSize))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void countStrategy(String strategy) {
+        Counter.builder("stirling.document.load.strategy")
+                .description("Documents loaded per caching strategy")
+                .tag("strategy", strategy)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String sizeBucket(long contentSize) {
+        long sizeMB = contentSize / (1024 * 1024);
+        if (sizeMB < 1) {
+            return "0-1MB";
+        } else if (sizeMB < 10) {
+            return "1-10MB";
+        } else if (sizeMB < 50) {
+            return "10-50MB";
+        } else if (sizeMB < 200) {
+            return "50-200MB";
+        }
+        return "200MB+";
+    }
+
+    /**
+     * In adaptive mode, halve the size thresholds while garbage collection takes more than 10% of
+     * the wall clock time and double them back towards the configured values once it drops below
+     * 2%, so fewer documents are parsed on the heap while it is under pressure.
+     */
+    @Scheduled(fixedDelay = 10000, initialDelay = 10000) // Every 10 seconds
+    public synchronized void adjustToGcPressure() {
+        if (!adaptive) {
+            return;
+        }
+        long gcTimeMs = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTimeMs += Math.max(0, gc.getCollectionTime());
+        }
+        long now = System.nanoTime();
+        if (lastGcTimeMs >= 0) {
+            double elapsedMs = (now - lastGcCheckNanos) / 1_000_000.0;
+            adjustThresholds((gcTimeMs - lastGcTimeMs) / elapsedMs);
+        }
+        lastGcTimeMs = gcTimeMs;
+        lastGcCheckNanos = now;
+    }
+
+    void adjustThresholds(double gcTimeFraction) {
+        double scale = thresholdScale;
+        if (gcTimeFraction > HIGH_GC_TIME_FRACTION) {
+            scale = Math.max(MIN_THRESHOLD_SCALE, scale / 2);
+        } else if (gcTimeFraction < LOW_GC_TIME_FRACTION) {
+            scale = Math.min(1.0, scale * 2);
+        }
+        if (scale != thresholdScale) {
+            log.info(
+                    "GC time at {}%, scaling PDF load thresholds to {}%",
+                    String.format("%.1f", gcTimeFraction * 100), Math.round(scale * 100));
+            thresholdScale = scale;
+        }
+    }
+
+    /**
+     * Reserve the heap a load with the given strategy uses from the process-wide memory budget: the
+     * estimated working set when parsed in memory, the cache limit for a mixed cache and a small
+     * constant when cached in temp files.
+     */
+    private MemoryBudgetService.Reservation reserve(
+            LoadStrategy strategy, long contentSize, boolean readOnly) throws IOException {
+        return switch (strategy) {
+            case MEMORY_ONLY ->
+                    memoryBudgetService.reserve(
+                            contentSize,
+                            readOnly
+                                    ? MemoryBudgetService.OperationType.READ_ONLY
+                                    : MemoryBudgetService.OperationType.EDIT);
+            case MIXED -> memoryBudgetService.reserve(getMixedCacheMemory());
+            case TEMP_FILE -> memoryBudgetService.reserve(TEMP_FILE_HEAP_USAGE);
+        };
+    }
+
+    /**
+     * The stream cache is closed together with its PDDocument, so wrapping it is how a reservation
+     * gets released when the document closes.
+     */
+    private StreamCacheCreateFunction releaseOnClose(
+            StreamCacheCreateFunction cacheFunction, MemoryBudgetService.Reservation reservation) {
+        return () -> {
+            RandomAccessStreamCache cache = cacheFunction.create();
+            return new RandomAccessStreamCache() {
+                @Override
+                public RandomAccess createBuffer() throws IOException {
+                    return cache.createBuffer();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        cache.close();
+                    } finally {
+                        reservation.close();
+                    }
+                }
+            };
+        };
     }
 
     /** Load a file with password */
     private PDDocument loadFromFileWithPassword(
             File file, long size, StreamCacheCreateFunction cache, String password)
             throws IOException {
-        return Loader.loadPDF(new DeletingRandomAccessFile(file), password, null, null, cache);
+        return Loader.loadPDF(openRandomAccess(file, size), password, null, null, cache);
     }
 
     /** Load bytes with password */
     private PDDocument loadFromBytesWithPassword(
             byte[] bytes, long size, StreamCacheCreateFunction cache, String password)
             throws IOException {
-        if (size >= SMALL_FILE_THRESHOLD) {
+        if (size >= getSmallFileThreshold()) {
             log.debug("Writing large byte array to temp file for password-protected PDF");
-            Path tempFile = createTempFile("pdf-bytes-");
+            countStrategy("bytes-to-file");
+            Path tempFile = tempFileManager.createTempFile("pdf-bytes-", ".tmp", bytes.length);
 
             Files.write(tempFile, bytes);
             return Loader.loadPDF(tempFile.toFile(), password, null, null, cache);
@@ -337,7 +726,8 @@ public class CustomPDFDocumentFactory {
     private StreamCacheCreateFunction createScratchFileCacheFunction(MemoryUsageSetting settings) {
         return () -> {
             try {
-                return new ScratchFile(settings);
+                // PDFBox scratch files belong to the request that opened the document
+                return new ScratchFile(settings.setTempDir(tempFileManager.getTempDirectory()));
             } catch (IOException e) {
                 throw new RuntimeException("ScratchFile initialization failed", e);
             }
@@ -351,14 +741,30 @@ public class CustomPDFDocumentFactory {
 
     private PDDocument loadFromFile(File file, long size, StreamCacheCreateFunction cache)
             throws IOException {
-        return Loader.loadPDF(new DeletingRandomAccessFile(file), "", null, null, cache);
+        return Loader.loadPDF(openRandomAccess(file, size), "", null, null, cache);
+    }
+
+    /** Pick the file reader for the given size, memory-mapping very large files */
+    private RandomAccessRead openRandomAccess(File file, long size) throws IOException {
+        if (size >= MEMORY_MAPPED_THRESHOLD) {
+            try {
+                log.debug(
+                        "Using memory-mapped reader for large document ({}MB)",
+                        size / (1024 * 1024));
+                return new DeletingMemoryMappedFile(file);
+            } catch (IOException e) {
+                log.warn("Memory mapping failed, falling back to buffered file reader", e);
+            }
+        }
+        return new DeletingRandomAccessFile(file);
     }
 
     private PDDocument loadFromBytes(byte[] bytes, long size, StreamCacheCreateFunction cache)
             throws IOException {
-        if (size >= SMALL_FILE_THRESHOLD) {
+        if (size >= getSmallFileThreshold()) {
             log.debug("Writing large byte array to temp file");
-            Path tempFile = createTempFile("pdf-bytes-");
+            countStrategy("bytes-to-file");
+            Path tempFile = tempFileManager.createTempFile("pdf-bytes-", ".tmp", bytes.length);
 
             Files.write(tempFile, bytes);
             return loadFromFile(tempFile.toFile(), size, cache);
@@ -379,17 +785,112 @@ public class CustomPDFDocumentFactory {
     public byte[] saveToBytes(PDDocument document) throws IOException {
         if (document.getNumberOfPages() < 10) { // Simple heuristic
             try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                document.save(baos);
+                save(document, baos);
                 return baos.toByteArray();
             }
         } else {
             Path tempFile = createTempFile("pdf-save-");
 
-            document.save(tempFile.toFile());
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                save(document, output);
+            }
             return Files.readAllBytes(tempFile);
         }
     }
 
+    /**
+     * Write the complete document with the configured output profile. Full saves should go through
+     * here so that every output is written the same way and save time and size are recorded per
+     * profile.
+     */
+    public void save(PDDocument document, OutputStream output) throws IOException {
+        Timer.Sample sample = Timer.start();
+        CountingOutputStream counter = new CountingOutputStream(output);
+        if (outputProfile.isCompressUnfilteredStreams()
+                || outputProfile.isRecompressFlateStreams()) {
+            compressStreams(document);
+        }
+        document.save(counter, outputProfile.compressParameters(objectStreamSize));
+        sample.stop(saveTimer);
+        saveSize.record(counter.getByteCount());
+    }
+
+    /**
+     * Flate encode the streams of a parsed document according to the output profile, at the
+     * configured deflate level
+     */
+    private void compressStreams(PDDocument document) throws IOException {
+        COSDocument cosDocument = document.getDocument();
+        for (COSObjectKey key : new ArrayList<>(cosDocument.getXrefTable().keySet())) {
+            COSObject object = cosDocument.getObjectFromPool(key);
+            if (object.getObject() instanceof COSStream stream && shouldCompress(stream)) {
+                byte[] data;
+                try (InputStream input = stream.createInputStream()) {
+                    data = input.readAllBytes();
+                }
+                Deflater deflater = new Deflater(deflateLevel);
+                try (OutputStream output =
+                        new DeflaterOutputStream(stream.createRawOutputStream(), deflater)) {
+                    output.write(data);
+                } finally {
+                    deflater.end();
+                }
+                stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            }
+        }
+    }
+
+    private boolean shouldCompress(COSStream stream) {
+        COSName type = stream.getCOSName(COSName.TYPE);
+        // Object and xref streams are rebuilt by the writer, XMP metadata stays readable
+        if (COSName.OBJ_STM.equals(type)
+                || COSName.XREF.equals(type)
+                || COSName.METADATA.equals(type)) {
+            return false;
+        }
+        COSBase filters = stream.getFilters();
+        if (filters == null) {
+            return outputProfile.isCompressUnfilteredStreams();
+        }
+        // Only plain Flate can be re-encoded without knowing predictor parameters
+        return outputProfile.isRecompressFlateStreams()
+                && COSName.FLATE_DECODE.equals(filters)
+                && stream.getItem(COSName.DECODE_PARMS) == null;
+    }
+
+    /**
+     * Append the objects changed since loading as an incremental update instead of rewriting the
+     * whole file. Meant for operations that only add or modify a few objects (stamps, watermarks,
+     * page numbers, metadata); PDFBox tracks the modified objects itself once parsing finished.
+     * Falls back to a full save when the document cannot be written as an update of its source.
+     */
+    public void saveIncrementally(PDDocument document, OutputStream output) throws IOException {
+        if (!canSaveIncrementally(document)) {
+            save(document, output);
+            return;
+        }
+        log.debug("Saving document as incremental update");
+        document.saveIncremental(output);
+    }
+
+    /**
+     * An incremental update needs the parsed source to append to. Encrypted documents are always
+     * rewritten, their security is either being removed or would have to be reapplied to every
+     * appended object.
+     */
+    private boolean canSaveIncrementally(PDDocument document) {
+        COSDocument cosDocument = document.getDocument();
+        if (cosDocument.getStartXref() <= 0) {
+            log.debug("Document was not loaded from a file, using full save");
+            return false;
+        }
+        if (document.isEncrypted()) {
+            log.debug("Document is encrypted, using full save");
+            return false;
+        }
+        return true;
+    }
+
     // Improved password handling
     private void removePassword(PDDocument document) throws IOException {
         if (document.isEncrypted()) {
@@ -402,16 +903,19 @@ public class CustomPDFDocumentFactory {
         }
     }
 
-    // Temp file handling with enhanced logging
-    private Path createTempFile(String prefix) throws IOException {
-        Path file = Files.createTempFile(prefix + tempCounter.incrementAndGet() + "-", ".tmp");
+    /**
+     * Empty temp file in the scratch directory of the current request, covered by the temp file
+     * quota and removed with the scratch directory
+     */
+    public Path createTempFile(String prefix) throws IOException {
+        Path file = tempFileManager.createTempFile(prefix, ".tmp");
         log.debug("Created temp file: {}", file);
         return file;
     }
 
     /** Create a uniquely named temporary directory */
     private Path createTempDirectory(String prefix) throws IOException {
-        return Files.createTempDirectory(prefix + tempCounter.incrementAndGet() + "-");
+        return tempFileManager.createTempDirectory(prefix);
     }
 
     /** Create new document bytes based on an existing document */
@@ -0,0 +1,234 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+/**
+ * Process-wide heap budget for concurrent document loads. Each load reserves its estimated working
+ * set before parsing; when the budget is exhausted the load waits for other documents to close and
+ * is then either downgraded to a temp-file cache or rejected with 503.
+ */
+@Service
+@Slf4j
+public class MemoryBudgetService {
+
+    /** Rough working set multipliers relative to the input size */
+    public enum OperationType {
+        // Metadata and analysis reads only touch parts of the document
+        READ_ONLY(1.5),
+        // Edits keep the parsed objects plus the re-serialized output in memory
+        EDIT(3.0);
+
+        private final double workingSetFactor;
+
+        OperationType(double workingSetFactor) {
+            this.workingSetFactor = workingSetFactor;
+        }
+
+        public long estimate(long contentSize) {
+            return (long) (contentSize * workingSetFactor);
+        }
+    }
+
+    private final boolean enabled;
+    private final long budgetBytes;
+    private final long waitTimeoutMillis;
+    private final boolean rejectWhenExhausted;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    // Guarded by lock, volatile so the gauges can read them without locking
+    private volatile long reservedBytes;
+    private volatile int activeReservations;
+    private volatile int waitingLoads;
+
+    private final Counter downgradedCounter;
+    private final Counter rejectedCounter;
+    private final Timer waitTimer;
+
+    public MemoryBudgetService(
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.DocumentFactory.MemoryBudget settings =
+                applicationProperties.getDocumentFactory().getMemoryBudget();
+        this.enabled = settings.isEnabled();
+        this.budgetBytes = Runtime.getRuntime().maxMemory() / 100 * settings.getMaxHeapPercentage();
+        this.waitTimeoutMillis = TimeUnit.SECONDS.toMillis(settings.getWaitTimeoutSeconds());
+        this.rejectWhenExhausted = "reject".equalsIgnoreCase(settings.getOnExhausted());
+
+        Gauge.builder(
+                        "stirling.memory.budget.reserved",
+                        this,
+                        MemoryBudgetService::getReservedBytes)
+                .description("Heap bytes currently reserved by document loads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("stirling.memory.budget.limit", this, service -> service.budgetBytes)
+                .description("Heap bytes available to document loads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(
+                        "stirling.memory.budget.reservations",
+                        this,
+                        MemoryBudgetService::getActiveReservations)
+                .description("Document loads currently holding a reservation")
+                .register(meterRegistry);
+        Gauge.builder("stirling.memory.budget.waiting", this, MemoryBudgetService::getWaitingLoads)
+                .description("Document loads waiting for budget")
+                .register(meterRegistry);
+        this.downgradedCounter =
+                Counter.builder("stirling.memory.budget.downgraded")
+                        .description("Loads downgraded to a temp-file cache for lack of budget")
+                        .register(meterRegistry);
+        this.rejectedCounter =
+                Counter.builder("stirling.memory.budget.rejected")
+                        .description("Loads rejected for lack of budget")
+                        .register(meterRegistry);
+        this.waitTimer =
+                Timer.builder("stirling.memory.budget.wait")
+                        .description("Time spent waiting for a reservation")
+                        .register(meterRegistry);
+
+        log.info(
+                "Memory budget for document loads: {}MB (enabled: {}, on exhausted: {})",
+                budgetBytes / (1024 * 1024),
+                enabled,
+                settings.getOnExhausted());
+    }
+
+    /**
+     * Reserve the working set for loading a document of the given size. Blocks until the budget
+     * allows it or the configured timeout passes.
+     *
+     * @return a reservation to close once the document is closed; it is marked downgraded when the
+     *     caller should avoid memory-only caching
+     * @throws ServiceOverloadedException when the budget stays exhausted and rejection is enabled
+     */
+    public Reservation reserve(long contentSize, OperationType operationType) throws IOException {
+        return reserve(operationType.estimate(contentSize));
+    }
+
+    /**
+     * Reserve a number of heap bytes, e.g. the cache limit a load is set up with. Blocks like
+     * {@link #reserve(long, OperationType)}.
+     */
+    public Reservation reserve(long heapBytes) throws IOException {
+        if (!enabled) {
+            return new Reservation(0, false);
+        }
+        // A single document larger than the whole budget may still run, but only on its own
+        long bytes = Math.min(heapBytes, budgetBytes);
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+            waitingLoads++;
+            try {
+                while (reservedBytes + bytes > budgetBytes && remainingNanos > 0) {
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for memory budget", e);
+            } finally {
+                waitingLoads--;
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            if (reservedBytes + bytes <= budgetBytes) {
+                reservedBytes += bytes;
+                activeReservations++;
+                log.debug(
+                        "Reserved {}MB for document load, {}MB of {}MB in use",
+                        bytes / (1024 * 1024),
+                        reservedBytes / (1024 * 1024),
+                        budgetBytes / (1024 * 1024));
+                return new Reservation(bytes, false);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (rejectWhenExhausted) {
+            rejectedCounter.increment();
+            log.warn("Memory budget exhausted, rejecting document load");
+            throw new ServiceOverloadedException(
+                    "Server is busy processing other documents, please retry later",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitTimeoutMillis)));
+        }
+        downgradedCounter.increment();
+        log.debug("Memory budget exhausted, downgrading document load to temp-file cache");
+        return new Reservation(0, true);
+    }
+
+    private void release(long bytes) {
+        if (bytes == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            reservedBytes -= bytes;
+            activeReservations--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public int getActiveReservations() {
+        return activeReservations;
+    }
+
+    public int getWaitingLoads() {
+        return waitingLoads;
+    }
+
+    /** A granted share of the budget, released exactly once on close */
+    public class Reservation implements AutoCloseable {
+        private final long bytes;
+        private final boolean downgraded;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Reservation(long bytes, boolean downgraded) {
+            this.bytes = bytes;
+            this.downgraded = downgraded;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public boolean isDowngraded() {
+            return downgraded;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(bytes);
+            }
+        }
+    }
+}
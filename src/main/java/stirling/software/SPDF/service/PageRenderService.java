@@ -0,0 +1,568 @@
+package stirling.software.SPDF.service;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.utils.CancellationToken;
+
+/**
+ * Renders pages to images on a thread pool shared by all requests. PDDocument is not thread-safe,
+ * so every render thread opens its own read-only PDDocument on one shared file, reserving memory
+ * once for all of them. Results are handed back on the calling thread in page order, and a request
+ * never holds more than {@code maxPagesInFlight} rendered pages that have not been consumed yet. A
+ * render thread that would have to wait for the caller to catch up parks its copy and returns to
+ * the pool, the caller resubmits it as it takes results. Single pages, encrypted documents and a
+ * pool of one thread render on the calling thread instead.
+ */
+@Service
+@Slf4j
+public class PageRenderService {
+
+    /** How pages are rendered */
+    public record RenderSettings(float dpi, ImageType imageType, boolean subsamplingAllowed) {
+
+        public static RenderSettings of(float dpi, ImageType imageType) {
+            return new RenderSettings(dpi, imageType, false);
+        }
+
+        /** Faster and less memory for large images, at a small loss of quality */
+        public RenderSettings withSubsampling() {
+            return new RenderSettings(dpi, imageType, true);
+        }
+    }
+
+    /** Work done on the render thread with the image, e.g. analysing or encoding it */
+    @FunctionalInterface
+    public interface PageTask<T> {
+        T apply(int pageIndex, BufferedImage image) throws IOException;
+    }
+
+    /** Receives the results on the calling thread, in page order */
+    @FunctionalInterface
+    public interface PageConsumer<T> {
+        void accept(int pageIndex, T result) throws IOException;
+    }
+
+    /** Results handed out one at a time in page order, see {@link #open} */
+    public interface RenderedPages<T> extends AutoCloseable {
+        T next() throws IOException;
+
+        /** Stops rendering, results that were not taken are dropped */
+        @Override
+        void close();
+    }
+
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final TempFileManager tempFileManager;
+    private final CpuBoundExecutor cpuBoundExecutor;
+    private final int maxPagesInFlight;
+    private final ThreadPoolExecutor pool;
+    private final Counter renderedPages;
+
+    public PageRenderService(
+            ApplicationProperties applicationProperties,
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            TempFileManager tempFileManager,
+            CpuBoundExecutor cpuBoundExecutor,
+            MeterRegistry meterRegistry) {
+        this.pdfDocumentFactory = pdfDocumentFactory;
+        this.tempFileManager = tempFileManager;
+        this.cpuBoundExecutor = cpuBoundExecutor;
+        ApplicationProperties.System.PageRendering settings =
+                applicationProperties.getSystem().getPageRendering();
+        int threads = settings.getThreads();
+        this.maxPagesInFlight = settings.getMaxPagesInFlight();
+        this.renderedPages =
+                Counter.builder("stirling.render.pages")
+                        .description("Pages rendered to images")
+                        .register(meterRegistry);
+        if (threads <= 1) {
+            pool = null;
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        pool =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "page-render-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        Gauge.builder("stirling.render.queued", pool, p -> p.getQueue().size())
+                .description("Render workers waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("stirling.render.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Render workers running")
+                .register(meterRegistry);
+    }
+
+    /** Render every page of the document */
+    public void render(
+            PDDocument document, RenderSettings settings, PageConsumer<BufferedImage> consumer)
+            throws IOException {
+        render(document, allPages(document), settings, (pageIndex, image) -> image, consumer);
+    }
+
+    /**
+     * Render the given pages of the document. The render threads open a snapshot of the document as
+     * it is now, so it can be changed while the results are consumed.
+     */
+    public <T> void render(
+            PDDocument document,
+            List<Integer> pageIndexes,
+            RenderSettings settings,
+            PageTask<T> task,
+            PageConsumer<T> consumer)
+            throws IOException {
+        try (RenderedPages<T> pages = open(document, pageIndexes, settings, task)) {
+            for (int pageIndex : pageIndexes) {
+                consumer.accept(pageIndex, pages.next());
+            }
+        }
+    }
+
+    /**
+     * Render the given pages of a PDF file that stays where it is, e.g. one kept by a cache. The
+     * render threads read the file itself, so no snapshot has to be saved first.
+     */
+    public <T> void render(
+            Path source,
+            List<Integer> pageIndexes,
+            RenderSettings settings,
+            PageTask<T> task,
+            PageConsumer<T> consumer)
+            throws IOException {
+        int workers = pool == null ? 1 : Math.min(pool.getMaximumPoolSize(), pageIndexes.size());
+        if (workers <= 1) {
+            try (MemoryBudgetService.Reservation reservation = pdfDocumentFactory.reserveShared();
+                    PDDocument document = pdfDocumentFactory.loadShared(source)) {
+                render(document, pageIndexes, settings, task, consumer);
+            }
+            return;
+        }
+        try (RenderedPages<T> pages =
+                new ParallelPages<>(source, false, workers, pageIndexes, settings, task)) {
+            for (int pageIndex : pageIndexes) {
+                consumer.accept(pageIndex, pages.next());
+            }
+        }
+    }
+
+    /**
+     * Start rendering the given pages for a caller that pulls the results, e.g. an image writer
+     * asking for rows. Results are taken in page order and closing stops the render threads.
+     */
+    public <T> RenderedPages<T> open(
+            PDDocument document,
+            List<Integer> pageIndexes,
+            RenderSettings settings,
+            PageTask<T> task)
+            throws IOException {
+        int workers = workers(document, pageIndexes);
+        if (workers <= 1) {
+            return new SequentialPages<>(document, pageIndexes, settings, task);
+        }
+        Path snapshot = tempFileManager.createTempFile("render-", ".pdf");
+        try {
+            document.save(snapshot.toFile(), CompressParameters.NO_COMPRESSION);
+            return new ParallelPages<>(snapshot, true, workers, pageIndexes, settings, task);
+        } catch (IOException | RuntimeException e) {
+            tempFileManager.delete(snapshot);
+            throw e;
+        }
+    }
+
+    public static List<Integer> allPages(PDDocument document) {
+        return IntStream.range(0, document.getNumberOfPages()).boxed().toList();
+    }
+
+    /** Size of the image PDFRenderer creates for the page, without rendering it */
+    public static Dimension renderedSize(PDPage page, float dpi) {
+        PDRectangle cropBox = page.getCropBox();
+        float scale = dpi / 72f;
+        int width = (int) Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+        int height = (int) Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+        int rotation = page.getRotation();
+        return rotation == 90 || rotation == 270
+                ? new Dimension(height, width)
+                : new Dimension(width, height);
+    }
+
+    private int workers(PDDocument document, List<Integer> pageIndexes) {
+        // Encrypted documents cannot be reopened without their password
+        if (pool == null || document.isEncrypted()) {
+            return 1;
+        }
+        return Math.min(pool.getMaximumPoolSize(), pageIndexes.size());
+    }
+
+    private static PDFRenderer newRenderer(PDDocument document, RenderSettings settings) {
+        PDFRenderer renderer = new PDFRenderer(document);
+        renderer.setSubsamplingAllowed(settings.subsamplingAllowed());
+        return renderer;
+    }
+
+    /** Renders each page on the calling thread when it is asked for */
+    private class SequentialPages<T> implements RenderedPages<T> {
+        private final List<Integer> pageIndexes;
+        private final RenderSettings settings;
+        private final PageTask<T> task;
+        private final PDFRenderer renderer;
+        private final CancellationToken cancellationToken = CancellationToken.current();
+        private int position;
+
+        SequentialPages(
+                PDDocument document,
+                List<Integer> pageIndexes,
+                RenderSettings settings,
+                PageTask<T> task) {
+            this.pageIndexes = pageIndexes;
+            this.settings = settings;
+            this.task = task;
+            this.renderer = newRenderer(document, settings);
+        }
+
+        @Override
+        public T next() throws IOException {
+            if (position >= pageIndexes.size()) {
+                throw new NoSuchElementException();
+            }
+            cancellationToken.throwIfCancelled(pageIndexes.size() - position);
+            int pageIndex = pageIndexes.get(position++);
+            T result =
+                    cpuBoundExecutor.call(
+                            () ->
+                                    task.apply(
+                                            pageIndex,
+                                            renderer.renderImageWithDPI(
+                                                    pageIndex,
+                                                    settings.dpi(),
+                                                    settings.imageType())));
+            renderedPages.increment();
+            return result;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    /**
+     * Renders ahead on the pool, each worker on its own PDDocument of the snapshot. Workers are
+     * only submitted from the calling thread.
+     */
+    private class ParallelPages<T> implements RenderedPages<T> {
+        private final Path snapshot;
+        private final boolean ownsSnapshot;
+        private final List<Integer> pageIndexes;
+        private final RenderSettings settings;
+        private final PageTask<T> task;
+        private final int pages;
+        private final RenderRun<T> run;
+        private final List<Future<?>> futures;
+        private MemoryBudgetService.Reservation reservation;
+        private final CancellationToken cancellationToken = CancellationToken.current();
+        // The render threads act on behalf of this request: same scratch directory, same
+        // cancellation
+        private final RequestAttributes requestAttributes =
+                RequestContextHolder.getRequestAttributes();
+        private int position;
+
+        ParallelPages(
+                Path snapshot,
+                boolean ownsSnapshot,
+                int workers,
+                List<Integer> pageIndexes,
+                RenderSettings settings,
+                PageTask<T> task)
+                throws IOException {
+            this.snapshot = snapshot;
+            this.ownsSnapshot = ownsSnapshot;
+            this.pageIndexes = pageIndexes;
+            this.settings = settings;
+            this.task = task;
+            this.pages = pageIndexes.size();
+            this.run = new RenderRun<>(pages, Math.max(maxPagesInFlight, 1));
+            this.futures = new ArrayList<>(workers);
+            try {
+                // One reservation for all workers, they parse the same file
+                reservation = pdfDocumentFactory.reserveShared();
+                submitWorkers(workers);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public T next() throws IOException {
+            if (position >= pages) {
+                throw new NoSuchElementException();
+            }
+            cancellationToken.throwIfCancelled(pages - position);
+            T result = run.take(position++);
+            // Taking a result makes room for the workers that paused
+            submitWorkers(run.resumable());
+            return result;
+        }
+
+        private void submitWorkers(int count) {
+            if (count > 0) {
+                futures.removeIf(Future::isDone);
+            }
+            for (int i = 0; i < count; i++) {
+                futures.add(
+                        pool.submit(
+                                () -> {
+                                    CancellationToken previous =
+                                            CancellationToken.bind(cancellationToken);
+                                    RequestContextHolder.setRequestAttributes(requestAttributes);
+                                    try {
+                                        renderPages(snapshot, pageIndexes, settings, task, run);
+                                    } catch (Throwable t) {
+                                        run.fail(t);
+                                    } finally {
+                                        RequestContextHolder.resetRequestAttributes();
+                                        CancellationToken.restore(previous);
+                                    }
+                                }));
+            }
+        }
+
+        @Override
+        public void close() {
+            run.stop();
+            // The workers have to let go of the snapshot before it is deleted
+            for (Future<?> future : futures) {
+                awaitWorker(future);
+            }
+            for (PDDocument parked : run.drainParked()) {
+                closeQuietly(parked);
+            }
+            if (reservation != null) {
+                reservation.close();
+            }
+            if (ownsSnapshot) {
+                tempFileManager.delete(snapshot);
+            }
+        }
+    }
+
+    private <T> void renderPages(
+            Path snapshot,
+            List<Integer> pageIndexes,
+            RenderSettings settings,
+            PageTask<T> task,
+            RenderRun<T> run)
+            throws IOException {
+        // A resumed worker continues on the document a paused one left behind
+        PDDocument document = run.resume();
+        if (document == null) {
+            document = pdfDocumentFactory.loadShared(snapshot);
+        }
+        boolean paused = false;
+        try {
+            PDFRenderer renderer = newRenderer(document, settings);
+            CancellationToken cancellationToken = CancellationToken.current();
+            int position;
+            while ((position = run.next(document)) >= 0) {
+                cancellationToken.throwIfCancelled();
+                int pageIndex = pageIndexes.get(position);
+                BufferedImage image =
+                        renderer.renderImageWithDPI(
+                                pageIndex, settings.dpi(), settings.imageType());
+                renderedPages.increment();
+                run.complete(position, task.apply(pageIndex, image));
+            }
+            paused = position == RenderRun.PAUSED;
+        } finally {
+            if (!paused) {
+                document.close();
+            }
+        }
+    }
+
+    private static void closeQuietly(PDDocument document) {
+        try {
+            document.close();
+        } catch (IOException e) {
+            log.warn("Failed to close a render copy", e);
+        }
+    }
+
+    private static void awaitWorker(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException | CancellationException e) {
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands out pages to the render threads and their results to the caller in page order. A page
+     * is only handed out while fewer than {@code window} results wait to be taken, a worker that
+     * finds the window full pauses instead of waiting on its pool thread.
+     */
+    private static class RenderRun<T> {
+        static final int DONE = -1;
+        static final int PAUSED = -2;
+
+        private final int pages;
+        private final int window;
+        private final Map<Integer, T> results = new HashMap<>();
+        // Copies of the paused workers, taken over by the workers resubmitted for them
+        private final Deque<PDDocument> parked = new ArrayDeque<>();
+        private int nextPosition;
+        private int taken;
+        private int paused;
+        private Throwable failure;
+        private boolean stopped;
+
+        RenderRun(int pages, int window) {
+            this.pages = pages;
+            this.window = window;
+        }
+
+        /**
+         * The next position to render, {@link #DONE} once there is nothing left to do or {@link
+         * #PAUSED} when the window is full. A paused worker leaves its copy here and must return.
+         */
+        synchronized int next(PDDocument copy) {
+            if (stopped || failure != null || nextPosition >= pages) {
+                return DONE;
+            }
+            if (nextPosition >= taken + window) {
+                paused++;
+                parked.push(copy);
+                return PAUSED;
+            }
+            return nextPosition++;
+        }
+
+        /** A copy left by a paused worker, or null when there is none */
+        synchronized PDDocument resume() {
+            return parked.poll();
+        }
+
+        /** How many paused workers can be resubmitted now that the window moved on */
+        synchronized int resumable() {
+            if (stopped || failure != null) {
+                return 0;
+            }
+            int free = Math.min(taken + window, pages) - nextPosition;
+            int count = Math.min(paused, Math.max(free, 0));
+            paused -= count;
+            return count;
+        }
+
+        /** The parked copies, to be closed once no worker runs anymore */
+        synchronized List<PDDocument> drainParked() {
+            List<PDDocument> copies = new ArrayList<>(parked);
+            parked.clear();
+            return copies;
+        }
+
+        synchronized void complete(int position, T result) {
+            if (!stopped) {
+                results.put(position, result);
+                notifyAll();
+            }
+        }
+
+        synchronized void fail(Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+            notifyAll();
+        }
+
+        synchronized T take(int position) throws IOException {
+            try {
+                while (failure == null && !results.containsKey(position)) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for rendered page");
+            }
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            } else if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (failure instanceof Error error) {
+                throw error;
+            } else if (failure != null) {
+                throw new IOException(failure);
+            }
+            taken = position + 1;
+            notifyAll();
+            return results.remove(position);
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            results.clear();
+            notifyAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
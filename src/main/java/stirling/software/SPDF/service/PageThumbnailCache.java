@@ -0,0 +1,341 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pdfbox.rendering.ImageType;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PdfProbe;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+
+/**
+ * Low resolution page images for the page views of the web UI. Uploaded documents are kept on disk
+ * under the SHA-256 of their content and their thumbnails are rendered the first time one of them
+ * is asked for, a batch of following pages at a time. When the cache outgrows its disk budget the
+ * least recently viewed documents are removed with their thumbnails.
+ */
+@Service
+@Slf4j
+public class PageThumbnailCache {
+
+    /** A cached upload, thumbnails are requested with its ID and a page index */
+    public record CachedDocument(String documentId, int pageCount) {}
+
+    private static final String DOCUMENT_FILE = "document.pdf";
+    private static final Pattern DOCUMENT_ID = Pattern.compile("[0-9a-f]{64}");
+
+    private final PageRenderService pageRenderService;
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final boolean enabled;
+    private final Path storageDirectory;
+    private final float dpi;
+    private final int pagesPerRender;
+    private final long maxSizeBytes;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    // Access ordered, so iteration starts at the least recently viewed document
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private static class Entry {
+        private final Path directory;
+        private final int pageCount;
+        private long sizeBytes;
+        // Requests reading or rendering thumbnails, the entry is not evicted while they do
+        private int users;
+
+        Entry(Path directory, int pageCount, long sizeBytes) {
+            this.directory = directory;
+            this.pageCount = pageCount;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+
+    public PageThumbnailCache(
+            ApplicationProperties applicationProperties,
+            PageRenderService pageRenderService,
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        ApplicationProperties.System.Thumbnails settings =
+                applicationProperties.getSystem().getThumbnails();
+        this.pageRenderService = pageRenderService;
+        this.pdfDocumentFactory = pdfDocumentFactory;
+        this.enabled = settings.isEnabled();
+        this.storageDirectory = Paths.get(settings.getStorageDir()).toAbsolutePath().normalize();
+        this.dpi = settings.getDpi();
+        this.pagesPerRender = settings.getPagesPerRender();
+        this.maxSizeBytes = settings.getMaxSizeMB() * 1024L * 1024L;
+
+        hitCounter =
+                Counter.builder("stirling.thumbnails.hits")
+                        .description("Thumbnails answered from the thumbnail cache")
+                        .register(meterRegistry);
+        missCounter =
+                Counter.builder("stirling.thumbnails.misses")
+                        .description("Thumbnails that had to be rendered")
+                        .register(meterRegistry);
+        evictionCounter =
+                Counter.builder("stirling.thumbnails.evictions")
+                        .description("Documents evicted from the thumbnail cache")
+                        .register(meterRegistry);
+        Gauge.builder("stirling.thumbnails.size", this, PageThumbnailCache::getSizeBytes)
+                .description("Disk space used by cached documents and their thumbnails")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        if (enabled) {
+            Files.createDirectories(storageDirectory);
+            removeStoredDocuments();
+            log.info(
+                    "Thumbnail cache enabled ({} DPI, {}MB) in {}",
+                    dpi,
+                    settings.getMaxSizeMB(),
+                    storageDirectory);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Keep the upload so its thumbnails can be requested. Uploading it again is a cheap lookup. */
+    public CachedDocument add(MultipartFile file) throws IOException {
+        requireEnabled();
+        Path upload = Files.createTempFile(storageDirectory, "upload-", ".pdf");
+        try {
+            String documentId = copyAndHash(file, upload);
+            if (Files.size(upload) > maxSizeBytes) {
+                // It would be evicted right away, the browser renders it itself instead
+                throw new ResponseStatusException(
+                        HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Document is larger than the thumbnail cache");
+            }
+            synchronized (entries) {
+                Entry entry = entries.get(documentId);
+                if (entry != null) {
+                    hitCounter.increment();
+                    return new CachedDocument(documentId, entry.pageCount);
+                }
+            }
+
+            PdfProbe probe = pdfDocumentFactory.probe(upload.toFile());
+            if (probe.encrypted()) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST, "Thumbnails of encrypted documents are not cached");
+            }
+
+            List<Path> evicted;
+            synchronized (entries) {
+                Entry entry = entries.get(documentId);
+                if (entry != null) {
+                    return new CachedDocument(documentId, entry.pageCount);
+                }
+                Path directory = storageDirectory.resolve(documentId);
+                Files.createDirectories(directory);
+                Files.move(
+                        upload,
+                        directory.resolve(DOCUMENT_FILE),
+                        StandardCopyOption.REPLACE_EXISTING);
+                entry = new Entry(directory, probe.pageCount(), probe.fileSize());
+                entries.put(documentId, entry);
+                sizeBytes += probe.fileSize();
+                evicted = evict(entry);
+            }
+            deleteAll(evicted);
+            return new CachedDocument(documentId, probe.pageCount());
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * The thumbnail of a page as JPEG, rendered together with the pages after it when it is not
+     * cached yet. Unknown and evicted documents are answered with 404 Not Found, the browser has to
+     * upload them again.
+     */
+    public byte[] getThumbnail(String documentId, int pageIndex) throws IOException {
+        requireEnabled();
+        Entry entry = acquire(documentId);
+        try {
+            if (pageIndex < 0 || pageIndex >= entry.pageCount) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Page index must be between 0 and " + (entry.pageCount - 1));
+            }
+            Path thumbnail = thumbnailPath(entry, pageIndex);
+            if (!Files.exists(thumbnail)) {
+                // Requests for the pages of the batch that is rendering wait for it and find their
+                // thumbnail afterwards
+                synchronized (entry) {
+                    if (!Files.exists(thumbnail)) {
+                        missCounter.increment();
+                        renderFrom(entry, pageIndex);
+                        return Files.readAllBytes(thumbnail);
+                    }
+                }
+            }
+            hitCounter.increment();
+            return Files.readAllBytes(thumbnail);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /** Changes whenever the image of the page could: other content or another resolution */
+    public String getETag(String documentId, int pageIndex) {
+        return "\"" + documentId + "-" + pageIndex + "-" + (int) dpi + "\"";
+    }
+
+    private void renderFrom(Entry entry, int firstPage) throws IOException {
+        int end = Math.min(firstPage + pagesPerRender, entry.pageCount);
+        List<Integer> pageIndexes =
+                IntStream.range(firstPage, end)
+                        .filter(pageIndex -> !Files.exists(thumbnailPath(entry, pageIndex)))
+                        .boxed()
+                        .toList();
+        pageRenderService.render(
+                entry.directory.resolve(DOCUMENT_FILE),
+                pageIndexes,
+                RenderSettings.of(dpi, ImageType.RGB),
+                // Encoded on the render threads, only the file size comes back
+                (pageIndex, image) -> {
+                    Path thumbnail = thumbnailPath(entry, pageIndex);
+                    Path partial = Files.createTempFile(entry.directory, "page-", ".part");
+                    try {
+                        ImageIO.write(image, "jpg", partial.toFile());
+                        Files.move(partial, thumbnail, StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        Files.deleteIfExists(partial);
+                    }
+                    return Files.size(thumbnail);
+                },
+                (pageIndex, thumbnailSize) -> grow(entry, thumbnailSize));
+    }
+
+    private static Path thumbnailPath(Entry entry, int pageIndex) {
+        return entry.directory.resolve(String.format(Locale.ROOT, "page-%05d.jpg", pageIndex));
+    }
+
+    private Entry acquire(String documentId) {
+        synchronized (entries) {
+            Entry entry =
+                    DOCUMENT_ID.matcher(documentId).matches() ? entries.get(documentId) : null;
+            if (entry == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not cached");
+            }
+            entry.users++;
+            return entry;
+        }
+    }
+
+    private void release(Entry entry) {
+        List<Path> evicted;
+        synchronized (entries) {
+            entry.users--;
+            evicted = evict(entry);
+        }
+        deleteAll(evicted);
+    }
+
+    private void grow(Entry entry, long bytes) {
+        synchronized (entries) {
+            entry.sizeBytes += bytes;
+            sizeBytes += bytes;
+        }
+    }
+
+    /**
+     * Drop least recently viewed documents until the cache fits, skipping the ones in use and the
+     * document just added or viewed, which stays even if it alone is over the budget. Returns the
+     * directories to delete once the lock is released.
+     */
+    private List<Path> evict(Entry keep) {
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest.users > 0 || eldest == keep) {
+                continue;
+            }
+            iterator.remove();
+            sizeBytes -= eldest.sizeBytes;
+            evicted.add(eldest.directory);
+            evictionCounter.increment();
+        }
+        return evicted;
+    }
+
+    private static void deleteAll(List<Path> directories) {
+        for (Path directory : directories) {
+            FileUtils.deleteQuietly(directory.toFile());
+        }
+    }
+
+    /** Documents stored by an earlier run are not indexed, so they would never be evicted */
+    private void removeStoredDocuments() throws IOException {
+        try (Stream<Path> stored = Files.list(storageDirectory)) {
+            stored.filter(
+                            path ->
+                                    DOCUMENT_ID.matcher(path.getFileName().toString()).matches()
+                                            || path.getFileName().toString().startsWith("upload-"))
+                    .forEach(path -> FileUtils.deleteQuietly(path.toFile()));
+        }
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Thumbnail cache is disabled");
+        }
+    }
+
+    private static String copyAndHash(MultipartFile file, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+}
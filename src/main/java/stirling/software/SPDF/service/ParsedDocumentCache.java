@@ -0,0 +1,240 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.DocumentSummary;
+
+/**
+ * Content-addressed cache of parse results for uploads that are sent more than once, e.g. when the
+ * web UI asks for the page count, then the basic info and then runs a filter on the same file.
+ * Entries are keyed by the SHA-256 of the upload and hold small artifacts computed from the parsed
+ * document, never the document itself. The least recently used entries are evicted once the entry
+ * count or the estimated size of the artifacts exceeds the configured limits.
+ */
+@Service
+@Slf4j
+public class ParsedDocumentCache {
+
+    public static final String SUMMARY = "summary";
+
+    /** Computes an artifact from a document opened read-only */
+    @FunctionalInterface
+    public interface ArtifactReader<T> {
+        T read(PDDocument document) throws IOException;
+    }
+
+    private static final long ENTRY_OVERHEAD = 256;
+    private static final long PAGE_SUMMARY_SIZE = 48;
+
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+    private final PdfMetadataService pdfMetadataService;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxSizeBytes;
+
+    // Access ordered, guarded by itself
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile long sizeBytes;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    private static class Entry {
+        private final Map<String, Object> artifacts = new ConcurrentHashMap<>();
+        private long sizeBytes = ENTRY_OVERHEAD;
+    }
+
+    public ParsedDocumentCache(
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            PdfMetadataService pdfMetadataService,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        ApplicationProperties.DocumentFactory.ParsedDocumentCache settings =
+                applicationProperties.getDocumentFactory().getParsedDocumentCache();
+        this.pdfDocumentFactory = pdfDocumentFactory;
+        this.pdfMetadataService = pdfMetadataService;
+        this.enabled = settings.isEnabled();
+        this.maxEntries = settings.getMaxEntries();
+        this.maxSizeBytes = settings.getMaxSizeMB() * 1024L * 1024L;
+
+        hitCounter =
+                Counter.builder("stirling.document.cache.hits")
+                        .description("Parse results answered from the document cache")
+                        .register(meterRegistry);
+        missCounter =
+                Counter.builder("stirling.document.cache.misses")
+                        .description("Parse results that required loading the document")
+                        .register(meterRegistry);
+        evictionCounter =
+                Counter.builder("stirling.document.cache.evictions")
+                        .description("Documents evicted from the document cache")
+                        .register(meterRegistry);
+        Gauge.builder("stirling.document.cache.entries", this, ParsedDocumentCache::getEntryCount)
+                .description("Documents currently held in the document cache")
+                .register(meterRegistry);
+        Gauge.builder("stirling.document.cache.size", this, ParsedDocumentCache::getSizeBytes)
+                .description("Estimated size of the cached parse results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info(
+                    "Parsed document cache enabled ({} entries, {}MB)",
+                    maxEntries,
+                    settings.getMaxSizeMB());
+        }
+    }
+
+    /** Page count, page boxes and metadata of the upload */
+    public DocumentSummary getSummary(MultipartFile file) throws IOException {
+        return get(file, SUMMARY, this::summarize);
+    }
+
+    /**
+     * Return the named artifact of the upload, computing it from a read-only load when it is not
+     * cached yet. With the cache disabled the artifact is always computed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(MultipartFile file, String artifact, ArtifactReader<T> reader)
+            throws IOException {
+        if (!enabled) {
+            return read(file, reader);
+        }
+
+        String key = sha256(file);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        Object cached = entry != null ? entry.artifacts.get(artifact) : null;
+        if (cached != null) {
+            hitCounter.increment();
+            return (T) cached;
+        }
+
+        missCounter.increment();
+        T value = read(file, reader);
+        put(key, artifact, value);
+        return value;
+    }
+
+    private <T> T read(MultipartFile file, ArtifactReader<T> reader) throws IOException {
+        try (PDDocument document = pdfDocumentFactory.load(file, true)) {
+            return reader.read(document);
+        }
+    }
+
+    private void put(String key, String artifact, Object value) {
+        long artifactSize = estimateSize(value);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                sizeBytes += entry.sizeBytes;
+            }
+            if (entry.artifacts.putIfAbsent(artifact, value) == null) {
+                entry.sizeBytes += artifactSize;
+                sizeBytes += artifactSize;
+            }
+            evict(key);
+        }
+    }
+
+    /** Drop least recently used entries, but never the one that was just written */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || sizeBytes > maxSizeBytes) && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            sizeBytes -= eldest.getValue().sizeBytes;
+            evictionCounter.increment();
+        }
+    }
+
+    public DocumentSummary summarize(PDDocument document) {
+        List<DocumentSummary.PageSummary> pages = new ArrayList<>(document.getNumberOfPages());
+        for (PDPage page : document.getPages()) {
+            PDRectangle mediaBox = page.getMediaBox();
+            PDRectangle bBox = page.getBBox();
+            pages.add(
+                    DocumentSummary.PageSummary.builder()
+                            .mediaBoxWidth(mediaBox.getWidth())
+                            .mediaBoxHeight(mediaBox.getHeight())
+                            .bBoxWidth(bBox.getWidth())
+                            .bBoxHeight(bBox.getHeight())
+                            .rotation(page.getRotation())
+                            .build());
+        }
+        return DocumentSummary.builder()
+                .pageCount(document.getNumberOfPages())
+                .pdfVersion(document.getVersion())
+                .encrypted(document.isEncrypted())
+                .metadata(pdfMetadataService.extractMetadataFromPdf(document))
+                .pages(pages)
+                .build();
+    }
+
+    private static long estimateSize(Object value) {
+        if (value instanceof DocumentSummary summary) {
+            return summary.getPages().size() * PAGE_SUMMARY_SIZE;
+        } else if (value instanceof String text) {
+            return 2L * text.length();
+        } else if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        return ENTRY_OVERHEAD;
+    }
+
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+}
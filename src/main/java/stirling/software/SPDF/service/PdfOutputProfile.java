@@ -0,0 +1,31 @@
+package stirling.software.SPDF.service;
+
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** How CustomPDFDocumentFactory writes documents, trading save time for output size */
+@Getter
+@RequiredArgsConstructor
+public enum PdfOutputProfile {
+    /** Classic xref table, streams written as they are. Fastest save, largest files. */
+    FAST(false, false, false),
+    /** Objects packed into compressed object streams with an xref stream, streams untouched */
+    BALANCED(true, false, false),
+    /**
+     * Object streams, unfiltered streams are Flate encoded and existing Flate streams are encoded
+     * again at the configured level. Smallest files, slowest save.
+     */
+    SMALLEST(true, true, true);
+
+    private final boolean objectStreams;
+    private final boolean compressUnfilteredStreams;
+    private final boolean recompressFlateStreams;
+
+    public CompressParameters compressParameters(int objectStreamSize) {
+        return objectStreams
+                ? new CompressParameters(objectStreamSize)
+                : CompressParameters.NO_COMPRESSION;
+    }
+}
@@ -0,0 +1,375 @@
+package stirling.software.SPDF.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+/**
+ * Owns every temporary file the application creates. Files are placed below a single configurable
+ * base directory (which can be a tmpfs mount), inside a scratch directory per HTTP request that is
+ * removed once the response has been written. Work outside of a request, e.g. the pipeline
+ * scheduler, uses a shared directory and cleans up after itself. A global quota makes new requests
+ * wait for disk space: allocations reserve the size they expect to write, so concurrent requests
+ * cannot all pass the check before any of them has written. A scheduled sweeper removes whatever a
+ * crash or a missed cleanup left behind.
+ */
+@Service
+@Slf4j
+public class TempFileManager {
+
+    private static final String SCRATCH_ATTRIBUTE = TempFileManager.class.getName() + ".scratch";
+    private static final String REQUEST_DIR_PREFIX = "request-";
+    private static final String BACKGROUND_DIR = "background";
+
+    // Walking the tree on every allocation would be too slow, usage is refreshed at most this often
+    private static final long USAGE_REFRESH_MILLIS = 1000;
+    private static final long QUOTA_POLL_MILLIS = 250;
+
+    private final Path baseDirectory;
+    private final Path backgroundDirectory;
+    private final long quotaBytes;
+    private final long quotaWaitMillis;
+    private final Duration orphanMaxAge;
+
+    private final Set<Path> activeDirectories = ConcurrentHashMap.newKeySet();
+    // Background allocations that were not deleted yet, the sweeper leaves them alone however old
+    // they are
+    private final Set<Path> liveBackgroundPaths = ConcurrentHashMap.newKeySet();
+    // Expected size of files still being written, guarded by itself
+    private final Map<Path, Long> reservations = new HashMap<>();
+    private volatile long usageBytes;
+    private volatile long usageRefreshedAt;
+    // Set while one thread walks the base directory, the others use the last measurement
+    private final AtomicBoolean refreshingUsage = new AtomicBoolean();
+
+    private final Counter sweptCounter;
+
+    public TempFileManager(ApplicationProperties applicationProperties, MeterRegistry meterRegistry)
+            throws IOException {
+        ApplicationProperties.System.TempFileManagement settings =
+                applicationProperties.getSystem().getTempFileManagement();
+        this.baseDirectory = Path.of(settings.getBaseTmpDir()).toAbsolutePath();
+        this.backgroundDirectory = baseDirectory.resolve(BACKGROUND_DIR);
+        this.quotaBytes = settings.getMaxTotalSizeMB() * 1024L * 1024L;
+        this.quotaWaitMillis = TimeUnit.SECONDS.toMillis(settings.getQuotaWaitSeconds());
+        this.orphanMaxAge = Duration.ofMinutes(settings.getOrphanMaxAgeMinutes());
+        Files.createDirectories(backgroundDirectory);
+
+        // No request or background job can be running yet, so scratch directories and background
+        // files that exist now are left over from a previous run
+        try (Stream<Path> children = Files.list(baseDirectory)) {
+            children.filter(child -> child.getFileName().toString().startsWith(REQUEST_DIR_PREFIX))
+                    .forEach(this::deleteQuietly);
+        }
+        try (Stream<Path> children = Files.list(backgroundDirectory)) {
+            children.forEach(this::deleteQuietly);
+        }
+
+        Gauge.builder("stirling.tempfiles.usage", this, TempFileManager::getUsageBytes)
+                .description("Bytes held by temporary files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("stirling.tempfiles.quota", this, manager -> manager.quotaBytes)
+                .description("Temporary file quota, 0 when unlimited")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("stirling.tempfiles.requests", activeDirectories, Set::size)
+                .description("Requests currently holding a scratch directory")
+                .register(meterRegistry);
+        sweptCounter =
+                Counter.builder("stirling.tempfiles.swept")
+                        .description("Orphaned temporary files removed by the sweeper")
+                        .register(meterRegistry);
+
+        log.info(
+                "Temporary files are kept in {} (quota: {})",
+                baseDirectory,
+                quotaBytes > 0 ? settings.getMaxTotalSizeMB() + "MB" : "unlimited");
+    }
+
+    /** Create an empty temp file in the scratch directory of the current request */
+    public Path createTempFile(String prefix, String suffix) throws IOException {
+        return createTempFile(prefix, suffix, 0);
+    }
+
+    /**
+     * Create an empty temp file that is about to receive {@code expectedBytes}, e.g. an upload of
+     * known size. The space is reserved against the quota until the file has grown to that size or
+     * is deleted.
+     */
+    public Path createTempFile(String prefix, String suffix, long expectedBytes)
+            throws IOException {
+        Path directory = scratchDirectory();
+        return track(
+                directory,
+                reserve(expectedBytes, () -> Files.createTempFile(directory, prefix, suffix)));
+    }
+
+    /** Create a temp directory in the scratch directory of the current request */
+    public Path createTempDirectory(String prefix) throws IOException {
+        Path directory = scratchDirectory();
+        return track(directory, reserve(0, () -> Files.createTempDirectory(directory, prefix)));
+    }
+
+    /** Directory for libraries that manage their own scratch files, e.g. PDFBox stream caches */
+    public File getTempDirectory() {
+        try {
+            return scratchDirectory().toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Delete a temp file or directory now instead of waiting for the end of the request */
+    public void delete(Path path) {
+        if (path != null) {
+            deleteQuietly(path);
+            release(path);
+        }
+    }
+
+    private Path track(Path directory, Path allocated) {
+        if (directory.equals(backgroundDirectory)) {
+            liveBackgroundPaths.add(allocated);
+        }
+        return allocated;
+    }
+
+    /** Forget the reservations and background allocations of a deleted file or directory */
+    private void release(Path path) {
+        liveBackgroundPaths.remove(path);
+        synchronized (reservations) {
+            reservations.keySet().removeIf(reserved -> reserved.startsWith(path));
+        }
+    }
+
+    private Path scratchDirectory() throws IOException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return backgroundDirectory;
+        }
+        Path directory =
+                (Path) attributes.getAttribute(SCRATCH_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (directory == null) {
+            directory = Files.createTempDirectory(baseDirectory, REQUEST_DIR_PREFIX);
+            activeDirectories.add(directory);
+            attributes.setAttribute(SCRATCH_ATTRIBUTE, directory, RequestAttributes.SCOPE_REQUEST);
+            Path scratch = directory;
+            // Runs after the response body has been written
+            attributes.registerDestructionCallback(
+                    SCRATCH_ATTRIBUTE,
+                    () -> {
+                        deleteQuietly(scratch);
+                        release(scratch);
+                        activeDirectories.remove(scratch);
+                    },
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return directory;
+    }
+
+    @FunctionalInterface
+    private interface Allocation {
+        Path create() throws IOException;
+    }
+
+    /**
+     * Create the file once the quota has room for it, waiting for other requests to release disk
+     * space and giving up with 503. Checking and reserving happen under one lock, so two requests
+     * cannot both take the last free space. The directory is measured outside of that lock, and by
+     * at most one of the waiting requests per poll interval.
+     */
+    private Path reserve(long expectedBytes, Allocation allocation) throws IOException {
+        if (quotaBytes <= 0) {
+            return allocation.create();
+        }
+        long deadline = System.currentTimeMillis() + quotaWaitMillis;
+        long maxUsageAge = USAGE_REFRESH_MILLIS;
+        while (true) {
+            long usage = refreshUsage(maxUsageAge);
+            synchronized (reservations) {
+                long used = usage + outstandingReservations();
+                // A file larger than the whole quota can never fit, it gets in whenever there is
+                // room at all
+                if (used < quotaBytes
+                        && (used + expectedBytes <= quotaBytes || expectedBytes > quotaBytes)) {
+                    Path path = allocation.create();
+                    if (expectedBytes > 0) {
+                        reservations.put(path, expectedBytes);
+                    }
+                    return path;
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            try {
+                Thread.sleep(QUOTA_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            maxUsageAge = QUOTA_POLL_MILLIS;
+        }
+        log.warn(
+                "Temporary file quota exhausted ({} bytes in use, {} bytes requested)",
+                usageBytes,
+                expectedBytes);
+        throw new ServiceOverloadedException(
+                "Temporary storage is full, please retry later",
+                Math.max(1, TimeUnit.MILLISECONDS.toSeconds(quotaWaitMillis)));
+    }
+
+    /**
+     * Bytes reserved but not written yet. Files that reached their expected size or are gone no
+     * longer hold a reservation. Called with the reservations lock held.
+     */
+    private long outstandingReservations() {
+        long outstanding = 0;
+        Iterator<Map.Entry<Path, Long>> iterator = reservations.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> reservation = iterator.next();
+            long remaining;
+            try {
+                remaining = reservation.getValue() - Files.size(reservation.getKey());
+            } catch (IOException e) {
+                // Already gone
+                remaining = 0;
+            }
+            if (remaining <= 0) {
+                iterator.remove();
+            } else {
+                outstanding += remaining;
+            }
+        }
+        return outstanding;
+    }
+
+    /**
+     * Measure the base directory if the last measurement is older than {@code maxAgeMillis}. Only
+     * one thread walks the tree at a time, the others return the last measurement meanwhile.
+     */
+    private long refreshUsage(long maxAgeMillis) {
+        long now = System.currentTimeMillis();
+        if (now - usageRefreshedAt >= maxAgeMillis && refreshingUsage.compareAndSet(false, true)) {
+            try {
+                usageBytes = sizeOf(baseDirectory);
+                usageRefreshedAt = now;
+            } finally {
+                refreshingUsage.set(false);
+            }
+        }
+        return usageBytes;
+    }
+
+    /** Total size of the files below the directory, skipping files deleted during the walk */
+    private static long sizeOf(Path directory) {
+        long[] total = {0};
+        try {
+            Files.walkFileTree(
+                    directory,
+                    new SimpleFileVisitor<>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            total[0] += attrs.size();
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException e) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Failed to measure temp directory {}", directory, e);
+        }
+        return total[0];
+    }
+
+    /** Remove files that outlived the request that created them or were left by a crash */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000) // Every 10 minutes
+    public void sweepOrphans() {
+        Instant cutoff = Instant.now().minus(orphanMaxAge);
+        // Background files removed without delete(), e.g. moved elsewhere, are no longer live
+        liveBackgroundPaths.removeIf(path -> !Files.exists(path));
+        sweep(baseDirectory, cutoff);
+        sweep(backgroundDirectory, cutoff);
+        refreshUsage(0);
+    }
+
+    private void sweep(Path directory, Instant cutoff) {
+        try (Stream<Path> children = Files.list(directory)) {
+            children.filter(child -> !child.equals(backgroundDirectory))
+                    .filter(child -> !activeDirectories.contains(child))
+                    .filter(child -> !liveBackgroundPaths.contains(child))
+                    .filter(child -> isOlderThan(child, cutoff))
+                    .forEach(
+                            child -> {
+                                log.info("Removing orphaned temp file {}", child);
+                                deleteQuietly(child);
+                                release(child);
+                                sweptCounter.increment();
+                            });
+        } catch (IOException e) {
+            log.warn("Failed to sweep temp directory {}", directory, e);
+        }
+    }
+
+    private static boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class)
+                    .lastModifiedTime()
+                    .toInstant()
+                    .isBefore(cutoff);
+        } catch (IOException e) {
+            // Already gone
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (!FileUtils.deleteQuietly(path.toFile())) {
+            if (Files.exists(path)) {
+                log.warn("Failed to delete temp file {}", path);
+            }
+        }
+    }
+
+    public Path getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    public long getUsageBytes() {
+        return refreshUsage(USAGE_REFRESH_MILLIS);
+    }
+}
@@ -0,0 +1,82 @@
+package stirling.software.SPDF.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.multipart.MultipartFile;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a single on-disk copy of every uploaded part for the duration of a request. The first
+ * consumer that needs a file moves the container's own spool file into the request scratch
+ * directory (or writes the part there when the container kept it in memory), later consumers get
+ * hard links to that file instead of further copies. The spool is removed together with the scratch
+ * directory once the response has been written.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UploadSpool {
+
+    private static final String SPOOL_ATTRIBUTE = UploadSpool.class.getName() + ".spooled";
+
+    private final TempFileManager tempFileManager;
+
+    /**
+     * File with the content of the upload that the caller owns and may delete, e.g. the input file
+     * of an external tool. Within a request it is a hard link to the shared spool, so it must not
+     * be rewritten in place; tools that replace their input through a rename are fine. Falls back
+     * to a copy on file systems without hard links.
+     */
+    public Path link(MultipartFile file, String prefix, String suffix) throws IOException {
+        Map<MultipartFile, Path> spooled = spooledFiles();
+        if (spooled == null) {
+            Path link = tempFileManager.createTempFile(prefix, suffix, file.getSize());
+            // Nothing to share outside of a request
+            file.transferTo(link.toFile());
+            return link;
+        }
+
+        Path link = tempFileManager.createTempFile(prefix, suffix);
+        Path spool = spooled.get(file);
+        if (spool == null || !Files.exists(spool)) {
+            spool = tempFileManager.createTempFile("upload-", ".tmp", file.getSize());
+            // transferTo(File) lets the container move its spool file instead of copying it, the
+            // part then keeps reading from the new location
+            file.transferTo(spool.toFile());
+            spooled.put(file, spool);
+        }
+        Files.delete(link);
+        try {
+            Files.createLink(link, spool);
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("Hard link to {} failed, copying instead", spool, e);
+            Files.copy(spool, link);
+        }
+        return link;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<MultipartFile, Path> spooledFiles() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<MultipartFile, Path> spooled =
+                (Map<MultipartFile, Path>)
+                        attributes.getAttribute(SPOOL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (spooled == null) {
+            spooled = new ConcurrentHashMap<>();
+            attributes.setAttribute(SPOOL_ATTRIBUTE, spooled, RequestAttributes.SCOPE_REQUEST);
+        }
+        return spooled;
+    }
+}
@@ -0,0 +1,129 @@
+package stirling.software.SPDF.utils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import stirling.software.SPDF.model.exception.RequestCancelledException;
+
+/**
+ * Cancellation flag of the request handled by the current thread. CancellationFilter binds one
+ * token per request and cancels it when the client disconnects; long loops call {@link
+ * #throwIfCancelled(int)} between pages and external processes are killed through {@link
+ * #onCancel(Runnable)}. Code running outside of a request sees {@link #NONE}, which is never
+ * cancelled.
+ */
+@Slf4j
+public final class CancellationToken {
+
+    public static final CancellationToken NONE = new CancellationToken(false);
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final boolean cancellable;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger skippedPages = new AtomicInteger();
+    private final AtomicInteger killedProcesses = new AtomicInteger();
+
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    /** The token bound to this thread, or {@link #NONE} */
+    public static CancellationToken current() {
+        CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    /**
+     * Bind the token to this thread.
+     *
+     * @return the previously bound token, to be passed to {@link #restore(CancellationToken)}
+     */
+    public static CancellationToken bind(CancellationToken token) {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(token);
+        return previous;
+    }
+
+    public static void restore(CancellationToken previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void cancel() {
+        if (!cancellable || !cancelled.compareAndSet(false, true)) {
+            return;
+        }
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Cancellation listener failed", e);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Run the listener once the token is cancelled, right away if it already is. The returned
+     * handle removes the listener again and has to be closed when the guarded work is done.
+     */
+    public Registration onCancel(Runnable listener) {
+        if (!cancellable) {
+            return () -> {};
+        }
+        listeners.add(listener);
+        if (cancelled.get() && listeners.remove(listener)) {
+            listener.run();
+        }
+        return () -> listeners.remove(listener);
+    }
+
+    public void throwIfCancelled() {
+        throwIfCancelled(0);
+    }
+
+    /**
+     * @param remainingPages pages the caller would still have processed, counted as saved work
+     * @throws RequestCancelledException if the client has gone away
+     */
+    public void throwIfCancelled(int remainingPages) {
+        if (cancelled.get()) {
+            skippedPages.addAndGet(Math.max(remainingPages, 0));
+            throw new RequestCancelledException();
+        }
+    }
+
+    public void recordKilledProcess() {
+        killedProcesses.incrementAndGet();
+    }
+
+    public int getSkippedPages() {
+        return skippedPages.get();
+    }
+
+    public int getKilledProcesses() {
+        return killedProcesses.get();
+    }
+
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -9,6 +9,8 @@ import java.nio.channels.FileLock;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -30,6 +32,7 @@ public class FileMonitor {
     private final WatchService watchService;
     private final Predicate<Path> pathFilter;
     private final Path rootDir;
+    private final List<Consumer<Set<Path>>> readyListeners = new CopyOnWriteArrayList<>();
     private Set<Path> stagingFiles;
 
     /**
@@ -51,6 +54,15 @@ public class FileMonitor {
         this.rootDir = Path.of(runtimePathConfig.getPipelineWatchedFoldersPath());
     }
 
+    /**
+     * Be told about files that became ready for processing. The listener is called on the monitor
+     * thread with the files that were not ready in the previous iteration, it should hand the work
+     * off instead of processing the files itself.
+     */
+    public void addReadyListener(Consumer<Set<Path>> listener) {
+        readyListeners.add(listener);
+    }
+
     private boolean shouldNotProcess(Path path) {
         return !pathFilter.test(path);
     }
@@ -82,6 +94,7 @@ public class FileMonitor {
          If those files are not modified in current iteration, they will be considered as ready for processing.
         */
         stagingFiles = new HashSet<>(newlyDiscoveredFiles);
+        Set<Path> previouslyReadyFiles = new HashSet<>(readyForProcessingFiles);
         readyForProcessingFiles.clear();
 
         if (path2KeyMapping.isEmpty()) {
@@ -136,6 +149,18 @@ public class FileMonitor {
             }
         }
         readyForProcessingFiles.addAll(stagingFiles);
+
+        Set<Path> newlyReadyFiles = new HashSet<>(stagingFiles);
+        newlyReadyFiles.removeAll(previouslyReadyFiles);
+        if (!newlyReadyFiles.isEmpty()) {
+            for (Consumer<Set<Path>> listener : readyListeners) {
+                try {
+                    listener.accept(Collections.unmodifiableSet(newlyReadyFiles));
+                } catch (Exception e) {
+                    log.error("Error while notifying about ready files", e);
+                }
+            }
+        }
     }
 
     private void handleDirectoryCreation(Path dir) throws IOException {
@@ -17,6 +17,7 @@ import java.util.zip.ZipOutputStream;
 import io.github.pixee.security.ZipSecurity;
 
 import stirling.software.SPDF.model.api.converters.HTMLToPdfRequest;
+import stirling.software.SPDF.service.TempFileManager;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 
 public class FileToPdf {
@@ -26,23 +27,24 @@ public class FileToPdf {
             HTMLToPdfRequest request,
             byte[] fileBytes,
             String fileName,
-            boolean disableSanitize)
+            boolean disableSanitize,
+            TempFileManager tempFileManager)
             throws IOException, InterruptedException {
 
-        Path tempOutputFile = Files.createTempFile("output_", ".pdf");
+        Path tempOutputFile = tempFileManager.createTempFile("output_", ".pdf");
         Path tempInputFile = null;
         byte[] pdfBytes;
         try {
             if (fileName.endsWith(".html")) {
-                tempInputFile = Files.createTempFile("input_", ".html");
+                tempInputFile = tempFileManager.createTempFile("input_", ".html");
                 String sanitizedHtml =
                         sanitizeHtmlContent(
                                 new String(fileBytes, StandardCharsets.UTF_8), disableSanitize);
                 Files.write(tempInputFile, sanitizedHtml.getBytes(StandardCharsets.UTF_8));
             } else if (fileName.endsWith(".zip")) {
-                tempInputFile = Files.createTempFile("input_", ".zip");
+                tempInputFile = tempFileManager.createTempFile("input_", ".zip");
                 Files.write(tempInputFile, fileBytes);
-                sanitizeHtmlFilesInZip(tempInputFile, disableSanitize);
+                sanitizeHtmlFilesInZip(tempInputFile, disableSanitize, tempFileManager);
             } else {
                 throw new IllegalArgumentException("Unsupported file format: " + fileName);
             }
@@ -78,9 +80,10 @@ public class FileToPdf {
         return (!disableSanitize) ? CustomHtmlSanitizer.sanitize(htmlContent) : htmlContent;
     }
 
-    private static void sanitizeHtmlFilesInZip(Path zipFilePath, boolean disableSanitize)
+    private static void sanitizeHtmlFilesInZip(
+            Path zipFilePath, boolean disableSanitize, TempFileManager tempFileManager)
             throws IOException {
-        Path tempUnzippedDir = Files.createTempDirectory("unzipped_");
+        Path tempUnzippedDir = tempFileManager.createTempDirectory("unzipped_");
         try (ZipInputStream zipIn =
                 ZipSecurity.createHardenedInputStream(
                         new ByteArrayInputStream(Files.readAllBytes(zipFilePath)))) {
@@ -150,8 +153,9 @@ public class FileToPdf {
                 });
     }
 
-    private static Path unzipAndGetMainHtml(byte[] fileBytes) throws IOException {
-        Path tempDirectory = Files.createTempDirectory("unzipped_");
+    private static Path unzipAndGetMainHtml(byte[] fileBytes, TempFileManager tempFileManager)
+            throws IOException {
+        Path tempDirectory = tempFileManager.createTempDirectory("unzipped_");
         try (ZipInputStream zipIn =
                 ZipSecurity.createHardenedInputStream(new ByteArrayInputStream(fileBytes))) {
             ZipEntry entry = zipIn.getNextEntry();
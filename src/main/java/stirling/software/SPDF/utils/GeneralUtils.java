@@ -1,9 +1,7 @@
 package stirling.software.SPDF.utils;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
@@ -29,23 +27,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.config.InstallationPathConfig;
 import stirling.software.SPDF.config.YamlHelper;
+import stirling.software.SPDF.service.UploadSpool;
 
 @Slf4j
 public class GeneralUtils {
 
-    public static File convertMultipartFileToFile(MultipartFile multipartFile) throws IOException {
-        File tempFile = Files.createTempFile("temp", null).toFile();
-        try (InputStream inputStream = multipartFile.getInputStream();
-                FileOutputStream outputStream = new FileOutputStream(tempFile)) {
-
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-        }
-        return tempFile;
+    public static File convertMultipartFileToFile(
+            MultipartFile multipartFile, UploadSpool uploadSpool) throws IOException {
+        return uploadSpool.link(multipartFile, "temp", null).toFile();
     }
 
     public static void deleteDirectory(Path path) throws IOException {
@@ -148,17 +137,9 @@ public class GeneralUtils {
         }
     }
 
-    public static File multipartToFile(MultipartFile multipart) throws IOException {
-        Path tempFile = Files.createTempFile("overlay-", ".pdf");
-        try (InputStream in = multipart.getInputStream();
-                FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = in.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
-            }
-        }
-        return tempFile.toFile();
+    public static File multipartToFile(MultipartFile multipart, UploadSpool uploadSpool)
+            throws IOException {
+        return uploadSpool.link(multipart, "overlay-", ".pdf").toFile();
     }
 
     public static Long convertSizeToBytes(String sizeStr) {
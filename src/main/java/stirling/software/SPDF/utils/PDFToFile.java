@@ -25,13 +25,20 @@ import com.vladsch.flexmark.util.data.MutableDataSet;
 
 import io.github.pixee.security.Filenames;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.service.UploadSpool;
 import stirling.software.SPDF.utils.ProcessExecutor.ProcessExecutorResult;
 
 @Slf4j
+@RequiredArgsConstructor
 public class PDFToFile {
 
+    private final TempFileManager tempFileManager;
+    private final UploadSpool uploadSpool;
+
     public ResponseEntity<byte[]> processPdfToMarkdown(MultipartFile inputFile)
             throws IOException, InterruptedException {
         if (!"application/pdf".equals(inputFile.getContentType())) {
@@ -75,9 +82,8 @@ public class PDFToFile {
         String fileName = "temp.file";
 
         try {
-            tempInputFile = Files.createTempFile("input_", ".pdf");
-            inputFile.transferTo(tempInputFile);
-            tempOutputDir = Files.createTempDirectory("output_");
+            tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
+            tempOutputDir = tempFileManager.createTempDirectory("output_");
 
             List<String> command =
                     new ArrayList<>(
@@ -169,11 +175,10 @@ public class PDFToFile {
 
         try {
             // Save the uploaded file to a temporary location
-            tempInputFile = Files.createTempFile("input_", ".pdf");
-            inputFile.transferTo(tempInputFile);
+            tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
 
             // Prepare the output directory
-            tempOutputDir = Files.createTempDirectory("output_");
+            tempOutputDir = tempFileManager.createTempDirectory("output_");
 
             // Run the pdftohtml command with complex output
             List<String> command =
@@ -250,11 +255,10 @@ public class PDFToFile {
 
         try {
             // Save the uploaded file to a temporary location
-            tempInputFile = Files.createTempFile("input_", ".pdf");
-            inputFile.transferTo(tempInputFile);
+            tempInputFile = uploadSpool.link(inputFile, "input_", ".pdf");
 
             // Prepare the output directory
-            tempOutputDir = Files.createTempDirectory("output_");
+            tempOutputDir = tempFileManager.createTempDirectory("output_");
 
             // Run the LibreOffice command
             List<String> command =
@@ -5,8 +5,9 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -27,7 +28,6 @@ import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -36,6 +36,9 @@ import io.github.pixee.security.Filenames;
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderedPages;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
 
 @Slf4j
 public class PdfUtils {
@@ -128,16 +131,16 @@ public class PdfUtils {
 
     public static byte[] convertFromPdf(
             CustomPDFDocumentFactory pdfDocumentFactory,
+            PageRenderService pageRenderService,
             byte[] inputStream,
             String imageType,
             ImageType colorType,
             boolean singleImage,
             int DPI,
             String filename)
-            throws IOException, Exception {
+            throws IOException {
         try (PDDocument document = pdfDocumentFactory.load(inputStream)) {
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            pdfRenderer.setSubsamplingAllowed(true);
+            RenderSettings renderSettings = RenderSettings.of(DPI, colorType).withSubsampling();
             int pageCount = document.getNumberOfPages();
 
             // Create a ByteArrayOutputStream to save the image(s) to
@@ -157,10 +160,12 @@ public class PdfUtils {
                         writer.setOutput(ios);
                         writer.prepareWriteSequence(null);
 
-                        for (int i = 0; i < pageCount; ++i) {
-                            BufferedImage image = pdfRenderer.renderImageWithDPI(i, DPI, colorType);
-                            writer.writeToSequence(new IIOImage(image, null, null), param);
-                        }
+                        pageRenderService.render(
+                                document,
+                                renderSettings,
+                                (pageIndex, image) ->
+                                        writer.writeToSequence(
+                                                new IIOImage(image, null, null), param));
 
                         writer.endWriteSequence();
                     }
@@ -169,92 +174,65 @@ public class PdfUtils {
                 } else {
                     // Combine all images into a single big image
 
-                    // Calculate the combined image dimensions
+                    // Calculate the combined image dimensions, without rendering the pages
+                    List<Dimension> pageSizes = new ArrayList<>(pageCount);
                     int maxWidth = 0;
                     int totalHeight = 0;
-
-                    BufferedImage pdfSizeImage = null;
-                    int pdfSizeImageIndex = -1;
-
-                    // Using a map to store the rendered dimensions of each page size
-                    // to avoid rendering the same page sizes multiple times
-                    HashMap<PdfRenderSettingsKey, PdfImageDimensionValue> pageSizes =
-                            new HashMap<>();
                     for (int i = 0; i < pageCount; ++i) {
-                        PDPage page = document.getPage(i);
-                        PDRectangle mediaBox = page.getMediaBox();
-                        int rotation = page.getRotation();
-                        PdfRenderSettingsKey settings =
-                                new PdfRenderSettingsKey(
-                                        mediaBox.getWidth(), mediaBox.getHeight(), rotation);
-                        PdfImageDimensionValue dimension = pageSizes.get(settings);
-                        if (dimension == null) {
-                            // Render the image to get the dimensions
-                            pdfSizeImage = pdfRenderer.renderImageWithDPI(i, DPI, colorType);
-                            pdfSizeImageIndex = i;
-                            dimension =
-                                    new PdfImageDimensionValue(
-                                            pdfSizeImage.getWidth(), pdfSizeImage.getHeight());
-                            pageSizes.put(settings, dimension);
-                            if (pdfSizeImage.getWidth() > maxWidth) {
-                                maxWidth = pdfSizeImage.getWidth();
-                            }
-                        }
-                        totalHeight += dimension.height();
+                        Dimension size = PageRenderService.renderedSize(document.getPage(i), DPI);
+                        pageSizes.add(size);
+                        maxWidth = Math.max(maxWidth, size.width);
+                        totalHeight += size.height;
                     }
 
-                    // Create a new BufferedImage to store the combined images
-                    BufferedImage combined =
-                            prepareImageForPdfToImage(maxWidth, totalHeight, imageType);
-                    Graphics g = combined.getGraphics();
-
-                    int currentHeight = 0;
-                    BufferedImage pageImage;
-
-                    // Check if the first image is the last rendered image
-                    boolean firstImageAlreadyRendered = pdfSizeImageIndex == 0;
-
-                    for (int i = 0; i < pageCount; ++i) {
-                        if (firstImageAlreadyRendered && i == 0) {
-                            pageImage = pdfSizeImage;
-                        } else {
-                            pageImage = pdfRenderer.renderImageWithDPI(i, DPI, colorType);
+                    if ("png".equalsIgnoreCase(imageType)) {
+                        // The PNG writer asks for the rows from top to bottom, so only the page
+                        // that is being encoded has to be in memory, not the whole tall image
+                        try (RenderedPages<BufferedImage> pages =
+                                pageRenderService.open(
+                                        document,
+                                        PageRenderService.allPages(document),
+                                        renderSettings,
+                                        (pageIndex, image) -> image)) {
+                            StackedPagesImage combined =
+                                    new StackedPagesImage(
+                                            pages, pageSizes, BufferedImage.TYPE_INT_ARGB, null);
+                            ImageIO.write(combined, imageType, baos);
+                        } catch (UncheckedIOException e) {
+                            throw e.getCause();
                         }
-
-                        // Calculate the x-coordinate to center the image
-                        int x = (maxWidth - pageImage.getWidth()) / 2;
-
-                        g.drawImage(pageImage, x, currentHeight, null);
-                        currentHeight += pageImage.getHeight();
+                    } else {
+                        // Create a new BufferedImage to store the combined images
+                        BufferedImage combined =
+                                prepareImageForPdfToImage(maxWidth, totalHeight, imageType);
+                        Graphics g = combined.getGraphics();
+
+                        int[] currentHeight = {0};
+                        int combinedWidth = maxWidth;
+                        pageRenderService.render(
+                                document,
+                                renderSettings,
+                                (pageIndex, pageImage) -> {
+                                    // Calculate the x-coordinate to center the image
+                                    int x = (combinedWidth - pageImage.getWidth()) / 2;
+
+                                    g.drawImage(pageImage, x, currentHeight[0], null);
+                                    currentHeight[0] += pageImage.getHeight();
+                                });
+
+                        // Write the image to the output stream
+                        ImageIO.write(combined, imageType, baos);
                     }
-
-                    // Write the image to the output stream
-                    ImageIO.write(combined, imageType, baos);
                 }
 
                 // Log that the image was successfully written to the byte array
                 log.info("Image successfully written to byte array");
             } else {
                 // Zip the images and return as byte array
-                try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-                    for (int i = 0; i < pageCount; ++i) {
-                        BufferedImage image = pdfRenderer.renderImageWithDPI(i, DPI, colorType);
-                        try (ByteArrayOutputStream baosImage = new ByteArrayOutputStream()) {
-                            ImageIO.write(image, imageType, baosImage);
-
-                            // Add the image to the zip file
-                            zos.putNextEntry(
-                                    new ZipEntry(
-                                            String.format(
-                                                    filename + "_%d.%s",
-                                                    i + 1,
-                                                    imageType.toLowerCase())));
-                            zos.write(baosImage.toByteArray());
-                        }
-                    }
-                    // Log that the images were successfully written to the byte array
-                    log.info("Images successfully written to byte array as a zip");
-                }
+                writeImagesToZip(
+                        pageRenderService, document, imageType, colorType, DPI, filename, baos);
+                // Log that the images were successfully written to the byte array
+                log.info("Images successfully written to byte array as a zip");
             }
             return baos.toByteArray();
         } catch (IOException e) {
@@ -264,31 +242,98 @@ public class PdfUtils {
         }
     }
 
+    /**
+     * Render every page into a ZIP with one image per page. The images are encoded on the render
+     * threads and each one is written to {@code output} as soon as it is its turn, so only a few
+     * pages are held in memory however long the document is.
+     */
+    public static void convertFromPdfToZip(
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            PageRenderService pageRenderService,
+            byte[] inputStream,
+            String imageType,
+            ImageType colorType,
+            int DPI,
+            String filename,
+            OutputStream output)
+            throws IOException {
+        try (PDDocument document = pdfDocumentFactory.load(inputStream)) {
+            writeImagesToZip(
+                    pageRenderService, document, imageType, colorType, DPI, filename, output);
+            log.info("Images successfully written as a zip");
+        } catch (IOException e) {
+            log.error("Error converting PDF to image", e);
+            throw e;
+        }
+    }
+
+    private static void writeImagesToZip(
+            PageRenderService pageRenderService,
+            PDDocument document,
+            String imageType,
+            ImageType colorType,
+            int DPI,
+            String filename,
+            OutputStream output)
+            throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(output)) {
+            // The render threads encode the images, entries are written in page order
+            pageRenderService.render(
+                    document,
+                    PageRenderService.allPages(document),
+                    RenderSettings.of(DPI, colorType).withSubsampling(),
+                    (pageIndex, image) -> {
+                        ByteArrayOutputStream baosImage = new ByteArrayOutputStream();
+                        ImageIO.write(image, imageType, baosImage);
+                        return baosImage.toByteArray();
+                    },
+                    (pageIndex, imageBytes) -> {
+                        // Add the image to the zip file
+                        zos.putNextEntry(
+                                new ZipEntry(
+                                        String.format(
+                                                filename + "_%d.%s",
+                                                pageIndex + 1,
+                                                imageType.toLowerCase())));
+                        zos.write(imageBytes);
+                    });
+        }
+    }
+
     /**
      * Converts a given Pdf file to PDF-Image.
      *
+     * @param pageRenderService renders the pages
      * @param document to be converted. Note: the caller is responsible for closing the document
      * @return converted document to PDF-Image
      * @throws IOException if conversion fails
      */
-    public static PDDocument convertPdfToPdfImage(PDDocument document) throws IOException {
+    public static PDDocument convertPdfToPdfImage(
+            PageRenderService pageRenderService, PDDocument document) throws IOException {
         PDDocument imageDocument = new PDDocument();
-        PDFRenderer pdfRenderer = new PDFRenderer(document);
-        pdfRenderer.setSubsamplingAllowed(true);
-        for (int page = 0; page < document.getNumberOfPages(); ++page) {
-            BufferedImage bim = pdfRenderer.renderImageWithDPI(page, 300, ImageType.RGB);
-            PDPage originalPage = document.getPage(page);
-
-            float width = originalPage.getMediaBox().getWidth();
-            float height = originalPage.getMediaBox().getHeight();
-
-            PDPage newPage = new PDPage(new PDRectangle(width, height));
-            imageDocument.addPage(newPage);
-            PDImageXObject pdImage = LosslessFactory.createFromImage(imageDocument, bim);
-            PDPageContentStream contentStream =
-                    new PDPageContentStream(imageDocument, newPage, AppendMode.APPEND, true, true);
-            contentStream.drawImage(pdImage, 0, 0, width, height);
-            contentStream.close();
+        try {
+            pageRenderService.render(
+                    document,
+                    RenderSettings.of(300, ImageType.RGB).withSubsampling(),
+                    (page, bim) -> {
+                        PDPage originalPage = document.getPage(page);
+
+                        float width = originalPage.getMediaBox().getWidth();
+                        float height = originalPage.getMediaBox().getHeight();
+
+                        PDPage newPage = new PDPage(new PDRectangle(width, height));
+                        imageDocument.addPage(newPage);
+                        PDImageXObject pdImage =
+                                LosslessFactory.createFromImage(imageDocument, bim);
+                        PDPageContentStream contentStream =
+                                new PDPageContentStream(
+                                        imageDocument, newPage, AppendMode.APPEND, true, true);
+                        contentStream.drawImage(pdImage, 0, 0, width, height);
+                        contentStream.close();
+                    });
+        } catch (IOException | RuntimeException e) {
+            imageDocument.close();
+            throw e;
         }
         return imageDocument;
     }
@@ -348,7 +393,7 @@ public class PdfUtils {
                 }
             }
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            doc.save(byteArrayOutputStream);
+            pdfDocumentFactory.save(doc, byteArrayOutputStream);
             log.info("PDF successfully saved to byte array");
             return byteArrayOutputStream.toByteArray();
         }
@@ -438,7 +483,7 @@ public class PdfUtils {
         }
         // Create a ByteArrayOutputStream to save the PDF to
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
+        pdfDocumentFactory.save(document, baos);
         log.info("PDF successfully saved to byte array");
         return baos.toByteArray();
     }
@@ -518,10 +563,4 @@ public class PdfUtils {
         // Checks if the actual page size matches the expected page size
         return actualPageWidth == expectedPageWidth && actualPageHeight == expectedPageHeight;
     }
-
-    /** Key for storing the dimensions of a rendered image in a map. */
-    private record PdfRenderSettingsKey(float mediaBoxWidth, float mediaBoxHeight, int rotation) {}
-
-    /** Value for storing the dimensions of a rendered image in a map. */
-    private record PdfImageDimensionValue(int width, int height) {}
 }
@@ -0,0 +1,179 @@
+package stirling.software.SPDF.utils;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+
+/**
+ * Pixel statistics of rendered pages that read the raster arrays directly instead of calling {@link
+ * BufferedImage#getRGB(int, int)}, which converts every pixel through the color model. Pages
+ * rendered with {@code ImageType.GRAY} are read without any conversion, packed RGB pages are
+ * converted to luminance with integer math. Other image types fall back to reading whole rows with
+ * getRGB.
+ */
+public class PixelAnalysisUtils {
+
+    /**
+     * Whether at least whitePercent of the pixels have a luminance of 255 - threshold or more. The
+     * scan stops as soon as the answer is known: when enough white pixels were seen, or when so
+     * many dark ones were that the percentage can no longer be reached.
+     */
+    public static boolean isMostlyWhite(BufferedImage image, int threshold, double whitePercent) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long total = (long) width * height;
+        long required = (long) Math.ceil(total * whitePercent / 100);
+        long allowedDark = total - required;
+        int minLuminance = 255 - threshold;
+
+        byte[] gray = packedGray(image);
+        int[] rgb = gray == null ? packedRgb(image) : null;
+        int[] row = gray == null ? new int[width] : null;
+        long white = 0;
+        long dark = 0;
+        for (int y = 0; y < height; y++) {
+            int rowWhite = 0;
+            if (gray != null) {
+                int offset = y * width;
+                for (int x = 0; x < width; x++) {
+                    if ((gray[offset + x] & 0xFF) >= minLuminance) {
+                        rowWhite++;
+                    }
+                }
+            } else {
+                readLuminanceRow(image, rgb, y, row);
+                for (int x = 0; x < width; x++) {
+                    if (row[x] >= minLuminance) {
+                        rowWhite++;
+                    }
+                }
+            }
+            white += rowWhite;
+            dark += width - rowWhite;
+            if (white >= required) {
+                return true;
+            }
+            if (dark > allowedDark) {
+                return false;
+            }
+        }
+        return white >= required;
+    }
+
+    /**
+     * Luminance of every pixel, row by row. Gray images return their own raster array, which must
+     * not be changed.
+     */
+    public static byte[] luminance(BufferedImage image) {
+        byte[] gray = packedGray(image);
+        if (gray != null) {
+            return gray;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] luminance = new byte[width * height];
+        int[] rgb = packedRgb(image);
+        if (rgb != null) {
+            for (int i = 0; i < luminance.length; i++) {
+                luminance[i] = (byte) luminance(rgb[i]);
+            }
+            return luminance;
+        }
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            readLuminanceRow(image, null, y, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                luminance[offset + x] = (byte) row[x];
+            }
+        }
+        return luminance;
+    }
+
+    /** A ZXing source over the whole image */
+    public static LuminanceSource luminanceSource(BufferedImage image) {
+        return luminanceSource(image, new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    }
+
+    /**
+     * A ZXing source over a region of the image, e.g. the corner a QR code is printed in. Gray
+     * images are not copied.
+     */
+    public static LuminanceSource luminanceSource(BufferedImage image, Rectangle region) {
+        Rectangle bounds = region.intersection(new Rectangle(image.getWidth(), image.getHeight()));
+        return new PlanarYUVLuminanceSource(
+                luminance(image),
+                image.getWidth(),
+                image.getHeight(),
+                bounds.x,
+                bounds.y,
+                bounds.width,
+                bounds.height,
+                false);
+    }
+
+    /** Luminance of one row, from the packed RGB pixels when there are any */
+    private static void readLuminanceRow(BufferedImage image, int[] packed, int y, int[] row) {
+        int width = image.getWidth();
+        if (packed != null) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                row[x] = luminance(packed[offset + x]);
+            }
+        } else {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                row[x] = luminance(row[x]);
+            }
+        }
+    }
+
+    /** Same weights as ZXing uses for RGB images */
+    private static int luminance(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return (306 * r + 601 * g + 117 * b + 0x200) >> 10;
+    }
+
+    /** The pixels of a gray image whose raster is one byte per pixel without padding */
+    private static byte[] packedGray(BufferedImage image) {
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                && isUntranslated(raster)
+                && raster.getDataBuffer() instanceof DataBufferByte buffer
+                && buffer.getOffset() == 0
+                && raster.getSampleModel() instanceof ComponentSampleModel sampleModel
+                && sampleModel.getScanlineStride() == image.getWidth()) {
+            return buffer.getData();
+        }
+        return null;
+    }
+
+    /** The pixels of an RGB image whose raster is one int per pixel without padding */
+    private static int[] packedRgb(BufferedImage image) {
+        WritableRaster raster = image.getRaster();
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && isUntranslated(raster)
+                && raster.getDataBuffer() instanceof DataBufferInt buffer
+                && buffer.getOffset() == 0
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel
+                && sampleModel.getScanlineStride() == image.getWidth()) {
+            return buffer.getData();
+        }
+        return null;
+    }
+
+    // Subimages share the array of their parent at an offset
+    private static boolean isUntranslated(WritableRaster raster) {
+        return raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+    }
+}
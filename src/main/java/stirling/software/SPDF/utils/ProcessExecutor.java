@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import io.github.pixee.security.BoundedLineReader;
@@ -18,12 +19,15 @@ import io.github.pixee.security.BoundedLineReader;
 import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.RequestCancelledException;
 
 @Slf4j
 public class ProcessExecutor {
 
     private static final Map<Processes, ProcessExecutor> instances = new ConcurrentHashMap<>();
     private static ApplicationProperties applicationProperties = new ApplicationProperties();
+    // Threads that drain stdout and stderr of the running processes, see VirtualThreadsConfig
+    private static volatile ThreadFactory readerThreadFactory = Thread::new;
     private final Semaphore semaphore;
     private final boolean liveUpdates;
     private long timeoutDuration;
@@ -34,6 +38,10 @@ public class ProcessExecutor {
         this.timeoutDuration = timeout;
     }
 
+    public static void setReaderThreadFactory(ThreadFactory threadFactory) {
+        readerThreadFactory = threadFactory;
+    }
+
     public static ProcessExecutor getInstance(Processes processType) {
         return getInstance(processType, true);
     }
@@ -142,8 +150,12 @@ public class ProcessExecutor {
             List<String> command, File workingDirectory) throws IOException, InterruptedException {
         String messages = "";
         int exitCode = 1;
+        CancellationToken cancellationToken = CancellationToken.current();
+        cancellationToken.throwIfCancelled();
         semaphore.acquire();
+        CancellationToken.Registration cancellation = () -> {};
         try {
+            cancellationToken.throwIfCancelled();
 
             log.info("Running command: " + String.join(" ", command));
             ProcessBuilder processBuilder = new ProcessBuilder(command);
@@ -153,13 +165,21 @@ public class ProcessExecutor {
                 processBuilder.directory(workingDirectory);
             }
             Process process = processBuilder.start();
+            cancellation =
+                    cancellationToken.onCancel(
+                            () -> {
+                                log.info("Client disconnected, killing {}", command.get(0));
+                                // Counted first, the caller may see the process die right away
+                                cancellationToken.recordKilledProcess();
+                                destroyProcessTree(process);
+                            });
 
             // Read the error stream and standard output stream concurrently
             List<String> errorLines = new ArrayList<>();
             List<String> outputLines = new ArrayList<>();
 
             Thread errorReaderThread =
-                    new Thread(
+                    readerThreadFactory.newThread(
                             () -> {
                                 try (BufferedReader errorReader =
                                         new BufferedReader(
@@ -182,7 +202,7 @@ public class ProcessExecutor {
                             });
 
             Thread outputReaderThread =
-                    new Thread(
+                    readerThreadFactory.newThread(
                             () -> {
                                 try (BufferedReader outputReader =
                                         new BufferedReader(
@@ -211,8 +231,8 @@ public class ProcessExecutor {
             boolean finished = process.waitFor(timeoutDuration, TimeUnit.MINUTES);
 
             if (!finished) {
-                // Terminate the process
-                process.destroy();
+                // Terminate the process and anything it started
+                destroyProcessTree(process);
                 // Interrupt the reader threads
                 errorReaderThread.interrupt();
                 outputReaderThread.interrupt();
@@ -222,6 +242,9 @@ public class ProcessExecutor {
             // Wait for the reader threads to finish
             errorReaderThread.join();
             outputReaderThread.join();
+            if (cancellationToken.isCancelled()) {
+                throw new RequestCancelledException();
+            }
 
             boolean isQpdf =
                     command != null && !command.isEmpty() && command.get(0).contains("qpdf");
@@ -265,11 +288,18 @@ public class ProcessExecutor {
                 }
             }
         } finally {
+            cancellation.close();
             semaphore.release();
         }
         return new ProcessExecutorResult(exitCode, messages);
     }
 
+    // LibreOffice and ocrmypdf hand the work to child processes that outlive a plain destroy()
+    private static void destroyProcessTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
     public enum Processes {
         LIBRE_OFFICE,
         PDFTOHTML,
@@ -0,0 +1,229 @@
+package stirling.software.SPDF.utils;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Vector;
+
+import stirling.software.SPDF.service.PageRenderService.RenderedPages;
+
+/**
+ * The pages of a document stacked on top of each other and centered, as one tall image. Only the
+ * page that holds the requested rows is kept in memory, so rows have to be read from top to bottom,
+ * the way image writers like the PNG writer encode them. Each tile is one row.
+ */
+public class StackedPagesImage implements RenderedImage {
+
+    private final RenderedPages<BufferedImage> pages;
+    private final List<Dimension> pageSizes;
+    private final int imageType;
+    private final Color background;
+    private final int width;
+    private final int height;
+    private final ColorModel colorModel;
+    private final SampleModel rowSampleModel;
+
+    private BufferedImage strip;
+    private int pageNumber = -1;
+    private int stripTop;
+
+    /**
+     * @param pages the rendered pages, in order
+     * @param pageSizes the size of every page, known before they are rendered
+     * @param imageType the BufferedImage type of the combined image
+     * @param background fills the space next to narrower pages, null to leave it transparent
+     */
+    public StackedPagesImage(
+            RenderedPages<BufferedImage> pages,
+            List<Dimension> pageSizes,
+            int imageType,
+            Color background) {
+        this.pages = pages;
+        this.pageSizes = pageSizes;
+        this.imageType = imageType;
+        this.background = background;
+        this.width = pageSizes.stream().mapToInt(size -> size.width).max().orElse(1);
+        this.height = pageSizes.stream().mapToInt(size -> size.height).sum();
+        BufferedImage prototype = new BufferedImage(1, 1, imageType);
+        this.colorModel = prototype.getColorModel();
+        this.rowSampleModel = prototype.getSampleModel().createCompatibleSampleModel(width, 1);
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        Rectangle bounds = rect.intersection(new Rectangle(0, 0, width, height));
+        WritableRaster raster =
+                Raster.createWritableRaster(
+                        rowSampleModel.createCompatibleSampleModel(bounds.width, bounds.height),
+                        new Point(bounds.x, bounds.y));
+        int row = bounds.y;
+        while (row < bounds.y + bounds.height) {
+            moveTo(row);
+            int rows = Math.min(bounds.y + bounds.height, stripTop + strip.getHeight()) - row;
+            raster.setRect(
+                    strip.getRaster()
+                            .createChild(
+                                    bounds.x,
+                                    row - stripTop,
+                                    bounds.width,
+                                    rows,
+                                    bounds.x,
+                                    row,
+                                    null));
+            row += rows;
+        }
+        return raster;
+    }
+
+    /** Make the page that holds the row the current strip */
+    private void moveTo(int row) {
+        if (strip != null && row < stripTop) {
+            throw new IllegalStateException("Rows have to be read from top to bottom");
+        }
+        while (strip == null || row >= stripTop + strip.getHeight()) {
+            if (strip != null) {
+                stripTop += strip.getHeight();
+            }
+            pageNumber++;
+            strip = nextStrip(pageSizes.get(pageNumber).height);
+        }
+    }
+
+    private BufferedImage nextStrip(int stripHeight) {
+        BufferedImage page;
+        try {
+            page = pages.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        BufferedImage next = new BufferedImage(width, stripHeight, imageType);
+        Graphics2D g = next.createGraphics();
+        try {
+            if (background != null) {
+                g.setColor(background);
+                g.fillRect(0, 0, width, stripHeight);
+            }
+            // Calculate the x-coordinate to center the image
+            g.drawImage(page, (width - page.getWidth()) / 2, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return next;
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, width, height));
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        if (raster == null) {
+            return (WritableRaster) getData();
+        }
+        raster.setRect(getData(raster.getBounds()));
+        return raster;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        return getData(new Rectangle(0, tileY, width, 1));
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return rowSampleModel;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return height;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return width;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return 1;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+}
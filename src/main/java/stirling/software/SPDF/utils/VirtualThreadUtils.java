@@ -0,0 +1,58 @@
+package stirling.software.SPDF.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Access to virtual threads from code compiled for Java 17. Everything goes through reflection, so
+ * on older runtimes {@link #isSupported()} is false and callers keep using platform threads.
+ */
+@Slf4j
+public class VirtualThreadUtils {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available on Java {}", Runtime.version());
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Factory for virtual threads named prefix0, prefix1, ...
+     *
+     * @throws UnsupportedOperationException when the runtime has no virtual threads
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads require Java 21, running on " + Runtime.version());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed to create virtual thread factory", e);
+        }
+    }
+}
@@ -2,10 +2,17 @@ package stirling.software.SPDF.utils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,8 +21,13 @@ import org.springframework.web.multipart.MultipartFile;
 
 import io.github.pixee.security.Filenames;
 
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+
 public class WebResponseUtils {
 
+    // Saved documents up to this size are sent from memory, larger ones from a temp file
+    private static final int IN_MEMORY_RESPONSE_THRESHOLD = 10 * 1024 * 1024; // 10 MB
+
     public static ResponseEntity<byte[]> boasToWebResponse(
             ByteArrayOutputStream baos, String docName) throws IOException {
         return WebResponseUtils.bytesToWebResponse(baos.toByteArray(), docName);
@@ -55,15 +67,88 @@ public class WebResponseUtils {
         return bytesToWebResponse(bytes, docName, MediaType.APPLICATION_PDF);
     }
 
-    public static ResponseEntity<byte[]> pdfDocToWebResponse(PDDocument document, String docName)
+    /** Writes a document to the response, e.g. as a full or an incremental save */
+    @FunctionalInterface
+    public interface DocumentWriter {
+        void write(PDDocument document, OutputStream output) throws IOException;
+    }
+
+    /**
+     * Save the document and stream it back without holding a second copy in memory. Small outputs
+     * are buffered in memory, larger ones spill into a temp file of the request's scratch
+     * directory, which is removed after the response has been written. The document is closed in
+     * both cases and written with the output profile of the given factory.
+     */
+    public static ResponseEntity<Resource> pdfDocToWebResponse(
+            PDDocument document, String docName, CustomPDFDocumentFactory pdfDocumentFactory)
             throws IOException {
+        return pdfDocToWebResponse(document, docName, pdfDocumentFactory, pdfDocumentFactory::save);
+    }
+
+    /**
+     * Like {@link #pdfDocToWebResponse(PDDocument, String, CustomPDFDocumentFactory)} with a custom
+     * save step
+     */
+    public static ResponseEntity<Resource> pdfDocToWebResponse(
+            PDDocument document,
+            String docName,
+            CustomPDFDocumentFactory pdfDocumentFactory,
+            DocumentWriter writer)
+            throws IOException {
+        Path spill;
+        try {
+            spill = pdfDocumentFactory.createTempFile("response-");
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+        DeferredFileOutputStream output =
+                DeferredFileOutputStream.builder()
+                        .setThreshold(IN_MEMORY_RESPONSE_THRESHOLD)
+                        .setOutputFile(spill.toFile())
+                        .get();
+        try (document;
+                output) {
+            writer.write(document, output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spill);
+            throw e;
+        }
+
+        if (output.isInMemory()) {
+            Files.deleteIfExists(spill);
+            byte[] bytes = output.getData();
+            return new ResponseEntity<>(
+                    new ByteArrayResource(bytes),
+                    attachmentHeaders(docName, MediaType.APPLICATION_PDF, bytes.length),
+                    HttpStatus.OK);
+        }
+        return fileToWebResponse(spill, docName, MediaType.APPLICATION_PDF);
+    }
 
-        // Open Byte Array and save document to it
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        // Close the document
-        document.close();
+    /**
+     * Stream a temp file as the response body, Content-Length is taken from the file size. The file
+     * has to come from the TempFileManager, it is removed with the request's scratch directory
+     * after the response has been written; outside of a request the caller deletes it once the body
+     * has been read.
+     */
+    public static ResponseEntity<Resource> fileToWebResponse(
+            Path file, String docName, MediaType mediaType) throws IOException {
+        return new ResponseEntity<>(
+                new FileSystemResource(file),
+                attachmentHeaders(docName, mediaType, Files.size(file)),
+                HttpStatus.OK);
+    }
 
-        return boasToWebResponse(baos, docName);
+    private static HttpHeaders attachmentHeaders(
+            String docName, MediaType mediaType, long contentLength) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setContentLength(contentLength);
+        String encodedDocName =
+                URLEncoder.encode(docName, StandardCharsets.UTF_8.toString())
+                        .replaceAll("\\+", "%20");
+        headers.setContentDispositionFormData("attachment", encodedDocName);
+        return headers;
     }
 }
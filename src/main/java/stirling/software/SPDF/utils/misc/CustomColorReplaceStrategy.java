@@ -5,7 +5,6 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.List;
 import java.util.Set;
 
@@ -26,6 +25,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import stirling.software.SPDF.model.api.misc.HighContrastColorCombination;
 import stirling.software.SPDF.model.api.misc.ReplaceAndInvert;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 
 @Slf4j
 public class CustomColorReplaceStrategy extends ReplaceAndInvertColorStrategy {
@@ -33,14 +34,20 @@ public class CustomColorReplaceStrategy extends ReplaceAndInvertColorStrategy {
     private String textColor;
     private String backgroundColor;
     private HighContrastColorCombination highContrastColorCombination;
+    private final TempFileManager tempFileManager;
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
 
     public CustomColorReplaceStrategy(
             MultipartFile file,
             ReplaceAndInvert replaceAndInvert,
             String textColor,
             String backgroundColor,
-            HighContrastColorCombination highContrastColorCombination) {
+            HighContrastColorCombination highContrastColorCombination,
+            TempFileManager tempFileManager,
+            CustomPDFDocumentFactory pdfDocumentFactory) {
         super(file, replaceAndInvert);
+        this.tempFileManager = tempFileManager;
+        this.pdfDocumentFactory = pdfDocumentFactory;
         this.textColor = textColor;
         this.backgroundColor = backgroundColor;
         this.highContrastColorCombination = highContrastColorCombination;
@@ -60,7 +67,10 @@ public class CustomColorReplaceStrategy extends ReplaceAndInvertColorStrategy {
         }
 
         // Create a temporary file, with the original filename from the multipart file
-        File file = Files.createTempFile("temp", getFileInput().getOriginalFilename()).toFile();
+        File file =
+                tempFileManager
+                        .createTempFile("temp", getFileInput().getOriginalFilename())
+                        .toFile();
 
         // Transfer the content of the multipart file to the file
         getFileInput().transferTo(file);
@@ -139,7 +149,7 @@ public class CustomColorReplaceStrategy extends ReplaceAndInvertColorStrategy {
             }
             // Save the modified PDF to a ByteArrayOutputStream
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            document.save(byteArrayOutputStream);
+            pdfDocumentFactory.save(document, byteArrayOutputStream);
             document.close();
 
             // Prepare the modified PDF for download
@@ -15,16 +15,32 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
-import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.ImageType;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.web.multipart.MultipartFile;
 
 import stirling.software.SPDF.model.api.misc.ReplaceAndInvert;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+import stirling.software.SPDF.service.TempFileManager;
 
 public class InvertFullColorStrategy extends ReplaceAndInvertColorStrategy {
 
-    public InvertFullColorStrategy(MultipartFile file, ReplaceAndInvert replaceAndInvert) {
+    private final TempFileManager tempFileManager;
+    private final PageRenderService pageRenderService;
+    private final CustomPDFDocumentFactory pdfDocumentFactory;
+
+    public InvertFullColorStrategy(
+            MultipartFile file,
+            ReplaceAndInvert replaceAndInvert,
+            TempFileManager tempFileManager,
+            PageRenderService pageRenderService,
+            CustomPDFDocumentFactory pdfDocumentFactory) {
         super(file, replaceAndInvert);
+        this.tempFileManager = tempFileManager;
+        this.pageRenderService = pageRenderService;
+        this.pdfDocumentFactory = pdfDocumentFactory;
     }
 
     @Override
@@ -33,7 +49,10 @@ public class InvertFullColorStrategy extends ReplaceAndInvertColorStrategy {
         File file = null;
         try {
             // Create a temporary file, with the original filename from the multipart file
-            file = Files.createTempFile("temp", getFileInput().getOriginalFilename()).toFile();
+            file =
+                    tempFileManager
+                            .createTempFile("temp", getFileInput().getOriginalFilename())
+                            .toFile();
 
             // Transfer the content of the multipart file to the file
             getFileInput().transferTo(file);
@@ -41,46 +60,46 @@ public class InvertFullColorStrategy extends ReplaceAndInvertColorStrategy {
             // Load the uploaded PDF
             PDDocument document = Loader.loadPDF(file);
 
-            // Render each page and invert colors
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            for (int page = 0; page < document.getNumberOfPages(); page++) {
-                BufferedImage image =
-                        pdfRenderer.renderImageWithDPI(page, 300); // Render page at 300 DPI
-
-                // Invert the colors
-                invertImageColors(image);
-
-                // Create a new PDPage from the inverted image
-                PDPage pdPage = document.getPage(page);
-                File tempImageFile = null;
-                try {
-                    tempImageFile = convertToBufferedImageTpFile(image);
-                    PDImageXObject pdImage =
-                            PDImageXObject.createFromFileByContent(tempImageFile, document);
-
-                    PDPageContentStream contentStream =
-                            new PDPageContentStream(
-                                    document,
-                                    pdPage,
-                                    PDPageContentStream.AppendMode.OVERWRITE,
-                                    true);
-                    contentStream.drawImage(
-                            pdImage,
-                            0,
-                            0,
-                            pdPage.getMediaBox().getWidth(),
-                            pdPage.getMediaBox().getHeight());
-                    contentStream.close();
-                } finally {
-                    if (tempImageFile != null && tempImageFile.exists()) {
-                        Files.delete(tempImageFile.toPath());
-                    }
-                }
-            }
+            // Render each page and invert colors, the render threads do the inversion
+            pageRenderService.render(
+                    document,
+                    PageRenderService.allPages(document),
+                    RenderSettings.of(300, ImageType.RGB), // Render page at 300 DPI
+                    (page, image) -> {
+                        // Invert the colors
+                        invertImageColors(image);
+                        return convertToBufferedImageTpFile(image);
+                    },
+                    (page, tempImageFile) -> {
+                        // Create a new PDPage from the inverted image
+                        PDPage pdPage = document.getPage(page);
+                        try {
+                            PDImageXObject pdImage =
+                                    PDImageXObject.createFromFileByContent(tempImageFile, document);
+
+                            PDPageContentStream contentStream =
+                                    new PDPageContentStream(
+                                            document,
+                                            pdPage,
+                                            PDPageContentStream.AppendMode.OVERWRITE,
+                                            true);
+                            contentStream.drawImage(
+                                    pdImage,
+                                    0,
+                                    0,
+                                    pdPage.getMediaBox().getWidth(),
+                                    pdPage.getMediaBox().getHeight());
+                            contentStream.close();
+                        } finally {
+                            if (tempImageFile.exists()) {
+                                Files.delete(tempImageFile.toPath());
+                            }
+                        }
+                    });
 
             // Save the modified PDF to a ByteArrayOutputStream
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            document.save(byteArrayOutputStream);
+            pdfDocumentFactory.save(document, byteArrayOutputStream);
             document.close();
 
             // Prepare the modified PDF for download
@@ -115,7 +134,7 @@ public class InvertFullColorStrategy extends ReplaceAndInvertColorStrategy {
 
     // Helper method to convert BufferedImage to InputStream
     private File convertToBufferedImageTpFile(BufferedImage image) throws IOException {
-        File file = File.createTempFile("image", ".png");
+        File file = tempFileManager.createTempFile("image", ".png").toFile();
         ImageIO.write(image, "png", file);
         return file;
     }
@@ -299,7 +299,19 @@ class PdfContainer {
       div.id = 'page-container-' + (i + 1);
       var img = document.createElement('img');
       img.classList.add('page-image');
+      if (renderer.lazy) {
+        // Only the thumbnails scrolled into view are fetched
+        img.loading = 'lazy';
+      }
       const imageSrc = await renderer.renderPage(i);
+      if (renderer.renderFallback) {
+        // The server may have evicted the document, the page is then rendered in the browser
+        const pageIdx = i;
+        img.onerror = async () => {
+          img.onerror = null;
+          img.src = await renderer.renderFallback(pageIdx);
+        };
+      }
       img.src = imageSrc;
       img.pageIdx = i;
       img.rend = renderer;
@@ -346,10 +358,42 @@ class PdfContainer {
   async loadFile(file) {
     var objectUrl = URL.createObjectURL(file);
     var pdfDocument = await this.toPdfLib(objectUrl);
-    var renderer = await this.toRenderer(objectUrl);
+    var renderer = (await this.toServerRenderer(file)) || (await this.toRenderer(objectUrl));
     return { renderer, pdfDocument };
   }
 
+  // Thumbnails rendered and cached by the server, null when the server does not offer them
+  async toServerRenderer(file) {
+    try {
+      const formData = new FormData();
+      formData.append('fileInput', file);
+      const response = await window.fetchWithCsrf('api/v1/thumbnails', { method: 'POST', body: formData });
+      if (!response.ok) {
+        return null;
+      }
+      const { documentId, pageCount } = await response.json();
+      // pdf.js renderer of the document, created when the first thumbnail fails to load
+      let fallback = null;
+      return {
+        lazy: true,
+        pageCount: pageCount,
+        renderPage: async function (pageIdx) {
+          if (fallback) {
+            return (await fallback).renderPage(pageIdx);
+          }
+          return `api/v1/thumbnails/${documentId}/${pageIdx}`;
+        },
+        renderFallback: async (pageIdx) => {
+          fallback ??= this.toRenderer(URL.createObjectURL(file));
+          return (await fallback).renderPage(pageIdx);
+        },
+      };
+    } catch (error) {
+      console.warn('Server thumbnails unavailable, rendering in the browser', error);
+      return null;
+    }
+  }
+
   async toRenderer(objectUrl) {
     pdfjsLib.GlobalWorkerOptions.workerSrc = './pdfjs-legacy/pdf.worker.mjs';
     const pdf = await pdfjsLib.getDocument(objectUrl).promise;
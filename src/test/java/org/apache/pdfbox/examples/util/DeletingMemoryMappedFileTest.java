@@ -0,0 +1,105 @@
+package org.apache.pdfbox.examples.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.pdfbox.io.RandomAccessReadView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DeletingMemoryMappedFileTest {
+
+    private static final int SEGMENT_SIZE = 1000;
+
+    @TempDir Path tempDir;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        content = new byte[4500];
+        new Random(42).nextBytes(content);
+        file = tempDir.resolve("mapped.pdf");
+        Files.write(file, content);
+    }
+
+    @Test
+    public void testReadAcrossSegments() throws IOException {
+        try (DeletingMemoryMappedFile mapped =
+                new DeletingMemoryMappedFile(file.toFile(), SEGMENT_SIZE)) {
+            assertEquals(content.length, mapped.length());
+
+            mapped.seek(950);
+            byte[] buffer = new byte[2100];
+            assertEquals(2100, mapped.read(buffer, 0, buffer.length));
+            assertArrayEquals(Arrays.copyOfRange(content, 950, 3050), buffer);
+            assertEquals(3050, mapped.getPosition());
+
+            assertEquals(content[3050] & 0xff, mapped.read());
+        }
+    }
+
+    @Test
+    public void testReadAtEndOfFile() throws IOException {
+        try (DeletingMemoryMappedFile mapped =
+                new DeletingMemoryMappedFile(file.toFile(), SEGMENT_SIZE)) {
+            mapped.seek(content.length - 10);
+            byte[] buffer = new byte[50];
+            assertEquals(10, mapped.read(buffer, 0, buffer.length));
+            assertTrue(mapped.isEOF());
+            assertEquals(-1, mapped.read());
+            assertEquals(-1, mapped.read(buffer, 0, buffer.length));
+        }
+    }
+
+    @Test
+    public void testPeekAndRewind() throws IOException {
+        try (DeletingMemoryMappedFile mapped =
+                new DeletingMemoryMappedFile(file.toFile(), SEGMENT_SIZE)) {
+            mapped.seek(999);
+            assertEquals(content[999] & 0xff, mapped.peek());
+            assertEquals(content[999] & 0xff, mapped.read());
+            assertEquals(content[1000] & 0xff, mapped.read());
+            mapped.rewind(2);
+            assertEquals(999, mapped.getPosition());
+        }
+    }
+
+    @Test
+    public void testViewHasIndependentPosition() throws IOException {
+        try (DeletingMemoryMappedFile mapped =
+                new DeletingMemoryMappedFile(file.toFile(), SEGMENT_SIZE)) {
+            mapped.seek(10);
+            RandomAccessReadView view = mapped.createView(1990, 20);
+            byte[] buffer = new byte[20];
+            assertEquals(20, view.read(buffer, 0, buffer.length));
+            assertArrayEquals(Arrays.copyOfRange(content, 1990, 2010), buffer);
+            view.close();
+
+            assertEquals(10, mapped.getPosition());
+            assertTrue(Files.exists(file));
+        }
+    }
+
+    @Test
+    public void testCloseDeletesFile() throws IOException {
+        DeletingMemoryMappedFile mapped = new DeletingMemoryMappedFile(file.toFile());
+        assertFalse(mapped.isClosed());
+        mapped.close();
+
+        assertTrue(mapped.isClosed());
+        assertFalse(Files.exists(file));
+        assertThrows(IOException.class, mapped::read);
+    }
+}
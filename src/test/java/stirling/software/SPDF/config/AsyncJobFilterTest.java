@@ -0,0 +1,88 @@
+package stirling.software.SPDF.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.ServletException;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.service.AsyncJobService;
+
+public class AsyncJobFilterTest {
+
+    @TempDir Path tempDir;
+
+    private AsyncJobService asyncJobService;
+    private AsyncJobFilter filter;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getAsyncJobs().setStorageDir(tempDir.toString());
+        asyncJobService =
+                new AsyncJobService(
+                        applicationProperties,
+                        new ObjectMapper(),
+                        new MockServletContext(),
+                        null,
+                        new SimpleMeterRegistry());
+        filter = new AsyncJobFilter(asyncJobService, new ObjectMapper());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        asyncJobService.shutdown();
+    }
+
+    @Test
+    public void testUserEndpointsAreNotQueued() throws IOException, ServletException {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/v1/user/update-api-key");
+        request.setQueryString("async=true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("document operations"));
+        // Neither run synchronously nor stored as a job
+        assertNull(chain.getRequest());
+        try (Stream<Path> stored = Files.list(tempDir)) {
+            assertEquals(0, stored.count());
+        }
+    }
+
+    @Test
+    public void testRequestsWithoutTheFlagPassThrough() throws IOException, ServletException {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/v1/user/update-api-key");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+    }
+}
@@ -0,0 +1,88 @@
+package stirling.software.SPDF.controller.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.api.PDFFile;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.CustomPDFDocumentFactoryTest;
+import stirling.software.SPDF.service.ParsedDocumentCache;
+import stirling.software.SPDF.service.PdfMetadataService;
+
+public class AnalysisControllerTest {
+
+    @TempDir Path tempDir;
+
+    private AnalysisController analysisController;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        applicationProperties.getDocumentFactory().getParsedDocumentCache().setEnabled(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomPDFDocumentFactory pdfDocumentFactory =
+                CustomPDFDocumentFactoryTest.createFactory(applicationProperties, meterRegistry);
+        analysisController =
+                new AnalysisController(
+                        pdfDocumentFactory,
+                        new ParsedDocumentCache(
+                                pdfDocumentFactory,
+                                new PdfMetadataService(null, null, false, null),
+                                applicationProperties,
+                                meterRegistry));
+    }
+
+    private static PDFFile upload(PDDocument document) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (document) {
+            document.addPage(new PDPage());
+            document.save(output);
+        }
+        PDFFile file = new PDFFile();
+        file.setFileInput(
+                new MockMultipartFile(
+                        "fileInput", "test.pdf", "application/pdf", output.toByteArray()));
+        return file;
+    }
+
+    @Test
+    public void testDocumentPropertiesWithoutDates() throws IOException {
+        PDDocument document = new PDDocument();
+        document.getDocumentInformation().setTitle("No dates");
+
+        Map<String, String> properties = analysisController.getDocumentProperties(upload(document));
+
+        assertEquals("No dates", properties.get("title"));
+        assertNull(properties.get("creationDate"));
+        assertNull(properties.get("modificationDate"));
+    }
+
+    @Test
+    public void testDocumentPropertiesWithDates() throws IOException {
+        PDDocument document = new PDDocument();
+        document.getDocumentInformation().setCreationDate(Calendar.getInstance());
+
+        Map<String, String> properties = analysisController.getDocumentProperties(upload(document));
+
+        assertNotNull(properties.get("creationDate"));
+        assertNull(properties.get("modificationDate"));
+    }
+}
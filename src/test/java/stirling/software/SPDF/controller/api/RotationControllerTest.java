@@ -8,15 +8,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 
@@ -30,6 +34,8 @@ public class RotationControllerTest {
 
     @InjectMocks private RotationController rotationController;
 
+    @TempDir Path tempDir;
+
     @Test
     public void testRotatePDF() throws IOException {
         // Create a mock file
@@ -48,9 +54,11 @@ public class RotationControllerTest {
         when(mockPages.iterator())
                 .thenReturn(java.util.Collections.singletonList(mockPage).iterator());
         when(mockPage.getRotation()).thenReturn(0);
+        when(pdfDocumentFactory.createTempFile("response-"))
+                .thenReturn(Files.createTempFile(tempDir, "response-", ".tmp"));
 
         // Act
-        ResponseEntity<byte[]> response = rotationController.rotatePDF(request);
+        ResponseEntity<Resource> response = rotationController.rotatePDF(request);
 
         // Assert
         verify(mockPage).setRotation(90);
@@ -12,6 +12,7 @@ import stirling.software.SPDF.config.RuntimePathConfig;
 import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.api.converters.UrlToPdfRequest;
 import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.TempFileManager;
 
 public class ConvertWebsiteToPdfTest {
 
@@ -19,6 +20,8 @@ public class ConvertWebsiteToPdfTest {
 
     @Mock private RuntimePathConfig runtimePathConfig;
 
+    @Mock private TempFileManager tempFileManager;
+
     private ApplicationProperties applicationProperties;
 
     private ConvertWebsiteToPDF convertWebsiteToPDF;
@@ -30,7 +33,10 @@ public class ConvertWebsiteToPdfTest {
         applicationProperties.getSystem().setEnableUrlToPDF(true);
         convertWebsiteToPDF =
                 new ConvertWebsiteToPDF(
-                        mockPdfDocumentFactory, runtimePathConfig, applicationProperties);
+                        mockPdfDocumentFactory,
+                        runtimePathConfig,
+                        applicationProperties,
+                        tempFileManager);
     }
 
     @Test
@@ -0,0 +1,92 @@
+package stirling.software.SPDF.controller.api.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import io.swagger.v3.oas.annotations.Operation;
+
+public class ApiDocServiceTest {
+
+    private ApiDocService apiDocService;
+
+    @RestController
+    @RequestMapping("/api/v1/test")
+    public static class TestController {
+
+        @PostMapping("/to-image")
+        @Operation(
+                summary = "Convert",
+                description = "Converts a PDF. Input:PDF Output:IMAGE/ZIP Type:SIMO")
+        public ResponseEntity<byte[]> toImage(MultipartFile fileInput) {
+            return ResponseEntity.ok(new byte[0]);
+        }
+
+        @PostMapping("/merge")
+        @Operation(summary = "Merge", description = "Merges PDFs. Input:PDF Output:PDF Type:MISO")
+        public ResponseEntity<byte[]> merge(
+                MultipartFile[] fileInput,
+                @RequestParam("sortType") String sortType,
+                @RequestParam(value = "comment", required = false) String comment) {
+            return ResponseEntity.ok(new byte[0]);
+        }
+
+        @GetMapping("/status")
+        @Operation(summary = "Status", description = "Input:PDF Output:JSON Type:SISO")
+        public String status() {
+            return "ok";
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("testController", TestController.class);
+        context.refresh();
+        RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.afterPropertiesSet();
+        apiDocService = new ApiDocService(handlerMapping);
+    }
+
+    @Test
+    public void testFileTypesComeFromTheOperationDescription() {
+        assertEquals(
+                List.of("pdf"), apiDocService.getExtensionTypes(false, "/api/v1/test/to-image"));
+        assertTrue(apiDocService.getExtensionTypes(true, "/api/v1/test/to-image").contains("png"));
+        assertFalse(apiDocService.isMultiInput("/api/v1/test/to-image"));
+        assertTrue(apiDocService.isMultiInput("/api/v1/test/merge"));
+    }
+
+    @Test
+    public void testRequiredParametersAreValidated() {
+        assertTrue(apiDocService.isValidOperation("/api/v1/test/to-image", Map.of()));
+        assertFalse(apiDocService.isValidOperation("/api/v1/test/merge", Map.of()));
+        assertTrue(
+                apiDocService.isValidOperation(
+                        "/api/v1/test/merge", Map.of("sortType", "orderProvided")));
+    }
+
+    @Test
+    public void testUnknownAndNonPostOperationsAreNotInTheCatalog() {
+        assertFalse(apiDocService.isValidOperation("/api/v1/test/status", Map.of()));
+        assertFalse(apiDocService.isValidOperation("/api/v1/test/unknown", Map.of()));
+        assertNull(apiDocService.getExtensionTypes(false, "/api/v1/test/unknown"));
+    }
+}
@@ -0,0 +1,396 @@
+package stirling.software.SPDF.controller.api.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import stirling.software.SPDF.config.EndpointConfiguration;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PipelineOperation;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.BulkheadService;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.utils.WebResponseUtils;
+
+public class PipelineOperationDispatcherTest {
+
+    private static final String APPEND_TEXT = "/api/v1/misc/append-text";
+
+    @TempDir Path tempDir;
+
+    private ApplicationProperties applicationProperties;
+    private EndpointConfiguration endpointConfiguration;
+    private CustomPDFDocumentFactory pdfDocumentFactory;
+    private TempFileManager tempFileManager;
+    private PipelineOperationDispatcher dispatcher;
+
+    @RestController
+    @RequestMapping("/api/v1/misc")
+    public static class TestController {
+
+        @PostMapping(consumes = "multipart/form-data", value = "/append-text")
+        public ResponseEntity<byte[]> appendText(@ModelAttribute AppendTextRequest request)
+                throws IOException {
+            StringBuilder text = new StringBuilder();
+            for (MultipartFile file : request.getFileInput()) {
+                text.append(new String(file.getBytes(), StandardCharsets.UTF_8));
+            }
+            text.append(request.getText().repeat(request.getTimes()));
+            return WebResponseUtils.bytesToWebResponse(
+                    text.toString().getBytes(StandardCharsets.UTF_8),
+                    "appended.txt",
+                    MediaType.TEXT_PLAIN);
+        }
+
+        @PostMapping(consumes = "multipart/form-data", value = "/needs-request")
+        public ResponseEntity<byte[]> needsRequest(
+                @ModelAttribute AppendTextRequest request, HttpServletRequest servletRequest) {
+            return ResponseEntity.ok(new byte[0]);
+        }
+
+        @PostMapping(consumes = "multipart/form-data", value = "/add-pages")
+        public ResponseEntity<byte[]> addPagesToFile(@ModelAttribute AddPagesRequest request)
+                throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (PDDocument document = Loader.loadPDF(request.getFileInput().getBytes())) {
+                addPages(document, request).save(output);
+            }
+            return WebResponseUtils.boasToWebResponse(output, "added.pdf");
+        }
+
+        @PostMapping(consumes = "multipart/form-data", value = "/replace-pages")
+        public ResponseEntity<byte[]> replacePagesOfFile(
+                @ModelAttribute ReplacePagesRequest request) throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (PDDocument document = Loader.loadPDF(request.getFileInput().getBytes());
+                    PDDocument replacement = replacePages(document, request)) {
+                replacement.save(output);
+            }
+            return WebResponseUtils.boasToWebResponse(output, "replaced.pdf");
+        }
+
+        /** Returns a new document without closing its input, fails for a negative count */
+        @DocumentOperation
+        public PDDocument replacePages(PDDocument document, ReplacePagesRequest request) {
+            if (request.getCount() < 0) {
+                throw new IllegalArgumentException("Negative page count");
+            }
+            PDDocument replacement = new PDDocument();
+            for (int i = 0; i < request.getCount(); i++) {
+                replacement.addPage(new PDPage());
+            }
+            return replacement;
+        }
+
+        @DocumentOperation
+        public PDDocument addPages(PDDocument document, AddPagesRequest request) {
+            for (int i = 0; i < request.getCount(); i++) {
+                document.addPage(new PDPage());
+            }
+            return document;
+        }
+    }
+
+    public static class AddPagesRequest {
+        private MultipartFile fileInput;
+        private int count;
+
+        public MultipartFile getFileInput() {
+            return fileInput;
+        }
+
+        public void setFileInput(MultipartFile fileInput) {
+            this.fileInput = fileInput;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public static class ReplacePagesRequest extends AddPagesRequest {}
+
+    public static class AppendTextRequest {
+        private MultipartFile[] fileInput;
+        private String text;
+        private int times;
+
+        public MultipartFile[] getFileInput() {
+            return fileInput;
+        }
+
+        public void setFileInput(MultipartFile[] fileInput) {
+            this.fileInput = fileInput;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public int getTimes() {
+            return times;
+        }
+
+        public void setTimes(int times) {
+            this.times = times;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().setEnableUrlToPDF(false);
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        tempFileManager = new TempFileManager(applicationProperties, new SimpleMeterRegistry());
+        endpointConfiguration = new EndpointConfiguration(applicationProperties, false);
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("testController", TestController.class);
+        context.refresh();
+        RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.afterPropertiesSet();
+
+        pdfDocumentFactory = mock(CustomPDFDocumentFactory.class);
+        when(pdfDocumentFactory.load(any(MultipartFile.class)))
+                .thenAnswer(
+                        invocation ->
+                                Loader.loadPDF(
+                                        invocation.<MultipartFile>getArgument(0).getBytes()));
+        doAnswer(
+                        invocation -> {
+                            invocation
+                                    .<PDDocument>getArgument(0)
+                                    .save(invocation.<OutputStream>getArgument(1));
+                            return null;
+                        })
+                .when(pdfDocumentFactory)
+                .save(any(PDDocument.class), any(OutputStream.class));
+        when(pdfDocumentFactory.createTempFile(any(String.class)))
+                .thenAnswer(
+                        invocation ->
+                                tempFileManager.createTempFile(invocation.getArgument(0), ".tmp"));
+
+        dispatcher =
+                new PipelineOperationDispatcher(
+                        applicationProperties,
+                        handlerMapping,
+                        new RequestMappingHandlerAdapter(),
+                        endpointConfiguration,
+                        new BulkheadService(
+                                applicationProperties,
+                                endpointConfiguration,
+                                new SimpleMeterRegistry()),
+                        new ObjectMapper(),
+                        pdfDocumentFactory,
+                        tempFileManager);
+    }
+
+    private static Resource file(String name, String content) {
+        return file(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Resource file(String name, byte[] content) {
+        return new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
+    @Test
+    public void testOperationIsBoundAndInvokedInProcess() throws Exception {
+        assertTrue(dispatcher.canDispatch(APPEND_TEXT));
+
+        ResponseEntity<Resource> response =
+                dispatcher.dispatch(
+                        APPEND_TEXT,
+                        List.of(file("a.txt", "a"), file("b.txt", "b")),
+                        Map.of("text", "!", "times", 3),
+                        tempDir);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // The result is written to the given directory instead of being kept in memory
+        Path result = response.getBody().getFile().toPath();
+        assertTrue(result.startsWith(tempDir));
+        assertArrayEquals("ab!!!".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(result));
+        assertTrue(
+                response.getHeaders().getContentDisposition().toString().contains("appended.txt"));
+    }
+
+    private static PipelineOperation operation(String name, Map<String, Object> parameters) {
+        PipelineOperation operation = new PipelineOperation();
+        operation.setOperation(name);
+        operation.setParameters(parameters);
+        return operation;
+    }
+
+    @Test
+    public void testFusedOperationsShareOneLoadedDocument() throws Exception {
+        assertTrue(dispatcher.canFuse("/api/v1/misc/add-pages"));
+        assertFalse(dispatcher.canFuse(APPEND_TEXT));
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(input);
+        }
+
+        Resource output =
+                dispatcher.dispatchFused(
+                        List.of(
+                                operation("/api/v1/misc/add-pages", Map.of("count", 2)),
+                                operation("/api/v1/misc/add-pages", Map.of("count", 3))),
+                        file("input.pdf", input.toByteArray()),
+                        tempDir);
+
+        assertEquals("input.pdf", output.getFilename());
+        // Written to the given directory instead of being kept in memory
+        assertTrue(output.getFile().toPath().startsWith(tempDir));
+        try (PDDocument document = Loader.loadPDF(output.getContentAsByteArray())) {
+            assertEquals(6, document.getNumberOfPages());
+        }
+        verify(pdfDocumentFactory, times(1)).load(any(MultipartFile.class));
+    }
+
+    @Test
+    public void testFusedOperationsCloseEveryDocumentTheyOwn() throws Exception {
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(input);
+        }
+        List<PDDocument> loaded = new ArrayList<>();
+        when(pdfDocumentFactory.load(any(MultipartFile.class)))
+                .thenAnswer(
+                        invocation -> {
+                            PDDocument document =
+                                    Loader.loadPDF(
+                                            invocation.<MultipartFile>getArgument(0).getBytes());
+                            loaded.add(document);
+                            return document;
+                        });
+
+        // The input a step replaced without closing is closed by the dispatcher
+        Resource output =
+                dispatcher.dispatchFused(
+                        List.of(operation("/api/v1/misc/replace-pages", Map.of("count", 2))),
+                        file("input.pdf", input.toByteArray()),
+                        tempDir);
+        assertTrue(loaded.get(0).getDocument().isClosed());
+        try (PDDocument document = Loader.loadPDF(output.getContentAsByteArray())) {
+            assertEquals(2, document.getNumberOfPages());
+        }
+
+        // So is the input of a failing step
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        dispatcher.dispatchFused(
+                                List.of(
+                                        operation(
+                                                "/api/v1/misc/replace-pages", Map.of("count", -1))),
+                                file("input.pdf", input.toByteArray()),
+                                tempDir));
+        assertTrue(loaded.get(1).getDocument().isClosed());
+    }
+
+    @Test
+    public void testInvalidParametersAreRejected() {
+        assertThrows(
+                BindException.class,
+                () ->
+                        dispatcher.dispatch(
+                                APPEND_TEXT,
+                                List.of(file("a.txt", "a")),
+                                Map.of("text", "!", "times", "many"),
+                                tempDir));
+    }
+
+    @Test
+    public void testDisabledEndpointIsRejected() {
+        endpointConfiguration.disableEndpoint("append-text");
+
+        ResponseStatusException e =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> dispatcher.dispatch(APPEND_TEXT, List.of(), Map.of(), tempDir));
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+    }
+
+    @Test
+    public void testUnsupportedHandlersFallBackToHttp() {
+        assertFalse(dispatcher.canDispatch("/api/v1/misc/needs-request"));
+        assertFalse(dispatcher.canDispatch("/api/v1/misc/unknown"));
+
+        applicationProperties.getAutoPipeline().setInProcessDispatch(false);
+        assertFalse(createDisabledDispatcher().canDispatch(APPEND_TEXT));
+    }
+
+    private PipelineOperationDispatcher createDisabledDispatcher() {
+        return new PipelineOperationDispatcher(
+                applicationProperties,
+                new RequestMappingHandlerMapping(),
+                new RequestMappingHandlerAdapter(),
+                endpointConfiguration,
+                new BulkheadService(
+                        applicationProperties, endpointConfiguration, new SimpleMeterRegistry()),
+                new ObjectMapper(),
+                pdfDocumentFactory,
+                tempFileManager);
+    }
+}
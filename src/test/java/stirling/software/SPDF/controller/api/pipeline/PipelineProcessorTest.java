@@ -0,0 +1,236 @@
+package stirling.software.SPDF.controller.api.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PipelineConfig;
+import stirling.software.SPDF.model.PipelineOperation;
+import stirling.software.SPDF.model.PipelineResult;
+import stirling.software.SPDF.service.TempFileManager;
+import stirling.software.SPDF.utils.WebResponseUtils;
+
+public class PipelineProcessorTest {
+
+    private static final String OPERATION = "/api/v1/misc/upper-case";
+    private static final String SPLIT = "/api/v1/misc/split-lines";
+
+    @TempDir Path tempDir;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private PipelineOperationDispatcher dispatcher;
+    private PipelineProcessor processor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ApiDocService apiDocService = mock(ApiDocService.class);
+        when(apiDocService.isMultiInput(anyString())).thenReturn(false);
+        // Unknown input types accept every file
+        when(apiDocService.getExtensionTypes(eq(false), anyString())).thenReturn(null);
+        dispatcher = mock(PipelineOperationDispatcher.class);
+        when(dispatcher.canDispatch(anyString())).thenReturn(true);
+        when(dispatcher.dispatch(eq(OPERATION), any(), anyMap(), any()))
+                .thenAnswer(
+                        invocation -> {
+                            Resource file = invocation.<List<Resource>>getArgument(1).get(0);
+                            int now = running.incrementAndGet();
+                            maxRunning.accumulateAndGet(now, Math::max);
+                            try {
+                                // Finish out of order
+                                Thread.sleep(ThreadLocalRandom.current().nextInt(5, 40));
+                                String text =
+                                        new String(
+                                                file.getContentAsByteArray(),
+                                                StandardCharsets.UTF_8);
+                                if (text.equals("fail")) {
+                                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+                                }
+                                return stage(
+                                        invocation.getArgument(3),
+                                        text.toUpperCase().getBytes(StandardCharsets.UTF_8),
+                                        file.getFilename());
+                            } finally {
+                                running.decrementAndGet();
+                            }
+                        });
+
+        when(dispatcher.dispatch(eq(SPLIT), any(), anyMap(), any()))
+                .thenAnswer(
+                        invocation -> {
+                            Resource file = invocation.<List<Resource>>getArgument(1).get(0);
+                            ByteArrayOutputStream zip = new ByteArrayOutputStream();
+                            try (ZipOutputStream zipOut = new ZipOutputStream(zip)) {
+                                String[] lines =
+                                        file.getContentAsString(StandardCharsets.UTF_8).split("\n");
+                                for (int i = 0; i < lines.length; i++) {
+                                    zipOut.putNextEntry(new ZipEntry("line" + i + ".txt"));
+                                    zipOut.write(lines[i].getBytes(StandardCharsets.UTF_8));
+                                    zipOut.closeEntry();
+                                }
+                            }
+                            return stage(invocation.getArgument(3), zip.toByteArray(), "lines.zip");
+                        });
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        applicationProperties.getAutoPipeline().setMaxParallelFiles(3);
+        processor =
+                new PipelineProcessor(
+                        apiDocService,
+                        null,
+                        new MockServletContext(),
+                        dispatcher,
+                        new TempFileManager(applicationProperties, new SimpleMeterRegistry()),
+                        applicationProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        processor.shutdown();
+    }
+
+    /** Write the result into the scratch directory like the dispatcher does */
+    private static ResponseEntity<Resource> stage(Path directory, byte[] bytes, String name)
+            throws IOException {
+        Path path = Files.createTempFile(directory, "stage-", null);
+        Files.write(path, bytes);
+        return WebResponseUtils.fileToWebResponse(path, name, MediaType.TEXT_PLAIN);
+    }
+
+    private static Resource file(String name, String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
+    private static PipelineConfig config(Integer parallelism, String... operations) {
+        List<PipelineOperation> pipelineOperations = new ArrayList<>();
+        for (String name : operations.length > 0 ? operations : new String[] {OPERATION}) {
+            PipelineOperation operation = new PipelineOperation();
+            operation.setOperation(name);
+            operation.setParameters(Map.of());
+            pipelineOperations.add(operation);
+        }
+        PipelineConfig config = new PipelineConfig();
+        config.setOperations(pipelineOperations);
+        config.setParallelism(parallelism);
+        return config;
+    }
+
+    @Test
+    public void testFilesAreProcessedConcurrentlyInOrder() throws Exception {
+        List<Resource> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(file("file" + i + ".txt", "text " + i));
+        }
+
+        // Asks for more than the global limit of 3
+        PipelineResult result = processor.runPipelineAgainstFiles(files, config(8));
+
+        List<Resource> outputFiles = result.getOutputFiles();
+        assertEquals(20, outputFiles.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("file" + i + ".txt", outputFiles.get(i).getFilename());
+            assertEquals(
+                    "TEXT " + i,
+                    new String(outputFiles.get(i).getContentAsByteArray(), StandardCharsets.UTF_8));
+        }
+        assertTrue(maxRunning.get() > 1, "files were not processed concurrently");
+        assertTrue(maxRunning.get() <= 3, "global limit exceeded: " + maxRunning.get());
+    }
+
+    @Test
+    public void testPipelinesWithoutParallelismRunSequentially() throws Exception {
+        List<Resource> files = List.of(file("a.txt", "a"), file("b.txt", "b"), file("c.txt", "c"));
+
+        PipelineResult result = processor.runPipelineAgainstFiles(files, config(null));
+
+        assertEquals(3, result.getOutputFiles().size());
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testFailureOfOneFileFailsTheStage() {
+        List<Resource> files =
+                List.of(file("a.txt", "a"), file("b.txt", "fail"), file("c.txt", "c"));
+
+        assertThrows(
+                ResponseStatusException.class,
+                () -> processor.runPipelineAgainstFiles(files, config(3)));
+        // The other calls have stopped by the time the failure is thrown
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    public void testIntermediatesAreKeptOnDisk() throws Exception {
+        PipelineResult result =
+                processor.runPipelineAgainstFiles(
+                        List.of(file("a.txt", "one\ntwo\nthree")), config(null, SPLIT, OPERATION));
+
+        List<Resource> outputFiles = result.getOutputFiles();
+        assertEquals(3, outputFiles.size());
+        assertEquals("line1.txt", outputFiles.get(1).getFilename());
+        assertEquals("TWO", outputFiles.get(1).getContentAsString(StandardCharsets.UTF_8));
+        for (Resource output : outputFiles) {
+            assertTrue(output instanceof FileSystemResource);
+            assertTrue(output.getFile().toPath().startsWith(result.getScratchDirectory()));
+        }
+        // The entries of the ZIP were deleted once upper-cased
+        try (var files = Files.list(result.getScratchDirectory())) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testScratchDirectoryIsDeletedWhenTheRunFails() throws Exception {
+        assertThrows(
+                ResponseStatusException.class,
+                () ->
+                        processor.runPipelineAgainstFiles(
+                                List.of(file("a.txt", "fail")), config(null)));
+
+        try (var files = Files.list(tempDir.resolve("background"))) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.ServletException;
+
+import stirling.software.SPDF.SPDFApplication;
+import stirling.software.SPDF.controller.api.pipeline.UserServiceInterface;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.AsyncJob;
+
+public class AsyncJobServiceTest {
+
+    private static final String URL = "http://localhost:8080/api/v1/misc/compress-pdf";
+
+    @TempDir Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private AsyncJobService service;
+
+    @BeforeAll
+    public static void setPort() {
+        SPDFApplication.setServerPortStatic("8080");
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        service = createService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    private AsyncJobService createService() throws IOException {
+        return createService(null);
+    }
+
+    private AsyncJobService createService(UserServiceInterface userService) throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getAsyncJobs().setStorageDir(tempDir.toString());
+        applicationProperties.getSystem().getAsyncJobs().setWorkers(1);
+        return new AsyncJobService(
+                applicationProperties,
+                objectMapper,
+                new MockServletContext(),
+                userService,
+                new SimpleMeterRegistry(),
+                restTemplate);
+    }
+
+    private static MockHttpServletRequest multipartRequest() {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/v1/misc/compress-pdf");
+        request.setContentType("multipart/form-data; boundary=test");
+        request.addPart(new MockPart("fileInput", "input.pdf", "%PDF-1.7 input".getBytes()));
+        request.addPart(new MockPart("optimizeLevel", "3".getBytes()));
+        return request;
+    }
+
+    private AsyncJob awaitFinished(AsyncJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.getStatus().isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(job.getStatus().isFinished(), "job did not finish");
+        return job;
+    }
+
+    @Test
+    public void testJobIsReplayedAndResultStored()
+            throws IOException, ServletException, InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(
+                ContentDisposition.attachment().filename("input_compressed.pdf").build());
+        server.expect(requestTo(URL))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(
+                        withSuccess("%PDF-1.7 output".getBytes(), MediaType.APPLICATION_PDF)
+                                .headers(headers));
+
+        AsyncJob job = service.submit(multipartRequest(), "/api/v1/misc/compress-pdf", "alice");
+
+        awaitFinished(job);
+        server.verify();
+        assertEquals(AsyncJob.Status.COMPLETED, job.getStatus());
+        assertEquals("input_compressed.pdf", job.getResultFileName());
+        assertEquals(MediaType.APPLICATION_PDF_VALUE, job.getResultContentType());
+        assertArrayEquals("%PDF-1.7 output".getBytes(), Files.readAllBytes(service.getResult(job)));
+        assertEquals(
+                List.of("fileInput", "optimizeLevel"),
+                job.getFields().stream().map(AsyncJob.Field::getName).toList());
+        // Inputs are removed once the job has finished
+        assertFalse(Files.exists(tempDir.resolve(job.getId()).resolve("input-0")));
+    }
+
+    @Test
+    public void testFailedRequestIsReported()
+            throws IOException, ServletException, InterruptedException {
+        server.expect(requestTo(URL))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST).body("Invalid optimize level"));
+
+        AsyncJob job = service.submit(multipartRequest(), "/api/v1/misc/compress-pdf", null);
+
+        awaitFinished(job);
+        assertEquals(AsyncJob.Status.FAILED, job.getStatus());
+        assertEquals(400, job.getHttpStatus());
+        assertEquals("Invalid optimize level", job.getError());
+        assertThrows(ResponseStatusException.class, () -> service.getResult(job));
+    }
+
+    @Test
+    public void testJobsAreOnlyVisibleToTheirOwner()
+            throws IOException, ServletException, InterruptedException {
+        server.expect(requestTo(URL)).andRespond(withSuccess());
+        AsyncJob job = service.submit(multipartRequest(), "/api/v1/misc/compress-pdf", "alice");
+        awaitFinished(job);
+
+        assertEquals(job, service.getJob(job.getId(), "alice"));
+        assertThrows(ResponseStatusException.class, () -> service.getJob(job.getId(), "bob"));
+
+        service.delete(job);
+        assertFalse(Files.exists(tempDir.resolve(job.getId())));
+        assertThrows(ResponseStatusException.class, () -> service.getJob(job.getId(), "alice"));
+    }
+
+    @Test
+    public void testInterruptedJobsResumeAfterRestart() throws IOException, InterruptedException {
+        AsyncJob stored = new AsyncJob();
+        stored.setId("interrupted");
+        stored.setEndpoint("/api/v1/misc/compress-pdf");
+        stored.setStatus(AsyncJob.Status.RUNNING);
+        stored.setStartedAt(System.currentTimeMillis());
+        stored.getFields().add(new AsyncJob.Field("optimizeLevel", "3", null, null));
+        Path directory = Files.createDirectories(tempDir.resolve("interrupted"));
+        objectMapper.writeValue(directory.resolve("job.json").toFile(), stored);
+        server.expect(requestTo(URL)).andRespond(withSuccess());
+
+        service.shutdown();
+        service = createService();
+        AsyncJob job = service.getJob("interrupted", null);
+        assertEquals(AsyncJob.Status.QUEUED, job.getStatus());
+        service.resumeStoredJobs();
+
+        awaitFinished(job);
+        server.verify();
+        assertEquals(AsyncJob.Status.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    public void testJobIsReplayedWithTheOwnersApiKey()
+            throws IOException, ServletException, InterruptedException {
+        UserServiceInterface userService = mock(UserServiceInterface.class);
+        when(userService.findApiKeyForUser("alice")).thenReturn(Optional.of("alice-key"));
+        service.shutdown();
+        service = createService(userService);
+        server.expect(requestTo(URL))
+                .andExpect(header("X-API-KEY", "alice-key"))
+                .andRespond(withSuccess());
+
+        AsyncJob job = service.submit(multipartRequest(), "/api/v1/misc/compress-pdf", "alice");
+
+        awaitFinished(job);
+        server.verify();
+        assertEquals(AsyncJob.Status.COMPLETED, job.getStatus());
+        verify(userService, never()).getApiKeyForUser(anyString());
+    }
+
+    @Test
+    public void testJobFailsWhenTheOwnerHasNoApiKey()
+            throws IOException, ServletException, InterruptedException {
+        UserServiceInterface userService = mock(UserServiceInterface.class);
+        when(userService.findApiKeyForUser("alice")).thenReturn(Optional.empty());
+        service.shutdown();
+        service = createService(userService);
+
+        AsyncJob job = service.submit(multipartRequest(), "/api/v1/misc/compress-pdf", "alice");
+
+        awaitFinished(job);
+        // No request is sent and no key is created for the owner
+        server.verify();
+        assertEquals(AsyncJob.Status.FAILED, job.getStatus());
+        verify(userService, never()).getApiKeyForUser(anyString());
+    }
+
+    @Test
+    public void testOnlyDocumentOperationsAreQueued() throws IOException {
+        for (String endpoint :
+                List.of(
+                        "/api/v1/user/update-api-key",
+                        "/api/v1/user/admin/deleteUser/bob",
+                        "/api/v1/settings/update-enable-analytics",
+                        "/api/v1/database/import-database",
+                        "/api/v1/misc/../user/update-api-key",
+                        "/api/v1/misc;/../user/update-api-key")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", endpoint);
+            ResponseStatusException e =
+                    assertThrows(
+                            ResponseStatusException.class,
+                            () -> service.submit(request, endpoint, "alice"),
+                            endpoint);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        try (Stream<Path> stored = Files.list(tempDir)) {
+            assertEquals(0, stored.count());
+        }
+        assertTrue(AsyncJobService.isDocumentOperation("/api/v1/security/add-password"));
+    }
+}
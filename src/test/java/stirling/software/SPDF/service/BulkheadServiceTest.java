@@ -0,0 +1,106 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.config.EndpointConfiguration;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+public class BulkheadServiceTest {
+
+    private ApplicationProperties applicationProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().setEnableUrlToPDF(false);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static ApplicationProperties.Bulkheads.Limit limit(
+            int maxConcurrent, int maxQueued, long queueTimeoutSeconds) {
+        ApplicationProperties.Bulkheads.Limit limit = new ApplicationProperties.Bulkheads.Limit();
+        limit.setMaxConcurrent(maxConcurrent);
+        limit.setMaxQueued(maxQueued);
+        limit.setQueueTimeoutSeconds(queueTimeoutSeconds);
+        return limit;
+    }
+
+    private BulkheadService createService() {
+        return new BulkheadService(
+                applicationProperties,
+                new EndpointConfiguration(applicationProperties, false),
+                meterRegistry);
+    }
+
+    @Test
+    public void testSaturatedEndpointIsRejectedWithRetryAfter() {
+        applicationProperties.getBulkheads().getEndpoints().put("pdf-to-img", limit(1, 0, 7));
+        BulkheadService service = createService();
+
+        List<BulkheadService.Bulkhead> permits = service.acquire("pdf-to-img");
+        ServiceOverloadedException e =
+                assertThrows(ServiceOverloadedException.class, () -> service.acquire("pdf-to-img"));
+        assertEquals(7, e.getRetryAfterSeconds());
+        // Other endpoints are not affected
+        assertTrue(service.acquire("rotate-pdf").isEmpty());
+
+        service.release(permits);
+        service.release(service.acquire("pdf-to-img"));
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("stirling.bulkhead.rejected")
+                        .tag("endpoint", "pdf-to-img")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    public void testQueuedRequestGetsReleasedSlot() throws Exception {
+        applicationProperties.getBulkheads().getEndpoints().put("compress-pdf", limit(1, 1, 10));
+        BulkheadService service = createService();
+        List<BulkheadService.Bulkhead> permits = service.acquire("compress-pdf");
+
+        CompletableFuture<List<BulkheadService.Bulkhead>> waiting =
+                CompletableFuture.supplyAsync(() -> service.acquire("compress-pdf"));
+        while (meterRegistry
+                        .get("stirling.bulkhead.queued")
+                        .tag("endpoint", "compress-pdf")
+                        .gauge()
+                        .value()
+                < 1) {
+            Thread.sleep(10);
+        }
+        // The queue holds a single request
+        assertThrows(ServiceOverloadedException.class, () -> service.acquire("compress-pdf"));
+
+        service.release(permits);
+        service.release(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGroupBulkheadIsSharedByItsEndpoints() {
+        applicationProperties.getBulkheads().getGroups().put("LibreOffice", limit(1, 0, 1));
+        BulkheadService service = createService();
+
+        List<BulkheadService.Bulkhead> permits = service.acquire("pdf-to-word");
+        assertThrows(ServiceOverloadedException.class, () -> service.acquire("file-to-pdf"));
+        assertTrue(service.acquire("merge-pdfs").isEmpty());
+
+        service.release(permits);
+        service.release(service.acquire("file-to-pdf"));
+    }
+}
@@ -0,0 +1,57 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.utils.VirtualThreadUtils;
+
+public class CpuBoundExecutorTest {
+
+    private static CpuBoundExecutor createExecutor(boolean virtualThreads) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getVirtualThreads().setEnabled(virtualThreads);
+        applicationProperties.getSystem().getVirtualThreads().setCpuBoundThreads(2);
+        return new CpuBoundExecutor(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testRunsOnCallingThreadWithoutVirtualThreads() throws IOException {
+        CpuBoundExecutor executor = createExecutor(false);
+
+        assertFalse(executor.isOffloading());
+        assertEquals(Thread.currentThread(), executor.call(Thread::currentThread));
+    }
+
+    @Test
+    public void testOffloadsOnlyWhenVirtualThreadsAreSupported() throws IOException {
+        CpuBoundExecutor executor = createExecutor(true);
+        try {
+            assertEquals(VirtualThreadUtils.isSupported(), executor.isOffloading());
+            String threadName = executor.call(() -> Thread.currentThread().getName());
+            assertEquals(
+                    executor.isOffloading(),
+                    threadName.startsWith("cpu-bound-"),
+                    "ran on " + threadName);
+
+            IOException failure =
+                    assertThrows(
+                            IOException.class,
+                            () ->
+                                    executor.call(
+                                            () -> {
+                                                throw new IOException("render failed");
+                                            }));
+            assertEquals("render failed", failure.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
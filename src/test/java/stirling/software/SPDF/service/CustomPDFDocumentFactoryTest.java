@@ -0,0 +1,278 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.PdfProbe;
+
+public class CustomPDFDocumentFactoryTest {
+
+    @TempDir Path tempDir;
+
+    private CustomPDFDocumentFactory factory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        factory = createFactory(tempDir, "balanced");
+    }
+
+    public static CustomPDFDocumentFactory createFactory(Path tempDir, String outputProfile)
+            throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        applicationProperties.getDocumentFactory().getOutput().setProfile(outputProfile);
+        return createFactory(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    public static CustomPDFDocumentFactory createFactory(
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry)
+            throws IOException {
+        TempFileManager tempFileManager = new TempFileManager(applicationProperties, meterRegistry);
+        return new CustomPDFDocumentFactory(
+                new PdfMetadataService(applicationProperties, "Stirling-PDF", false, null),
+                new MemoryBudgetService(applicationProperties, meterRegistry),
+                tempFileManager,
+                new UploadSpool(tempFileManager),
+                applicationProperties,
+                meterRegistry);
+    }
+
+    /** A document whose page content is stored without a filter */
+    private static byte[] createUncompressedPdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream =
+                        new PDPageContentStream(
+                                document, page, PDPageContentStream.AppendMode.APPEND, false)) {
+                    for (int line = 0; line < 50; line++) {
+                        contentStream.addRect(50, 10 * line, 500, 5);
+                        contentStream.fill();
+                    }
+                }
+            }
+            document.save(baos, CompressParameters.NO_COMPRESSION);
+            return baos.toByteArray();
+        }
+    }
+
+    private static byte[] saveWithProfile(Path tempDir, String profile, byte[] pdf)
+            throws IOException {
+        CustomPDFDocumentFactory factory = createFactory(tempDir, profile);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PDDocument document = factory.load(pdf, true)) {
+            factory.save(document, output);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] createPdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(baos);
+            return baos.toByteArray();
+        }
+    }
+
+    private static List<COSName> contentFilters(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return document.getPage(0).getContentStreams().next().getFilters();
+        }
+    }
+
+    private static byte[] content(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf);
+                InputStream input = document.getPage(0).getContents()) {
+            return input.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testSaveIncrementallyAppendsToOriginal() throws IOException {
+        byte[] original = createPdf(3);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PDDocument document = factory.load(original, true)) {
+            document.getDocumentInformation().setTitle("Incremental");
+            factory.saveIncrementally(document, output);
+        }
+
+        byte[] saved = output.toByteArray();
+        assertTrue(saved.length > original.length);
+        assertArrayEquals(original, Arrays.copyOf(saved, original.length));
+        try (PDDocument reloaded = Loader.loadPDF(saved)) {
+            assertEquals("Incremental", reloaded.getDocumentInformation().getTitle());
+            assertEquals(3, reloaded.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void testSaveIncrementallyFallsBackForNewDocuments() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PDDocument document = factory.createNewDocument()) {
+            document.addPage(new PDPage());
+            factory.saveIncrementally(document, output);
+        }
+
+        try (PDDocument reloaded = Loader.loadPDF(output.toByteArray())) {
+            assertEquals(1, reloaded.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void testProbeReadsHeaderFacts() throws IOException {
+        byte[] pdf;
+        try (PDDocument document = new PDDocument();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            for (int i = 0; i < 4; i++) {
+                document.addPage(new PDPage());
+            }
+            document.getDocumentInformation().setTitle("Probe");
+            document.getDocumentInformation().setAuthor("Tester");
+            document.save(baos);
+            pdf = baos.toByteArray();
+        }
+
+        PdfProbe probe =
+                factory.probe(new MockMultipartFile("file", "probe.pdf", "application/pdf", pdf));
+
+        assertEquals(4, probe.pageCount());
+        assertEquals(pdf.length, probe.fileSize());
+        assertFalse(probe.encrypted());
+        assertEquals("Probe", probe.info().get("Title"));
+        assertEquals("Tester", probe.info().get("Author"));
+        // Default metadata is only applied by load
+        assertFalse(probe.info().containsKey("Creator"));
+    }
+
+    @Test
+    public void testProbeLeavesFileOnDisk() throws IOException {
+        File file = tempDir.resolve("input.pdf").toFile();
+        Files.write(file.toPath(), createPdf(2));
+
+        assertEquals(2, factory.probe(file).pageCount());
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void testLoadThresholdsAdaptToGcPressure() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        ApplicationProperties.DocumentFactory.Loading loading =
+                applicationProperties.getDocumentFactory().getLoading();
+        loading.setSmallFileThresholdMB(8);
+        loading.setLargeFileThresholdMB(40);
+        loading.setAdaptive(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomPDFDocumentFactory factory = createFactory(applicationProperties, meterRegistry);
+        long mb = 1024 * 1024;
+        assertEquals(8 * mb, factory.getSmallFileThreshold());
+
+        factory.adjustThresholds(0.5);
+        assertEquals(4 * mb, factory.getSmallFileThreshold());
+        assertEquals(20 * mb, factory.getLargeFileThreshold());
+        for (int i = 0; i < 10; i++) {
+            factory.adjustThresholds(0.5);
+        }
+        assertEquals(1 * mb, factory.getSmallFileThreshold());
+
+        // Moderate GC time keeps the current scale, low GC time restores the configured values
+        factory.adjustThresholds(0.05);
+        assertEquals(1 * mb, factory.getSmallFileThreshold());
+        for (int i = 0; i < 10; i++) {
+            factory.adjustThresholds(0.0);
+        }
+        assertEquals(8 * mb, factory.getSmallFileThreshold());
+        assertEquals(
+                8.0 * mb,
+                meterRegistry
+                        .get("stirling.document.load.threshold")
+                        .tag("threshold", "small")
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    public void testLoadsAreCountedPerStrategy() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        // Keep the free-memory check from forcing temp-file caches on small test heaps
+        applicationProperties.getDocumentFactory().getLoading().setMinFreeMemoryMB(1);
+        applicationProperties.getDocumentFactory().getLoading().setMinFreeMemoryPercentage(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomPDFDocumentFactory factory = createFactory(applicationProperties, meterRegistry);
+
+        try (PDDocument document = factory.load(createUncompressedPdf(1), true)) {
+            assertEquals(1, document.getNumberOfPages());
+        }
+
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("stirling.document.load.strategy")
+                        .tag("strategy", "memory-only")
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("stirling.document.load")
+                        .tags("strategy", "memory-only", "size", "0-1MB")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    public void testOutputProfiles() throws IOException {
+        byte[] pdf = createUncompressedPdf(3);
+
+        byte[] fast = saveWithProfile(tempDir, "fast", pdf);
+        assertFalse(new String(fast, StandardCharsets.ISO_8859_1).contains("/ObjStm"));
+        assertTrue(contentFilters(fast).isEmpty());
+
+        byte[] balanced = saveWithProfile(tempDir, "balanced", pdf);
+        assertTrue(new String(balanced, StandardCharsets.ISO_8859_1).contains("/ObjStm"));
+        assertTrue(contentFilters(balanced).isEmpty());
+        assertTrue(balanced.length < fast.length);
+
+        byte[] smallest = saveWithProfile(tempDir, "smallest", pdf);
+        assertEquals(List.of(COSName.FLATE_DECODE), contentFilters(smallest));
+        assertTrue(smallest.length < balanced.length);
+        assertArrayEquals(content(fast), content(smallest));
+        // The deflate level is applied per save, not through PDFBox's process-wide property
+        assertNull(System.getProperty(Filter.SYSPROP_DEFLATELEVEL));
+    }
+}
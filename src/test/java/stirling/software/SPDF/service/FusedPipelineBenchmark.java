@@ -0,0 +1,174 @@
+package stirling.software.SPDF.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.controller.api.RotationController;
+import stirling.software.SPDF.controller.api.misc.PageNumbersController;
+import stirling.software.SPDF.controller.api.security.WatermarkController;
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.api.general.RotatePDFRequest;
+import stirling.software.SPDF.model.api.misc.AddPageNumbersRequest;
+import stirling.software.SPDF.model.api.security.AddWatermarkRequest;
+
+/**
+ * Compares pipelines of rotate, page number and watermark steps that load and save the PDF for
+ * every step with the same steps run on one loaded document that is saved once. Run with {@code
+ * ./gradlew benchmark}; the page count can be changed with {@code -Dbenchmark.pages=N}.
+ */
+@Tag("benchmark")
+public class FusedPipelineBenchmark {
+
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 200);
+    private static final int[] STEPS = {3, 5, 10};
+    private static final int ROUNDS = 3;
+
+    @TempDir static Path tempDir;
+
+    private static CustomPDFDocumentFactory factory;
+    private static TempFileManager tempFileManager;
+    private static PageRenderService pageRenderService;
+    private static byte[] source;
+
+    @FunctionalInterface
+    private interface Step {
+        PDDocument apply(PDDocument document) throws IOException;
+    }
+
+    @BeforeAll
+    public static void createPdf() throws IOException {
+        factory = CustomPDFDocumentFactoryTest.createFactory(tempDir, "balanced");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tempFileManager = new TempFileManager(applicationProperties, meterRegistry);
+        pageRenderService =
+                new PageRenderService(
+                        applicationProperties,
+                        factory,
+                        tempFileManager,
+                        new CpuBoundExecutor(applicationProperties, meterRegistry),
+                        meterRegistry);
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < PAGES; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(font, 10);
+                    contentStream.setLeading(12);
+                    contentStream.newLineAtOffset(50, 740);
+                    for (int line = 0; line < 55; line++) {
+                        contentStream.showText("Page " + i + " line " + line + " lorem ipsum");
+                        contentStream.newLine();
+                    }
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output);
+            source = output.toByteArray();
+        }
+        System.out.printf("Generated %d page benchmark PDF, %d KB%n", PAGES, source.length / 1024);
+    }
+
+    @Test
+    public void compareFusedPipelines() throws IOException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (int steps : STEPS) {
+                List<Step> pipeline = pipeline(steps);
+                long start = System.nanoTime();
+                byte[] perStep = source;
+                for (Step step : pipeline) {
+                    perStep = save(step.apply(factory.load(perStep)));
+                }
+                long perStepMs = (System.nanoTime() - start) / 1_000_000;
+
+                start = System.nanoTime();
+                PDDocument document = factory.load(source);
+                for (Step step : pipeline) {
+                    document = step.apply(document);
+                }
+                byte[] fused = save(document);
+                long fusedMs = (System.nanoTime() - start) / 1_000_000;
+
+                System.out.printf(
+                        "%2d steps round %d: per step %6d ms (%6d KB), fused %6d ms (%6d KB)%n",
+                        steps,
+                        round,
+                        perStepMs,
+                        perStep.length / 1024,
+                        fusedMs,
+                        fused.length / 1024);
+            }
+        }
+    }
+
+    private static byte[] save(PDDocument document) throws IOException {
+        try (document) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            factory.save(document, output);
+            return output.toByteArray();
+        }
+    }
+
+    /** Cycles through rotate, page numbers and watermark */
+    private static List<Step> pipeline(int steps) {
+        MockMultipartFile file =
+                new MockMultipartFile("fileInput", "benchmark.pdf", "application/pdf", source);
+        RotationController rotationController = new RotationController(factory);
+        PageNumbersController pageNumbersController = new PageNumbersController(factory);
+        WatermarkController watermarkController =
+                new WatermarkController(factory, tempFileManager, pageRenderService);
+
+        RotatePDFRequest rotate = new RotatePDFRequest();
+        rotate.setFileInput(file);
+        rotate.setAngle(90);
+
+        AddPageNumbersRequest pageNumbers = new AddPageNumbersRequest();
+        pageNumbers.setFileInput(file);
+        pageNumbers.setCustomMargin("medium");
+        pageNumbers.setPosition(8);
+        pageNumbers.setStartingNumber(1);
+        pageNumbers.setFontSize(12);
+        pageNumbers.setFontType("helvetica");
+
+        AddWatermarkRequest watermark = new AddWatermarkRequest();
+        watermark.setFileInput(file);
+        watermark.setWatermarkType("text");
+        watermark.setWatermarkText("Benchmark");
+        watermark.setOpacity(0.5f);
+        watermark.setWidthSpacer(50);
+        watermark.setHeightSpacer(50);
+
+        List<Step> pipeline = new ArrayList<>(steps);
+        for (int i = 0; i < steps; i++) {
+            pipeline.add(
+                    switch (i % 3) {
+                        case 0 -> document -> rotationController.rotate(document, rotate);
+                        case 1 ->
+                                document ->
+                                        pageNumbersController.numberPages(document, pageNumbers);
+                        default -> document -> watermarkController.watermark(document, watermark);
+                    });
+        }
+        return pipeline;
+    }
+}
@@ -0,0 +1,97 @@
+package stirling.software.SPDF.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares a full save against an incremental update after stamping a single page of a large
+ * document. Run with {@code ./gradlew benchmark}; the page count can be changed with {@code
+ * -Dbenchmark.pages=N}.
+ */
+@Tag("benchmark")
+public class IncrementalSaveBenchmark {
+
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 1000);
+    private static final int ROUNDS = 3;
+
+    @TempDir static Path tempDir;
+
+    private static Path source;
+
+    @BeforeAll
+    public static void createLargePdf() throws IOException {
+        source = tempDir.resolve("pages.pdf");
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            for (int i = 0; i < PAGES; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(font, 10);
+                    contentStream.setLeading(12);
+                    contentStream.newLineAtOffset(50, 740);
+                    for (int line = 0; line < 55; line++) {
+                        contentStream.showText("Page " + i + " line " + line + " lorem ipsum");
+                        contentStream.newLine();
+                    }
+                    contentStream.endText();
+                }
+            }
+            document.save(source.toFile());
+        }
+        System.out.printf(
+                "Generated %d page benchmark PDF, %d KB%n", PAGES, Files.size(source) / 1024);
+    }
+
+    @Test
+    public void compareFullAndIncrementalSave() throws IOException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("full save", round, PDDocument::save);
+            report("incremental save", round, PDDocument::saveIncremental);
+        }
+    }
+
+    private interface Saver {
+        void save(PDDocument document, OutputStream output) throws IOException;
+    }
+
+    private void report(String name, int round, Saver saver) throws IOException {
+        try (PDDocument document = Loader.loadPDF(source.toFile())) {
+            PDPage page = document.getPage(0);
+            try (PDPageContentStream contentStream =
+                    new PDPageContentStream(
+                            document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                contentStream.beginText();
+                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 24);
+                contentStream.newLineAtOffset(200, 400);
+                contentStream.showText("APPROVED");
+                contentStream.endText();
+            }
+            document.getDocumentInformation().setTitle("Stamped");
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            saver.save(document, output);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf(
+                    "%-18s round %d: %6d ms, output %7d KB%n",
+                    name, round, elapsedMs, output.size() / 1024);
+        }
+    }
+}
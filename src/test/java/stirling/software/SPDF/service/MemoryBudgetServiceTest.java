@@ -0,0 +1,119 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+import stirling.software.SPDF.service.MemoryBudgetService.OperationType;
+import stirling.software.SPDF.service.MemoryBudgetService.Reservation;
+
+public class MemoryBudgetServiceTest {
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setUp() {
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.DocumentFactory.MemoryBudget settings =
+                applicationProperties.getDocumentFactory().getMemoryBudget();
+        settings.setMaxHeapPercentage(1);
+        settings.setWaitTimeoutSeconds(1);
+    }
+
+    @Test
+    public void testReservationIsReleasedOnClose() throws IOException {
+        MemoryBudgetService service =
+                new MemoryBudgetService(applicationProperties, new SimpleMeterRegistry());
+
+        Reservation reservation = service.reserve(1024, OperationType.EDIT);
+        assertFalse(reservation.isDowngraded());
+        assertEquals(OperationType.EDIT.estimate(1024), service.getReservedBytes());
+        assertEquals(1, service.getActiveReservations());
+
+        reservation.close();
+        reservation.close();
+        assertEquals(0, service.getReservedBytes());
+        assertEquals(0, service.getActiveReservations());
+    }
+
+    @Test
+    public void testExhaustedBudgetDowngrades() throws IOException {
+        MemoryBudgetService service =
+                new MemoryBudgetService(applicationProperties, new SimpleMeterRegistry());
+
+        try (Reservation full = service.reserve(service.getBudgetBytes(), OperationType.EDIT)) {
+            assertEquals(service.getBudgetBytes(), full.getBytes());
+
+            Reservation downgraded = service.reserve(1024, OperationType.READ_ONLY);
+            assertTrue(downgraded.isDowngraded());
+            assertEquals(0, downgraded.getBytes());
+        }
+        assertEquals(0, service.getReservedBytes());
+    }
+
+    @Test
+    public void testExhaustedBudgetRejects() throws IOException {
+        applicationProperties.getDocumentFactory().getMemoryBudget().setOnExhausted("reject");
+        MemoryBudgetService service =
+                new MemoryBudgetService(applicationProperties, new SimpleMeterRegistry());
+
+        try (Reservation full = service.reserve(service.getBudgetBytes(), OperationType.EDIT)) {
+            assertFalse(full.isDowngraded());
+            ServiceOverloadedException exception =
+                    assertThrows(
+                            ServiceOverloadedException.class,
+                            () -> service.reserve(1024, OperationType.READ_ONLY));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+            assertEquals("1", exception.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+    }
+
+    @Test
+    public void testWaitingLoadIsGrantedWhenBudgetIsReleased() throws Exception {
+        applicationProperties.getDocumentFactory().getMemoryBudget().setWaitTimeoutSeconds(10);
+        MemoryBudgetService service =
+                new MemoryBudgetService(applicationProperties, new SimpleMeterRegistry());
+
+        Reservation full = service.reserve(service.getBudgetBytes(), OperationType.EDIT);
+        Thread releaser =
+                new Thread(
+                        () -> {
+                            try {
+                                Thread.sleep(200);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            full.close();
+                        });
+        releaser.start();
+
+        try (Reservation waited = service.reserve(1024, OperationType.READ_ONLY)) {
+            assertFalse(waited.isDowngraded());
+        }
+        releaser.join();
+    }
+
+    @Test
+    public void testDisabledBudgetNeverBlocks() throws IOException {
+        applicationProperties.getDocumentFactory().getMemoryBudget().setEnabled(false);
+        MemoryBudgetService service =
+                new MemoryBudgetService(applicationProperties, new SimpleMeterRegistry());
+
+        try (Reservation reservation = service.reserve(Long.MAX_VALUE / 4, OperationType.EDIT)) {
+            assertFalse(reservation.isDowngraded());
+            assertEquals(0, service.getReservedBytes());
+        }
+    }
+}
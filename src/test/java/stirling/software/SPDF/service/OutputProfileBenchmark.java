@@ -0,0 +1,85 @@
+package stirling.software.SPDF.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares save time and output size of the output profiles on a document written by a producer
+ * without object streams or content compression. Run with {@code ./gradlew benchmark}; the page
+ * count can be changed with {@code -Dbenchmark.pages=N}.
+ */
+@Tag("benchmark")
+public class OutputProfileBenchmark {
+
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 1000);
+    private static final int ROUNDS = 3;
+
+    @TempDir static Path tempDir;
+
+    private static Path source;
+
+    @BeforeAll
+    public static void createUncompressedPdf() throws IOException {
+        source = tempDir.resolve("uncompressed.pdf");
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            for (int i = 0; i < PAGES; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream =
+                        new PDPageContentStream(
+                                document, page, PDPageContentStream.AppendMode.APPEND, false)) {
+                    contentStream.beginText();
+                    contentStream.setFont(font, 10);
+                    contentStream.setLeading(12);
+                    contentStream.newLineAtOffset(50, 740);
+                    for (int line = 0; line < 55; line++) {
+                        contentStream.showText("Page " + i + " line " + line + " lorem ipsum");
+                        contentStream.newLine();
+                    }
+                    contentStream.endText();
+                }
+            }
+            document.save(source.toFile(), CompressParameters.NO_COMPRESSION);
+        }
+        System.out.printf(
+                "Generated %d page benchmark PDF, %d KB%n", PAGES, Files.size(source) / 1024);
+    }
+
+    @Test
+    public void compareOutputProfiles() throws IOException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (PdfOutputProfile profile : PdfOutputProfile.values()) {
+                report(profile, round);
+            }
+        }
+    }
+
+    private void report(PdfOutputProfile profile, int round) throws IOException {
+        CustomPDFDocumentFactory factory =
+                CustomPDFDocumentFactoryTest.createFactory(tempDir, profile.name());
+        try (PDDocument document = factory.load(Files.readAllBytes(source), true)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            factory.save(document, output);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf(
+                    "%-8s round %d: %6d ms, output %7d KB%n",
+                    profile, round, elapsedMs, output.size() / 1024);
+        }
+    }
+}
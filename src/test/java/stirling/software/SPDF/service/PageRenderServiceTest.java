@@ -0,0 +1,204 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.service.PageRenderService.RenderSettings;
+
+public class PageRenderServiceTest {
+
+    private static final int PAGES = 12;
+    private static final int MAX_PAGES_IN_FLIGHT = 2;
+
+    @TempDir Path tempDir;
+
+    private PageRenderService pageRenderService;
+    private PDDocument document;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        applicationProperties.getSystem().getPageRendering().setThreads(4);
+        applicationProperties
+                .getSystem()
+                .getPageRendering()
+                .setMaxPagesInFlight(MAX_PAGES_IN_FLIGHT);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pageRenderService =
+                new PageRenderService(
+                        applicationProperties,
+                        CustomPDFDocumentFactoryTest.createFactory(
+                                applicationProperties, meterRegistry),
+                        new TempFileManager(applicationProperties, meterRegistry),
+                        new CpuBoundExecutor(applicationProperties, meterRegistry),
+                        meterRegistry);
+
+        // Every page has its own width so the images can be told apart
+        document = new PDDocument();
+        for (int i = 0; i < PAGES; i++) {
+            PDPage page = new PDPage(new PDRectangle(100 + 10 * i, 200));
+            if (i % 5 == 3) {
+                page.setRotation(90);
+            }
+            document.addPage(page);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        document.close();
+        pageRenderService.shutdown();
+    }
+
+    @Test
+    public void testPagesArriveInPageOrder() throws IOException {
+        List<Integer> pageIndexes = new ArrayList<>();
+        List<Dimension> sizes = new ArrayList<>();
+        pageRenderService.render(
+                document,
+                RenderSettings.of(72, ImageType.GRAY),
+                (pageIndex, image) -> {
+                    pageIndexes.add(pageIndex);
+                    sizes.add(new Dimension(image.getWidth(), image.getHeight()));
+                });
+
+        assertEquals(PageRenderService.allPages(document), pageIndexes);
+        for (int i = 0; i < PAGES; i++) {
+            assertEquals(PageRenderService.renderedSize(document.getPage(i), 72), sizes.get(i));
+        }
+        assertEquals(new Dimension(200, 130), sizes.get(3));
+    }
+
+    @Test
+    public void testWorkersReadOneSharedSnapshot() throws IOException {
+        List<Long> renderFiles = new ArrayList<>();
+        pageRenderService.render(
+                document,
+                RenderSettings.of(72, ImageType.GRAY),
+                (pageIndex, image) -> {
+                    try (Stream<Path> files = Files.walk(tempDir)) {
+                        renderFiles.add(
+                                files.filter(
+                                                path ->
+                                                        path.getFileName()
+                                                                .toString()
+                                                                .startsWith("render-"))
+                                        .count());
+                    }
+                });
+
+        // No worker copies the snapshot before opening it
+        assertTrue(renderFiles.stream().allMatch(count -> count == 1), renderFiles.toString());
+    }
+
+    @Test
+    public void testRenderedPagesWaitingToBeConsumedAreBounded() throws IOException {
+        AtomicInteger waiting = new AtomicInteger();
+        AtomicInteger maxWaiting = new AtomicInteger();
+        pageRenderService.render(
+                document,
+                PageRenderService.allPages(document),
+                RenderSettings.of(72, ImageType.GRAY),
+                (pageIndex, image) -> {
+                    maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+                    return pageIndex;
+                },
+                (pageIndex, result) -> {
+                    waiting.decrementAndGet();
+                    try {
+                        // A slow consumer, the render threads would run ahead otherwise
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        // The page being handed over to the consumer counts as well
+        assertTrue(maxWaiting.get() <= MAX_PAGES_IN_FLIGHT + 1, "max " + maxWaiting.get());
+    }
+
+    @Test
+    public void testWorkersWaitingForTheConsumerLeaveThePool() throws IOException {
+        List<Integer> nested = new ArrayList<>();
+        assertTimeoutPreemptively(
+                Duration.ofSeconds(30),
+                () ->
+                        pageRenderService.render(
+                                document,
+                                PageRenderService.allPages(document),
+                                RenderSettings.of(72, ImageType.GRAY),
+                                (pageIndex, image) -> pageIndex,
+                                (pageIndex, result) -> {
+                                    // Another render while this one is held up by its
+                                    // consumer, it would never get a pool thread if the
+                                    // paused workers kept theirs
+                                    if (pageIndex == 0) {
+                                        pageRenderService.render(
+                                                document,
+                                                RenderSettings.of(72, ImageType.GRAY),
+                                                (index, image) -> nested.add(index));
+                                    }
+                                }));
+
+        assertEquals(PAGES, nested.size());
+        // Copies of paused workers were closed with the run
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertTrue(
+                    files.noneMatch(path -> path.getFileName().toString().startsWith("render-")));
+        }
+    }
+
+    @Test
+    public void testRenderFailureReachesTheCaller() throws IOException {
+        List<Integer> consumed = new ArrayList<>();
+        IOException e =
+                assertThrows(
+                        IOException.class,
+                        () ->
+                                pageRenderService.render(
+                                        document,
+                                        PageRenderService.allPages(document),
+                                        RenderSettings.of(72, ImageType.GRAY),
+                                        (pageIndex, image) -> {
+                                            if (pageIndex == 5) {
+                                                throw new IOException("page 5");
+                                            }
+                                            return pageIndex;
+                                        },
+                                        (pageIndex, result) -> consumed.add(result)));
+
+        assertEquals("page 5", e.getMessage());
+        assertTrue(consumed.size() <= 5);
+        // The snapshot the render threads opened is gone
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertTrue(
+                    files.noneMatch(path -> path.getFileName().toString().startsWith("render-")));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.service.PageThumbnailCache.CachedDocument;
+
+public class PageThumbnailCacheTest {
+
+    private static final int PAGES_PER_RENDER = 4;
+
+    @TempDir Path tempDir;
+
+    private ApplicationProperties applicationProperties;
+    private MeterRegistry meterRegistry;
+    private PageRenderService pageRenderService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties
+                .getSystem()
+                .getTempFileManagement()
+                .setBaseTmpDir(tempDir.resolve("tmp").toString());
+        applicationProperties.getSystem().getPageRendering().setThreads(2);
+        ApplicationProperties.System.Thumbnails thumbnails =
+                applicationProperties.getSystem().getThumbnails();
+        thumbnails.setStorageDir(tempDir.resolve("thumbnails").toString());
+        thumbnails.setPagesPerRender(PAGES_PER_RENDER);
+        thumbnails.setMaxSizeMB(1);
+        meterRegistry = new SimpleMeterRegistry();
+        pageRenderService =
+                new PageRenderService(
+                        applicationProperties,
+                        CustomPDFDocumentFactoryTest.createFactory(
+                                applicationProperties, meterRegistry),
+                        new TempFileManager(applicationProperties, meterRegistry),
+                        new CpuBoundExecutor(applicationProperties, meterRegistry),
+                        meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pageRenderService.shutdown();
+    }
+
+    private PageThumbnailCache createCache() throws IOException {
+        return new PageThumbnailCache(
+                applicationProperties,
+                pageRenderService,
+                CustomPDFDocumentFactoryTest.createFactory(applicationProperties, meterRegistry),
+                meterRegistry);
+    }
+
+    @Test
+    public void testThumbnailsAreRenderedInBatchesWhenRequested() throws IOException {
+        PageThumbnailCache cache = createCache();
+        byte[] pdf = createPdf(10, 0);
+
+        CachedDocument document = cache.add(upload(pdf));
+        assertEquals(document, cache.add(upload(pdf)));
+        assertEquals(10, document.pageCount());
+        Path directory = tempDir.resolve("thumbnails").resolve(document.documentId());
+        assertEquals(0, countThumbnails(directory));
+
+        BufferedImage thumbnail =
+                ImageIO.read(
+                        new ByteArrayInputStream(cache.getThumbnail(document.documentId(), 5)));
+        // 36 DPI halves the 200x150pt page
+        assertEquals(100, thumbnail.getWidth());
+        assertEquals(75, thumbnail.getHeight());
+        // Pages 5 to 8 were rendered together, the next request is answered from disk
+        assertEquals(PAGES_PER_RENDER, countThumbnails(directory));
+        cache.getThumbnail(document.documentId(), 8);
+        assertEquals(PAGES_PER_RENDER, countThumbnails(directory));
+        assertEquals(1, meterRegistry.counter("stirling.thumbnails.misses").count());
+
+        ResponseStatusException e =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> cache.getThumbnail(document.documentId(), 10));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertNotEquals(
+                cache.getETag(document.documentId(), 5), cache.getETag(document.documentId(), 6));
+    }
+
+    @Test
+    public void testLeastRecentlyViewedDocumentIsEvicted() throws IOException {
+        PageThumbnailCache cache = createCache();
+        // Each document takes more than half of the 1MB budget
+        CachedDocument first = cache.add(upload(createPdf(1, 600 * 1024)));
+        cache.getThumbnail(first.documentId(), 0);
+        CachedDocument second = cache.add(upload(createPdf(1, 600 * 1024 + 1)));
+
+        ResponseStatusException e =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> cache.getThumbnail(first.documentId(), 0));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        assertFalse(Files.exists(tempDir.resolve("thumbnails").resolve(first.documentId())));
+        assertTrue(cache.getThumbnail(second.documentId(), 0).length > 0);
+        assertEquals(1, meterRegistry.counter("stirling.thumbnails.evictions").count());
+    }
+
+    @Test
+    public void testDocumentsLargerThanTheCacheAreNotCached() throws IOException {
+        PageThumbnailCache cache = createCache();
+        CachedDocument small = cache.add(upload(createPdf(1, 0)));
+
+        ResponseStatusException e =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> cache.add(upload(createPdf(1, 1024 * 1024 + 1))));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+        // Neither stored nor making room by evicting others
+        assertTrue(cache.getThumbnail(small.documentId(), 0).length > 0);
+        assertEquals(0, meterRegistry.counter("stirling.thumbnails.evictions").count());
+        try (Stream<Path> stored = Files.list(tempDir.resolve("thumbnails"))) {
+            assertEquals(1, stored.count());
+        }
+    }
+
+    /** Pages of different heights, with an unused stream of random bytes to pad the file */
+    private static byte[] createPdf(int pages, int padding) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage(new PDRectangle(200, 100 + 10 * i)));
+            }
+            if (padding > 0) {
+                byte[] bytes = new byte[padding];
+                new Random(padding).nextBytes(bytes);
+                PDStream stream = new PDStream(document);
+                try (OutputStream out = stream.createOutputStream()) {
+                    out.write(bytes);
+                }
+                document.getPage(0).getCOSObject().setItem(COSName.getPDFName("Padding"), stream);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output);
+            return output.toByteArray();
+        }
+    }
+
+    private static MockMultipartFile upload(byte[] pdf) {
+        return new MockMultipartFile("fileInput", "test.pdf", "application/pdf", pdf);
+    }
+
+    private static long countThumbnails(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".jpg")).count();
+        }
+    }
+}
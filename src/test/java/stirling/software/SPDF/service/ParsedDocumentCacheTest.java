@@ -0,0 +1,105 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.DocumentSummary;
+
+public class ParsedDocumentCacheTest {
+
+    private CustomPDFDocumentFactory pdfDocumentFactory;
+    private ApplicationProperties applicationProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pdfDocumentFactory = mock(CustomPDFDocumentFactory.class);
+        when(pdfDocumentFactory.load(any(MultipartFile.class), eq(true)))
+                .thenAnswer(
+                        invocation -> {
+                            PDDocument document = new PDDocument();
+                            document.addPage(new PDPage(PDRectangle.A4));
+                            document.addPage(new PDPage(PDRectangle.LETTER));
+                            return document;
+                        });
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getDocumentFactory().getParsedDocumentCache().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private ParsedDocumentCache createCache() {
+        return new ParsedDocumentCache(
+                pdfDocumentFactory,
+                new PdfMetadataService(null, null, false, null),
+                applicationProperties,
+                meterRegistry);
+    }
+
+    private MultipartFile upload(String content) {
+        return new MockMultipartFile(
+                "fileInput", "test.pdf", "application/pdf", content.getBytes());
+    }
+
+    @Test
+    public void testSameContentIsParsedOnce() throws IOException {
+        ParsedDocumentCache cache = createCache();
+
+        DocumentSummary first = cache.getSummary(upload("same"));
+        DocumentSummary second = cache.getSummary(upload("same"));
+
+        assertSame(first, second);
+        assertEquals(2, first.getPageCount());
+        assertEquals(PDRectangle.A4.getWidth(), first.getPages().get(0).getMediaBoxWidth());
+        verify(pdfDocumentFactory, times(1)).load(any(MultipartFile.class), eq(true));
+        assertEquals(1, meterRegistry.counter("stirling.document.cache.hits").count());
+        assertEquals(1, meterRegistry.counter("stirling.document.cache.misses").count());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws IOException {
+        applicationProperties.getDocumentFactory().getParsedDocumentCache().setMaxEntries(2);
+        ParsedDocumentCache cache = createCache();
+
+        cache.getSummary(upload("a"));
+        cache.getSummary(upload("b"));
+        cache.getSummary(upload("a"));
+        cache.getSummary(upload("c"));
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(1, meterRegistry.counter("stirling.document.cache.evictions").count());
+        // "a" was used more recently than "b", so it is still cached
+        cache.getSummary(upload("a"));
+        assertEquals(2, meterRegistry.counter("stirling.document.cache.hits").count());
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() throws IOException {
+        applicationProperties.getDocumentFactory().getParsedDocumentCache().setEnabled(false);
+        ParsedDocumentCache cache = createCache();
+
+        cache.getSummary(upload("same"));
+        cache.getSummary(upload("same"));
+
+        verify(pdfDocumentFactory, times(2)).load(any(MultipartFile.class), eq(true));
+        assertEquals(0, cache.getEntryCount());
+    }
+}
@@ -0,0 +1,146 @@
+package stirling.software.SPDF.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.examples.util.DeletingMemoryMappedFile;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares parse time and resident memory of the buffered file reader against the memory-mapped
+ * reader used for very large inputs. Run with {@code ./gradlew benchmark}; the page count of the
+ * generated document can be changed with {@code -Dbenchmark.pages=N}.
+ */
+@Tag("benchmark")
+public class PdfLoadingBenchmark {
+
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 80);
+    private static final int ROUNDS = 3;
+
+    @TempDir static Path tempDir;
+
+    private static Path source;
+
+    @BeforeAll
+    public static void createLargePdf() throws IOException {
+        source = tempDir.resolve("large.pdf");
+        Random random = new Random(1);
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            // Noise does not compress, so every page adds ~3 MB to the file
+            BufferedImage noise = new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB);
+            for (int i = 0; i < PAGES; i++) {
+                for (int y = 0; y < noise.getHeight(); y++) {
+                    for (int x = 0; x < noise.getWidth(); x++) {
+                        noise.setRGB(x, y, random.nextInt());
+                    }
+                }
+                PDPage page = new PDPage();
+                document.addPage(page);
+                PDImageXObject image = LosslessFactory.createFromImage(document, noise);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.drawImage(image, 0, 0, 612, 792);
+                }
+            }
+            document.save(source.toFile());
+        }
+        System.out.printf(
+                "Generated %d page benchmark PDF, %d MB%n",
+                PAGES, Files.size(source) / (1024 * 1024));
+    }
+
+    @Test
+    public void compareBufferedAndMemoryMappedReaders() throws IOException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            report(
+                    "RandomAccessReadBufferedFile",
+                    round,
+                    () -> new RandomAccessReadBufferedFile(source));
+            report(
+                    "DeletingMemoryMappedFile",
+                    round,
+                    () -> {
+                        Path copy = tempDir.resolve("mapped-" + System.nanoTime() + ".pdf");
+                        Files.copy(source, copy);
+                        return new DeletingMemoryMappedFile(copy.toFile());
+                    });
+        }
+    }
+
+    private interface ReaderFactory {
+        RandomAccessRead open() throws IOException;
+    }
+
+    private void report(String name, int round, ReaderFactory factory) throws IOException {
+        System.gc();
+        RandomAccessRead reader = factory.open();
+        long rssBefore = residentSetSize();
+        long start = System.nanoTime();
+        long decodedBytes = 0;
+        try (PDDocument document =
+                Loader.loadPDF(reader, "", null, null, IOUtils.createTempFileOnlyStreamCache())) {
+            for (PDPage page : document.getPages()) {
+                decodedBytes += decodeXObjects(page.getResources());
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long rssAfter = residentSetSize();
+        System.out.printf(
+                "%-30s round %d: %6d ms, decoded %5d MB, RSS delta %6d MB%n",
+                name,
+                round,
+                elapsedMs,
+                decodedBytes / (1024 * 1024),
+                (rssAfter - rssBefore) / (1024 * 1024));
+    }
+
+    private long decodeXObjects(PDResources resources) throws IOException {
+        long total = 0;
+        for (COSName name : resources.getXObjectNames()) {
+            PDXObject xObject = resources.getXObject(name);
+            PDStream stream = xObject.getStream();
+            try (InputStream in = stream.createInputStream()) {
+                total += in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return total;
+    }
+
+    /** Resident set size from /proc, or 0 where it is not available */
+    private static long residentSetSize() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return 0;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,138 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.model.exception.ServiceOverloadedException;
+
+public class TempFileManagerTest {
+
+    @TempDir Path tempDir;
+
+    private TempFileManager createManager(long maxTotalSizeMB) throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.System.TempFileManagement settings =
+                applicationProperties.getSystem().getTempFileManagement();
+        settings.setBaseTmpDir(tempDir.toString());
+        settings.setMaxTotalSizeMB(maxTotalSizeMB);
+        settings.setQuotaWaitSeconds(1);
+        return new TempFileManager(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testRequestScratchDirectoryIsRemovedWhenRequestCompletes() throws IOException {
+        TempFileManager manager = createManager(0);
+        ServletRequestAttributes attributes =
+                new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        Path first = manager.createTempFile("first-", ".pdf");
+        Path second = manager.createTempFile("second-", ".pdf");
+        Path scratch = first.getParent();
+        assertEquals(scratch, second.getParent());
+        assertTrue(scratch.getFileName().toString().startsWith("request-"));
+
+        attributes.requestCompleted();
+        assertFalse(Files.exists(scratch));
+    }
+
+    @Test
+    public void testFilesOutsideRequestGoToBackgroundDirectory() throws IOException {
+        TempFileManager manager = createManager(0);
+
+        Path file = manager.createTempFile("job-", ".pdf");
+
+        assertEquals(manager.getBaseDirectory().resolve("background"), file.getParent());
+    }
+
+    @Test
+    public void testLeftoverScratchDirectoriesAreRemovedOnStartup() throws IOException {
+        Path leftover = Files.createDirectories(tempDir.resolve("request-12345"));
+        Files.writeString(leftover.resolve("input.pdf"), "data");
+
+        createManager(0);
+
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    public void testExhaustedQuotaThrowsServiceOverloaded() throws Exception {
+        TempFileManager manager = createManager(1);
+        Files.write(manager.createTempFile("big-", ".bin"), new byte[2 * 1024 * 1024]);
+        // Let the cached usage expire
+        Thread.sleep(1100);
+
+        assertThrows(
+                ServiceOverloadedException.class, () -> manager.createTempFile("next-", ".bin"));
+    }
+
+    @Test
+    public void testReservedSpaceCountsBeforeItIsWritten() throws IOException {
+        TempFileManager manager = createManager(1);
+        manager.createTempFile("upload-", ".pdf", 1024 * 1024);
+
+        // Nothing has been written yet, the reservation alone fills the quota
+        ServiceOverloadedException e =
+                assertThrows(
+                        ServiceOverloadedException.class,
+                        () -> manager.createTempFile("next-", ".bin", 1));
+        assertEquals("1", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testSweeperRemovesOnlyOldFiles() throws IOException {
+        TempFileManager manager = createManager(0);
+        Path background = manager.getBaseDirectory().resolve("background");
+        // Left behind by a job that never deleted them
+        Path stale = Files.createFile(background.resolve("stale.pdf"));
+        Path fresh = Files.createFile(background.resolve("fresh.pdf"));
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        manager.sweepOrphans();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(fresh));
+    }
+
+    @Test
+    public void testSweeperKeepsBackgroundFilesInUse() throws IOException {
+        TempFileManager manager = createManager(0);
+        Path inUse = manager.createTempFile("job-", ".pdf");
+        Files.setLastModifiedTime(inUse, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        manager.sweepOrphans();
+        assertTrue(Files.exists(inUse));
+
+        manager.delete(inUse);
+        Path leftover = Files.createFile(inUse);
+        Files.setLastModifiedTime(
+                leftover, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        manager.sweepOrphans();
+        assertFalse(Files.exists(leftover));
+    }
+}
@@ -0,0 +1,86 @@
+package stirling.software.SPDF.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+
+public class UploadSpoolTest {
+
+    @TempDir Path tempDir;
+
+    private UploadSpool uploadSpool;
+
+    private final byte[] content = "%PDF-1.7 upload".getBytes();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        uploadSpool =
+                new UploadSpool(
+                        new TempFileManager(applicationProperties, new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testUploadIsSpooledOncePerRequest() throws IOException {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest()));
+        MockMultipartFile file =
+                spy(new MockMultipartFile("file", "input.pdf", "application/pdf", content));
+
+        Path first = uploadSpool.link(file, "first-", ".pdf");
+        Path second = uploadSpool.link(file, "second-", ".pdf");
+
+        verify(file, times(1)).transferTo(any(File.class));
+        assertNotEquals(first, second);
+        assertArrayEquals(content, Files.readAllBytes(first));
+        assertArrayEquals(content, Files.readAllBytes(second));
+
+        // Consumers own their link, deleting it leaves the spool for the next one
+        Files.delete(first);
+        assertArrayEquals(content, Files.readAllBytes(uploadSpool.link(file, "third-", ".pdf")));
+        verify(file, times(1)).transferTo(any(File.class));
+    }
+
+    @Test
+    public void testUploadOutsideRequestIsWrittenDirectly() throws IOException {
+        MockMultipartFile file =
+                spy(new MockMultipartFile("file", "input.pdf", "application/pdf", content));
+
+        Path link = uploadSpool.link(file, "job-", ".pdf");
+
+        assertArrayEquals(content, Files.readAllBytes(link));
+        assertTrue(link.getFileName().toString().startsWith("job-"));
+        try (var children = Files.list(link.getParent())) {
+            assertFalse(children.anyMatch(p -> p.getFileName().toString().startsWith("upload-")));
+        }
+    }
+}
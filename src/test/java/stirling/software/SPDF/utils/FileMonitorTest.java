@@ -0,0 +1,51 @@
+package stirling.software.SPDF.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import stirling.software.SPDF.config.RuntimePathConfig;
+
+public class FileMonitorTest {
+
+    @TempDir Path watchedFolders;
+
+    @Test
+    public void testListenersAreToldOnceAboutReadyFiles() throws Exception {
+        RuntimePathConfig runtimePathConfig = mock(RuntimePathConfig.class);
+        when(runtimePathConfig.getPipelineWatchedFoldersPath())
+                .thenReturn(watchedFolders.toString());
+        Path folder = Files.createDirectory(watchedFolders.resolve("compress"));
+        Path first = Files.writeString(folder.resolve("first.pdf"), "first");
+        FileMonitor fileMonitor = new FileMonitor(path -> true, runtimePathConfig);
+        List<Set<Path>> notifications = new ArrayList<>();
+        fileMonitor.addReadyListener(notifications::add);
+
+        // Discovered in the first iteration, ready once unchanged in the second
+        fileMonitor.trackFiles();
+        assertTrue(notifications.isEmpty());
+        fileMonitor.trackFiles();
+        assertEquals(List.of(Set.of(first)), notifications);
+
+        // Still ready, but nothing new
+        fileMonitor.trackFiles();
+        assertEquals(1, notifications.size());
+
+        Path second = Files.writeString(folder.resolve("second.pdf"), "second");
+        Thread.sleep(200);
+        fileMonitor.trackFiles();
+        assertEquals(1, notifications.size());
+        fileMonitor.trackFiles();
+        assertEquals(List.of(Set.of(first), Set.of(second)), notifications);
+    }
+}
@@ -5,13 +5,31 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
 import stirling.software.SPDF.model.api.converters.HTMLToPdfRequest;
+import stirling.software.SPDF.service.TempFileManager;
 
 public class FileToPdfTest {
 
+    @TempDir Path tempDir;
+
+    private TempFileManager tempFileManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        tempFileManager = new TempFileManager(applicationProperties, new SimpleMeterRegistry());
+    }
+
     /**
      * Test the HTML to PDF conversion. This test expects an IOException when an empty HTML input is
      * provided.
@@ -29,7 +47,12 @@ public class FileToPdfTest {
                         IOException.class,
                         () ->
                                 FileToPdf.convertHtmlToPdf(
-                                        "/path/", request, fileBytes, fileName, disableSanitize));
+                                        "/path/",
+                                        request,
+                                        fileBytes,
+                                        fileName,
+                                        disableSanitize,
+                                        tempFileManager));
         assertNotNull(thrown);
     }
 
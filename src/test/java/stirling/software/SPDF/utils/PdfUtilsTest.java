@@ -5,19 +5,37 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import stirling.software.SPDF.model.ApplicationProperties;
+import stirling.software.SPDF.service.CpuBoundExecutor;
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.PageRenderService;
+import stirling.software.SPDF.service.TempFileManager;
+
 public class PdfUtilsTest {
 
     @Test
@@ -49,4 +67,46 @@ public class PdfUtilsTest {
 
         assertTrue(PdfUtils.hasImagesOnPage(page));
     }
+
+    @Test
+    void testConvertFromPdfToZipWritesOneEntryPerPage(@TempDir Path tempDir) throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSystem().getTempFileManagement().setBaseTmpDir(tempDir.toString());
+        applicationProperties.getSystem().getPageRendering().setThreads(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < 3; i++) {
+            document.addPage(new PDPage(new PDRectangle(100, 100)));
+        }
+        CustomPDFDocumentFactory pdfDocumentFactory = Mockito.mock(CustomPDFDocumentFactory.class);
+        Mockito.when(pdfDocumentFactory.load(Mockito.any(byte[].class))).thenReturn(document);
+        PageRenderService pageRenderService =
+                new PageRenderService(
+                        applicationProperties,
+                        pdfDocumentFactory,
+                        new TempFileManager(applicationProperties, meterRegistry),
+                        new CpuBoundExecutor(applicationProperties, meterRegistry),
+                        meterRegistry);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PdfUtils.convertFromPdfToZip(
+                pdfDocumentFactory,
+                pageRenderService,
+                new byte[0],
+                "png",
+                ImageType.RGB,
+                72,
+                "doc",
+                output);
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip =
+                new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals(List.of("doc_1.png", "doc_2.png", "doc_3.png"), entries);
+    }
 }
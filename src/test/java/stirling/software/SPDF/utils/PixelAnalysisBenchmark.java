@@ -0,0 +1,150 @@
+package stirling.software.SPDF.utils;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+
+/**
+ * Compares the per-pixel loops blank page and QR code detection used before against {@link
+ * PixelAnalysisUtils}, including the cost of rendering in color or gray. Run with {@code ./gradlew
+ * benchmark}; the number of analyzed pages can be changed with {@code -Dbenchmark.pages=N}.
+ */
+@Tag("benchmark")
+public class PixelAnalysisBenchmark {
+
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 200);
+    private static final int ROUNDS = 3;
+
+    private interface Analysis {
+        Object analyze(BufferedImage image);
+    }
+
+    @Test
+    public void compareBlankPageDetection() throws IOException {
+        try (PDDocument document = createScannedPage()) {
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage rgb = renderer.renderImageWithDPI(0, 30, ImageType.RGB);
+            BufferedImage gray = renderer.renderImageWithDPI(0, 30, ImageType.GRAY);
+            for (int round = 1; round <= ROUNDS; round++) {
+                report("getRGB per pixel", round, rgb, image -> legacyIsBlank(image, 10, 99.9));
+                report(
+                        "raster, RGB render",
+                        round,
+                        rgb,
+                        image -> PixelAnalysisUtils.isMostlyWhite(image, 10, 99.9));
+                report(
+                        "raster, gray render",
+                        round,
+                        gray,
+                        image -> PixelAnalysisUtils.isMostlyWhite(image, 10, 99.9));
+            }
+            reportRender(renderer, 30);
+        }
+    }
+
+    @Test
+    public void compareQrCodeLuminance() throws IOException {
+        try (PDDocument document = createScannedPage()) {
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage rgb = renderer.renderImageWithDPI(0, 150, ImageType.RGB);
+            BufferedImage gray = renderer.renderImageWithDPI(0, 150, ImageType.GRAY);
+            for (int round = 1; round <= ROUNDS; round++) {
+                report("int[] to byte[] copy", round, rgb, PixelAnalysisBenchmark::legacySource);
+                report("raster, RGB render", round, rgb, PixelAnalysisUtils::luminanceSource);
+                report("raster, gray render", round, gray, PixelAnalysisUtils::luminanceSource);
+            }
+            reportRender(renderer, 150);
+        }
+    }
+
+    private static void report(String name, int round, BufferedImage image, Analysis analysis) {
+        Object result = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < PAGES; i++) {
+            result = analysis.analyze(image);
+        }
+        double perPageMs = (System.nanoTime() - start) / 1_000_000.0 / PAGES;
+        System.out.printf(
+                "%-22s round %d: %8.3f ms/page (%dx%d, %s)%n",
+                name,
+                round,
+                perPageMs,
+                image.getWidth(),
+                image.getHeight(),
+                result instanceof Boolean ? result : "source");
+    }
+
+    private static void reportRender(PDFRenderer renderer, int dpi) throws IOException {
+        for (ImageType type : new ImageType[] {ImageType.RGB, ImageType.GRAY}) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                renderer.renderImageWithDPI(0, dpi, type);
+            }
+            System.out.printf(
+                    "render %-15s at %3d DPI: %8.3f ms/page%n",
+                    type, dpi, (System.nanoTime() - start) / 1_000_000.0 / 10);
+        }
+    }
+
+    /** The loop BlankPageController ran before: the blue channel of every pixel via getRGB */
+    private static boolean legacyIsBlank(BufferedImage image, int threshold, double whitePercent) {
+        int whitePixels = 0;
+        int totalPixels = image.getWidth() * image.getHeight();
+        for (int i = 0; i < image.getHeight(); i++) {
+            for (int j = 0; j < image.getWidth(); j++) {
+                int color = image.getRGB(j, i) & 0xFF;
+                if (color >= 255 - threshold) {
+                    whitePixels++;
+                }
+            }
+        }
+        return (whitePixels / (double) totalPixels) * 100 >= whitePercent;
+    }
+
+    /** The copy AutoSplitPdfController made of every RGB page before */
+    private static LuminanceSource legacySource(BufferedImage image) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] newPixels = new byte[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            newPixels[i] = (byte) (pixels[i] & 0xff);
+        }
+        return new PlanarYUVLuminanceSource(
+                newPixels,
+                image.getWidth(),
+                image.getHeight(),
+                0,
+                0,
+                image.getWidth(),
+                image.getHeight(),
+                false);
+    }
+
+    /** A mostly white page with a dark block near the top, like a scan with a header */
+    private static PDDocument createScannedPage() throws IOException {
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage(PDRectangle.A4);
+        document.addPage(page);
+        try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+            contentStream.setNonStrokingColor(Color.DARK_GRAY);
+            contentStream.addRect(50, 700, 300, 80);
+            contentStream.fill();
+            contentStream.setNonStrokingColor(new Color(250, 250, 250));
+            contentStream.addRect(0, 0, 595, 300);
+            contentStream.fill();
+        }
+        return document;
+    }
+}
@@ -0,0 +1,86 @@
+package stirling.software.SPDF.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.zxing.LuminanceSource;
+
+public class PixelAnalysisUtilsTest {
+
+    @Test
+    public void testWhiteCountMatchesEveryPixelCounted() {
+        Random random = new Random(42);
+        for (int type :
+                new int[] {
+                    BufferedImage.TYPE_BYTE_GRAY,
+                    BufferedImage.TYPE_INT_RGB,
+                    BufferedImage.TYPE_3BYTE_BGR
+                }) {
+            BufferedImage image = new BufferedImage(37, 23, type);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    int value = random.nextBoolean() ? 255 : random.nextInt(256);
+                    image.setRGB(x, y, new Color(value, value, value).getRGB());
+                }
+            }
+            byte[] luminance = PixelAnalysisUtils.luminance(image);
+            int white = 0;
+            for (byte value : luminance) {
+                if ((value & 0xFF) >= 245) {
+                    white++;
+                }
+            }
+            // Half a pixel below and above the exact percentage, clear of rounding
+            double halfPixel = 50.0 / luminance.length;
+            double whitePercent = white * 100.0 / luminance.length;
+
+            assertTrue(PixelAnalysisUtils.isMostlyWhite(image, 10, whitePercent - halfPixel));
+            assertFalse(PixelAnalysisUtils.isMostlyWhite(image, 10, whitePercent + halfPixel));
+        }
+    }
+
+    @Test
+    public void testGrayRastersAreReadWithoutCopying() {
+        BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(128, 128, 128));
+        g.fillRect(0, 0, 20, 10);
+        g.dispose();
+
+        byte[] raster = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        assertSame(raster, PixelAnalysisUtils.luminance(image));
+        // Drawn colors are stored as their luminance, getRGB would brighten them
+        assertEquals(128, raster[0] & 0xFF);
+    }
+
+    @Test
+    public void testSubimagesAndRegionsOnlySeeTheirOwnPixels() {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 40, 40);
+        g.setColor(Color.BLACK);
+        g.fillRect(20, 20, 20, 20);
+        g.dispose();
+
+        assertTrue(PixelAnalysisUtils.isMostlyWhite(image.getSubimage(0, 0, 20, 40), 10, 100));
+        assertFalse(PixelAnalysisUtils.isMostlyWhite(image.getSubimage(20, 0, 20, 40), 10, 60));
+
+        LuminanceSource region =
+                PixelAnalysisUtils.luminanceSource(image, new Rectangle(20, 20, 30, 30));
+        assertEquals(20, region.getWidth());
+        assertEquals(20, region.getHeight());
+        assertEquals(0, region.getRow(0, null)[0]);
+    }
+}
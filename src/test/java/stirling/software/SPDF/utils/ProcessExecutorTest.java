@@ -1,6 +1,7 @@
 package stirling.software.SPDF.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -8,10 +9,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import stirling.software.SPDF.model.exception.RequestCancelledException;
+
 public class ProcessExecutorTest {
 
     private ProcessExecutor processExecutor;
@@ -62,4 +68,39 @@ public class ProcessExecutorTest {
                         || errorMessage.contains("No such file or directory"),
                 "Unexpected error message: " + errorMessage);
     }
+
+    @Test
+    public void testCancelledRequestKillsProcessTree() {
+        // The shell waits for a child, both have to go for the output readers to finish
+        List<String> command = List.of("sh", "-c", "sleep 60 & wait");
+        CancellationToken token = new CancellationToken();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.schedule(token::cancel, 500, TimeUnit.MILLISECONDS);
+        CancellationToken previous = CancellationToken.bind(token);
+        long start = System.nanoTime();
+        try {
+            assertThrows(
+                    RequestCancelledException.class,
+                    () -> processExecutor.runCommandWithOutputHandling(command));
+        } finally {
+            CancellationToken.restore(previous);
+            scheduler.shutdownNow();
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+        assertEquals(1, token.getKilledProcesses());
+        assertFalse(CancellationToken.current().isCancelled());
+    }
+
+    @Test
+    public void testCancelledTokenSkipsRemainingPages() {
+        CancellationToken token = new CancellationToken();
+        token.throwIfCancelled(10);
+        token.cancel();
+
+        assertThrows(RequestCancelledException.class, () -> token.throwIfCancelled(7));
+        assertEquals(7, token.getSkippedPages());
+        CancellationToken.NONE.cancel();
+        assertFalse(CancellationToken.NONE.isCancelled());
+    }
 }
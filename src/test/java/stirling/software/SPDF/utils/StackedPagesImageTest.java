@@ -0,0 +1,79 @@
+package stirling.software.SPDF.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import stirling.software.SPDF.service.PageRenderService.RenderedPages;
+
+public class StackedPagesImageTest {
+
+    private static final List<Color> COLORS = List.of(Color.RED, Color.GREEN, Color.BLUE);
+    private static final List<Dimension> SIZES =
+            List.of(new Dimension(40, 30), new Dimension(20, 10), new Dimension(40, 25));
+
+    @Test
+    public void testPngIsWrittenPageByPage() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(
+                new StackedPagesImage(pages(), SIZES, BufferedImage.TYPE_INT_ARGB, null),
+                "png",
+                output);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(40, image.getWidth());
+        assertEquals(65, image.getHeight());
+        assertEquals(Color.RED.getRGB(), image.getRGB(0, 0));
+        assertEquals(Color.RED.getRGB(), image.getRGB(39, 29));
+        // The narrow page is centered on a transparent background
+        assertEquals(0, image.getRGB(5, 35) >>> 24);
+        assertEquals(Color.GREEN.getRGB(), image.getRGB(10, 30));
+        assertEquals(Color.GREEN.getRGB(), image.getRGB(29, 39));
+        assertEquals(0, image.getRGB(30, 39) >>> 24);
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(0, 40));
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(39, 64));
+    }
+
+    @Test
+    public void testRowsCannotBeReadBackwards() {
+        StackedPagesImage image =
+                new StackedPagesImage(pages(), SIZES, BufferedImage.TYPE_INT_RGB, Color.WHITE);
+        image.getData(new Rectangle(0, 50, 40, 1));
+        assertThrows(IllegalStateException.class, () -> image.getData(new Rectangle(0, 5, 40, 1)));
+    }
+
+    private static RenderedPages<BufferedImage> pages() {
+        Iterator<Color> colors = COLORS.iterator();
+        Iterator<Dimension> sizes = SIZES.iterator();
+        return new RenderedPages<>() {
+            @Override
+            public BufferedImage next() {
+                Dimension size = sizes.next();
+                BufferedImage page =
+                        new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = page.createGraphics();
+                g.setColor(colors.next());
+                g.fillRect(0, 0, size.width, size.height);
+                g.dispose();
+                return page;
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+}
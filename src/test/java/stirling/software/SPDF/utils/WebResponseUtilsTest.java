@@ -1,22 +1,40 @@
 package stirling.software.SPDF.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 
+import stirling.software.SPDF.service.CustomPDFDocumentFactory;
+import stirling.software.SPDF.service.CustomPDFDocumentFactoryTest;
+
 public class WebResponseUtilsTest {
 
+    @TempDir Path tempDir;
+
     @Test
     public void testBoasToWebResponse() {
         try {
@@ -94,12 +112,14 @@ public class WebResponseUtilsTest {
     @Test
     public void testPdfDocToWebResponse() {
         try {
+            CustomPDFDocumentFactory pdfDocumentFactory =
+                    CustomPDFDocumentFactoryTest.createFactory(tempDir, "balanced");
             PDDocument document = new PDDocument();
             document.addPage(new org.apache.pdfbox.pdmodel.PDPage());
             String docName = "sample.pdf";
 
-            ResponseEntity<byte[]> responseEntity =
-                    WebResponseUtils.pdfDocToWebResponse(document, docName);
+            ResponseEntity<Resource> responseEntity =
+                    WebResponseUtils.pdfDocToWebResponse(document, docName, pdfDocumentFactory);
 
             assertNotNull(responseEntity);
             assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -109,9 +129,62 @@ public class WebResponseUtilsTest {
             assertNotNull(headers);
             assertEquals(MediaType.APPLICATION_PDF, headers.getContentType());
             assertNotNull(headers.getContentDisposition());
+            assertEquals(responseEntity.getBody().contentLength(), headers.getContentLength());
 
         } catch (IOException e) {
             fail("Exception thrown: " + e.getMessage());
         }
     }
+
+    @Test
+    public void testLargeDocumentsSpillIntoTheScratchDirectory() throws IOException {
+        CustomPDFDocumentFactory pdfDocumentFactory =
+                CustomPDFDocumentFactoryTest.createFactory(tempDir, "fast");
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage();
+        document.addPage(page);
+        // Random bytes do not compress, the saved file is larger than the in-memory threshold
+        byte[] padding = new byte[11 * 1024 * 1024];
+        new Random(1).nextBytes(padding);
+        PDStream stream = new PDStream(document);
+        try (OutputStream out = stream.createOutputStream()) {
+            out.write(padding);
+        }
+        page.getCOSObject().setItem(COSName.getPDFName("Padding"), stream);
+
+        ResponseEntity<Resource> responseEntity =
+                WebResponseUtils.pdfDocToWebResponse(document, "large.pdf", pdfDocumentFactory);
+
+        Resource body = responseEntity.getBody();
+        Path spill = body.getFile().toPath();
+        assertTrue(spill.startsWith(tempDir));
+        assertEquals(Files.size(spill), responseEntity.getHeaders().getContentLength());
+        // Left for the request cleanup, the body can be read more than once, e.g. for ranges
+        try (InputStream in = body.getInputStream()) {
+            in.readAllBytes();
+        }
+        assertTrue(Files.exists(spill));
+        try (PDDocument saved = Loader.loadPDF(spill.toFile())) {
+            assertEquals(1, saved.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void testFileToWebResponseLeavesFileForCleanup() throws IOException {
+        Path file = Files.createTempFile(tempDir, "stirling-response-test", ".zip");
+        Files.write(file, new byte[] {1, 2, 3, 4});
+
+        ResponseEntity<Resource> responseEntity =
+                WebResponseUtils.fileToWebResponse(
+                        file, "sample.zip", MediaType.APPLICATION_OCTET_STREAM);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(4, responseEntity.getHeaders().getContentLength());
+        for (int i = 0; i < 2; i++) {
+            try (InputStream in = responseEntity.getBody().getInputStream()) {
+                assertArrayEquals(new byte[] {1, 2, 3, 4}, in.readAllBytes());
+            }
+        }
+        assertTrue(Files.exists(file));
+    }
 }